@@ -0,0 +1,75 @@
+package com.tuempresa.proyecto.demo1.benchmark;
+
+import com.tuempresa.proyecto.demo1.game.GameLogic;
+import com.tuempresa.proyecto.demo1.model.Fruta;
+import com.tuempresa.proyecto.demo1.model.GameState;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste del tick del servidor: lógica, aparición de frutas y snapshot para la red.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameLogicBenchmark {
+
+    @Param({"128", "512"})
+    public int ancho;
+
+    @Param({"4", "32"})
+    public int jugadores;
+
+    @Param({"8", "64"})
+    public int longitud;
+
+    private Partida partida;
+    private GameLogic logica;
+
+    @Setup
+    public void setUp() {
+        Partida.silenciarLogs();
+        partida = new Partida(ancho, jugadores, longitud);
+        logica = new GameLogic(new Random(42));
+        logica.actualizar(partida.estado, partida.acciones); // Primer tick: índice de ocupación y frutas iniciales
+    }
+
+    @Benchmark
+    public GameState actualizar() {
+        partida.prepararAcciones();
+        logica.actualizar(partida.estado, partida.acciones);
+        return partida.estado;
+    }
+
+    @Benchmark
+    public Fruta generarFruta() {
+        logica.generarFruta(partida.estado);
+        // Se retira enseguida para que el número de frutas, y con él el trabajo, no crezca.
+        List<Fruta> frutas = partida.estado.getFrutas();
+        Fruta fruta = frutas.remove(frutas.size() - 1);
+        partida.estado.getOcupacion().quitarFruta(fruta.getCoordenada());
+        return fruta;
+    }
+
+    @Benchmark
+    public GameStateSnapshot toSnapshotDto() {
+        return partida.estado.toSnapshotDto();
+    }
+}
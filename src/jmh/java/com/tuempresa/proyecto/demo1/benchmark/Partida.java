@@ -0,0 +1,111 @@
+package com.tuempresa.proyecto.demo1.benchmark;
+
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.Direccion;
+import com.tuempresa.proyecto.demo1.model.GamePhase;
+import com.tuempresa.proyecto.demo1.model.GameState;
+import com.tuempresa.proyecto.demo1.model.Snake;
+import com.tuempresa.proyecto.demo1.util.Logger;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Partida estable para benchmarks: cada serpiente ocupa por completo un anillo cuadrado y lo
+ * recorre en sentido horario, entrando cada tick en la celda que deja su cola. Así la partida
+ * puede avanzar indefinidamente sin muertes ni crecimiento, y cada tick hace el mismo trabajo.
+ * Las frutas aparecen fuera de los anillos, donde ninguna serpiente llega a comerlas.
+ */
+public final class Partida {
+
+    public final GameState estado;
+    public final ConcurrentHashMap<String, Direccion> acciones = new ConcurrentHashMap<>();
+    private final Direccion[] direccionPorCelda; // Siguiente paso horario en cada celda de un anillo
+    private final int ancho;
+
+    /**
+     * @param ancho     lado del tablero (cuadrado)
+     * @param jugadores número de serpientes
+     * @param longitud  longitud de cada serpiente; múltiplo de 4 y al menos 8 (perímetro del anillo)
+     */
+    public Partida(int ancho, int jugadores, int longitud) {
+        if (longitud < 8 || longitud % 4 != 0) {
+            throw new IllegalArgumentException("La longitud debe ser múltiplo de 4 y al menos 8: " + longitud);
+        }
+        int lado = longitud / 4 + 1;
+        int bloque = lado + 1; // Una celda de separación para que queden celdas libres para frutas
+        int anillosPorFila = ancho / bloque;
+        if (anillosPorFila * anillosPorFila < jugadores) {
+            throw new IllegalArgumentException(String.format(
+                    "No caben %d serpientes de longitud %d en un tablero de %dx%d.", jugadores, longitud, ancho, ancho));
+        }
+
+        this.ancho = ancho;
+        this.estado = new GameState(ancho, ancho);
+        this.direccionPorCelda = new Direccion[ancho * ancho];
+        for (int i = 0; i < jugadores; i++) {
+            List<Coordenada> anillo = anillo((i % anillosPorFila) * bloque, (i / anillosPorFila) * bloque, lado);
+            // Cabeza en anillo[0]; el cuerpo la sigue en sentido antihorario.
+            List<Coordenada> cuerpo = new ArrayList<>(anillo.size());
+            cuerpo.add(anillo.get(0));
+            for (int j = anillo.size() - 1; j > 0; j--) {
+                cuerpo.add(anillo.get(j));
+            }
+            Snake snake = new Snake("Jugador-" + i, anillo.get(0));
+            snake.setCuerpo(cuerpo);
+            estado.getSerpientes().add(snake);
+        }
+        estado.setGamePhase(GamePhase.IN_PROGRESS);
+        prepararAcciones();
+    }
+
+    // Celdas del anillo en sentido horario, anotando en cada una la dirección hacia la siguiente.
+    private List<Coordenada> anillo(int x0, int y0, int lado) {
+        List<Coordenada> celdas = new ArrayList<>();
+        int x = x0;
+        int y = y0;
+        Direccion[] tramos = {Direccion.DERECHA, Direccion.ABAJO, Direccion.IZQUIERDA, Direccion.ARRIBA};
+        for (Direccion tramo : tramos) {
+            for (int paso = 0; paso < lado - 1; paso++) {
+                celdas.add(new Coordenada(x, y));
+                direccionPorCelda[y * ancho + x] = tramo;
+                switch (tramo) {
+                    case DERECHA:   x++; break;
+                    case ABAJO:     y++; break;
+                    case IZQUIERDA: x--; break;
+                    default:        y--; break;
+                }
+            }
+        }
+        return celdas;
+    }
+
+    // Dirección de cada serpiente para el próximo tick, según la celda de su cabeza.
+    public void prepararAcciones() {
+        for (Snake s : estado.getSerpientes()) {
+            int cabeza = s.getCuerpo().firstPacked();
+            acciones.put(s.getIdJugador(), direccionPorCelda[Coordenada.packedY(cabeza) * ancho + Coordenada.packedX(cabeza)]);
+        }
+    }
+
+    /**
+     * El Logger escribe cada mensaje en consola y en fichero; en un benchmark eso mediría la
+     * E/S y llenaría la salida de JMH. Se descarta la consola y el fichero va a un temporal.
+     */
+    public static void silenciarLogs() {
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+        Logger.setLogFile(new File(System.getProperty("java.io.tmpdir"), "snake-benchmark.log").getPath());
+    }
+}
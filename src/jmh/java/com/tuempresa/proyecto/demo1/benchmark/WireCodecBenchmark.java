@@ -0,0 +1,121 @@
+package com.tuempresa.proyecto.demo1.benchmark;
+
+import com.tuempresa.proyecto.demo1.game.GameLogic;
+import com.tuempresa.proyecto.demo1.model.Snake;
+import com.tuempresa.proyecto.demo1.net.codec.PlayerIdTable;
+import com.tuempresa.proyecto.demo1.net.codec.SnapshotHistory;
+import com.tuempresa.proyecto.demo1.net.codec.WireCodec;
+import com.tuempresa.proyecto.demo1.net.codec.WireReader;
+import com.tuempresa.proyecto.demo1.net.codec.WireWriter;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codificación y decodificación de los frames de estado: snapshot completo y delta de un tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireCodecBenchmark {
+
+    @Param({"128", "512"})
+    public int ancho;
+
+    @Param({"4", "32"})
+    public int jugadores;
+
+    @Param({"8", "64"})
+    public int longitud;
+
+    private final WireWriter writer = new WireWriter(4096);
+    private final WireReader reader = new WireReader();
+    private final PlayerIdTable serverIds = new PlayerIdTable();
+    private final PlayerIdTable clientIds = new PlayerIdTable();
+    private final SnapshotHistory clientHistory = new SnapshotHistory(4);
+    private GameStateSnapshot base;
+    private GameStateSnapshot actual;
+    private byte[] snapshotFrame;
+    private byte[] deltaFrame;
+
+    @Setup
+    public void setUp() throws IOException {
+        Partida.silenciarLogs();
+        Partida partida = new Partida(ancho, jugadores, longitud);
+        GameLogic logica = new GameLogic(new Random(42));
+        for (Snake s : partida.estado.getSerpientes()) {
+            serverIds.intern(s.getIdJugador());
+        }
+        writer.reset();
+        serverIds.writeAllDefinitions(writer);
+        byte[] ids = writer.toByteArray();
+        reader.wrap(ids, 0, ids.length);
+        skipHeader(reader);
+        WireCodec.decodePlayerIds(reader, clientIds);
+
+        logica.actualizar(partida.estado, partida.acciones);
+        partida.estado.advanceTick();
+        base = partida.estado.toSnapshotDto();
+        partida.prepararAcciones();
+        logica.actualizar(partida.estado, partida.acciones);
+        partida.estado.advanceTick();
+        actual = partida.estado.toSnapshotDto();
+        clientHistory.add(base);
+
+        writer.reset();
+        WireCodec.encodeSnapshot(writer, actual, serverIds);
+        snapshotFrame = writer.toByteArray();
+        writer.reset();
+        WireCodec.encodeDelta(writer, base, actual, serverIds);
+        deltaFrame = writer.toByteArray();
+    }
+
+    private static void skipHeader(WireReader reader) throws IOException {
+        reader.readInt(); // Longitud
+        reader.readByte(); // Tipo
+    }
+
+    @Benchmark
+    public int encodeSnapshot() {
+        writer.reset();
+        WireCodec.encodeSnapshot(writer, actual, serverIds);
+        return writer.size();
+    }
+
+    @Benchmark
+    public GameStateSnapshot decodeSnapshot() throws IOException {
+        reader.wrap(snapshotFrame, 0, snapshotFrame.length);
+        skipHeader(reader);
+        return WireCodec.decodeSnapshot(reader, clientIds);
+    }
+
+    @Benchmark
+    public int encodeDelta() {
+        writer.reset();
+        WireCodec.encodeDelta(writer, base, actual, serverIds);
+        return writer.size();
+    }
+
+    @Benchmark
+    public GameStateSnapshot decodeDelta() throws IOException {
+        reader.wrap(deltaFrame, 0, deltaFrame.length);
+        skipHeader(reader);
+        return WireCodec.decodeDelta(reader, clientHistory, clientIds);
+    }
+}
@@ -0,0 +1,64 @@
+package com.tuempresa.proyecto.demo1.game;
+
+import com.tuempresa.proyecto.demo1.benchmark.Partida;
+import com.tuempresa.proyecto.demo1.model.BotDifficulty;
+import com.tuempresa.proyecto.demo1.model.Direccion;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decisión de un bot sobre un snapshot ya indexado, como en {@link BotSwarm#tick}. Está en el
+ * paquete game porque {@link BotBrain} y {@link BotView} son package-private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BotBenchmark {
+
+    @Param({"128", "512"})
+    public int ancho;
+
+    @Param({"4", "32"})
+    public int jugadores;
+
+    @Param({"8", "64"})
+    public int longitud;
+
+    @Param({"FACIL", "INTERMEDIO", "MAESTRO"})
+    public BotDifficulty dificultad;
+
+    private BotBrain brain;
+    private final BotView vista = new BotView();
+    private final BotPathfinder buscador = new BotPathfinder();
+
+    @Setup
+    public void setUp() {
+        Partida.silenciarLogs();
+        Partida partida = new Partida(ancho, jugadores, longitud);
+        new GameLogic(new Random(42)).actualizar(partida.estado, partida.acciones); // Genera las frutas
+        GameStateSnapshot snapshot = partida.estado.toSnapshotDto();
+        vista.cargar(snapshot);
+        brain = new BotBrain("Jugador-0", dificultad, new Random(42));
+    }
+
+    @Benchmark
+    public Direccion decidir() {
+        return brain.decidir(vista, buscador);
+    }
+}
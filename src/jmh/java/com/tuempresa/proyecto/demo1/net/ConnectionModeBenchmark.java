@@ -0,0 +1,273 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.tuempresa.proyecto.demo1.game.GameConfig;
+import com.tuempresa.proyecto.demo1.game.TickPhaseStats;
+import com.tuempresa.proyecto.demo1.model.Direccion;
+import com.tuempresa.proyecto.demo1.net.codec.WireCodec;
+import com.tuempresa.proyecto.demo1.util.Logger;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carga de conexiones contra un servidor con el transporte de hilo por conexión, para comparar
+ * hilos de plataforma y virtuales ({@code -Dsnake.virtualThreads=true}, JDK 21+). No es un
+ * benchmark JMH: arranca el servidor en este proceso y abre N clientes desde un único selector.
+ *
+ * Los clientes {@code idle} solo envían el HELLO y leen lo que llega; los {@code active} además
+ * confirman cada SNAPSHOT/DELTA y cambian de dirección en cada tick. Al final imprime líneas
+ * [METRIC] con el tiempo de conexión, hilos de plataforma, heap usado y los p99 del tick.
+ *
+ *   mvn -P jmh test-compile exec:exec@connections -Dconnections.args="5000 idle 30"
+ *   mvn -P jmh,virtual-threads test-compile exec:exec@connections -Dconnections.args="5000 active 30"
+ */
+public final class ConnectionModeBenchmark {
+
+    private static final int MAX_CONNECTING = 64; // El backlog del ServerSocket es pequeño: conexiones en vuelo a la vez
+    private static final long CONNECT_TIMEOUT_SECONDS = 180;
+    private static final int HEADER_MAX = FrameCodec.HEADER_BYTES + 1 + 10; // Longitud, tipo y tick (varlong)
+    private static final Direccion[] DIRECCIONES = {Direccion.ARRIBA, Direccion.DERECHA, Direccion.ABAJO, Direccion.IZQUIERDA};
+
+    private ConnectionModeBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        boolean active = args.length > 1 && "active".equalsIgnoreCase(args[1]);
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        Logger.setLevel(Logger.LogLevel.ERROR);
+
+        GameServer server = new GameServer(false);
+        server.start();
+        Thread.sleep(500); // El listener de jugadores arranca en su propio hilo
+        String mode = ConnectionThreads.isVirtual() ? "virtual" : "platform";
+        System.out.printf("Modo %s, %d conexiones %s, %d s%n", mode, connections, active ? "activas" : "inactivas", seconds);
+
+        try (Selector selector = Selector.open()) {
+            List<Client> clients = new ArrayList<>(connections);
+            long connectStart = System.nanoTime();
+            connectAll(selector, clients, connections);
+            // Un cliente activo puede ser expulsado por lento antes de que acaben de entrar los demás:
+            // se espera a que cada conexión haya entrado o se haya cerrado, con un límite.
+            long connectDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CONNECT_TIMEOUT_SECONDS);
+            while (connectedPlayers(server) + closedClients(clients) < connections && System.nanoTime() < connectDeadline) {
+                pump(selector, active, 10);
+            }
+            long connectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart);
+
+            for (GameRoom room : server.getRooms()) {
+                room.getTickStats().reiniciar();
+            }
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            long nextTurn = System.nanoTime();
+            long received = 0;
+            int turn = 0;
+            while (System.nanoTime() < end) {
+                if (active && System.nanoTime() >= nextTurn) {
+                    byte[] frame = WireCodec.encodeDirection(DIRECCIONES[turn++ % DIRECCIONES.length]);
+                    for (Client client : clients) {
+                        client.send(frame);
+                    }
+                    nextTurn += TimeUnit.MILLISECONDS.toNanos(GameConfig.MILIS_POR_TICK);
+                }
+                received += pump(selector, active, GameConfig.MILIS_POR_TICK / 2);
+            }
+
+            System.gc();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            long totalP99 = 0;
+            long sendP99 = 0;
+            for (GameRoom room : server.getRooms()) {
+                totalP99 = Math.max(totalP99, room.getTickStats().get(TickPhaseStats.Phase.TOTAL).percentil(0.99));
+                sendP99 = Math.max(sendP99, room.getTickStats().get(TickPhaseStats.Phase.CLIENT_SEND).percentil(0.99));
+            }
+            System.out.printf("[METRIC] mode=%s connections=%d load=%s connect_ms=%d%n", mode, connections, active ? "active" : "idle", connectMillis);
+            System.out.printf("[METRIC] platform_threads=%d peak_platform_threads=%d%n",
+                    ManagementFactory.getThreadMXBean().getThreadCount(), ManagementFactory.getThreadMXBean().getPeakThreadCount());
+            System.out.printf("[METRIC] heap_used_mb=%.1f%n", memory.getHeapMemoryUsage().getUsed() / (1024.0 * 1024.0));
+            System.out.printf("[METRIC] tick_total_p99_us=%.1f client_send_p99_us=%.1f (peor sala)%n", totalP99 / 1000.0, sendP99 / 1000.0);
+            System.out.printf("[METRIC] state_frames_per_client_per_s=%.1f still_connected=%d closed_by_server=%d%n",
+                    received / (double) seconds / connections, connectedPlayers(server), closedClients(clients));
+            for (Client client : clients) {
+                client.channel.close();
+            }
+        } finally {
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    private static void connectAll(Selector selector, List<Client> clients, int connections) throws IOException {
+        InetSocketAddress address = new InetSocketAddress("localhost", GameConfig.DEFAULT_PORT);
+        int pending = 0;
+        while (clients.size() < connections || pending > 0) {
+            while (pending < MAX_CONNECTING && clients.size() < connections) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Client client = new Client(channel, "bench-" + clients.size());
+                clients.add(client);
+                if (channel.connect(address)) {
+                    client.connected(selector);
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT, client);
+                    pending++;
+                }
+            }
+            selector.select(10);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Client client = (Client) key.attachment();
+                if (key.isConnectable()) {
+                    client.channel.finishConnect();
+                    client.connected(selector);
+                    pending--;
+                } else {
+                    client.handle(key, false);
+                }
+            }
+        }
+    }
+
+    // Atiende el selector durante como mucho {@code millis}; devuelve los frames de estado recibidos.
+    private static long pump(Selector selector, boolean active, long millis) throws IOException {
+        selector.select(Math.max(1, millis));
+        long states = 0;
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (key.isValid()) {
+                states += ((Client) key.attachment()).handle(key, active);
+            }
+        }
+        return states;
+    }
+
+    private static int connectedPlayers(GameServer server) {
+        int players = 0;
+        for (GameRoom room : server.getRooms()) {
+            players += room.getConnectedPlayers();
+        }
+        return players;
+    }
+
+    private static int closedClients(List<Client> clients) {
+        int closed = 0;
+        for (Client client : clients) {
+            if (client.closed) closed++;
+        }
+        return closed;
+    }
+
+    private static final class Client {
+        private static final ByteBuffer READ = ByteBuffer.allocateDirect(64 * 1024); // Compartido: un solo hilo
+
+        final SocketChannel channel;
+        private final String playerId;
+        private final ByteBuffer out = ByteBuffer.allocate(256);
+        private final byte[] header = new byte[HEADER_MAX];
+        private int headerBytes;
+        private int skip; // Bytes del frame actual que quedan por descartar
+        private SelectionKey key;
+        boolean closed; // El servidor cerró la conexión
+
+        Client(SocketChannel channel, String playerId) {
+            this.channel = channel;
+            this.playerId = playerId;
+        }
+
+        void connected(Selector selector) throws IOException {
+            key = channel.register(selector, SelectionKey.OP_READ, this);
+            send(WireCodec.encodeHello(playerId));
+        }
+
+        // Si el buffer de salida está lleno el frame se descarta entero: nunca se parte un frame.
+        void send(byte[] frame) throws IOException {
+            if (key == null || !key.isValid() || out.remaining() < frame.length) return;
+            out.put(frame);
+            flush();
+        }
+
+        private void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+        int handle(SelectionKey key, boolean active) throws IOException {
+            try {
+                if (key.isWritable()) {
+                    flush();
+                }
+                if (!key.isReadable()) return 0;
+                READ.clear();
+                if (channel.read(READ) < 0) {
+                    key.cancel();
+                    closed = true;
+                    return 0;
+                }
+                READ.flip();
+                return parse(active);
+            } catch (IOException e) {
+                key.cancel(); // El servidor cerró la conexión (expulsión por lento, por ejemplo)
+                closed = true;
+                return 0;
+            }
+        }
+
+        // Recorre los frames sin copiarlos: solo guarda la cabecera para conocer el tipo y el tick.
+        private int parse(boolean active) throws IOException {
+            int states = 0;
+            while (READ.hasRemaining()) {
+                if (skip > 0) {
+                    int n = Math.min(skip, READ.remaining());
+                    READ.position(READ.position() + n);
+                    skip -= n;
+                    continue;
+                }
+                header[headerBytes++] = READ.get();
+                if (headerBytes < FrameCodec.HEADER_BYTES) continue;
+                int length = ((header[0] & 0xFF) << 24) | ((header[1] & 0xFF) << 16) | ((header[2] & 0xFF) << 8) | (header[3] & 0xFF);
+                int read = headerBytes - FrameCodec.HEADER_BYTES;
+                if (read == 0) continue;
+                byte type = header[FrameCodec.HEADER_BYTES];
+                boolean state = type == WireCodec.SNAPSHOT || type == WireCodec.DELTA;
+                boolean complete = read == length || headerBytes == HEADER_MAX || !state
+                        || (read >= 2 && (header[headerBytes - 1] & 0x80) == 0);
+                if (!complete) continue;
+                if (state) {
+                    states++;
+                    if (active) {
+                        send(WireCodec.encodeAck(readTick()));
+                    }
+                }
+                skip = length - read;
+                headerBytes = 0;
+            }
+            return states;
+        }
+
+        private long readTick() {
+            long value = 0;
+            for (int i = FrameCodec.HEADER_BYTES + 1, shift = 0; i < headerBytes; i++, shift += 7) {
+                value |= (long) (header[i] & 0x7F) << shift;
+            }
+            return value;
+        }
+    }
+}
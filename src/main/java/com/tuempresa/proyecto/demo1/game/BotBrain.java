@@ -0,0 +1,232 @@
+package com.tuempresa.proyecto.demo1.game;
+
+import com.tuempresa.proyecto.demo1.model.BotDifficulty;
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.Direccion;
+import com.tuempresa.proyecto.demo1.util.Logger;
+import com.tuempresa.proyecto.demo1.util.Logger.LogCategory;
+
+import java.util.Random;
+
+/**
+ * Toma de decisiones de un bot, sin red ni hilos propios: recibe la vista del tick y devuelve
+ * la dirección elegida. La usan tanto {@link Bot} (un cliente por socket) como
+ * {@link BotSwarm} (miles de bots en el mismo proceso).
+ *
+ * INTERMEDIO y MAESTRO eligen su objetivo y su ruta con un {@link BotPathfinder}, que quien
+ * llama aporta: uno por hilo, no uno por bot. Todas las dificultades descartan los movimientos
+ * que llevan a una bolsa con menos espacio libre que el necesario para seguir con vida.
+ * Cada decisión tiene un presupuesto de {@link GameConfig#BOT_DECISION_BUDGET_NANOS}; si se
+ * agota, el bot se queda con la heurística barata de mirar una sola celda por delante.
+ *
+ * No es thread-safe: cada decisión de un mismo bot debe ocurrir después de la anterior.
+ */
+final class BotBrain {
+
+    // Celdas libres de más, sobre la longitud propia, para considerar que un movimiento tiene salida.
+    private static final int MARGEN_ESPACIO = 8;
+
+    private final String botId;
+    private final BotDifficulty difficulty;
+    private final Random random;
+    private Direccion direccionActual = Direccion.DERECHA;
+
+    BotBrain(String botId, BotDifficulty difficulty, Random random) {
+        this.botId = botId;
+        this.difficulty = difficulty;
+        this.random = random;
+    }
+
+    String getBotId() {
+        return botId;
+    }
+
+    BotDifficulty getDifficulty() {
+        return difficulty;
+    }
+
+    Direccion getDireccionActual() {
+        return direccionActual;
+    }
+
+    Direccion decidir(BotView vista, BotPathfinder buscador) {
+        int yo = vista.indice(botId);
+        if (yo < 0 || vista.serpiente(yo).cuerpo.isEmpty()) {
+            Logger.debug(LogCategory.BOT, () -> "Bot " + botId + " no se encontró en el juego (probablemente murió).");
+            return direccionActual;
+        }
+
+        buscador.empezarDecision(System.nanoTime() + GameConfig.BOT_DECISION_BUDGET_NANOS);
+        switch (difficulty) {
+            case FACIL:
+                moveEasy(vista, buscador, yo);
+                break;
+            case INTERMEDIO:
+                moveIntermediate(vista, buscador, yo);
+                break;
+            case MAESTRO:
+                moveMaster(vista, buscador, yo);
+                break;
+        }
+        return direccionActual;
+    }
+
+    private void moveEasy(BotView vista, BotPathfinder buscador, int yo) {
+        Direccion currentDirection = direccionActual;
+        int head = vista.cabeza(yo);
+        int requerido = espacioRequerido(vista, yo);
+
+        // Con una pequeña probabilidad, intentar un giro aleatorio para un comportamiento menos predecible.
+        if (random.nextInt(100) < 10) { // 10% de probabilidad de un giro "aleatorio"
+            Direccion randomTurn = random.nextBoolean() ? getLeftTurn(currentDirection) : getRightTurn(currentDirection);
+            if (!isCollision(vista, yo, head, randomTurn) && hasRoom(vista, buscador, yo, head, randomTurn, requerido)) {
+                Logger.debug(LogCategory.BOT, () -> "Bot " + botId + " (" + difficulty + ") haciendo un giro aleatorio a " + randomTurn);
+                direccionActual = randomTurn;
+                return;
+            }
+        }
+
+        // Estrategia de evasión: probar la dirección actual, luego la derecha, luego la izquierda.
+        // Gana la primera con espacio suficiente; si ninguna lo tiene, la que deja más espacio.
+        Direccion[] possibleDirections = {
+            currentDirection,
+            getRightTurn(currentDirection),
+            getLeftTurn(currentDirection)
+        };
+
+        Direccion firstSafe = null;
+        Direccion best = null;
+        int bestSpace = -1;
+        for (Direccion nextDir : possibleDirections) {
+            if (isCollision(vista, yo, head, nextDir)) continue;
+            if (firstSafe == null) firstSafe = nextDir;
+            int space = buscador.espacioLibre(vista, yo, next(head, nextDir), requerido);
+            if (space < 0) {
+                best = firstSafe; // Sin presupuesto: heurística de una celda, la primera dirección segura
+                break;
+            }
+            if (space > bestSpace) {
+                best = nextDir;
+                bestSpace = space;
+            }
+            if (space >= requerido) break;
+        }
+
+        if (best == null) {
+            // Si todas las direcciones posibles llevan a una colisión, no hacemos nada (el bot morirá).
+            Logger.debug(LogCategory.BOT, () -> "Bot " + botId + " (" + difficulty + ") está atrapado. No hay movimientos seguros.");
+            return;
+        }
+        Direccion chosen = best;
+        if (chosen != currentDirection) {
+            Logger.debug(LogCategory.BOT, () -> "Bot " + botId + " (" + difficulty + ") cambiando de " + currentDirection + " a " + chosen + " para evitar colisión.");
+            direccionActual = chosen;
+        }
+    }
+
+    private void moveIntermediate(BotView vista, BotPathfinder buscador, int yo) {
+        // 1. Ruta más corta hacia la fruta alcanzable más cercana; el primer paso ya es seguro
+        Direccion directionToFruit = buscador.haciaFruta(vista, yo);
+
+        if (directionToFruit != null && hasRoom(vista, buscador, yo, vista.cabeza(yo), directionToFruit, espacioRequerido(vista, yo))) {
+            Direccion currentDirection = direccionActual;
+            if (directionToFruit != currentDirection) {
+                Logger.debug(LogCategory.BOT, () -> "Bot " + botId + " (" + difficulty + ") va por fruta. Cambiando de " + currentDirection + " a " + directionToFruit);
+                direccionActual = directionToFruit;
+            }
+            return;
+        }
+
+        // 2. If no fruit is reachable within the search budget, or the route leads into a dead end, fall back to easy move
+        moveEasy(vista, buscador, yo);
+    }
+
+    private void moveMaster(BotView vista, BotPathfinder buscador, int yo) {
+        // 1. Find the closest enemy reachable by a free path
+        int enemy = buscador.enemigoMasCercano(vista, yo);
+
+        if (enemy != -1) {
+            // 2. Predict enemy's next move (simple prediction)
+            int enemyHead = vista.cabeza(enemy);
+            int predictedEnemyNextPos = next(enemyHead, getSnakeDirection(enemyHead, vista.cuello(enemy)));
+
+            // 3. Route to the attack position: get in front of the enemy
+            Direccion directionToAttack = buscador.haciaCelda(vista, yo, predictedEnemyNextPos);
+
+            if (directionToAttack != null && hasRoom(vista, buscador, yo, vista.cabeza(yo), directionToAttack, espacioRequerido(vista, yo))) {
+                if (directionToAttack != direccionActual) {
+                    String enemyId = vista.serpiente(enemy).idJugador;
+                    Logger.debug(LogCategory.BOT, () -> "Bot " + botId + " (" + difficulty + ") va a atacar a " + enemyId + ". Cambiando a " + directionToAttack);
+                    direccionActual = directionToAttack;
+                }
+                return;
+            }
+        }
+
+        // 4. If no enemy or no route to the attack position, behave as intermediate
+        moveIntermediate(vista, buscador, yo);
+    }
+
+    // Espacio libre que necesita la serpiente para no quedar encerrada: su longitud más un margen.
+    private static int espacioRequerido(BotView vista, int yo) {
+        return vista.serpiente(yo).cuerpo.size() + MARGEN_ESPACIO;
+    }
+
+    // True si al moverse en esa dirección queda espacio suficiente. Sin presupuesto no se descarta nada.
+    private static boolean hasRoom(BotView vista, BotPathfinder buscador, int yo, int head, Direccion direction, int requerido) {
+        int space = buscador.espacioLibre(vista, yo, next(head, direction), requerido);
+        return space < 0 || space >= requerido;
+    }
+
+    private static Direccion getSnakeDirection(int head, int neck) {
+        if (neck == -1) {
+            return Direccion.DERECHA; // No info, assume right
+        }
+        int dx = Coordenada.packedX(head) - Coordenada.packedX(neck);
+        int dy = Coordenada.packedY(head) - Coordenada.packedY(neck);
+
+        if (dx == 1) return Direccion.DERECHA;
+        if (dx == -1) return Direccion.IZQUIERDA;
+        if (dy == 1) return Direccion.ABAJO;
+        if (dy == -1) return Direccion.ARRIBA;
+
+        return Direccion.DERECHA; // Should not happen
+    }
+
+    static int next(int packed, Direccion direction) {
+        int x = Coordenada.packedX(packed);
+        int y = Coordenada.packedY(packed);
+        switch (direction) {
+            case ARRIBA: return Coordenada.pack(x, y - 1);
+            case ABAJO: return Coordenada.pack(x, y + 1);
+            case IZQUIERDA: return Coordenada.pack(x - 1, y);
+            case DERECHA: return Coordenada.pack(x + 1, y);
+            default: return packed;
+        }
+    }
+
+    private static boolean isCollision(BotView vista, int yo, int head, Direccion direction) {
+        int next = next(head, direction);
+        return vista.esColision(Coordenada.packedX(next), Coordenada.packedY(next), yo);
+    }
+
+    private static Direccion getLeftTurn(Direccion current) {
+        switch (current) {
+            case ARRIBA: return Direccion.IZQUIERDA;
+            case DERECHA: return Direccion.ARRIBA;
+            case ABAJO: return Direccion.DERECHA;
+            case IZQUIERDA: return Direccion.ABAJO;
+            default: return Direccion.IZQUIERDA; // Fallback
+        }
+    }
+
+    private static Direccion getRightTurn(Direccion current) {
+        switch (current) {
+            case ARRIBA: return Direccion.DERECHA;
+            case DERECHA: return Direccion.ABAJO;
+            case ABAJO: return Direccion.IZQUIERDA;
+            case IZQUIERDA: return Direccion.ARRIBA;
+            default: return Direccion.DERECHA; // Fallback
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.tuempresa.proyecto.demo1.game;
+
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.Direccion;
+
+import java.util.Arrays;
+
+/**
+ * Búsqueda en anchura sobre la rejilla de un {@link BotView}, acotada a un número máximo de
+ * celdas exploradas. Devuelve solo el primer paso de la ruta más corta: cada celda visitada
+ * hereda el primer paso de la celda desde la que se llegó, así que no hace falta reconstruir
+ * el camino. También mide el espacio libre alcanzable desde una celda ({@link #espacioLibre}),
+ * para no meterse en callejones sin salida.
+ *
+ * La cola, las marcas de visitado y los primeros pasos se reservan una vez y se reutilizan en
+ * cada búsqueda; las marcas llevan un número de generación para no tener que limpiarlas. Una
+ * decisión no reserva memoria. No es thread-safe: cada hilo que decide usa su propia instancia.
+ *
+ * Cada decisión tiene un plazo ({@link #empezarDecision}). Pasado el plazo, las búsquedas
+ * devuelven "sin resultado" y {@link #sinTiempo} queda a true hasta la siguiente decisión, para
+ * que el bot use la heurística barata.
+ *
+ * Las colas de otras serpientes que avanzan este tick se consideran libres en toda la ruta, no
+ * solo en el primer paso. Es una aproximación: en pocos ticks esas celdas se liberan igualmente.
+ */
+final class BotPathfinder {
+
+    private static final Direccion[] DIRECCIONES = {Direccion.ARRIBA, Direccion.ABAJO, Direccion.IZQUIERDA, Direccion.DERECHA};
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+
+    // Objetivos especiales; cualquier valor >= 0 es el índice de una celda concreta.
+    private static final int FRUTA = -1;
+    private static final int ENEMIGO = -2;
+
+    private static final int CELDAS_POR_CONSULTA_DE_RELOJ = 64; // System.nanoTime() no es gratis
+
+    private final int[] cola;
+    private int[] marca = new int[0]; // Generación en la que se visitó cada celda
+    private byte[] primerPaso = new byte[0]; // Índice en DIRECCIONES del primer paso hacia cada celda
+    private int generacion;
+    private int encontrada = -1; // Celda en la que terminó la última búsqueda con éxito
+    private long[] visitadas = new long[0]; // Bitset del relleno; se limpia celda a celda al terminar
+    private long plazo; // System.nanoTime() en el que vence la decisión en curso
+    private boolean conPlazo; // Sin empezarDecision (pruebas, herramientas) no hay límite
+    private boolean sinTiempo;
+    private long decisionesSinTiempo;
+
+    BotPathfinder() {
+        this(GameConfig.BOT_PATH_MAX_NODES);
+    }
+
+    BotPathfinder(int maxNodos) {
+        this.cola = new int[Math.max(1, maxNodos)];
+    }
+
+    // Fija el plazo de la decisión que empieza (un instante de System.nanoTime()).
+    void empezarDecision(long plazoNanos) {
+        this.plazo = plazoNanos;
+        this.conPlazo = true;
+        this.sinTiempo = false;
+    }
+
+    // True si la decisión en curso ya agotó su plazo.
+    boolean sinTiempo() {
+        return sinTiempo;
+    }
+
+    // Decisiones que agotaron su plazo desde que se creó el buscador.
+    long getDecisionesSinTiempo() {
+        return decisionesSinTiempo;
+    }
+
+    private boolean plazoVencido() {
+        if (!sinTiempo && conPlazo && System.nanoTime() - plazo > 0) {
+            sinTiempo = true;
+            decisionesSinTiempo++;
+        }
+        return sinTiempo;
+    }
+
+    // Primer paso hacia la fruta alcanzable más cercana, o null si no hay ninguna dentro del presupuesto.
+    Direccion haciaFruta(BotView vista, int yo) {
+        return buscar(vista, yo, FRUTA);
+    }
+
+    // Primer paso hacia la celda empaquetada, o null si está ocupada, fuera del tablero o demasiado lejos.
+    Direccion haciaCelda(BotView vista, int yo, int packed) {
+        int x = Coordenada.packedX(packed);
+        int y = Coordenada.packedY(packed);
+        if (!vista.dentro(x, y)) {
+            return null;
+        }
+        return buscar(vista, yo, y * vista.getAncho() + x);
+    }
+
+    // Índice de la serpiente cuya cabeza es la más cercana por un camino libre, o -1.
+    int enemigoMasCercano(BotView vista, int yo) {
+        return buscar(vista, yo, ENEMIGO) == null ? -1 : vista.serpienteEn(encontrada);
+    }
+
+    private Direccion buscar(BotView vista, int yo, int objetivo) {
+        if (sinTiempo) {
+            return null;
+        }
+        int ancho = vista.getAncho();
+        int total = ancho * vista.getAlto();
+        if (marca.length != total) {
+            marca = new int[total];
+            primerPaso = new byte[total];
+            generacion = 0;
+        }
+        if (++generacion == 0) { // Tras 2^32 búsquedas las marcas viejas volverían a parecer actuales
+            Arrays.fill(marca, 0);
+            generacion = 1;
+        }
+
+        int cabeza = vista.cabeza(yo);
+        int inicioX = Coordenada.packedX(cabeza);
+        int inicioY = Coordenada.packedY(cabeza);
+        if (cabeza == -1 || !vista.dentro(inicioX, inicioY)) {
+            return null;
+        }
+        int inicio = inicioY * ancho + inicioX;
+        marca[inicio] = generacion;
+        cola[0] = inicio;
+        int leidas = 0;
+        int escritas = 1;
+
+        while (leidas < escritas) {
+            if (leidas > 0 && leidas % CELDAS_POR_CONSULTA_DE_RELOJ == 0 && plazoVencido()) {
+                return null;
+            }
+            int celda = cola[leidas++];
+            int x = celda % ancho;
+            int y = celda / ancho;
+            for (int d = 0; d < DIRECCIONES.length; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!vista.dentro(nx, ny)) continue;
+                int vecina = ny * ancho + nx;
+                if (marca[vecina] == generacion) continue;
+                marca[vecina] = generacion;
+                byte paso = celda == inicio ? (byte) d : primerPaso[celda];
+
+                if (objetivo == ENEMIGO) {
+                    int otra = vista.serpienteEn(vecina);
+                    if (otra >= 0 && otra != yo && vista.cabeza(otra) == Coordenada.pack(nx, ny)) {
+                        encontrada = vecina;
+                        return DIRECCIONES[paso];
+                    }
+                }
+                if (vista.esColision(vecina, yo)) continue;
+                primerPaso[vecina] = paso;
+                if (objetivo == FRUTA ? vista.hayFruta(vecina) : vecina == objetivo) {
+                    encontrada = vecina;
+                    return DIRECCIONES[paso];
+                }
+                if (escritas == cola.length) {
+                    return null; // Presupuesto agotado
+                }
+                cola[escritas++] = vecina;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cuenta las celdas libres alcanzables desde la celda empaquetada (incluida), deteniéndose
+     * al llegar a {@code limite}: basta con saber si hay sitio suficiente, no cuánto exactamente.
+     * La celda de partida debe ser libre. Devuelve -1 si se agota el plazo de la decisión.
+     */
+    int espacioLibre(BotView vista, int yo, int packed, int limite) {
+        if (sinTiempo) {
+            return -1;
+        }
+        int ancho = vista.getAncho();
+        int palabras = (ancho * vista.getAlto() + 63) >>> 6;
+        if (visitadas.length != palabras) {
+            visitadas = new long[palabras];
+        }
+        limite = Math.min(limite, cola.length);
+        int inicio = Coordenada.packedY(packed) * ancho + Coordenada.packedX(packed);
+        visitadas[inicio >>> 6] |= 1L << inicio;
+        cola[0] = inicio;
+        int leidas = 0;
+        int escritas = 1;
+        try {
+            while (leidas < escritas && escritas < limite) {
+                if (leidas > 0 && leidas % CELDAS_POR_CONSULTA_DE_RELOJ == 0 && plazoVencido()) {
+                    return -1;
+                }
+                int celda = cola[leidas++];
+                int x = celda % ancho;
+                int y = celda / ancho;
+                for (int d = 0; d < DIRECCIONES.length && escritas < limite; d++) {
+                    int nx = x + DX[d];
+                    int ny = y + DY[d];
+                    if (!vista.dentro(nx, ny)) continue;
+                    int vecina = ny * ancho + nx;
+                    if ((visitadas[vecina >>> 6] & (1L << vecina)) != 0) continue;
+                    if (vista.esColision(vecina, yo)) continue;
+                    visitadas[vecina >>> 6] |= 1L << vecina;
+                    cola[escritas++] = vecina;
+                }
+            }
+            return escritas;
+        } finally {
+            // Solo se limpian las palabras tocadas: el coste es proporcional al relleno, no al tablero.
+            for (int i = 0; i < escritas; i++) {
+                visitadas[cola[i] >>> 6] = 0L;
+            }
+        }
+    }
+}
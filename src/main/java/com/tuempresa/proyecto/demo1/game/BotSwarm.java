@@ -0,0 +1,282 @@
+package com.tuempresa.proyecto.demo1.game;
+
+import com.tuempresa.proyecto.demo1.model.BotDifficulty;
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.Direccion;
+import com.tuempresa.proyecto.demo1.model.GamePhase;
+import com.tuempresa.proyecto.demo1.model.GameState;
+import com.tuempresa.proyecto.demo1.model.Snake;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import com.tuempresa.proyecto.demo1.util.Logger;
+import com.tuempresa.proyecto.demo1.util.Logger.LogCategory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Enjambre de bots para pruebas de carga: miles de {@link BotBrain} en una sola JVM.
+ *
+ * En modo en proceso no hay sockets ni Swing. Quien lleva el bucle de juego llama a
+ * {@link #tick} con el snapshot de cada tick; el enjambre lo indexa una sola vez
+ * ({@link BotView}), reparte las decisiones en bloques entre un pool fijo de hilos (cada bloque
+ * con su propio {@link BotPathfinder}) y entrega
+ * las direcciones que cambian por un {@link InputPort} (por ejemplo, el mapa de acciones que
+ * recibe {@link GameLogic#actualizar}).
+ *
+ * En modo loopback ({@link #connectLoopback}) cada bot es un {@link Bot} con su socket, para
+ * ejercitar también la red del servidor. Es mucho más caro: un hilo por bot.
+ */
+public final class BotSwarm implements AutoCloseable {
+
+    // Pila reducida para los hilos de los bots loopback: solo leen frames y deciden.
+    private static final long LOOPBACK_STACK_BYTES = 256 * 1024;
+    private static final int SEPARACION = 6; // Celdas entre las posiciones iniciales del arnés de carga
+    private static final int TICKS_POR_INFORME = 50;
+
+    /** Por donde el enjambre entrega las direcciones elegidas. Se llama desde varios hilos a la vez. */
+    public interface InputPort {
+        void direccion(String botId, Direccion direccion);
+    }
+
+    private final int hilos;
+    private final ExecutorService workers;
+    private final Random random;
+    private final List<BotBrain> brains = new ArrayList<>();
+    private Direccion[] ultimas = new Direccion[16]; // Última dirección entregada por cada bot
+    private final BotView vista = new BotView();
+    private final BotPathfinder[] buscadores; // Uno por bloque: los buffers de búsqueda no se comparten entre hilos
+    private final List<Bot> loopbackBots = new ArrayList<>();
+
+    public BotSwarm(int hilos) {
+        this(hilos, new Random());
+    }
+
+    // Con una semilla fija, cada bot recibe su propio Random derivado y el enjambre es reproducible.
+    public BotSwarm(int hilos, Random random) {
+        this.hilos = Math.max(1, hilos);
+        this.random = random;
+        this.buscadores = new BotPathfinder[this.hilos];
+        for (int i = 0; i < buscadores.length; i++) {
+            buscadores[i] = new BotPathfinder();
+        }
+        AtomicInteger count = new AtomicInteger();
+        this.workers = this.hilos == 1 ? null : Executors.newFixedThreadPool(this.hilos, task -> {
+            Thread thread = new Thread(task, "bot-swarm-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Añade un bot en proceso; debe existir (o crearse) una serpiente con el mismo ID en el juego.
+    public void addBot(String botId, BotDifficulty difficulty) {
+        brains.add(new BotBrain(botId, difficulty, new Random(random.nextLong())));
+        if (brains.size() > ultimas.length) {
+            ultimas = Arrays.copyOf(ultimas, ultimas.length * 2);
+        }
+    }
+
+    public int size() {
+        return brains.size();
+    }
+
+    // Decisiones que agotaron su presupuesto de tiempo y cayeron a la heurística barata (llamar entre ticks).
+    public long getDecisionesSinTiempo() {
+        long total = 0;
+        for (BotPathfinder buscador : buscadores) {
+            total += buscador.getDecisionesSinTiempo();
+        }
+        return total;
+    }
+
+    /**
+     * Decide el siguiente movimiento de todos los bots en proceso y entrega por el puerto las
+     * direcciones que cambiaron. Vuelve cuando todos han decidido. Devuelve cuántas cambiaron.
+     */
+    public int tick(GameStateSnapshot snapshot, InputPort puerto) throws InterruptedException {
+        vista.cargar(snapshot);
+        int total = brains.size();
+        if (workers == null || total < hilos * 2) {
+            return decidir(0, total, buscadores[0], puerto);
+        }
+        List<Callable<Integer>> bloques = new ArrayList<>(hilos);
+        int porBloque = (total + hilos - 1) / hilos;
+        for (int desde = 0, indice = 0; desde < total; desde += porBloque, indice++) {
+            int inicio = desde;
+            int fin = Math.min(total, desde + porBloque);
+            BotPathfinder buscador = buscadores[indice];
+            bloques.add(() -> decidir(inicio, fin, buscador, puerto));
+        }
+        int cambios = 0;
+        for (Future<Integer> bloque : workers.invokeAll(bloques)) {
+            try {
+                cambios += bloque.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Falló la decisión de un bloque de bots", e.getCause());
+            }
+        }
+        return cambios;
+    }
+
+    private int decidir(int desde, int hasta, BotPathfinder buscador, InputPort puerto) {
+        int cambios = 0;
+        for (int i = desde; i < hasta; i++) {
+            BotBrain brain = brains.get(i);
+            Direccion direccion = brain.decidir(vista, buscador);
+            if (direccion != ultimas[i]) {
+                ultimas[i] = direccion;
+                puerto.direccion(brain.getBotId(), direccion);
+                cambios++;
+            }
+        }
+        return cambios;
+    }
+
+    /**
+     * Conecta {@code count} bots al servidor por socket, cada uno en su propio hilo. Se cierran
+     * con {@link #close}.
+     */
+    public void connectLoopback(String host, int port, int count, BotDifficulty difficulty) {
+        for (int i = 0; i < count; i++) {
+            Bot bot;
+            synchronized (loopbackBots) {
+                bot = new Bot("Swarm-" + loopbackBots.size(), difficulty);
+                loopbackBots.add(bot);
+            }
+            Thread thread = new Thread(null, () -> {
+                try {
+                    bot.start(host, port);
+                } catch (IOException e) {
+                    Logger.warn(LogCategory.BOT, "Bot " + bot.getBotId() + " no pudo conectarse: " + e.getMessage());
+                }
+            }, "swarm-" + bot.getBotId(), LOOPBACK_STACK_BYTES);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (loopbackBots) {
+            for (Bot bot : loopbackBots) {
+                bot.stop();
+            }
+            loopbackBots.clear();
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Arnés de carga.
+     * <pre>
+     *   BotSwarm [bots] [ticks] [hilos]          partida en proceso, sin red
+     *   BotSwarm --loopback host puerto [bots]   bots reales contra un servidor
+     * </pre>
+     */
+    public static void main(String[] args) throws Exception {
+        Logger.setLevel(LogCategory.GAME, Logger.LogLevel.WARN); // Una línea por muerte no escala a 10k serpientes
+        if (args.length > 0 && args[0].equals("--loopback")) {
+            String host = args.length > 1 ? args[1] : GameConfig.DEFAULT_HOST;
+            int port = args.length > 2 ? Integer.parseInt(args[2]) : GameConfig.DEFAULT_PORT;
+            int bots = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+            BotSwarm swarm = new BotSwarm(1);
+            swarm.connectLoopback(host, port, bots, BotDifficulty.INTERMEDIO);
+            Logger.info(LogCategory.BOT, bots + " bots conectados a " + host + ":" + port + ". Ctrl+C para terminar.");
+            Thread.currentThread().join();
+            return;
+        }
+        int bots = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int hilos = args.length > 2 ? Integer.parseInt(args[2]) : GameConfig.BOT_SWARM_THREADS;
+        runInProcess(bots, ticks, hilos);
+    }
+
+    private static void runInProcess(int bots, int ticks, int hilos) throws InterruptedException {
+        int porFila = (int) Math.ceil(Math.sqrt(bots));
+        int lado = porFila * SEPARACION;
+        GameState estado = new GameState(lado, lado);
+        estado.setGamePhase(GamePhase.IN_PROGRESS);
+        ConcurrentHashMap<String, Direccion> acciones = new ConcurrentHashMap<>();
+        BotDifficulty[] dificultades = BotDifficulty.values();
+
+        try (BotSwarm swarm = new BotSwarm(hilos, new Random(42))) {
+            for (int i = 0; i < bots; i++) {
+                String id = "Swarm-" + i;
+                Coordenada inicio = new Coordenada((i % porFila) * SEPARACION + SEPARACION / 2, (i / porFila) * SEPARACION + SEPARACION / 2);
+                estado.getSerpientes().add(new Snake(id, inicio));
+                acciones.put(id, Direccion.DERECHA);
+                swarm.addBot(id, dificultades[i % dificultades.length]);
+            }
+            Logger.info(LogCategory.METRICS, String.format("Enjambre: %d bots en un tablero de %dx%d con %d hilos.", bots, lado, lado, hilos));
+
+            Random azar = new Random(42);
+            GameLogic logica = new GameLogic(azar);
+            long logicaNanos = 0, snapshotNanos = 0, botsNanos = 0;
+            int reapariciones = 0;
+            long sinTiempoAntes = 0;
+            for (int tick = 1; tick <= ticks; tick++) {
+                long t0 = System.nanoTime();
+                logica.actualizar(estado, acciones);
+                estado.advanceTick();
+                long t1 = System.nanoTime();
+                GameStateSnapshot snapshot = estado.toSnapshotDto();
+                long t2 = System.nanoTime();
+                swarm.tick(snapshot, acciones::put);
+                long t3 = System.nanoTime();
+                logicaNanos += t1 - t0;
+                snapshotNanos += t2 - t1;
+                botsNanos += t3 - t2;
+                reapariciones += reaparecer(estado, bots, azar);
+                if (tick % TICKS_POR_INFORME == 0) {
+                    long sinTiempo = swarm.getDecisionesSinTiempo();
+                    Logger.info(LogCategory.METRICS, String.format(
+                            "[METRIC] Swarm tick %d: %d serpientes, %d reapariciones, %d decisiones fuera de presupuesto; lógica %.2f ms, snapshot %.2f ms, bots %.2f ms (media de %d ticks)",
+                            tick, estado.getSerpientes().size(), reapariciones, sinTiempo - sinTiempoAntes,
+                            logicaNanos / 1e6 / TICKS_POR_INFORME, snapshotNanos / 1e6 / TICKS_POR_INFORME,
+                            botsNanos / 1e6 / TICKS_POR_INFORME, TICKS_POR_INFORME));
+                    logicaNanos = snapshotNanos = botsNanos = 0;
+                    reapariciones = 0;
+                    sinTiempoAntes = sinTiempo;
+                }
+            }
+        }
+    }
+
+    /**
+     * Devuelve a la partida, en celdas libres, a los bots que murieron, para que la carga se
+     * mantenga. La dirección de cada uno sigue siendo la última que envió su bot.
+     */
+    private static int reaparecer(GameState estado, int bots, Random azar) {
+        if (estado.getSerpientes().size() >= bots) {
+            return 0;
+        }
+        Set<String> vivos = new HashSet<>();
+        for (Snake s : estado.getSerpientes()) {
+            vivos.add(s.getIdJugador());
+        }
+        int reapariciones = 0;
+        for (int i = 0; i < bots; i++) {
+            String id = "Swarm-" + i;
+            if (!vivos.contains(id)) {
+                Coordenada celda = estado.getOcupacion().celdaLibreAleatoria(azar);
+                if (celda == null) break;
+                estado.getSerpientes().add(new Snake(id, celda));
+                reapariciones++;
+            }
+        }
+        return reapariciones;
+    }
+}
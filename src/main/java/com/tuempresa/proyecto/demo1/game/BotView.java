@@ -0,0 +1,158 @@
+package com.tuempresa.proyecto.demo1.game;
+
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.CoordenadasEmpaquetadas;
+import com.tuempresa.proyecto.demo1.net.dto.FrutaSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.SnakeSnapshot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lo que un bot necesita de un snapshot, indexado una sola vez por tick: una rejilla con la
+ * serpiente que ocupa cada celda, un mapa de bits con las frutas, las cabezas y cuellos de todas
+ * las serpientes y un índice por ID de jugador. Así comprobar una colisión es un acceso a un array en lugar de recorrer el
+ * cuerpo de cada serpiente.
+ *
+ * Solo se modifica en {@link #cargar}; después es de solo lectura y pueden compartirla todos
+ * los {@link BotBrain} de un {@link BotSwarm}. Los arrays se reutilizan entre ticks.
+ */
+final class BotView {
+
+    private static final int COLA_MOVIL = 1; // Cola que avanzará este tick: entrar en ella no es colisión
+
+    private GameStateSnapshot snapshot;
+    private int ancho;
+    private int alto;
+    private int[] celdas = new int[0]; // (índice de serpiente + 1) << 1 | COLA_MOVIL; 0 = libre
+    private long[] frutas = new long[0]; // Un bit por celda
+    private int[] cabezas = new int[16]; // Coordenadas empaquetadas por índice de serpiente
+    private int[] cuellos = new int[16]; // Segundo segmento, o -1 si la serpiente mide 1
+    private final Map<String, Integer> indicePorId = new HashMap<>();
+
+    void cargar(GameStateSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.ancho = snapshot.width;
+        this.alto = snapshot.height;
+        if (celdas.length != ancho * alto) {
+            celdas = new int[ancho * alto];
+            frutas = new long[(ancho * alto + 63) >>> 6];
+        } else {
+            Arrays.fill(celdas, 0);
+            Arrays.fill(frutas, 0L);
+        }
+        List<FrutaSnapshot> listaFrutas = snapshot.frutas;
+        for (int i = 0; i < listaFrutas.size(); i++) {
+            Coordenada c = listaFrutas.get(i).coordenada;
+            if (dentro(c.x, c.y)) {
+                int celda = c.y * ancho + c.x;
+                frutas[celda >>> 6] |= 1L << celda;
+            }
+        }
+        List<SnakeSnapshot> serpientes = snapshot.snakes;
+        if (cabezas.length < serpientes.size()) {
+            cabezas = new int[Integer.highestOneBit(serpientes.size()) << 1];
+            cuellos = new int[cabezas.length];
+        }
+        indicePorId.clear();
+
+        // Primero las colas que se moverán, para que cualquier otro segmento en la misma celda las tape.
+        for (int i = 0; i < serpientes.size(); i++) {
+            SnakeSnapshot s = serpientes.get(i);
+            int longitud = s.cuerpo.size();
+            if (longitud > 1 && s.segmentosPorCrecer == 0) {
+                marcar(CoordenadasEmpaquetadas.packedAt(s.cuerpo, longitud - 1), ((i + 1) << 1) | COLA_MOVIL);
+            }
+        }
+        for (int i = 0; i < serpientes.size(); i++) {
+            SnakeSnapshot s = serpientes.get(i);
+            indicePorId.put(s.idJugador, i);
+            int longitud = s.cuerpo.size();
+            int hasta = longitud > 1 && s.segmentosPorCrecer == 0 ? longitud - 1 : longitud;
+            for (int j = 0; j < hasta; j++) {
+                marcar(CoordenadasEmpaquetadas.packedAt(s.cuerpo, j), (i + 1) << 1);
+            }
+            cabezas[i] = longitud > 0 ? CoordenadasEmpaquetadas.packedAt(s.cuerpo, 0) : -1;
+            cuellos[i] = longitud > 1 ? CoordenadasEmpaquetadas.packedAt(s.cuerpo, 1) : -1;
+        }
+    }
+
+    private void marcar(int packed, int valor) {
+        int x = Coordenada.packedX(packed);
+        int y = Coordenada.packedY(packed);
+        if (dentro(x, y)) {
+            celdas[y * ancho + x] = valor;
+        }
+    }
+
+    GameStateSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    int getAncho() {
+        return ancho;
+    }
+
+    int getAlto() {
+        return alto;
+    }
+
+    int numSerpientes() {
+        return snapshot.snakes.size();
+    }
+
+    // Índice de la serpiente del jugador en el snapshot, o -1 si no está (murió o aún no entró).
+    int indice(String idJugador) {
+        Integer indice = indicePorId.get(idJugador);
+        return indice == null ? -1 : indice;
+    }
+
+    SnakeSnapshot serpiente(int indice) {
+        return snapshot.snakes.get(indice);
+    }
+
+    int cabeza(int indice) {
+        return cabezas[indice];
+    }
+
+    int cuello(int indice) {
+        return cuellos[indice];
+    }
+
+    boolean dentro(int x, int y) {
+        return x >= 0 && x < ancho && y >= 0 && y < alto;
+    }
+
+    /**
+     * True si la serpiente {@code yo} muere al entrar en (x, y): fuera del tablero, cualquier
+     * celda propia, o una celda ajena salvo la cola de una serpiente que no está creciendo.
+     * Es la misma regla que aplica el servidor.
+     */
+    boolean esColision(int x, int y, int yo) {
+        return !dentro(x, y) || esColision(y * ancho + x, yo);
+    }
+
+    // Igual que esColision(x, y, yo) para un índice de celda (y * ancho + x) ya dentro del tablero.
+    boolean esColision(int celda, int yo) {
+        int valor = celdas[celda];
+        if (valor == 0) {
+            return false;
+        }
+        if ((valor >>> 1) - 1 == yo) {
+            return true;
+        }
+        return (valor & COLA_MOVIL) == 0;
+    }
+
+    // Índice de la serpiente que ocupa la celda, o -1 si está libre.
+    int serpienteEn(int celda) {
+        return (celdas[celda] >>> 1) - 1;
+    }
+
+    boolean hayFruta(int celda) {
+        return (frutas[celda >>> 6] & (1L << celda)) != 0;
+    }
+}
@@ -21,6 +21,9 @@ import java.util.concurrent.atomic.AtomicReference;
 public class Game {
 
     public static void main(String[] args) {
+        if (GameConfig.LOG_ASYNC) {
+            Logger.startAsync(GameConfig.LOG_BUFFER_CAPACITY, GameConfig.LOG_OVERFLOW_POLICY);
+        }
         SwingUtilities.invokeLater(Game::createAndShowMainMenu);
     }
 
@@ -208,10 +211,7 @@ public class Game {
                 }
 
                 GameStateSnapshot snapshot = estado.snapshot().toSnapshotDto();
-                SwingUtilities.invokeLater(() -> {
-                    view.actualizarEstado(snapshot);
-                    view.repaint();
-                });
+                SwingUtilities.invokeLater(() -> view.actualizarEstado(snapshot));
             };
 
             scheduler.scheduleAtFixedRate(tick, 0, GameConfig.MILIS_POR_TICK, TimeUnit.MILLISECONDS);
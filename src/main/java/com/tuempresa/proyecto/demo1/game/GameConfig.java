@@ -3,6 +3,7 @@ package com.tuempresa.proyecto.demo1.game;
 import java.awt.Color;
 import java.awt.Font;
 import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.util.Logger;
 
 public final class GameConfig {
 
@@ -10,12 +11,39 @@ public final class GameConfig {
     public static final int ANCHO_TABLERO = 30;
     public static final int ALTO_TABLERO = 20;
     public static final int MILIS_POR_TICK = 150; // 150ms por tick
+    public static final int TICKS_POR_BROADCAST = 1; // Se envía el estado cada N ticks (2 con 50 ms: simular a 20 Hz y enviar a 10 Hz)
+    public static final int MAX_TICKS_RECUPERACION = 3; // Ticks atrasados que se recuperan seguidos; el resto se descarta
 
     // Network configuration
     public static final String DEFAULT_HOST = "localhost";
     public static final int DEFAULT_PORT = 12345;
     public static final int NETWORK_INPUT_BUFFER_SIZE = 1; // Un solo comando de dirección a la vez
     public static final int NETWORK_GAME_STATE_BUFFER_SIZE = 2; // Doble buffer para el estado del juego
+    public static final boolean USE_NIO_TRANSPORT = false; // false = un hilo bloqueante por conexión
+    public static final int NIO_IO_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    // Hilos virtuales para las conexiones bloqueantes (solo en el build -P virtual-threads, JDK 21). -Dsnake.virtualThreads=true
+    public static final boolean USE_VIRTUAL_THREADS = Boolean.getBoolean("snake.virtualThreads");
+    public static final int MAX_CLIENT_FRAME_BYTES = 8 * 1024; // Frames cliente -> servidor (ID, dirección, ping)
+    public static final int MAX_SERVER_FRAME_BYTES = 16 * 1024 * 1024; // Frames servidor -> cliente (snapshots)
+    public static final int SNAPSHOT_HISTORY_TICKS = 32; // Ventana de ticks que sirven de base para los deltas
+    public static final int PACKET_POOL_BUFFERS_PER_SIZE = 16; // Buffers directos libres que guarda cada sala por tamaño de frame
+    public static final long CLIENT_LAG_BUDGET_MS = 3000; // Tiempo máximo sin vaciar la cola de salida antes de expulsar al cliente
+    public static final int MAX_QUEUED_CONTROL_FRAMES = 1024; // Frames de control pendientes por cliente
+    public static final int ADMIN_DEFAULT_REFRESH_HZ = 5; // Consolas que no envían SUBSCRIBE: estado completo a este ritmo
+    public static final int ADMIN_MAX_REFRESH_HZ = 30;
+    public static final int ADMIN_CLIENT_REFRESH_HZ = 10; // Lo que pide el AdminClient al suscribirse
+
+    // Salas (partidas independientes en el mismo servidor)
+    public static final int TICK_WORKER_THREADS = Runtime.getRuntime().availableProcessors(); // Hilos que ejecutan los ticks de todas las salas
+    public static final int MAX_SALAS = 512;
+    public static final int MAX_JUGADORES_POR_SALA = 128; // Al llenarse, los jugadores sin sala pedida van a la siguiente
+    public static final long TICK_OVERLOAD_HOLD_MS = 5000; // Tras un tick atrasado, tiempo que se mantiene el modo sobrecarga
+    public static final int ADMIN_OVERLOAD_SLOWDOWN = 4; // En sobrecarga las consolas de admin se refrescan N veces más despacio
+
+    // Enjambre de bots en proceso (pruebas de carga)
+    public static final int BOT_SWARM_THREADS = Runtime.getRuntime().availableProcessors();
+    public static final int BOT_PATH_MAX_NODES = 4096; // Celdas que explora como máximo la búsqueda de ruta de un bot por decisión
+    public static final long BOT_DECISION_BUDGET_NANOS = 250_000; // Al agotarse, el bot decide con la heurística de una celda
 
     // Rendering configuration
     public static final int DEFAULT_TILE_SIZE = 25;
@@ -24,6 +52,8 @@ public final class GameConfig {
     public static final Color COLOR_TEXTO = Color.WHITE;
     public static final Font FUENTE_TEXTO = new Font("Monospaced", Font.BOLD, 18);
     public static final Font FUENTE_GRANDE_TEXTO = new Font("Monospaced", Font.BOLD, 72);
+    public static final boolean CLIENT_INTERPOLATION = true; // Interpolar entre estados y predecir la cabeza propia
+    public static final int CLIENT_FRAME_MILLIS = 16; // ~60 fps al interpolar
 
     // Snake configuration
     public static final Coordenada POSICION_INICIAL_JUGADOR_1 = new Coordenada(10, 10);
@@ -34,12 +64,22 @@ public final class GameConfig {
     public static final String LOG_FILE_CLIENT = "client.log";
     public static final String LOG_FILE_ADMIN = "admin.log";
     public static final boolean LOG_TO_CONSOLE = true;
+    public static final Logger.LogLevel LOG_LEVEL = Logger.LogLevel.INFO; // Nivel mínimo inicial de todas las categorías
+    public static final boolean LOG_ASYNC = true; // Al arrancar desde main, los logs se escriben desde un hilo propio
+    public static final int LOG_BUFFER_CAPACITY = 8192; // Mensajes encolados como máximo en modo asíncrono
+    public static final Logger.OverflowPolicy LOG_OVERFLOW_POLICY = Logger.OverflowPolicy.DROP;
 
     // Performance Metrics
     public static final boolean ENABLE_PERFORMANCE_METRICS = false;
     // Añadido para controlar el log de la lógica del juego
     public static final boolean ENABLE_LOGIC_TIME_LOGGING = false;
     public static final long SERVER_TICK_WARNING_THRESHOLD_MS = MILIS_POR_TICK;
+    // Los histogramas por fase del tick están siempre activos; el servidor los vuelca a este fichero periódicamente.
+    public static final String TICK_STATS_FILE = "tick-stats.txt";
+    public static final int TICK_STATS_DUMP_SECONDS = 60;
+    public static final int METRICS_HTTP_PORT = DEFAULT_PORT + 2; // GET /metrics en loopback; -1 lo desactiva
+    // Compara el tablero incremental con una reconstrucción completa tras cada tick (solo para depurar).
+    public static final boolean VERIFICAR_TABLERO = false;
 
     // Game Element Codes (from former Constants.java)
     public static final byte VACIO = 0;
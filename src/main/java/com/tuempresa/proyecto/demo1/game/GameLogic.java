@@ -1,33 +1,76 @@
 package com.tuempresa.proyecto.demo1.game;
 
 import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.CuerpoSerpiente;
 import com.tuempresa.proyecto.demo1.model.Direccion;
 import com.tuempresa.proyecto.demo1.model.Fruta;
 import com.tuempresa.proyecto.demo1.model.GameState;
+import com.tuempresa.proyecto.demo1.model.MapaOcupacion;
 import com.tuempresa.proyecto.demo1.model.Snake;
 import com.tuempresa.proyecto.demo1.model.CausaMuerte;
 import com.tuempresa.proyecto.demo1.util.Logger;
+import com.tuempresa.proyecto.demo1.util.Logger.LogCategory;
 
 import java.awt.Color;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.Set;
-import java.util.HashSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class GameLogic {
 
+    private final Random random;
+    private boolean verificarTablero = GameConfig.VERIFICAR_TABLERO;
+    private TickPhaseStats estadisticas; // null: no se mide la duración de las fases
+
+    public GameLogic() {
+        this(new Random());
+    }
+
+    // Con una semilla fija la aparición de frutas es reproducible (tests, benchmarks).
+    public GameLogic(Random random) {
+        this.random = random;
+    }
+
+    // Activa la comprobación del tablero incremental contra una reconstrucción completa tras cada tick.
+    public void setVerificarTablero(boolean verificarTablero) {
+        this.verificarTablero = verificarTablero;
+    }
+
+    // Histogramas donde registrar la duración de cada fase de actualizar(); null para no medir.
+    public void setEstadisticas(TickPhaseStats estadisticas) {
+        this.estadisticas = estadisticas;
+    }
+
+    private long medir(TickPhaseStats.Phase fase, long desde) {
+        return estadisticas != null ? estadisticas.medir(fase, desde) : 0;
+    }
+
+    // Entrada por mapa de acciones (partida local, bots, tests): se copia entera en cada tick.
     public void actualizar(GameState estado, ConcurrentHashMap<String, Direccion> accionesDeJugadores) {
-        Map<String, Direccion> accionesDeEsteTick = new HashMap<>(accionesDeJugadores);
+        long t = estadisticas != null ? System.nanoTime() : 0;
+        actualizar(estado, new HashMap<>(accionesDeJugadores), null, t);
+    }
+
+    // Entrada por slots (salas en red): cada serpiente lee su dirección del frame por su slot.
+    public void actualizar(GameState estado, InputBuffer entradas) {
+        long t = estadisticas != null ? System.nanoTime() : 0;
+        actualizar(estado, null, entradas.siguienteFrame(), t);
+    }
+
+    private void actualizar(GameState estado, Map<String, Direccion> accionesDeEsteTick, byte[] frame, long t) {
+        MapaOcupacion ocupacion = estado.getOcupacion();
+        byte[][] tablero = estado.getTablero();
+        sincronizar(estado);
+        t = medir(TickPhaseStats.Phase.INPUT_SNAPSHOT, t);
 
         // 1. Determinar los próximos movimientos de cada serpiente
         Map<Snake, Coordenada> futurosMovimientos = new HashMap<>();
         for (Snake s : estado.getSerpientes()) {
-            Direccion dir = accionesDeEsteTick.getOrDefault(s.getIdJugador(), Direccion.NINGUNA);
+            Direccion dir = frame != null ? InputBuffer.direccion(frame, s.getSlotEntrada())
+                    : accionesDeEsteTick.getOrDefault(s.getIdJugador(), Direccion.NINGUNA);
             Coordenada cabezaActual = s.getHead();
             Coordenada nuevaCabeza;
             switch (dir) {
@@ -39,6 +82,7 @@ public class GameLogic {
             }
             futurosMovimientos.put(s, nuevaCabeza);
         }
+        t = medir(TickPhaseStats.Phase.MOVES, t);
 
         // 2. Detectar todas las colisiones
         Map<Snake, CausaMuerte> serpientesAeliminar = new HashMap<>();
@@ -47,7 +91,7 @@ public class GameLogic {
         for (Map.Entry<Snake, Coordenada> entry : futurosMovimientos.entrySet()) {
             Snake s = entry.getKey();
             Coordenada nuevaCabeza = entry.getValue();
-            CausaMuerte causa = determinarCausaColision(estado, s, nuevaCabeza);
+            CausaMuerte causa = determinarCausaColision(ocupacion, s, nuevaCabeza);
             if (causa != CausaMuerte.NINGUNA) {
                 serpientesAeliminar.put(s, causa);
             }
@@ -66,6 +110,7 @@ public class GameLogic {
                 }
             }
         }
+        t = medir(TickPhaseStats.Phase.COLLISIONS, t);
 
         // 3. Eliminar las serpientes que colisionaron
         if (!serpientesAeliminar.isEmpty()) {
@@ -73,7 +118,12 @@ public class GameLogic {
                 Snake s = entry.getKey();
                 CausaMuerte causa = entry.getValue();
                 estado.getSerpientes().remove(s);
-                Logger.info(String.format("Jugador %s eliminado: %s.", s.getIdJugador(), getMensajeMuerte(causa)));
+                ocupacion.eliminar(s);
+                CuerpoSerpiente cuerpo = s.getCuerpo();
+                for (int i = 0; i < cuerpo.size(); i++) {
+                    repintarCelda(estado, cuerpo.getPacked(i));
+                }
+                Logger.info(LogCategory.GAME, String.format("Jugador %s eliminado: %s.", s.getIdJugador(), getMensajeMuerte(causa)));
             }
         }
 
@@ -82,19 +132,26 @@ public class GameLogic {
             Coordenada nuevaCabeza = futurosMovimientos.get(s);
             if (nuevaCabeza == null) continue; // No tenía movimiento
 
-            s.getCuerpo().addFirst(nuevaCabeza);
-            s.addOcupada(nuevaCabeza);
+            s.getCuerpo().addFirstPacked(nuevaCabeza.pack());
+            ocupacion.avanzarCabeza(s);
+            if (s.getCuerpo().size() > 1) {
+                pintar(tablero, s.getCuerpo().getPacked(1), GameConfig.SNAKE_BODY);
+            }
+            pintar(tablero, s.getCuerpo().firstPacked(), GameConfig.SNAKE_HEAD);
 
             boolean comioFruta = false;
-            java.util.Iterator<Fruta> fit = estado.getFrutas().iterator();
+            // El índice de ocupación dice si hay fruta en la celda; solo entonces se busca en la lista.
+            java.util.Iterator<Fruta> fit = ocupacion.tieneFruta(nuevaCabeza.x, nuevaCabeza.y)
+                    ? estado.getFrutas().iterator() : java.util.Collections.<Fruta>emptyIterator();
             while (fit.hasNext()) {
                 Fruta f = fit.next();
                 if (f.getCoordenada().equals(nuevaCabeza)) {
                     s.setPuntaje(s.getPuntaje() + f.getValor());
                     s.setSegmentosPorCrecer(s.getSegmentosPorCrecer() + f.getValor());
                     fit.remove();
+                    ocupacion.quitarFruta(f.getCoordenada());
                     comioFruta = true;
-                    Logger.debug(String.format("Jugador %s comió una fruta de valor %d.", s.getIdJugador(), f.getValor()));
+                    Logger.debug(LogCategory.GAME, () -> String.format("Jugador %s comió una fruta de valor %d.", s.getIdJugador(), f.getValor()));
                     break;
                 }
             }
@@ -103,17 +160,27 @@ public class GameLogic {
                 if (s.getSegmentosPorCrecer() > 0) {
                     s.setSegmentosPorCrecer(s.getSegmentosPorCrecer() - 1);
                 } else {
-                    Coordenada cola = s.getCuerpo().removeLast();
-                    s.removeOcupada(cola);
+                    int cola = s.getCuerpo().removeLastPacked();
+                    ocupacion.liberarCola(s);
+                    // Si otra cabeza ya entró en esa celda, el índice no la liberó y se deja pintada.
+                    if (ocupacion.get(Coordenada.packedX(cola), Coordenada.packedY(cola)) == MapaOcupacion.VACIA) {
+                        pintarCeldaLiberada(estado, cola);
+                    }
                 }
             }
         }
 
+        // Las frutas comidas se cuentan en la fase del tablero, que es donde se detectan.
+        t = medir(TickPhaseStats.Phase.BOARD, t);
+
         // 5. Gestionar aparición de frutas
         gestionarAparicionDeFrutas(estado);
+        medir(TickPhaseStats.Phase.FRUITS, t);
 
-        // 6. Actualizar el tablero para la vista
-        actualizarTablero(estado);
+        // 6. El tablero ya está al día con los cambios de este tick
+        if (verificarTablero) {
+            verificarTablero(estado);
+        }
     }
 
     private String getMensajeMuerte(CausaMuerte causa) {
@@ -133,6 +200,10 @@ public class GameLogic {
 
     private void gestionarAparicionDeFrutas(GameState estado) {
         if (estado.getSerpientes().isEmpty() && !estado.getFrutas().isEmpty()) {
+            for (Fruta f : estado.getFrutas()) {
+                estado.getOcupacion().quitarFruta(f.getCoordenada());
+                pintar(estado.getTablero(), f.getCoordenada().pack(), GameConfig.VACIO);
+            }
             estado.getFrutas().clear();
             return;
         }
@@ -145,96 +216,144 @@ public class GameLogic {
         int numFrutasDeseado = GameConfig.FRUTAS_MINIMAS + (numJugadores / divisor);
 
         while (estado.getFrutas().size() < numFrutasDeseado) {
-            generarFruta(estado);
+            if (!ponerFrutaAleatoria(estado)) {
+                return; // Tablero lleno
+            }
         }
     }
 
-    private CausaMuerte determinarCausaColision(GameState estado, Snake serpiente, Coordenada nuevaCabeza) {
-        int alto = estado.getTablero().length;
-        int ancho = estado.getTablero()[0].length;
-
-        if (nuevaCabeza.getX() < 0 || nuevaCabeza.getX() >= ancho || nuevaCabeza.getY() < 0 || nuevaCabeza.getY() >= alto) {
+    // Se evalúa sobre el índice de ocupación del inicio del tick: una consulta al array por serpiente.
+    private CausaMuerte determinarCausaColision(MapaOcupacion ocupacion, Snake serpiente, Coordenada nuevaCabeza) {
+        if (!ocupacion.dentro(nuevaCabeza.x, nuevaCabeza.y)) {
             return CausaMuerte.COLISION_PARED;
         }
 
-        // Optimización: Usar el método ocupa() para una comprobación O(1) en lugar de un bucle O(L).
-        if (serpiente.ocupa(nuevaCabeza)) {
-            // Excepción: si la nueva cabeza está en la posición de la cola actual Y la serpiente no va a crecer,
-            // no es una colisión, porque la cola se moverá.
-            Coordenada cola = serpiente.getCuerpo().getLast();
-            if (nuevaCabeza.equals(cola) && serpiente.getSegmentosPorCrecer() == 0 && serpiente.getCuerpo().size() > 1) {
-                // No es una colisión, es un movimiento válido para "perseguir la cola".
-            } else {
-                return CausaMuerte.COLISION_CUERPO;
-            }
+        int celda = ocupacion.get(nuevaCabeza.x, nuevaCabeza.y);
+        if (celda == MapaOcupacion.VACIA) {
+            return CausaMuerte.NINGUNA;
         }
 
-        for (Snake otra : estado.getSerpientes()) {
-            if (serpiente == otra) continue;
-
-            if (otra.ocupa(nuevaCabeza)) {
-                Coordenada colaOtra = otra.getCuerpo().getLast();
-                if (nuevaCabeza.equals(colaOtra) && otra.getSegmentosPorCrecer() == 0 && otra.getCuerpo().size() > 1) {
-                    continue;
-                }
-                return CausaMuerte.COLISION_OTRO_JUGADOR;
-            }
+        // Excepción: si la celda es la cola de una serpiente (propia u otra) que no va a crecer,
+        // no es una colisión, porque la cola se moverá ("perseguir la cola").
+        Snake duenio = ocupacion.serpiente(celda);
+        if (MapaOcupacion.rol(celda) == MapaOcupacion.ROL_COLA && duenio.getSegmentosPorCrecer() == 0) {
+            return CausaMuerte.NINGUNA;
         }
-        return CausaMuerte.NINGUNA;
+        return duenio == serpiente ? CausaMuerte.COLISION_CUERPO : CausaMuerte.COLISION_OTRO_JUGADOR;
     }
 
-    private void actualizarTablero(GameState estado) {
+    /**
+     * Repinta el tablero completo a partir de serpientes y frutas. Solo se usa cuando el índice
+     * de ocupación se reconstruye (altas, bajas, reset); en un tick normal el tablero se
+     * actualiza con los cambios del propio tick.
+     */
+    static void reconstruirTablero(GameState estado) {
         byte[][] tablero = estado.getTablero();
-        for(int i=0; i<tablero.length; i++) {
-            for(int j=0; j<tablero[i].length; j++) {
-                tablero[i][j] = GameConfig.VACIO;
-            }
+        for (byte[] fila : tablero) {
+            java.util.Arrays.fill(fila, GameConfig.VACIO);
         }
 
         for (Fruta fruta : estado.getFrutas()) {
             Coordenada pos = fruta.getCoordenada();
-            tablero[pos.y][pos.x] = (byte)(GameConfig.FRUTA_BASE + fruta.getValor() - 1);
+            pintar(tablero, pos.pack(), codigoFruta(fruta));
         }
 
         for (Snake serpiente : estado.getSerpientes()) {
-            Coordenada cabeza = serpiente.getHead();
-            tablero[cabeza.y][cabeza.x] = GameConfig.SNAKE_HEAD;
-            for (int i = 1; i < serpiente.getCuerpo().size(); i++) {
-                Coordenada parteCuerpo = serpiente.getCuerpo().get(i);
-                tablero[parteCuerpo.y][parteCuerpo.x] = GameConfig.SNAKE_BODY;
+            CuerpoSerpiente cuerpo = serpiente.getCuerpo();
+            pintar(tablero, cuerpo.firstPacked(), GameConfig.SNAKE_HEAD);
+            for (int i = 1; i < cuerpo.size(); i++) {
+                pintar(tablero, cuerpo.getPacked(i), GameConfig.SNAKE_BODY);
             }
         }
     }
 
-    public void generarFruta(GameState estado) {
-        int alto = estado.getTablero().length;
-        int ancho = estado.getTablero()[0].length;
-        Random random = new Random();
+    private static byte codigoFruta(Fruta fruta) {
+        return (byte) (GameConfig.FRUTA_BASE + fruta.getValor() - 1);
+    }
 
-        Set<Coordenada> celdasOcupadas = new HashSet<>();
-        for (Snake s : estado.getSerpientes()) {
-            celdasOcupadas.addAll(s.getCuerpo());
+    private static void pintar(byte[][] tablero, int packed, byte valor) {
+        int x = Coordenada.packedX(packed);
+        int y = Coordenada.packedY(packed);
+        if (y >= 0 && y < tablero.length && x >= 0 && x < tablero[y].length) {
+            tablero[y][x] = valor;
         }
-        for (Fruta f : estado.getFrutas()) {
-            celdasOcupadas.add(f.getCoordenada());
+    }
+
+    // Una celda que deja de tener serpiente queda vacía, salvo que una serpiente hubiera aparecido
+    // encima de una fruta (altas en posiciones fijas): entonces la fruta vuelve a verse.
+    private static void pintarCeldaLiberada(GameState estado, int packed) {
+        int x = Coordenada.packedX(packed);
+        int y = Coordenada.packedY(packed);
+        if (!estado.getOcupacion().dentro(x, y)) return;
+        byte valor = GameConfig.VACIO;
+        if (estado.getOcupacion().tieneFruta(x, y)) {
+            for (Fruta f : estado.getFrutas()) {
+                if (f.getCoordenada().x == x && f.getCoordenada().y == y) {
+                    valor = codigoFruta(f);
+                    break;
+                }
+            }
         }
+        estado.getTablero()[y][x] = valor;
+    }
 
-        List<Coordenada> celdasVacias = new ArrayList<>();
-        for (int y = 0; y < alto; y++) {
-            for (int x = 0; x < ancho; x++) {
-                Coordenada c = new Coordenada(x, y);
-                if (!celdasOcupadas.contains(c)) {
-                    celdasVacias.add(c);
+    // Tras eliminar una serpiente: la celda se libera solo si ninguna otra sigue en ella.
+    private static void repintarCelda(GameState estado, int packed) {
+        int x = Coordenada.packedX(packed);
+        int y = Coordenada.packedY(packed);
+        if (!estado.getOcupacion().dentro(x, y)) return;
+        int celda = estado.getOcupacion().get(x, y);
+        if (celda == MapaOcupacion.VACIA) {
+            pintarCeldaLiberada(estado, packed);
+        } else {
+            pintar(estado.getTablero(), packed, MapaOcupacion.rol(celda) == MapaOcupacion.ROL_CABEZA
+                    ? GameConfig.SNAKE_HEAD : GameConfig.SNAKE_BODY);
+        }
+    }
+
+    // Modo de comprobación: compara el tablero incremental con una reconstrucción completa.
+    private void verificarTablero(GameState estado) {
+        byte[][] incremental = estado.getTablero();
+        GameState referencia = new GameState(incremental[0].length, incremental.length);
+        referencia.getSerpientes().addAll(estado.getSerpientes());
+        referencia.getFrutas().addAll(estado.getFrutas());
+        reconstruirTablero(referencia);
+        byte[][] esperado = referencia.getTablero();
+        for (int y = 0; y < esperado.length; y++) {
+            for (int x = 0; x < esperado[y].length; x++) {
+                if (esperado[y][x] != incremental[y][x]) {
+                    throw new IllegalStateException(String.format(
+                            "Tablero incremental inconsistente en (%d, %d): %d en lugar de %d.",
+                            x, y, incremental[y][x], esperado[y][x]));
                 }
             }
         }
+    }
 
-        if (celdasVacias.isEmpty()) {
-            Logger.warn("No hay espacio para generar una nueva fruta.");
-            return;
+    // Sincroniza el índice de ocupación y, si tuvo que reconstruirse, también el tablero.
+    private void sincronizar(GameState estado) {
+        if (estado.getOcupacion().sincronizar(estado.getSerpientes(), estado.getFrutas())) {
+            reconstruirTablero(estado);
+        }
+    }
+
+    public void generarFruta(GameState estado) {
+        // Fuera del tick (arranque, reset) las listas pueden haber cambiado.
+        sincronizar(estado);
+        ponerFrutaAleatoria(estado);
+    }
+
+    // Dentro del tick el índice ya está sincronizado; comprobarlo por cada fruta sería O(serpientes).
+    // Devuelve false si no queda ninguna celda libre.
+    private boolean ponerFrutaAleatoria(GameState estado) {
+        MapaOcupacion ocupacion = estado.getOcupacion();
+
+        Coordenada nuevaPosicion = ocupacion.celdaLibreAleatoria(random);
+        if (nuevaPosicion == null) {
+            Logger.warn(LogCategory.GAME, "No hay espacio para generar una nueva fruta.");
+            return false;
         }
 
-        Coordenada nuevaPosicion = celdasVacias.get(random.nextInt(celdasVacias.size()));
         int tipoFruta = random.nextInt(100);
         int valor;
         int colorRgb;
@@ -252,6 +371,9 @@ public class GameLogic {
         Fruta nuevaFruta = new Fruta(nuevaPosicion, valor, colorRgb);
 
         estado.getFrutas().add(nuevaFruta);
-        Logger.debug(String.format("Nueva fruta generada en (%d, %d) con valor %d.", nuevaPosicion.x, nuevaPosicion.y, nuevaFruta.getValor()));
+        ocupacion.ponerFruta(nuevaPosicion);
+        pintar(estado.getTablero(), nuevaPosicion.pack(), codigoFruta(nuevaFruta));
+        Logger.debug(LogCategory.GAME, () -> String.format("Nueva fruta generada en (%d, %d) con valor %d.", nuevaPosicion.x, nuevaPosicion.y, nuevaFruta.getValor()));
+        return true;
     }
 }
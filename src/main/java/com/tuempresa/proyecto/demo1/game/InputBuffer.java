@@ -0,0 +1,176 @@
+package com.tuempresa.proyecto.demo1.game;
+
+import com.tuempresa.proyecto.demo1.model.Direccion;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Entrada de los jugadores de una sala sin locks en el camino caliente. Cada jugador tiene un
+ * slot fijo (su serpiente lo guarda en {@link com.tuempresa.proyecto.demo1.model.Snake#getSlotEntrada()});
+ * el estado de un slot es un solo entero atómico con la dirección vigente y una cola corta de
+ * giros pendientes:
+ *
+ * <pre>
+ *   bits 0-2   dirección vigente (ordinal de Direccion)
+ *   bits 3-5   giros pendientes (0..MAX_PENDIENTES)
+ *   bits 6-17  giros pendientes, 3 bits cada uno, el más antiguo primero
+ * </pre>
+ *
+ * Los hilos de las conexiones encolan con un CAS ({@link #encolar}); el tick toma de una vez el
+ * frame completo ({@link #siguienteFrame}): un byte por slot con la dirección de este tick, que
+ * consume como mucho un giro por jugador. Dos giros que llegan entre dos ticks se aplican en
+ * ticks consecutivos en lugar de quedarse solo con el último (que podría ser un giro de 180°
+ * respecto a la dirección real). Si la cola está llena el giro nuevo sustituye al último.
+ *
+ * Los slots se guardan en bloques que no se mueven al crecer, así un CAS nunca escribe en una
+ * copia vieja. Reservar y liberar slots es raro (altas y bajas) y va con un lock.
+ */
+public final class InputBuffer {
+
+    static final int MAX_PENDIENTES = 4;
+    private static final int BITS = 3;
+    private static final int MASCARA = (1 << BITS) - 1;
+    private static final int DESPLAZAMIENTO_COLA = 2 * BITS;
+    private static final int BITS_BLOQUE = 6;
+    private static final int BLOQUE = 1 << BITS_BLOQUE;
+    private static final Direccion[] DIRECCIONES = Direccion.values();
+    private static final int LIBRE = Direccion.NINGUNA.ordinal(); // Sin dirección y sin giros
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile AtomicIntegerArray[] bloques = new AtomicIntegerArray[0];
+    private int[] libres = new int[BLOQUE]; // Pila de slots liberados; con el lock
+    private int totalLibres;
+    private volatile int capacidad;
+    private byte[] frame = new byte[0]; // Solo el tick
+
+    /** Reserva un slot para un jugador que empieza moviéndose en {@code inicial}. */
+    public int reservar(Direccion inicial) {
+        lock.lock();
+        try {
+            int slot;
+            if (totalLibres > 0) {
+                slot = libres[--totalLibres];
+            } else {
+                slot = capacidad;
+                if ((slot >> BITS_BLOQUE) == bloques.length) {
+                    AtomicIntegerArray bloque = new AtomicIntegerArray(BLOQUE);
+                    for (int i = 0; i < BLOQUE; i++) {
+                        bloque.set(i, LIBRE);
+                    }
+                    AtomicIntegerArray[] crecidos = Arrays.copyOf(bloques, bloques.length + 1);
+                    crecidos[bloques.length] = bloque;
+                    bloques = crecidos;
+                }
+                capacidad = slot + 1;
+            }
+            estado(slot).set(slot & (BLOQUE - 1), inicial.ordinal());
+            return slot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Devuelve el slot; solo desde el tick, para que no se reasigne a mitad de un frame. */
+    public void liberar(int slot) {
+        lock.lock();
+        try {
+            estado(slot).set(slot & (BLOQUE - 1), LIBRE);
+            if (totalLibres == libres.length) {
+                libres = Arrays.copyOf(libres, libres.length * 2);
+            }
+            libres[totalLibres++] = slot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Encola un giro desde el hilo de una conexión. Se ignora si coincide con el último giro
+     * pendiente (o con la dirección vigente si no hay ninguno): repetir tecla no retrasa la cola.
+     */
+    public void encolar(int slot, Direccion direccion) {
+        AtomicIntegerArray bloque = estado(slot);
+        int indice = slot & (BLOQUE - 1);
+        int nueva = direccion.ordinal();
+        while (true) {
+            int actual = bloque.get(indice);
+            int pendientes = pendientes(actual);
+            int ultima = pendientes > 0 ? giro(actual, pendientes - 1) : actual & MASCARA;
+            if (ultima == nueva) {
+                return;
+            }
+            int siguiente;
+            if (pendientes == MAX_PENDIENTES) {
+                siguiente = conGiro(actual, pendientes - 1, nueva);
+            } else {
+                siguiente = conGiro(actual, pendientes, nueva);
+                siguiente = (siguiente & ~(MASCARA << BITS)) | ((pendientes + 1) << BITS);
+            }
+            if (bloque.compareAndSet(indice, actual, siguiente)) {
+                return;
+            }
+        }
+    }
+
+    /** Fija la dirección de un slot y descarta sus giros pendientes (reinicio de partida). */
+    public void reiniciar(int slot, Direccion direccion) {
+        estado(slot).set(slot & (BLOQUE - 1), direccion.ordinal());
+    }
+
+    /**
+     * Dirección de cada slot para este tick, indexada por slot, tras consumir como mucho un giro
+     * pendiente de cada uno. El array es del tick y se reutiliza: válido hasta la siguiente llamada.
+     */
+    public byte[] siguienteFrame() {
+        int total = capacidad; // Antes que los bloques: reservar() publica el bloque antes que la capacidad
+        AtomicIntegerArray[] actuales = bloques;
+        if (frame.length < total) {
+            frame = new byte[actuales.length * BLOQUE];
+        }
+        for (int slot = 0; slot < total; slot++) {
+            frame[slot] = (byte) consumir(actuales[slot >> BITS_BLOQUE], slot & (BLOQUE - 1));
+        }
+        return frame;
+    }
+
+    /** Dirección de un frame de {@link #siguienteFrame}; NINGUNA para un slot fuera de rango. */
+    public static Direccion direccion(byte[] frame, int slot) {
+        return slot >= 0 && slot < frame.length ? DIRECCIONES[frame[slot]] : Direccion.NINGUNA;
+    }
+
+    // Saca el giro más antiguo, si lo hay, y lo convierte en la dirección vigente.
+    private static int consumir(AtomicIntegerArray bloque, int indice) {
+        while (true) {
+            int actual = bloque.get(indice);
+            int pendientes = pendientes(actual);
+            if (pendientes == 0) {
+                return actual & MASCARA;
+            }
+            int direccion = giro(actual, 0);
+            int cola = (actual >>> (DESPLAZAMIENTO_COLA + BITS)) << DESPLAZAMIENTO_COLA;
+            int siguiente = cola | ((pendientes - 1) << BITS) | direccion;
+            if (bloque.compareAndSet(indice, actual, siguiente)) {
+                return direccion;
+            }
+        }
+    }
+
+    private AtomicIntegerArray estado(int slot) {
+        return bloques[slot >> BITS_BLOQUE];
+    }
+
+    private static int pendientes(int estado) {
+        return (estado >>> BITS) & MASCARA;
+    }
+
+    private static int giro(int estado, int posicion) {
+        return (estado >>> (DESPLAZAMIENTO_COLA + posicion * BITS)) & MASCARA;
+    }
+
+    private static int conGiro(int estado, int posicion, int direccion) {
+        int desplazamiento = DESPLAZAMIENTO_COLA + posicion * BITS;
+        return (estado & ~(MASCARA << desplazamiento)) | (direccion << desplazamiento);
+    }
+}
@@ -0,0 +1,80 @@
+package com.tuempresa.proyecto.demo1.game;
+
+import com.tuempresa.proyecto.demo1.util.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Histogramas de duración, en nanosegundos, de cada fase del tick de una sala. Siempre activos:
+ * medir una fase son dos {@code System.nanoTime()} y un incremento en un {@link LatencyHistogram}.
+ *
+ * Las fases de la lógica las registra {@link GameLogic}; las de red, la sala. {@code CLIENT_SEND}
+ * lleva una muestra por cliente y tick, el resto una por tick.
+ */
+public final class TickPhaseStats {
+
+    public enum Phase {
+        INPUT_SNAPSHOT("entrada"),
+        MOVES("movimientos"),
+        COLLISIONS("colisiones"),
+        BOARD("tablero"),
+        FRUITS("frutas"),
+        SNAPSHOT_BUILD("snapshot"),
+        SERIALIZATION("serializacion"),
+        CLIENT_SEND("envio/cliente"),
+        TOTAL("total");
+
+        private final String etiqueta;
+
+        Phase(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+
+        public String getEtiqueta() {
+            return etiqueta;
+        }
+    }
+
+    private final Map<Phase, LatencyHistogram> histogramas = new EnumMap<>(Phase.class);
+
+    public TickPhaseStats() {
+        for (Phase fase : Phase.values()) {
+            histogramas.put(fase, new LatencyHistogram());
+        }
+    }
+
+    public void registrar(Phase fase, long nanos) {
+        histogramas.get(fase).registrar(nanos);
+    }
+
+    // Registra la fase que empezó en {@code desde} y devuelve el instante actual, para encadenar fases.
+    public long medir(Phase fase, long desde) {
+        long ahora = System.nanoTime();
+        histogramas.get(fase).registrar(ahora - desde);
+        return ahora;
+    }
+
+    public LatencyHistogram get(Phase fase) {
+        return histogramas.get(fase);
+    }
+
+    public void reiniciar() {
+        for (LatencyHistogram histograma : histogramas.values()) {
+            histograma.reiniciar();
+        }
+    }
+
+    // Tabla de p50/p99/p999 y máximo por fase, en microsegundos.
+    public String resumen() {
+        StringBuilder sb = new StringBuilder(String.format("%-14s %10s %10s %10s %10s %10s%n",
+                "fase", "muestras", "p50 us", "p99 us", "p999 us", "max us"));
+        for (Phase fase : Phase.values()) {
+            LatencyHistogram h = histogramas.get(fase);
+            sb.append(String.format("%-14s %10d %10.1f %10.1f %10.1f %10.1f%n", fase.getEtiqueta(), h.getTotal(),
+                    h.percentil(0.50) / 1000.0, h.percentil(0.99) / 1000.0, h.percentil(0.999) / 1000.0,
+                    h.getMaximo() / 1000.0));
+        }
+        return sb.toString();
+    }
+}
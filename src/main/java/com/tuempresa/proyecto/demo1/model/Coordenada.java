@@ -16,6 +16,29 @@ public class Coordenada implements java.io.Serializable {
         this.y = other.y;
     }
 
+    // --- Forma empaquetada: x e y en los 16 bits altos y bajos de un int ---
+    // Permite guardar cuerpos de serpiente en arrays primitivos sin un objeto por segmento.
+
+    public static int pack(int x, int y) {
+        return (x << 16) | (y & 0xFFFF);
+    }
+
+    public static int packedX(int packed) {
+        return packed >> 16;
+    }
+
+    public static int packedY(int packed) {
+        return (short) packed;
+    }
+
+    public static Coordenada unpack(int packed) {
+        return new Coordenada(packedX(packed), packedY(packed));
+    }
+
+    public int pack() {
+        return pack(x, y);
+    }
+
     // Getters
     public int getX() {
         return x;
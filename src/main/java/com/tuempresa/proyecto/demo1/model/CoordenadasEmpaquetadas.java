@@ -0,0 +1,54 @@
+package com.tuempresa.proyecto.demo1.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Lista inmutable de coordenadas respaldada por un {@code int[]} de coordenadas empaquetadas.
+ * Es la forma en que los snapshots guardan los cuerpos: una copia del array por serpiente y
+ * tick, en lugar de un objeto Coordenada por segmento.
+ */
+public final class CoordenadasEmpaquetadas extends AbstractList<Coordenada> implements RandomAccess, java.io.Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int[] celdas;
+
+    // El array pasa a ser propiedad de la lista; no debe modificarse después.
+    public CoordenadasEmpaquetadas(int[] celdas) {
+        this.celdas = celdas;
+    }
+
+    public int getPacked(int index) {
+        return celdas[index];
+    }
+
+    // Segmento i de un cuerpo como coordenada empaquetada; sin crear objetos si el cuerpo ya es empaquetado.
+    public static int packedAt(List<Coordenada> cuerpo, int index) {
+        if (cuerpo instanceof CoordenadasEmpaquetadas) {
+            return ((CoordenadasEmpaquetadas) cuerpo).getPacked(index);
+        }
+        return cuerpo.get(index).pack();
+    }
+
+    @Override
+    public Coordenada get(int index) {
+        return Coordenada.unpack(celdas[index]);
+    }
+
+    @Override
+    public int size() {
+        return celdas.length;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Coordenada)) return false;
+        int buscado = ((Coordenada) o).pack();
+        for (int celda : celdas) {
+            if (celda == buscado) return true;
+        }
+        return false;
+    }
+}
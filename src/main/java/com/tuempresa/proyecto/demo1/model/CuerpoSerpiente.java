@@ -0,0 +1,144 @@
+package com.tuempresa.proyecto.demo1.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Cuerpo de una serpiente como buffer circular de coordenadas empaquetadas
+ * (ver {@link Coordenada#pack}). Añadir cabeza, quitar cola y acceder a cualquier segmento
+ * son O(1) y no crean objetos: una serpiente larga no asigna memoria al moverse.
+ *
+ * El índice 0 es la cabeza. Como {@code List<Coordenada>} sirve de adaptador para el código
+ * que trabaja con coordenadas (snapshots, vistas, tests); cada {@link #get} crea una
+ * Coordenada, así que la lógica del tick debe usar los métodos {@code *Packed}.
+ */
+public final class CuerpoSerpiente extends AbstractList<Coordenada> implements RandomAccess, java.io.Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int[] celdas;
+    private int cabeza; // Posición de la cabeza en el array
+    private int tamano;
+
+    public CuerpoSerpiente() {
+        this(16);
+    }
+
+    public CuerpoSerpiente(int capacidadInicial) {
+        int capacidad = Integer.highestOneBit(Math.max(4, capacidadInicial - 1)) << 1;
+        this.celdas = new int[capacidad];
+    }
+
+    public CuerpoSerpiente(CuerpoSerpiente other) {
+        this.celdas = other.celdas.clone();
+        this.cabeza = other.cabeza;
+        this.tamano = other.tamano;
+    }
+
+    // --- API primitiva ---
+
+    public void addFirstPacked(int packed) {
+        asegurarCapacidad();
+        cabeza = (cabeza - 1) & (celdas.length - 1);
+        celdas[cabeza] = packed;
+        tamano++;
+        modCount++;
+    }
+
+    public void addLastPacked(int packed) {
+        asegurarCapacidad();
+        celdas[(cabeza + tamano) & (celdas.length - 1)] = packed;
+        tamano++;
+        modCount++;
+    }
+
+    public int removeLastPacked() {
+        if (tamano == 0) {
+            throw new java.util.NoSuchElementException();
+        }
+        tamano--;
+        modCount++;
+        return celdas[(cabeza + tamano) & (celdas.length - 1)];
+    }
+
+    public int getPacked(int index) {
+        if (index < 0 || index >= tamano) {
+            throw new IndexOutOfBoundsException("Índice: " + index + ", tamaño: " + tamano);
+        }
+        return celdas[(cabeza + index) & (celdas.length - 1)];
+    }
+
+    public int firstPacked() {
+        return getPacked(0);
+    }
+
+    public int lastPacked() {
+        return getPacked(tamano - 1);
+    }
+
+    // Copia inmutable para snapshots: un solo array, sin objetos por segmento.
+    public CoordenadasEmpaquetadas copiaInmutable() {
+        int[] copia = new int[tamano];
+        int inicioHastaFinal = Math.min(tamano, celdas.length - cabeza);
+        System.arraycopy(celdas, cabeza, copia, 0, inicioHastaFinal);
+        System.arraycopy(celdas, 0, copia, inicioHastaFinal, tamano - inicioHastaFinal);
+        return new CoordenadasEmpaquetadas(copia);
+    }
+
+    // --- Adaptador de coordenadas ---
+
+    public void addFirst(Coordenada c) {
+        addFirstPacked(c.pack());
+    }
+
+    public Coordenada getFirst() {
+        return Coordenada.unpack(firstPacked());
+    }
+
+    public Coordenada getLast() {
+        return Coordenada.unpack(lastPacked());
+    }
+
+    public Coordenada removeLast() {
+        return Coordenada.unpack(removeLastPacked());
+    }
+
+    @Override
+    public boolean add(Coordenada c) {
+        addLastPacked(c.pack());
+        return true;
+    }
+
+    @Override
+    public Coordenada get(int index) {
+        return Coordenada.unpack(getPacked(index));
+    }
+
+    @Override
+    public int size() {
+        return tamano;
+    }
+
+    @Override
+    public void clear() {
+        tamano = 0;
+        cabeza = 0;
+        modCount++;
+    }
+
+    private void asegurarCapacidad() {
+        if (tamano < celdas.length) return;
+        int[] mayor = new int[celdas.length * 2];
+        int inicioHastaFinal = celdas.length - cabeza;
+        System.arraycopy(celdas, cabeza, mayor, 0, inicioHastaFinal);
+        System.arraycopy(celdas, 0, mayor, inicioHastaFinal, cabeza);
+        celdas = mayor;
+        cabeza = 0;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
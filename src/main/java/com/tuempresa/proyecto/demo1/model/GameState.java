@@ -13,6 +13,8 @@ public class GameState {
     private ArrayList<Snake> serpientes;
     private ArrayList<Fruta> frutas;
     private GamePhase gamePhase;
+    private long tick;
+    private MapaOcupacion ocupacion;
 
     // Deep copy / snapshot constructor
     public GameState(GameState other) {
@@ -36,6 +38,9 @@ public class GameState {
         }
 
         this.gamePhase = other.gamePhase;
+        this.tick = other.tick;
+        // Las copias de las serpientes no tienen slot: el índice se reconstruye en su primer uso.
+        this.ocupacion = new MapaOcupacion(otherTablero[0].length, otherTablero.length);
     }
 
     public GameState(int ancho, int alto) {
@@ -43,6 +48,7 @@ public class GameState {
         this.serpientes = new ArrayList<>();
         this.frutas = new ArrayList<>();
         this.gamePhase = GamePhase.WAITING_FOR_PLAYERS;
+        this.ocupacion = new MapaOcupacion(ancho, alto);
     }
 
     // Create a deep copy snapshot
@@ -56,9 +62,9 @@ public class GameState {
         int width = tablero[0].length;
         java.util.List<SnakeSnapshot> snakeDtos = new java.util.ArrayList<>();
         for (Snake s : this.serpientes) {
-            // OPTIMIZATION: Reuse immutable Coordenada objects instead of creating new ones.
-            // This avoids creating thousands of objects per tick, reducing GC pressure.
-            java.util.List<Coordenada> body = new java.util.ArrayList<>(s.getCuerpo());
+            // OPTIMIZATION: Copy the packed ring buffer into a single int[] instead of one
+            // Coordenada per segment. This keeps snapshot cost flat for long snakes.
+            java.util.List<Coordenada> body = s.getCuerpo().copiaInmutable();
             snakeDtos.add(new SnakeSnapshot(s.getIdJugador(), s.getPuntaje(), body, s.getSegmentosPorCrecer(), s.getColorRgb()));
         }
 
@@ -67,7 +73,7 @@ public class GameState {
             frutaDtos.add(new FrutaSnapshot(new Coordenada(f.getCoordenada()), f.getValor(), f.getColorRgb()));
         }
 
-        return new GameStateSnapshot(width, height, snakeDtos, frutaDtos, this.gamePhase);
+        return new GameStateSnapshot(tick, width, height, snakeDtos, frutaDtos, this.gamePhase);
     }
 
     // --- Getters ---
@@ -75,6 +81,11 @@ public class GameState {
     public ArrayList<Snake> getSerpientes() { return serpientes; }
     public ArrayList<Fruta> getFrutas() { return frutas; }
     public GamePhase getGamePhase() { return gamePhase; }
+    public long getTick() { return tick; }
+    public MapaOcupacion getOcupacion() { return ocupacion; }
+
+    // Avanza el contador de ticks; lo llama el servidor antes de publicar cada estado.
+    public long advanceTick() { return ++tick; }
 
     // --- Setters ---
     public void setTablero(byte[][] tablero) { this.tablero = tablero; }
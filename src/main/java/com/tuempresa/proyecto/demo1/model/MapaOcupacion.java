@@ -0,0 +1,430 @@
+package com.tuempresa.proyecto.demo1.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Índice de ocupación del tablero: un int por celda con la serpiente que la ocupa y el papel
+ * del segmento (cabeza, cuerpo o cola). Las comprobaciones de colisión son un acceso a un
+ * array en lugar de recorrer las demás serpientes.
+ *
+ * Cada celda guarda {@code (slot + 1) << 2 | rol}, donde el slot identifica a la serpiente
+ * mientras siga en la partida. Varias serpientes pueden compartir celda (las altas rotan entre
+ * unas pocas posiciones iniciales), así que además cada celda lleva la lista de los segmentos que
+ * hay en ella: una celda solo queda vacía cuando sale el último, y si sale la serpiente que la
+ * representaba se elige otra de esa lista, sin recorrer las demás serpientes. Cada segmento está
+ * enlazado también con el siguiente de su serpiente hacia la cabeza, así que liberar la cola
+ * o eliminar una serpiente no busca sus segmentos. GameLogic mantiene el índice de forma incremental (cabeza nueva,
+ * cola liberada, serpiente eliminada). La lista de serpientes también cambia fuera del tick
+ * (altas, bajas, reset), así que {@link #sincronizar} comprueba al empezar cada tick que el
+ * índice sigue reflejando la lista y, si no, lo reconstruye.
+ *
+ * También registra las frutas y mantiene el conjunto de celdas libres (sin serpiente ni fruta)
+ * como array denso con borrado por intercambio más un mapa celda → posición, así que elegir
+ * una celda libre al azar es O(1) en vez de recorrer todo el tablero.
+ */
+public final class MapaOcupacion {
+
+    public static final int VACIA = 0;
+    public static final int ROL_CABEZA = 1;
+    public static final int ROL_CUERPO = 2;
+    public static final int ROL_COLA = 3;
+
+    private final int ancho;
+    private final int alto;
+    private final int[] celdas;
+    private final int[] ocupantes; // Segmentos de serpiente en cada celda
+    // Segmentos: entradas en arrays paralelos, en una lista doble por celda (primeraEnCelda,
+    // anteriorEnCelda, siguienteEnCelda) y encadenadas de la cola a la cabeza de su serpiente
+    // (haciaCabeza). Las entradas libres se encadenan por siguienteEnCelda.
+    private final int[] primeraEnCelda;
+    private int[] entradaSlot = new int[64];
+    private int[] entradaCelda = new int[64]; // -1 fuera del tablero
+    private int[] anteriorEnCelda = new int[64];
+    private int[] siguienteEnCelda = new int[64];
+    private int[] haciaCabeza = new int[64];
+    private int numEntradas;
+    private int entradasLibres = -1;
+    private final boolean[] conFruta;
+    private int numFrutas;
+    // Celdas libres: libres[0..numLibres) en cualquier orden; posicionLibre[celda] = índice en libres o -1.
+    private final int[] libres;
+    private final int[] posicionLibre;
+    private int numLibres;
+    private Snake[] serpientePorSlot = new Snake[8];
+    private int[] longitudPorSlot = new int[8];
+    // Cabeza y cola (empaquetadas) registradas por slot; no se leen de la rejilla porque dos
+    // serpientes pueden compartir celda (p. ej. al aparecer en la misma posición inicial).
+    private int[] cabezaPorSlot = new int[8];
+    private int[] colaPorSlot = new int[8];
+    private int[] entradaCabezaPorSlot = new int[8];
+    private int[] entradaColaPorSlot = new int[8];
+    private int[] slotsLibres = new int[8];
+    private int numSlotsLibres;
+    private int siguienteSlot;
+    private int slotsEnUso;
+
+    public MapaOcupacion(int ancho, int alto) {
+        this.ancho = ancho;
+        this.alto = alto;
+        this.celdas = new int[ancho * alto];
+        this.ocupantes = new int[ancho * alto];
+        this.primeraEnCelda = new int[ancho * alto];
+        Arrays.fill(primeraEnCelda, -1);
+        this.conFruta = new boolean[ancho * alto];
+        this.libres = new int[ancho * alto];
+        this.posicionLibre = new int[ancho * alto];
+        vaciarLibres();
+    }
+
+    public boolean dentro(int x, int y) {
+        return x >= 0 && x < ancho && y >= 0 && y < alto;
+    }
+
+    // Valor de la celda; VACIA si no hay ninguna serpiente. La coordenada debe estar dentro del tablero.
+    public int get(int x, int y) {
+        return celdas[y * ancho + x];
+    }
+
+    public static int rol(int celda) {
+        return celda & 3;
+    }
+
+    // Serpiente a la que pertenece la celda, o null si está vacía.
+    public Snake serpiente(int celda) {
+        return celda == VACIA ? null : serpientePorSlot[(celda >>> 2) - 1];
+    }
+
+    /**
+     * Reconstruye el índice si no coincide con las listas de serpientes y frutas. Detecta altas,
+     * bajas y cuerpos reemplazados (reset) comparando slot, longitud, cabeza y cola de cada
+     * serpiente, y frutas añadidas o quitadas fuera de este índice. Devuelve true si tuvo que
+     * reconstruirse, para que quien mantenga estructuras derivadas (el tablero) haga lo mismo.
+     */
+    public boolean sincronizar(List<Snake> serpientes, List<Fruta> frutas) {
+        if (esConsistente(serpientes, frutas)) {
+            return false;
+        }
+        reconstruir(serpientes, frutas);
+        return true;
+    }
+
+    private boolean esConsistente(List<Snake> serpientes, List<Fruta> frutas) {
+        if (frutas.size() != numFrutas) return false;
+        for (Fruta f : frutas) {
+            Coordenada c = f.getCoordenada();
+            if (!dentro(c.x, c.y) || !conFruta[c.y * ancho + c.x]) return false;
+        }
+        if (serpientes.size() != slotsEnUso) return false;
+        for (Snake s : serpientes) {
+            int slot = s.getSlotOcupacion();
+            if (slot < 0 || slot >= siguienteSlot || serpientePorSlot[slot] != s) return false;
+            int longitud = s.getCuerpo().size();
+            if (longitud == 0 || longitud != longitudPorSlot[slot]) return false;
+            if (s.getCuerpo().firstPacked() != cabezaPorSlot[slot]) return false;
+            if (s.getCuerpo().lastPacked() != colaPorSlot[slot]) return false;
+        }
+        return true;
+    }
+
+    public void reconstruir(List<Snake> serpientes, List<Fruta> frutas) {
+        Arrays.fill(celdas, VACIA);
+        Arrays.fill(ocupantes, 0);
+        Arrays.fill(primeraEnCelda, -1);
+        numEntradas = 0;
+        entradasLibres = -1;
+        Arrays.fill(conFruta, false);
+        numFrutas = 0;
+        vaciarLibres();
+        Arrays.fill(serpientePorSlot, null);
+        numSlotsLibres = 0;
+        siguienteSlot = 0;
+        slotsEnUso = 0;
+        for (Snake s : serpientes) {
+            int slot = asignarSlot(s);
+            CuerpoSerpiente cuerpo = s.getCuerpo();
+            int longitud = cuerpo.size();
+            for (int i = longitud - 1; i >= 0; i--) {
+                entrar(slot, cuerpo.getPacked(i));
+            }
+            for (int i = 0; i < longitud; i++) {
+                int rol = i == 0 ? ROL_CABEZA : (i == longitud - 1 ? ROL_COLA : ROL_CUERPO);
+                marcar(cuerpo.getPacked(i), codificar(slot, rol));
+            }
+            registrarExtremos(slot, cuerpo);
+        }
+        for (Fruta f : frutas) {
+            ponerFruta(f.getCoordenada());
+        }
+    }
+
+    // Se llama después de cuerpo.addFirstPacked(nuevaCabeza).
+    public void avanzarCabeza(Snake s) {
+        int slot = s.getSlotOcupacion();
+        CuerpoSerpiente cuerpo = s.getCuerpo();
+        entrar(slot, cuerpo.firstPacked());
+        if (cuerpo.size() > 1) {
+            // La cabeza anterior pasa a cuerpo (o a cola). En una celda compartida solo se toca si
+            // la representaba esta serpiente o una cola, y entonces decide la lista de la celda.
+            int anterior = indice(cuerpo.getPacked(1));
+            if (anterior >= 0 && ocupantes[anterior] == 1) {
+                marcarCelda(anterior, codificar(slot, cuerpo.size() == 2 ? ROL_COLA : ROL_CUERPO));
+            } else if (anterior >= 0 && (slotDe(celdas[anterior]) == slot || rol(celdas[anterior]) == ROL_COLA)) {
+                reasignar(anterior);
+            }
+        }
+        marcar(cuerpo.firstPacked(), codificar(slot, ROL_CABEZA));
+        registrarExtremos(slot, cuerpo);
+    }
+
+    // Se llama después de cuerpo.removeLastPacked(). El segmento que sale es la cola registrada.
+    public void liberarCola(Snake s) {
+        int slot = s.getSlotOcupacion();
+        // Si una cabeza (propia o ajena) ya entró en esa celda, la celda es suya; si la compartía
+        // con otra serpiente y la celda aún la representaba a ella, pasa a la otra.
+        int celda = salirCola(slot);
+        if (celda >= 0 && ocupantes[celda] > 0 && slotDe(celdas[celda]) == slot) {
+            reasignar(celda);
+        }
+        CuerpoSerpiente cuerpo = s.getCuerpo();
+        // En una celda compartida se deja lo que haya: marcarla como cola la haría atravesable.
+        if (cuerpo.size() > 1 && ocupantesEn(cuerpo.lastPacked()) == 1) {
+            marcar(cuerpo.lastPacked(), codificar(slot, ROL_COLA));
+        }
+        registrarExtremos(slot, cuerpo);
+    }
+
+    private void registrarExtremos(int slot, CuerpoSerpiente cuerpo) {
+        int longitud = cuerpo.size();
+        longitudPorSlot[slot] = longitud;
+        if (longitud > 0) {
+            cabezaPorSlot[slot] = cuerpo.firstPacked();
+            colaPorSlot[slot] = cuerpo.lastPacked();
+        }
+    }
+
+    // Libera todas las celdas de una serpiente que sale de la partida.
+    public void eliminar(Snake s) {
+        int slot = s.getSlotOcupacion();
+        if (slot < 0 || slot >= siguienteSlot || serpientePorSlot[slot] != s) return;
+        while (entradaColaPorSlot[slot] >= 0) {
+            salirCola(slot);
+        }
+        serpientePorSlot[slot] = null;
+        // Celdas que comparte con otras serpientes y que la representaban a ella.
+        CuerpoSerpiente cuerpo = s.getCuerpo();
+        for (int i = 0; i < cuerpo.size(); i++) {
+            int celda = indice(cuerpo.getPacked(i));
+            if (celda >= 0 && ocupantes[celda] > 0 && slotDe(celdas[celda]) == slot) {
+                reasignar(celda);
+            }
+        }
+        s.setSlotOcupacion(-1);
+        if (numSlotsLibres == slotsLibres.length) {
+            slotsLibres = Arrays.copyOf(slotsLibres, slotsLibres.length * 2);
+        }
+        slotsLibres[numSlotsLibres++] = slot;
+        slotsEnUso--;
+    }
+
+    public void ponerFruta(Coordenada c) {
+        if (!dentro(c.x, c.y)) return;
+        int celda = c.y * ancho + c.x;
+        if (!conFruta[celda]) {
+            conFruta[celda] = true;
+            numFrutas++;
+            actualizarLibre(celda);
+        }
+    }
+
+    public void quitarFruta(Coordenada c) {
+        if (!dentro(c.x, c.y)) return;
+        int celda = c.y * ancho + c.x;
+        if (conFruta[celda]) {
+            conFruta[celda] = false;
+            numFrutas--;
+            actualizarLibre(celda);
+        }
+    }
+
+    public boolean tieneFruta(int x, int y) {
+        return conFruta[y * ancho + x];
+    }
+
+    public int getNumCeldasLibres() {
+        return numLibres;
+    }
+
+    public boolean esLibre(int x, int y) {
+        return posicionLibre[y * ancho + x] >= 0;
+    }
+
+    // Celda sin serpiente ni fruta elegida uniformemente al azar, o null si el tablero está lleno.
+    public Coordenada celdaLibreAleatoria(Random random) {
+        if (numLibres == 0) return null;
+        int celda = libres[random.nextInt(numLibres)];
+        return new Coordenada(celda % ancho, celda / ancho);
+    }
+
+    private void vaciarLibres() {
+        numLibres = libres.length;
+        for (int i = 0; i < libres.length; i++) {
+            libres[i] = i;
+            posicionLibre[i] = i;
+        }
+    }
+
+    // Mete o saca la celda del conjunto de libres según su contenido actual.
+    private void actualizarLibre(int celda) {
+        boolean libre = celdas[celda] == VACIA && !conFruta[celda];
+        int posicion = posicionLibre[celda];
+        if (libre && posicion < 0) {
+            libres[numLibres] = celda;
+            posicionLibre[celda] = numLibres++;
+        } else if (!libre && posicion >= 0) {
+            int ultima = libres[--numLibres];
+            libres[posicion] = ultima;
+            posicionLibre[ultima] = posicion;
+            posicionLibre[celda] = -1;
+        }
+    }
+
+    private int asignarSlot(Snake s) {
+        int slot = numSlotsLibres > 0 ? slotsLibres[--numSlotsLibres] : siguienteSlot++;
+        if (slot >= serpientePorSlot.length) {
+            serpientePorSlot = Arrays.copyOf(serpientePorSlot, serpientePorSlot.length * 2);
+            longitudPorSlot = Arrays.copyOf(longitudPorSlot, longitudPorSlot.length * 2);
+            cabezaPorSlot = Arrays.copyOf(cabezaPorSlot, cabezaPorSlot.length * 2);
+            colaPorSlot = Arrays.copyOf(colaPorSlot, colaPorSlot.length * 2);
+            entradaCabezaPorSlot = Arrays.copyOf(entradaCabezaPorSlot, entradaCabezaPorSlot.length * 2);
+            entradaColaPorSlot = Arrays.copyOf(entradaColaPorSlot, entradaColaPorSlot.length * 2);
+        }
+        serpientePorSlot[slot] = s;
+        entradaCabezaPorSlot[slot] = -1;
+        entradaColaPorSlot[slot] = -1;
+        s.setSlotOcupacion(slot);
+        slotsEnUso++;
+        return slot;
+    }
+
+    // Segmento nuevo de la serpiente en la celda, por el lado de la cabeza.
+    private void entrar(int slot, int packed) {
+        int entrada = nuevaEntrada();
+        int celda = indice(packed);
+        entradaSlot[entrada] = slot;
+        entradaCelda[entrada] = celda;
+        haciaCabeza[entrada] = -1;
+        anteriorEnCelda[entrada] = -1;
+        siguienteEnCelda[entrada] = -1;
+        if (celda >= 0) {
+            int primera = primeraEnCelda[celda];
+            siguienteEnCelda[entrada] = primera;
+            if (primera >= 0) anteriorEnCelda[primera] = entrada;
+            primeraEnCelda[celda] = entrada;
+            ocupantes[celda]++;
+        }
+        int cabeza = entradaCabezaPorSlot[slot];
+        if (cabeza >= 0) {
+            haciaCabeza[cabeza] = entrada;
+        } else {
+            entradaColaPorSlot[slot] = entrada;
+        }
+        entradaCabezaPorSlot[slot] = entrada;
+    }
+
+    /**
+     * Saca de su celda el segmento de cola de la serpiente; la celda queda vacía si era el último.
+     * Devuelve la celda que deja, o -1 si estaba fuera del tablero.
+     */
+    private int salirCola(int slot) {
+        int entrada = entradaColaPorSlot[slot];
+        int siguiente = haciaCabeza[entrada];
+        entradaColaPorSlot[slot] = siguiente;
+        if (siguiente < 0) {
+            entradaCabezaPorSlot[slot] = -1;
+        }
+        int celda = entradaCelda[entrada];
+        if (celda >= 0) {
+            int anterior = anteriorEnCelda[entrada];
+            int posterior = siguienteEnCelda[entrada];
+            if (anterior >= 0) {
+                siguienteEnCelda[anterior] = posterior;
+            } else {
+                primeraEnCelda[celda] = posterior;
+            }
+            if (posterior >= 0) anteriorEnCelda[posterior] = anterior;
+            if (--ocupantes[celda] == 0) {
+                marcarCelda(celda, VACIA);
+            }
+        }
+        siguienteEnCelda[entrada] = entradasLibres;
+        entradasLibres = entrada;
+        return celda;
+    }
+
+    private int nuevaEntrada() {
+        if (entradasLibres >= 0) {
+            int entrada = entradasLibres;
+            entradasLibres = siguienteEnCelda[entrada];
+            return entrada;
+        }
+        if (numEntradas == entradaSlot.length) {
+            int capacidad = entradaSlot.length * 2;
+            entradaSlot = Arrays.copyOf(entradaSlot, capacidad);
+            entradaCelda = Arrays.copyOf(entradaCelda, capacidad);
+            anteriorEnCelda = Arrays.copyOf(anteriorEnCelda, capacidad);
+            siguienteEnCelda = Arrays.copyOf(siguienteEnCelda, capacidad);
+            haciaCabeza = Arrays.copyOf(haciaCabeza, capacidad);
+        }
+        return numEntradas++;
+    }
+
+    private int ocupantesEn(int packed) {
+        int celda = indice(packed);
+        return celda >= 0 ? ocupantes[celda] : 0;
+    }
+
+    // Slot de la serpiente que representa el valor de una celda, o -1 si está vacía.
+    private static int slotDe(int valor) {
+        return (valor >>> 2) - 1;
+    }
+
+    /**
+     * Marca la celda con otra de las serpientes que siguen en ella; un cuerpo o cabeza antes que
+     * una cola, para que la celda no se vuelva atravesable. Solo recorre los segmentos de esa celda.
+     */
+    private void reasignar(int celda) {
+        int valor = VACIA;
+        for (int entrada = primeraEnCelda[celda]; entrada >= 0; entrada = siguienteEnCelda[entrada]) {
+            int slot = entradaSlot[entrada];
+            int rol = entrada == entradaCabezaPorSlot[slot] ? ROL_CABEZA
+                    : (entrada == entradaColaPorSlot[slot] ? ROL_COLA : ROL_CUERPO);
+            valor = codificar(slot, rol);
+            if (rol != ROL_COLA) break;
+        }
+        marcarCelda(celda, valor);
+    }
+
+    private int indice(int packed) {
+        int x = Coordenada.packedX(packed);
+        int y = Coordenada.packedY(packed);
+        return dentro(x, y) ? y * ancho + x : -1;
+    }
+
+    private static int codificar(int slot, int rol) {
+        return ((slot + 1) << 2) | rol;
+    }
+
+    private void marcar(int packed, int valor) {
+        int celda = indice(packed);
+        if (celda >= 0) {
+            marcarCelda(celda, valor);
+        }
+    }
+
+    private void marcarCelda(int celda, int valor) {
+        celdas[celda] = valor;
+        actualizarLibre(celda);
+    }
+}
@@ -1,14 +1,15 @@
 // Snake.java (versión modificada)
 package com.tuempresa.proyecto.demo1.model;
 
-import java.util.LinkedList;
+import java.util.List;
 
 public class Snake implements java.io.Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    private LinkedList<Coordenada> cuerpo;
-    private java.util.HashSet<Long> ocupadas;
+    private CuerpoSerpiente cuerpo; // Buffer circular de coordenadas empaquetadas; índice 0 = cabeza
+    private transient int slotOcupacion = -1; // Slot en el MapaOcupacion del GameState
+    private transient int slotEntrada = -1; // Slot en el InputBuffer de la sala; -1 sin buffer
     private int puntaje;
     private String idJugador;
     private int segmentosPorCrecer; // <-- NUEVA VARIABLE
@@ -17,10 +18,8 @@ public class Snake implements java.io.Serializable {
     public Snake(String idJugador, Coordenada posicionInicial, int colorRgb) {
         this.idJugador = idJugador;
         this.puntaje = 0;
-        this.cuerpo = new LinkedList<>();
+        this.cuerpo = new CuerpoSerpiente();
         this.cuerpo.addFirst(posicionInicial);
-        this.ocupadas = new java.util.HashSet<>();
-        this.ocupadas.add(key(posicionInicial));
         this.segmentosPorCrecer = 0;
         this.colorRgb = colorRgb;
     }
@@ -35,49 +34,37 @@ public class Snake implements java.io.Serializable {
         this.puntaje = other.puntaje;
         this.segmentosPorCrecer = other.segmentosPorCrecer;
         this.colorRgb = other.colorRgb;
-        this.cuerpo = new LinkedList<>();
-        this.ocupadas = new java.util.HashSet<>();
-        for (Coordenada c : other.cuerpo) {
-            Coordenada copy = new Coordenada(c);
-            this.cuerpo.add(copy);
-            this.ocupadas.add(key(copy));
-        }
+        this.cuerpo = new CuerpoSerpiente(other.cuerpo);
     }
 
     // ... (los getters y setters de siempre) ...
     // GETTERS
-    public static long key(Coordenada c) {
-        return (((long)c.x) << 32) | (c.y & 0xffffffffL);
-    }
-
-    public void addOcupada(Coordenada c) {
-        ocupadas.add(key(c));
-    }
-
-    public void removeOcupada(Coordenada c) {
-        ocupadas.remove(key(c));
-    }
-
-    public boolean ocupa(Coordenada c) { return ocupadas.contains(key(c)); }
-    public LinkedList<Coordenada> getCuerpo() { return cuerpo; }
+    public CuerpoSerpiente getCuerpo() { return cuerpo; }
     public int getPuntaje() { return puntaje; }
     public String getIdJugador() { return idJugador; }
     public Coordenada getHead() { return this.cuerpo.getFirst(); }
     public int getSegmentosPorCrecer() { return segmentosPorCrecer; } // <-- NUEVO GETTER
     public int getColorRgb() { return colorRgb; }
+    int getSlotOcupacion() { return slotOcupacion; }
+    public int getSlotEntrada() { return slotEntrada; }
 
     // SETTERS
-    public void setCuerpo(LinkedList<Coordenada> cuerpo) { this.cuerpo = cuerpo; }
+    public void setCuerpo(List<Coordenada> cuerpo) {
+        this.cuerpo.clear();
+        for (Coordenada c : cuerpo) {
+            this.cuerpo.add(c);
+        }
+    }
     public void setPuntaje(int puntaje) { this.puntaje = puntaje; }
     public void setIdJugador(String idJugador) { this.idJugador = idJugador; }
     public void setSegmentosPorCrecer(int segmentos) { this.segmentosPorCrecer = segmentos; } // <-- NUEVO SETTER
+    void setSlotOcupacion(int slot) { this.slotOcupacion = slot; }
+    public void setSlotEntrada(int slot) { this.slotEntrada = slot; }
 
     public void reset(Coordenada posicionInicial) {
         this.puntaje = 0;
         this.cuerpo.clear();
         this.cuerpo.addFirst(posicionInicial);
-        this.ocupadas.clear();
-        this.ocupadas.add(key(posicionInicial));
         this.segmentosPorCrecer = 0;
     }
 }
\ No newline at end of file
@@ -1,19 +1,31 @@
 package com.tuempresa.proyecto.demo1.net;
 
 import com.tuempresa.proyecto.demo1.game.GameConfig;
+import com.tuempresa.proyecto.demo1.model.GamePhase;
+import com.tuempresa.proyecto.demo1.net.codec.SnapshotHistory;
+import com.tuempresa.proyecto.demo1.net.codec.WireCodec;
+import com.tuempresa.proyecto.demo1.net.codec.WireReader;
 import com.tuempresa.proyecto.demo1.net.dto.AdminDataSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.AdminRowsDelta;
 import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.PlayerData;
 import com.tuempresa.proyecto.demo1.ui.GamePanel;
 import com.tuempresa.proyecto.demo1.util.Logger;
+import com.tuempresa.proyecto.demo1.util.Logger.LogCategory;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.PrintWriter;
 import java.net.Socket;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class AdminClient {
 
@@ -21,13 +33,19 @@ public class AdminClient {
     private GamePanel gamePanel;
     private JTable playerDashboard;
     private DefaultTableModel dashboardModel;
+    // Fila de cada jugador en dashboardModel. Como el modelo, solo se usa en el EDT.
+    private final Map<String, Integer> rowByPlayer = new HashMap<>();
     private JButton kickPlayerButton;
     private JButton startGameButton;
     private JButton resetGameButton;
+    private JTextField commandField;
+    private JTextArea repliesArea;
 
     private Socket socket;
-    private ObjectInputStream in;
-    private ObjectOutputStream out;
+    private DataInputStream in;
+    private DataOutputStream out;
+    // Último tablero recibido: base del siguiente DELTA. Solo lo usa el hilo lector.
+    private final SnapshotHistory board = new SnapshotHistory(1);
 
     public void start(String host, int port) {
         // Setup GUI
@@ -57,7 +75,17 @@ public class AdminClient {
         controlPanel.add(startGameButton);
         controlPanel.add(resetGameButton);
         controlPanel.add(kickPlayerButton);
-        frame.add(controlPanel, BorderLayout.SOUTH);
+
+        // Cualquier otro comando (LIST_ROOMS, TICK_STATS, SET_LOG_LEVEL...) y las respuestas del servidor
+        commandField = new JTextField(24);
+        controlPanel.add(commandField);
+        repliesArea = new JTextArea(6, 0);
+        repliesArea.setEditable(false);
+        repliesArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12)); // TICK_STATS es una tabla
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(controlPanel, BorderLayout.NORTH);
+        southPanel.add(new JScrollPane(repliesArea), BorderLayout.CENTER);
+        frame.add(southPanel, BorderLayout.SOUTH);
 
         frame.pack();
         frame.setLocationRelativeTo(null); // Center on screen
@@ -70,11 +98,10 @@ public class AdminClient {
     private void connectAndListen(String host, int port) {
         try {
             socket = new Socket(host, port + 1);
-            in = new ObjectInputStream(socket.getInputStream());
-            out = new ObjectOutputStream(socket.getOutputStream());
-            out.flush();
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
         } catch (IOException e) {
-            Logger.error("Admin client connection failed", e);
+            Logger.error(LogCategory.NET, "Admin client connection failed", e);
             JOptionPane.showMessageDialog(frame, "Could not connect to the admin port: " + e.getMessage(), "Connection Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
@@ -82,6 +109,13 @@ public class AdminClient {
         // Action listeners
         startGameButton.addActionListener(e -> sendCommand("START_GAME"));
         resetGameButton.addActionListener(e -> sendCommand("RESET_GAME"));
+        commandField.addActionListener(e -> {
+            String command = commandField.getText().trim();
+            if (!command.isEmpty()) {
+                sendCommand(command);
+                commandField.setText("");
+            }
+        });
         playerDashboard.getSelectionModel().addListSelectionListener(e -> {
             kickPlayerButton.setEnabled(playerDashboard.getSelectedRow() != -1);
         });
@@ -93,19 +127,49 @@ public class AdminClient {
             }
         });
 
+        // Panel y tablero llegan como diferencias, al ritmo pedido.
+        sendCommand("SUBSCRIBE " + GameConfig.ADMIN_CLIENT_REFRESH_HZ + " ALL");
+
         // Listener thread
         Thread listenerThread = new Thread(() -> {
             try {
+                WireReader reader = new WireReader();
                 while (!socket.isClosed()) {
-                    Object serverObject = in.readObject();
-                    if (serverObject instanceof AdminDataSnapshot) {
-                        // All data now comes in a single, optimized snapshot.
-                        SwingUtilities.invokeLater(() -> updateAdminData((AdminDataSnapshot) serverObject));
+                    byte type = FrameCodec.readFrame(in, reader, GameConfig.MAX_SERVER_FRAME_BYTES);
+                    switch (type) {
+                        case WireCodec.ADMIN_ROWS:
+                            AdminRowsDelta rows = WireCodec.decodeAdminRows(reader);
+                            SwingUtilities.invokeLater(() -> applyRows(rows));
+                            break;
+                        case WireCodec.SNAPSHOT:
+                            showBoard(WireCodec.decodeSnapshot(reader, null));
+                            break;
+                        case WireCodec.DELTA:
+                            GameStateSnapshot snapshot = WireCodec.decodeDelta(reader, board, null);
+                            if (snapshot != null) {
+                                showBoard(snapshot);
+                            } else {
+                                // No debería pasar: el servidor siempre parte del último tablero enviado.
+                                Logger.warn(LogCategory.NET, "Delta de tablero sin base; se pide un envío completo.");
+                                sendCommand("SUBSCRIBE " + GameConfig.ADMIN_CLIENT_REFRESH_HZ + " ALL");
+                            }
+                            break;
+                        case WireCodec.ADMIN_DATA:
+                            // Servidores sin suscripciones: estado completo en cada envío.
+                            AdminDataSnapshot data = WireCodec.decodeAdminData(reader);
+                            SwingUtilities.invokeLater(() -> updateAdminData(data));
+                            break;
+                        case WireCodec.ADMIN_REPLY:
+                            String reply = WireCodec.decodeAdminReply(reader);
+                            SwingUtilities.invokeLater(() -> showReply(reply));
+                            break;
+                        default:
+                            break;
                     }
                 }
-            } catch (IOException | ClassNotFoundException e) {
+            } catch (IOException e) {
                 if (!socket.isClosed()) {
-                    Logger.error("Lost connection to server", e);
+                    Logger.error(LogCategory.NET, "Lost connection to server", e);
                     JOptionPane.showMessageDialog(frame, "Lost connection to the server.", "Connection Lost", JOptionPane.ERROR_MESSAGE);
                 }
             }
@@ -114,42 +178,100 @@ public class AdminClient {
         listenerThread.start();
     }
 
-    private void sendCommand(String command) {
+    private synchronized void sendCommand(String command) {
         if (out == null) {
-            Logger.error("Cannot send command, output stream is not initialized.");
+            Logger.error(LogCategory.NET, "Cannot send command, output stream is not initialized.");
             return;
         }
-        Logger.info("Sending command to server: " + command);
+        Logger.info(LogCategory.NET, "Sending command to server: " + command);
         try {
-            out.writeObject(command);
-            out.flush();
+            FrameCodec.writeFrame(out, WireCodec.encodeAdminCommand(command));
         } catch (IOException e) {
-            Logger.error("Failed to send command '" + command + "'", e);
+            Logger.error(LogCategory.NET, "Failed to send command '" + command + "'", e);
             JOptionPane.showMessageDialog(frame, "Error sending command: " + e.getMessage(), "Communication Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
+    private void showReply(String reply) {
+        repliesArea.append(reply.endsWith("\n") ? reply : reply + "\n");
+        repliesArea.setCaretPosition(repliesArea.getDocument().getLength());
+    }
+
+    private void showBoard(GameStateSnapshot snapshot) {
+        board.add(snapshot);
+        SwingUtilities.invokeLater(() -> gamePanel.setEstado(snapshot)); // Repinta solo lo que cambió
+    }
+
+    // Aplica las filas que cambiaron sin reconstruir la tabla: solo se notifican las celdas distintas.
+    private void applyRows(AdminRowsDelta delta) {
+        removeRows(delta.getRemoved());
+        for (PlayerData player : delta.getChanged()) {
+            Object[] values = dashboardRow(player);
+            Integer row = rowByPlayer.get(player.getPlayerId());
+            if (row == null) {
+                rowByPlayer.put(player.getPlayerId(), dashboardModel.getRowCount());
+                dashboardModel.addRow(values);
+                continue;
+            }
+            for (int column = 1; column < values.length; column++) {
+                if (!values[column].equals(dashboardModel.getValueAt(row, column))) {
+                    dashboardModel.setValueAt(values[column], row, column);
+                }
+            }
+        }
+        updatePhaseButtons(delta.getGamePhase());
+    }
+
+    // Quita las filas de abajo arriba y renumera una sola vez las que quedan tras la primera quitada.
+    private void removeRows(List<String> playerIds) {
+        int[] rows = new int[playerIds.size()];
+        int count = 0;
+        for (String playerId : playerIds) {
+            Integer row = rowByPlayer.remove(playerId);
+            if (row != null) {
+                rows[count++] = row;
+            }
+        }
+        if (count == 0) return;
+        Arrays.sort(rows, 0, count);
+        for (int i = count - 1; i >= 0; i--) {
+            dashboardModel.removeRow(rows[i]);
+        }
+        for (int row = rows[0]; row < dashboardModel.getRowCount(); row++) {
+            rowByPlayer.put((String) dashboardModel.getValueAt(row, 0), row);
+        }
+    }
+
+    private static Object[] dashboardRow(PlayerData player) {
+        return new Object[]{
+                player.getPlayerId(),
+                player.getIpAddress(),
+                player.getPingMs(),
+                player.getScore(),
+                player.getStatus(),
+                player.getConnectionDurationSeconds()
+        };
+    }
+
+    private void updatePhaseButtons(GamePhase phase) {
+        boolean isGameInProgress = phase == GamePhase.IN_PROGRESS;
+        startGameButton.setEnabled(!isGameInProgress);
+        resetGameButton.setEnabled(isGameInProgress);
+    }
+
     private void updateAdminData(AdminDataSnapshot data) {
         // 1. Update Game Spectator View
-        gamePanel.setEstado(data.getGameStateSnapshot());
-        gamePanel.repaint();
+        gamePanel.setEstado(data.getGameStateSnapshot()); // Repinta solo lo que cambió
 
         // 2. Update Player Dashboard
         dashboardModel.setRowCount(0); // Clear existing data
-        for (com.tuempresa.proyecto.demo1.net.dto.PlayerData player : data.getPlayers()) {
-            dashboardModel.addRow(new Object[]{
-                    player.getPlayerId(),
-                    player.getIpAddress(),
-                    player.getPingMs(),
-                    player.getScore(),
-                    player.getStatus(),
-                    player.getConnectionDurationSeconds()
-            });
+        rowByPlayer.clear();
+        for (PlayerData player : data.getPlayers()) {
+            rowByPlayer.put(player.getPlayerId(), dashboardModel.getRowCount());
+            dashboardModel.addRow(dashboardRow(player));
         }
 
         // 3. Update UI elements based on game phase
-        boolean isGameInProgress = data.getGamePhase() == com.tuempresa.proyecto.demo1.model.GamePhase.IN_PROGRESS;
-        startGameButton.setEnabled(!isGameInProgress);
-        resetGameButton.setEnabled(isGameInProgress);
+        updatePhaseButtons(data.getGamePhase());
     }
 }
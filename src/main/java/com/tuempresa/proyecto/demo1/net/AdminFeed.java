@@ -0,0 +1,152 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.tuempresa.proyecto.demo1.game.GameConfig;
+import com.tuempresa.proyecto.demo1.model.GamePhase;
+import com.tuempresa.proyecto.demo1.net.codec.WireCodec;
+import com.tuempresa.proyecto.demo1.net.codec.WireWriter;
+import com.tuempresa.proyecto.demo1.net.dto.AdminRowsDelta;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.PlayerData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Suscripción de una consola de administración ("SUBSCRIBE hz [CAMPOS]"): cada cuánto quiere
+ * datos, qué columnas del panel y si quiere el tablero, más lo último que se le envió.
+ *
+ * Con eso cada envío lleva solo lo que cambió: las filas del panel como diferencias por ID de
+ * jugador (ADMIN_ROWS) y el tablero como DELTA respecto al último tablero enviado. La conexión
+ * es ordenada y fiable, así que no hacen falta confirmaciones: la consola siempre tiene la base.
+ * Lo usa únicamente el hilo escritor de la consola.
+ */
+final class AdminFeed {
+
+    private static final String[] FIELD_NAMES = {"IP", "UPTIME", "PING", "STATUS", "SCORE", "BOARD"};
+
+    private final int refreshHz;
+    private final int fields;
+    private final WireWriter writer = new WireWriter(1024);
+    private final Map<String, PlayerData> sentRows = new HashMap<>();
+    private GamePhase sentPhase;
+    private GameStateSnapshot sentBoard;
+
+    AdminFeed(int refreshHz, int fields) {
+        this.refreshHz = Math.max(1, Math.min(refreshHz, GameConfig.ADMIN_MAX_REFRESH_HZ));
+        this.fields = fields & WireCodec.ADMIN_FIELDS_ALL;
+    }
+
+    // Argumentos de SUBSCRIBE: "5", "5 PING SCORE", "10 ALL"... Sin campos se suscriben todos.
+    static AdminFeed parse(String arguments) {
+        String[] parts = arguments.trim().isEmpty() ? new String[0] : arguments.trim().split("[\\s,]+");
+        if (parts.length == 0) {
+            throw new IllegalArgumentException("Falta la frecuencia de refresco");
+        }
+        int hz;
+        try {
+            hz = Integer.parseInt(parts[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Frecuencia inválida: " + parts[0]);
+        }
+        int mask = parts.length == 1 ? WireCodec.ADMIN_FIELDS_ALL : 0;
+        for (int i = 1; i < parts.length; i++) {
+            mask |= fieldBit(parts[i].toUpperCase());
+        }
+        return new AdminFeed(hz, mask);
+    }
+
+    private static int fieldBit(String name) {
+        if ("ALL".equals(name)) {
+            return WireCodec.ADMIN_FIELDS_ALL;
+        }
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            if (FIELD_NAMES[i].equals(name)) {
+                return 1 << i;
+            }
+        }
+        throw new IllegalArgumentException("Campo desconocido: " + name);
+    }
+
+    int getRefreshHz() {
+        return refreshHz;
+    }
+
+    long getPeriodMillis() {
+        return 1000L / refreshHz;
+    }
+
+    int getFields() {
+        return fields;
+    }
+
+    // Olvida lo enviado (p. ej. al cambiar de sala): el siguiente envío es completo.
+    void reset() {
+        sentRows.clear();
+        sentPhase = null;
+        sentBoard = null;
+    }
+
+    /**
+     * Frames que llevan a la consola desde lo último que recibió hasta este estado; vacío si no
+     * cambió nada de lo suscrito.
+     */
+    List<byte[]> update(GamePhase phase, List<PlayerData> rows, GameStateSnapshot board) {
+        List<byte[]> frames = new ArrayList<>(2);
+
+        List<PlayerData> changed = new ArrayList<>();
+        Set<String> present = new HashSet<>(rows.size() * 2);
+        for (PlayerData row : rows) {
+            present.add(row.getPlayerId());
+            PlayerData previous = sentRows.get(row.getPlayerId());
+            if (previous == null || !sameRow(previous, row)) {
+                changed.add(row);
+                sentRows.put(row.getPlayerId(), row);
+            }
+        }
+        List<String> removed = Collections.emptyList();
+        for (Iterator<String> it = sentRows.keySet().iterator(); it.hasNext(); ) {
+            String playerId = it.next();
+            if (!present.contains(playerId)) {
+                if (removed.isEmpty()) removed = new ArrayList<>();
+                removed.add(playerId);
+                it.remove();
+            }
+        }
+        if (!changed.isEmpty() || !removed.isEmpty() || phase != sentPhase) {
+            writer.reset();
+            WireCodec.encodeAdminRows(writer, new AdminRowsDelta(phase, fields, changed, removed));
+            frames.add(writer.toByteArray());
+            sentPhase = phase;
+        }
+
+        if ((fields & WireCodec.ADMIN_FIELD_BOARD) != 0 && board != null
+                && (sentBoard == null || board.tick != sentBoard.tick)) {
+            writer.reset();
+            if (sentBoard == null || board.tick < sentBoard.tick) {
+                WireCodec.encodeSnapshot(writer, board, null);
+            } else {
+                // Puede abarcar varios ticks si la consola refresca más despacio que el tick.
+                WireCodec.encodeDelta(writer, sentBoard, board, null);
+            }
+            frames.add(writer.toByteArray());
+            sentBoard = board;
+        }
+        return frames;
+    }
+
+    // Solo cuentan los campos suscritos: el uptime de una consola que no lo pide no genera envíos.
+    private boolean sameRow(PlayerData a, PlayerData b) {
+        return ((fields & WireCodec.ADMIN_FIELD_IP) == 0 || Objects.equals(a.getIpAddress(), b.getIpAddress()))
+                && ((fields & WireCodec.ADMIN_FIELD_UPTIME) == 0 || a.getConnectionDurationSeconds() == b.getConnectionDurationSeconds())
+                && ((fields & WireCodec.ADMIN_FIELD_PING) == 0 || a.getPingMs() == b.getPingMs())
+                && ((fields & WireCodec.ADMIN_FIELD_STATUS) == 0 || Objects.equals(a.getStatus(), b.getStatus()))
+                && ((fields & WireCodec.ADMIN_FIELD_SCORE) == 0 || a.getScore() == b.getScore());
+    }
+}
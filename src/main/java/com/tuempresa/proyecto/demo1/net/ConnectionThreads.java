@@ -0,0 +1,48 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.tuempresa.proyecto.demo1.game.GameConfig;
+
+/**
+ * Hilos de las conexiones bloqueantes (lector y escritor de cada jugador, handlers de admin).
+ *
+ * Con {@link GameConfig#USE_VIRTUAL_THREADS} y un build del perfil {@code virtual-threads}
+ * (JDK 21, ver {@link VirtualThreads}) son hilos virtuales: un socket bloqueado deja de ocupar
+ * un hilo de plataforma y miles de conexiones caben en unos pocos hilos portadores. El build
+ * por defecto sigue siendo Java 8 y usa hilos normales.
+ *
+ * Un hilo virtual que se bloquea dentro de un {@code synchronized} retiene a su portador, por
+ * eso las colas y los registros que tocan estos hilos usan {@code java.util.concurrent.locks}.
+ */
+final class ConnectionThreads {
+
+    private static final boolean VIRTUAL = GameConfig.USE_VIRTUAL_THREADS && virtualThreadsAvailable();
+
+    private ConnectionThreads() {
+    }
+
+    // true si las conexiones corren en hilos virtuales.
+    static boolean isVirtual() {
+        return VIRTUAL;
+    }
+
+    // true si este build se compiló con la variante de Java 21.
+    static boolean virtualThreadsAvailable() {
+        return VirtualThreads.AVAILABLE;
+    }
+
+    /**
+     * Arranca un hilo para una conexión. Los hilos virtuales son siempre daemon; {@code daemon}
+     * solo se aplica a los de plataforma.
+     */
+    static Thread start(String name, Runnable task, boolean daemon) {
+        Thread thread;
+        if (VIRTUAL) {
+            thread = VirtualThreads.unstarted(name, task);
+        } else {
+            thread = new Thread(task, name);
+            thread.setDaemon(daemon);
+        }
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,75 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+
+/**
+ * Lote de frames pendientes de una conexión, escrito con una sola llamada de escritura
+ * agrupada (gathering write) en lugar de un write por frame. Lo usan los writers de ambos
+ * transportes; no es thread-safe. El lote es dueño de una referencia de cada frame y la suelta
+ * en cuanto el frame está escrito entero (o al vaciarlo con {@link #clear()}).
+ */
+final class FrameBatch {
+
+    private static final int MAX_FRAMES = 16;
+
+    private final ByteBuffer[] views = new ByteBuffer[MAX_FRAMES];
+    private final Packet[] packets = new Packet[MAX_FRAMES];
+    private int offset;
+    private int count;
+
+    boolean isEmpty() {
+        return offset == count;
+    }
+
+    // Añade un frame al lote, que pasa a ser dueño de la referencia del llamador. Solo se puede
+    // llamar con el lote vacío o sin empezar a escribir.
+    void add(Packet packet) {
+        rewindIfEmpty();
+        packets[count] = packet;
+        views[count++] = packet.view();
+    }
+
+    // Completa el lote con frames de la cola. Devuelve false si el lote sigue vacío.
+    boolean fill(OutboundQueue queue) {
+        rewindIfEmpty();
+        Packet packet;
+        while (count < views.length && (packet = queue.poll()) != null) {
+            add(packet);
+        }
+        return !isEmpty();
+    }
+
+    /**
+     * Escribe todo lo que el canal acepte. Devuelve true si el lote se envió completo;
+     * en un canal no bloqueante false significa que la ventana TCP está llena.
+     */
+    boolean writeTo(GatheringByteChannel channel) throws IOException {
+        channel.write(views, offset, count - offset);
+        while (offset < count && !views[offset].hasRemaining()) {
+            release(offset++);
+        }
+        return isEmpty();
+    }
+
+    private void rewindIfEmpty() {
+        if (offset == count) {
+            offset = 0;
+            count = 0;
+        }
+    }
+
+    // Descarta los frames sin escribir (conexión cerrada) y suelta sus referencias.
+    void clear() {
+        while (offset < count) {
+            release(offset++);
+        }
+    }
+
+    private void release(int index) {
+        views[index] = null;
+        packets[index].release();
+        packets[index] = null;
+    }
+}
@@ -0,0 +1,57 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.tuempresa.proyecto.demo1.net.codec.WireReader;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Framing del protocolo de jugadores: cada mensaje viaja como un entero de 4 bytes
+ * con la longitud del frame seguido del tipo de mensaje (1 byte) y su payload. El framing
+ * permite que el servidor lea mensajes de forma no bloqueante (NIO) y que ambos transportes
+ * hablen el mismo protocolo con los clientes. El contenido de cada tipo de mensaje lo
+ * define {@link com.tuempresa.proyecto.demo1.net.codec.WireCodec}.
+ */
+public final class FrameCodec {
+
+    public static final int HEADER_BYTES = 4;
+
+    private FrameCodec() {
+    }
+
+    /**
+     * Lectura bloqueante de un frame completo. Deja el reader apuntando al payload
+     * y devuelve el tipo de mensaje.
+     */
+    public static byte readFrame(DataInputStream in, WireReader reader, int maxFrameBytes) throws IOException {
+        int length = readLength(in, maxFrameBytes);
+        byte[] buffer = reader.buffer(length);
+        in.readFully(buffer, 0, length);
+        reader.wrap(buffer, 0, length);
+        return reader.readByte();
+    }
+
+    /**
+     * Lectura bloqueante de un frame completo en un array propio, con el tipo en la posición 0,
+     * para entregarlo a otro hilo.
+     */
+    public static byte[] readFrame(DataInputStream in, int maxFrameBytes) throws IOException {
+        byte[] frame = new byte[readLength(in, maxFrameBytes)];
+        in.readFully(frame);
+        return frame;
+    }
+
+    private static int readLength(DataInputStream in, int maxFrameBytes) throws IOException {
+        int length = in.readInt();
+        if (length < 1 || length > maxFrameBytes) {
+            throw new IOException("Longitud de frame inválida: " + length);
+        }
+        return length;
+    }
+
+    public static void writeFrame(DataOutputStream out, byte[] frame) throws IOException {
+        out.write(frame);
+        out.flush();
+    }
+}
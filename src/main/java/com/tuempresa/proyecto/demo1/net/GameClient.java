@@ -3,32 +3,56 @@ package com.tuempresa.proyecto.demo1.net;
 import com.tuempresa.proyecto.demo1.game.GameConfig;
 import com.tuempresa.proyecto.demo1.model.Direccion;
 import com.tuempresa.proyecto.demo1.model.GamePhase;
+import com.tuempresa.proyecto.demo1.net.codec.PlayerIdTable;
+import com.tuempresa.proyecto.demo1.net.codec.SnapshotHistory;
+import com.tuempresa.proyecto.demo1.net.codec.WireCodec;
+import com.tuempresa.proyecto.demo1.net.codec.WireReader;
 import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
 import com.tuempresa.proyecto.demo1.ui.GraphicalView;
 import com.tuempresa.proyecto.demo1.util.Logger;
+import com.tuempresa.proyecto.demo1.util.Logger.LogCategory;
 
 import javax.swing.SwingUtilities;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Cliente de juego. El hilo que llama a {@link #start} solo lee frames del socket y los deja en
+ * un {@link SnapshotMailbox}; un hilo propio los decodifica, confirma y publica el estado más
+ * reciente para pintarlo. Al EDT nunca hay más de un repintado pendiente: si llegan estados
+ * mientras tanto, se pinta solo el último. Así un pintado lento o una pausa de GC no acumulan
+ * estados viejos por pintar ni frenan la lectura del socket.
+ */
 public class GameClient {
 
     private ScheduledExecutorService pingScheduler;
     private Socket socket;
-    private ObjectInputStream in;
-    private ObjectOutputStream out;
+    private DataInputStream in;
+    private DataOutputStream out;
     private String playerId;
     private GraphicalView view;
     private AtomicReference<Direccion> direccionActual = new AtomicReference<>(Direccion.DERECHA);
+    // Giros pulsados, en orden: dos teclas seguidas entre envíos se mandan las dos.
+    private final BlockingQueue<Direccion> pendingTurns = new LinkedBlockingQueue<>();
     private boolean isTestMode = false;
     private CompletableFuture<String> playerIdFuture = new CompletableFuture<>();
+    private volatile GameStateSnapshot lastSnapshot;
+    private final PlayerIdTable playerIds = new PlayerIdTable();
+    private final SnapshotHistory snapshotHistory = new SnapshotHistory(GameConfig.SNAPSHOT_HISTORY_TICKS);
+    private final SnapshotMailbox mailbox = new SnapshotMailbox();
+    // Último estado decodificado que el EDT aún no pintó; no null = ya hay un repintado en cola.
+    private final AtomicReference<GameStateSnapshot> pendingPaint = new AtomicReference<>();
 
     public GameClient() {
     }
@@ -48,20 +72,24 @@ public class GameClient {
     }
 
     public void start(String host, int port, String playerId) throws IOException {
-        Logger.info("Iniciando cliente...");
+        start(host, port, playerId, WireCodec.ANY_ROOM);
+    }
+
+    // room = WireCodec.ANY_ROOM para que el servidor elija la sala.
+    public void start(String host, int port, String playerId, int room) throws IOException {
+        Logger.info(LogCategory.NET, "Iniciando cliente...");
         this.playerId = playerId;
         try {
             socket = new Socket(host, port);
             socket.setTcpNoDelay(true); // OPTIMIZATION: Disable Nagle's Algorithm to reduce latency
-            out = new ObjectOutputStream(socket.getOutputStream());
-            in = new ObjectInputStream(socket.getInputStream());
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
 
             // Enviar nuestro ID autogenerado al servidor
-            out.writeObject(playerId);
-            out.flush();
+            sendFrame(WireCodec.encodeHello(playerId, room));
 
             // Ya no esperamos que el servidor nos devuelva un ID.
-            Logger.info("Conectado como: " + playerId);
+            Logger.info(LogCategory.NET, "Conectado como: " + playerId);
             playerIdFuture.complete(playerId);
         } catch (IOException e) {
             playerIdFuture.completeExceptionally(e);
@@ -91,39 +119,41 @@ public class GameClient {
             }
         }
 
-        // Bucle principal para recibir el estado del juego y actualizar la vista
+        Thread decoderThread = new Thread(this::decodeLoop, "client-decoder");
+        decoderThread.setDaemon(true);
+        decoderThread.start();
+
+        // Bucle principal: leer frames y pasarlos al decodificador
         try {
+            WireReader reader = new WireReader();
             while (true) {
-                Object receivedObject = in.readObject();
-                if (receivedObject instanceof Packet) {
-                    byte[] snapshotBytes = ((Packet) receivedObject).data;
-                    try (java.io.ByteArrayInputStream bais = new java.io.ByteArrayInputStream(snapshotBytes);
-                         java.io.ObjectInputStream ois = new java.io.ObjectInputStream(bais)) {
-
-                        GameStateSnapshot snapshot = (GameStateSnapshot) ois.readObject();
-                        SwingUtilities.invokeLater(() -> {
-                            if (view != null) {
-                                view.actualizarEstado(snapshot);
-                                view.repaint();
-                            }
-                        });
-                    } catch (java.io.IOException | ClassNotFoundException e) {
-                        Logger.warn("Error deserializing game state packet", e);
-                    }
-                } else if (receivedObject instanceof String) {
-                    String command = (String) receivedObject;
-                    if (command.startsWith("PONG;")) {
-                        long originalTimestamp = Long.parseLong(command.substring(5));
+                byte[] frame = FrameCodec.readFrame(in, GameConfig.MAX_SERVER_FRAME_BYTES);
+                byte type = frame[0];
+                switch (type) {
+                    case WireCodec.SNAPSHOT:
+                    case WireCodec.DELTA:
+                        mailbox.offerState(frame);
+                        break;
+                    case WireCodec.PLAYER_IDS:
+                        mailbox.offerControl(frame);
+                        break;
+                    case WireCodec.PONG:
+                        // Se mide aquí y no en el decodificador para que su cola no cuente en el RTT
+                        reader.wrap(frame, 1, frame.length - 1);
+                        long originalTimestamp = reader.readLong();
                         long rtt = System.currentTimeMillis() - originalTimestamp;
-                        Logger.info(String.format("[METRIC] Network Latency (RTT): %d ms", rtt));
-                    }
+                        Logger.info(LogCategory.METRICS, String.format("[METRIC] Network Latency (RTT): %d ms", rtt));
+                        break;
+                    default:
+                        Logger.warn(LogCategory.NET, "Mensaje desconocido del servidor (tipo " + type + ")");
                 }
             }
-        } catch (ClassNotFoundException | IOException e) {
-            Logger.warn("Conexión perdida con el servidor.");
+        } catch (IOException e) {
+            Logger.warn(LogCategory.NET, "Conexión perdida con el servidor.");
             // e.printStackTrace(); // Optional: might be noisy if client just closes
         } finally {
-            Logger.info("Cliente desconectado.");
+            mailbox.close();
+            Logger.info(LogCategory.NET, "Cliente desconectado. Estados descartados sin decodificar: " + mailbox.getDroppedStates());
             if (pingScheduler != null) {
                 pingScheduler.shutdownNow();
             }
@@ -135,15 +165,58 @@ public class GameClient {
         }
     }
 
+    // Hilo decodificador: aplica la tabla de IDs, decodifica y confirma estados y publica el último.
+    private void decodeLoop() {
+        WireReader reader = new WireReader();
+        try {
+            byte[] frame;
+            while ((frame = mailbox.take()) != null) {
+                reader.wrap(frame, 0, frame.length);
+                byte type = reader.readByte();
+                if (type == WireCodec.PLAYER_IDS) {
+                    WireCodec.decodePlayerIds(reader, playerIds);
+                    continue;
+                }
+                GameStateSnapshot snapshot = type == WireCodec.SNAPSHOT
+                        ? WireCodec.decodeSnapshot(reader, playerIds)
+                        : WireCodec.decodeDelta(reader, snapshotHistory, playerIds);
+                if (snapshot == null) {
+                    // La base del delta ya no está en el historial: pedir un snapshot completo.
+                    sendFrame(WireCodec.encodeAck(WireCodec.NO_TICK));
+                    continue;
+                }
+                snapshotHistory.add(snapshot);
+                sendFrame(WireCodec.encodeAck(snapshot.tick));
+                lastSnapshot = snapshot;
+                if (pendingPaint.getAndSet(snapshot) == null) {
+                    SwingUtilities.invokeLater(this::paintLatest);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (socket != null && !socket.isClosed()) {
+                Logger.warn(LogCategory.NET, "Error al decodificar o confirmar un estado del servidor.", e);
+            }
+            disconnect();
+        }
+    }
+
+    // EDT: pinta el estado más reciente; los que llegaron mientras esperaba ya fueron sustituidos.
+    private void paintLatest() {
+        GameStateSnapshot snapshot = pendingPaint.getAndSet(null);
+        if (snapshot != null && view != null) {
+            view.actualizarEstado(snapshot); // El panel repinta lo que cambió
+        }
+    }
+
     public void sendPing() {
         try {
             if (out != null) {
-                String pingMessage = "PING;" + System.currentTimeMillis();
-                out.writeObject(pingMessage);
-                out.flush();
+                sendFrame(WireCodec.encodePing(System.currentTimeMillis()));
             }
         } catch (IOException e) {
-            Logger.warn("Failed to send ping to server.", e);
+            Logger.warn(LogCategory.NET, "Failed to send ping to server.", e);
         }
     }
 
@@ -151,19 +224,26 @@ public class GameClient {
         Direccion lastSentDirection = null;
         try {
             while (!socket.isClosed()) {
-                Direccion currentDirection = direccionActual.get();
+                // Los giros encolados salen en cuanto se pulsan; setDirection() se comprueba 20 veces por segundo.
+                Direccion turn = pendingTurns.poll(50, TimeUnit.MILLISECONDS);
+                Direccion currentDirection = turn != null ? turn : direccionActual.get();
                 if (!currentDirection.equals(lastSentDirection)) {
-                    out.writeObject(currentDirection);
-                    out.flush();
+                    sendFrame(WireCodec.encodeDirection(currentDirection));
                     lastSentDirection = currentDirection;
                 }
-                Thread.sleep(50); // Enviar actualizaciones de input 20 veces por segundo
             }
         } catch (IOException | InterruptedException e) {
             // El hilo terminará si hay un error o se interrumpe
         }
     }
 
+    // El hilo de input, el de pings y el decodificador (ACKs) comparten el stream de salida.
+    private void sendFrame(byte[] frame) throws IOException {
+        synchronized (out) {
+            FrameCodec.writeFrame(out, frame);
+        }
+    }
+
     // Método para crear un snapshot inicial vacío
     private GameStateSnapshot createEmptySnapshot() {
         return new GameStateSnapshot(GameConfig.ANCHO_TABLERO, GameConfig.ALTO_TABLERO,
@@ -176,7 +256,7 @@ public class GameClient {
         try {
             new GameClient().start();
         } catch (IOException e) {
-            Logger.error("No se pudo conectar al servidor", e);
+            Logger.error(LogCategory.NET, "No se pudo conectar al servidor", e);
         }
     }
 
@@ -188,6 +268,16 @@ public class GameClient {
         return socket != null && socket.isConnected();
     }
 
+    // Último estado recibido del servidor (null hasta el primer broadcast).
+    public GameStateSnapshot getLastSnapshot() {
+        return lastSnapshot;
+    }
+
+    // Estados que llegaron mientras el decodificador iba atrasado y se sustituyeron sin decodificar.
+    public long getDroppedSnapshots() {
+        return mailbox.getDroppedStates();
+    }
+
     public CompletableFuture<String> getPlayerIdFuture() {
         return playerIdFuture;
     }
@@ -196,6 +286,12 @@ public class GameClient {
         this.direccionActual.set(direction);
     }
 
+    // Giro pulsado por el jugador: se envía aunque otro lo siga antes del siguiente envío.
+    public void queueTurn(Direccion direction) {
+        this.direccionActual.set(direction);
+        pendingTurns.offer(direction);
+    }
+
     public void disconnect() {
         try {
             if (socket != null && !socket.isClosed()) {
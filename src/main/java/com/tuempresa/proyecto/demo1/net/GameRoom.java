@@ -0,0 +1,539 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.tuempresa.proyecto.demo1.game.GameConfig;
+import com.tuempresa.proyecto.demo1.game.GameLogic;
+import com.tuempresa.proyecto.demo1.game.InputBuffer;
+import com.tuempresa.proyecto.demo1.game.TickPhaseStats;
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.Direccion;
+import com.tuempresa.proyecto.demo1.model.GamePhase;
+import com.tuempresa.proyecto.demo1.model.GameState;
+import com.tuempresa.proyecto.demo1.model.Snake;
+import com.tuempresa.proyecto.demo1.net.codec.PlayerIdTable;
+import com.tuempresa.proyecto.demo1.net.codec.SnapshotHistory;
+import com.tuempresa.proyecto.demo1.net.codec.WireCodec;
+import com.tuempresa.proyecto.demo1.net.codec.WireReader;
+import com.tuempresa.proyecto.demo1.net.codec.WireWriter;
+import com.tuempresa.proyecto.demo1.net.dto.AdminDataSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.PlayerData;
+import com.tuempresa.proyecto.demo1.net.dto.SnakeSnapshot;
+import com.tuempresa.proyecto.demo1.net.model.ClientMetrics;
+import com.tuempresa.proyecto.demo1.util.Logger;
+import com.tuempresa.proyecto.demo1.util.Logger.LogCategory;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Una partida independiente: su propio GameState, GameLogic, jugadores y broadcast.
+ *
+ * Los ticks los lleva el {@link TickScheduler}: cada sala pertenece a uno de sus hilos de bucle,
+ * que la despierta con {@code parkNanos} en su propio plazo de paso fijo y, si se atrasa, recupera
+ * como mucho unos pocos ticks antes de saltar el plazo. Así su tick nunca corre en paralelo
+ * consigo mismo, pero salas de hilos distintos sí avanzan en paralelo. Todo el estado marcado
+ * "solo el hilo del tick" pertenece a la ejecución en curso de {@link #tick(boolean)}.
+ */
+final class GameRoom {
+
+    // Lista de posiciones de inicio para los jugadores.
+    private static final List<Coordenada> STARTING_POSITIONS = Arrays.asList(
+            new Coordenada(10, 5),  // Jugador 1
+            new Coordenada(20, 5),  // Jugador 2
+            new Coordenada(10, 15), // Jugador 3
+            new Coordenada(20, 15)  // Jugador 4
+            // Se pueden añadir más posiciones si se espera soportar más jugadores.
+    );
+
+    private static final List<Color> PLAYER_COLORS = Arrays.asList(
+            Color.CYAN,
+            Color.PINK,
+            Color.YELLOW,
+            Color.LIGHT_GRAY
+    );
+
+    private final int id;
+    private final GameState gameState;
+    private final GameLogic gameLogic;
+    private final InputBuffer entradas = new InputBuffer(); // Giros de cada jugador, por slot
+    private final Set<PlayerConnection> playerConnections = new HashSet<>(); // Solo lo usa el hilo del tick
+    // Altas y bajas de serpientes y conexiones, e inicios y reinicios de partida, pedidos desde los
+    // hilos de las conexiones y de los admins. Las aplica el tick al empezar, así esos hilos no
+    // comparten ningún lock con él y el estado de la partida solo se modifica desde el tick.
+    private final Queue<Runnable> rosterChanges = new ConcurrentLinkedQueue<>();
+    // Conexiones que aún no han recibido la tabla de IDs; el tick las incorpora al broadcast.
+    private final Queue<PlayerConnection> pendingConnections = new ConcurrentLinkedQueue<>();
+    private final PlayerIdTable playerIds = new PlayerIdTable();
+    private final WireWriter broadcastWriter = new WireWriter(4096); // Solo lo usa el hilo del tick
+    // Estados recientes que pueden servir de base para los deltas, y estado de cada conexión (último tick confirmado, slot de entrada).
+    private final SnapshotHistory snapshotHistory = new SnapshotHistory(GameConfig.SNAPSHOT_HISTORY_TICKS);
+    private final ConcurrentHashMap<PlayerConnection, Peer> peers = new ConcurrentHashMap<>();
+    private final Map<Long, Packet> framesByBase = new HashMap<>(); // Solo lo usa el hilo del tick
+    private final PacketPool packetPool = new PacketPool(GameConfig.PACKET_POOL_BUFFERS_PER_SIZE);
+    private final TickPhaseStats tickStats = new TickPhaseStats();
+    // Último estado emitido; las consolas de administración lo leen a su ritmo desde sus hilos.
+    private volatile GameStateSnapshot latestSnapshot;
+    private long serializationNanos; // Tiempo codificando frames en el tick en curso; solo el hilo del tick
+    // Frames y bytes entregados a las colas de salida: acumulados, del último tick y del tick en curso.
+    private final AtomicLong sentPackets = new AtomicLong();
+    private final AtomicLong sentBytes = new AtomicLong();
+    private volatile int lastTickPackets;
+    private volatile int lastTickBytes;
+    private int tickPackets; // Solo el hilo del tick
+    private int tickBytes; // Solo el hilo del tick
+    private final ConcurrentHashMap<String, ClientMetrics> clientMetrics = new ConcurrentHashMap<>();
+    private final AtomicInteger playerCounter = new AtomicInteger(0);
+    private final AtomicInteger connectedPlayers = new AtomicInteger(0);
+
+    GameRoom(int id) {
+        this.id = id;
+        this.gameState = new GameState(GameConfig.ANCHO_TABLERO, GameConfig.ALTO_TABLERO);
+        this.gameLogic = new GameLogic();
+        gameLogic.setEstadisticas(tickStats);
+        gameLogic.generarFruta(gameState);
+    }
+
+    int getId() {
+        return id;
+    }
+
+    // Jugadores conectados a la sala (vivos o no); el lobby lo usa para repartir y cerrar salas.
+    int getConnectedPlayers() {
+        return connectedPlayers.get();
+    }
+
+    // Fase del último estado publicado: se lee desde otros hilos y el GameState es solo del tick.
+    GamePhase getGamePhase() {
+        GameStateSnapshot snapshot = latestSnapshot;
+        return snapshot != null ? snapshot.gamePhase : GamePhase.WAITING_FOR_PLAYERS;
+    }
+
+    TickPhaseStats getTickStats() {
+        return tickStats;
+    }
+
+    // --- Lecturas para el endpoint de métricas: ninguna toma un monitor que use el tick ---
+
+    long getSentPackets() {
+        return sentPackets.get();
+    }
+
+    long getSentBytes() {
+        return sentBytes.get();
+    }
+
+    int getLastTickPackets() {
+        return lastTickPackets;
+    }
+
+    int getLastTickBytes() {
+        return lastTickBytes;
+    }
+
+    Collection<ClientMetrics> getClientMetrics() {
+        return clientMetrics.values();
+    }
+
+    // Todas las conexiones de la sala, incluidas las que aún esperan su primer snapshot.
+    Set<PlayerConnection> getConnections() {
+        return peers.keySet();
+    }
+
+    void tick() {
+        tick(true);
+    }
+
+    /**
+     * Un paso de simulación; con {@code broadcast} además se envía el estado resultante. El
+     * {@link TickScheduler} lo llama a ritmo fijo y solo pide el envío cada
+     * {@code TICKS_POR_BROADCAST} ticks (y nunca mientras recupera ticks atrasados).
+     */
+    void tick(boolean broadcast) {
+        try {
+            long startTime = System.nanoTime();
+            applyRosterChanges();
+
+            if (gameState.getGamePhase() == GamePhase.IN_PROGRESS) {
+                gameLogic.actualizar(gameState, entradas);
+                if (gameState.getSerpientes().isEmpty()) {
+                    Logger.info(LogCategory.NET, "Sala " + id + ": juego terminado. Todas las serpientes eliminadas.");
+                    gameState.setGamePhase(GamePhase.GAME_ENDED);
+                }
+            }
+            gameState.advanceTick();
+            if (broadcast) {
+                broadcastUpdates();
+            }
+
+            long endTime = tickStats.medir(TickPhaseStats.Phase.TOTAL, startTime);
+            if (GameConfig.ENABLE_PERFORMANCE_METRICS) {
+                long durationMs = TimeUnit.NANOSECONDS.toMillis(endTime - startTime);
+                if (GameConfig.ENABLE_LOGIC_TIME_LOGGING) {
+                    String logMessage = String.format("[METRIC] Server tick duration: %d ms", durationMs);
+                    if (durationMs > GameConfig.SERVER_TICK_WARNING_THRESHOLD_MS) {
+                        Logger.warn(LogCategory.METRICS, logMessage + " - EXCEEDED THRESHOLD");
+                    } else {
+                        Logger.info(LogCategory.METRICS, logMessage);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Una excepción terminaría el hilo del bucle y congelaría sus salas en silencio.
+            Logger.error(LogCategory.NET, "Error en el tick de la sala " + id, e);
+        }
+    }
+
+    private void applyRosterChanges() {
+        Runnable change;
+        while ((change = rosterChanges.poll()) != null) {
+            change.run();
+        }
+    }
+
+    private void broadcastUpdates() {
+        tickPackets = 0;
+        tickBytes = 0;
+
+        // 1. Prepare player data (snapshot)
+        long start = System.nanoTime();
+        GameStateSnapshot playerSnapshot = gameState.toSnapshotDto();
+        snapshotHistory.add(playerSnapshot);
+        start = tickStats.medir(TickPhaseStats.Phase.SNAPSHOT_BUILD, start);
+        broadcastWriter.reset();
+        WireCodec.encodeSnapshot(broadcastWriter, playerSnapshot, playerIds);
+        Packet keyframe = packetPool.encode(broadcastWriter);
+        serializationNanos = System.nanoTime() - start;
+
+        // 2. Anunciar los IDs nuevos antes del snapshot que los referencia
+        broadcastWriter.reset();
+        if (playerIds.drainPendingDefinitions(broadcastWriter)) {
+            Packet definitions = packetPool.encode(broadcastWriter);
+            sendToPlayers(definitions);
+            definitions.release();
+        }
+        PlayerConnection joined;
+        while ((joined = pendingConnections.poll()) != null) {
+            broadcastWriter.reset();
+            playerIds.writeAllDefinitions(broadcastWriter);
+            Packet definitions = new Packet(broadcastWriter.toByteArray());
+            countSent(definitions);
+            if (joined.send(definitions)) {
+                playerConnections.add(joined);
+            }
+        }
+
+        // 3. Broadcast to players: un frame por base distinta, compartido por los clientes que la confirmaron
+        playerConnections.removeIf(connection -> {
+            Packet frame = stateFrameFor(connection, playerSnapshot, keyframe);
+            long sendStart = System.nanoTime();
+            boolean sent = connection.sendState(frame);
+            tickStats.medir(TickPhaseStats.Phase.CLIENT_SEND, sendStart);
+            countSent(frame);
+            return !sent;
+        });
+        // Las colas retienen lo que aceptaron; el tick suelta sus referencias.
+        for (Packet frame : framesByBase.values()) {
+            if (frame != keyframe) {
+                frame.release();
+            }
+        }
+        framesByBase.clear();
+        keyframe.release();
+        // Keyframe más los deltas que hubo que codificar para las bases confirmadas.
+        tickStats.registrar(TickPhaseStats.Phase.SERIALIZATION, serializationNanos);
+        sentPackets.addAndGet(tickPackets);
+        sentBytes.addAndGet(tickBytes);
+        lastTickPackets = tickPackets;
+        lastTickBytes = tickBytes;
+
+        // 4. Las consolas de administración toman este estado a su ritmo; al tick solo le cuesta publicarlo
+        latestSnapshot = playerSnapshot;
+    }
+
+    // Delta desde el último tick confirmado por el cliente, o el snapshot completo si no tiene base válida.
+    private Packet stateFrameFor(PlayerConnection connection, GameStateSnapshot current, Packet keyframe) {
+        Peer peer = peers.get(connection);
+        GameStateSnapshot base = peer != null ? snapshotHistory.get(peer.ackedTick.get()) : null;
+        if (base == null || base.tick >= current.tick) {
+            return keyframe;
+        }
+        Packet frame = framesByBase.get(base.tick);
+        if (frame == null) {
+            long start = System.nanoTime();
+            broadcastWriter.reset();
+            WireCodec.encodeDelta(broadcastWriter, base, current, playerIds);
+            // Contra una base muy antigua el delta puede salir más grande que el snapshot.
+            frame = broadcastWriter.size() < keyframe.size() ? packetPool.encode(broadcastWriter) : keyframe;
+            framesByBase.put(base.tick, frame);
+            serializationNanos += System.nanoTime() - start;
+        }
+        return frame;
+    }
+
+    private void sendToPlayers(Packet packet) {
+        playerConnections.removeIf(connection -> {
+            countSent(packet);
+            return !connection.send(packet);
+        });
+    }
+
+    private void countSent(Packet packet) {
+        tickPackets++;
+        tickBytes += packet.size();
+    }
+
+    // --- Datos para las consolas de administración: se leen desde sus hilos, nunca desde el tick ---
+
+    // Buffers directos reservados para los frames de difusión; se estabiliza cuando el pool está caliente.
+    long getPacketAllocations() {
+        return packetPool.getAllocations();
+    }
+
+    // Último estado emitido por el tick, o null si la sala aún no hizo ninguno.
+    GameStateSnapshot getLatestSnapshot() {
+        return latestSnapshot;
+    }
+
+    // Filas del panel de jugadores; las puntuaciones y la fase salen del snapshot, no del GameState vivo.
+    List<PlayerData> adminRows(GameStateSnapshot snapshot, long nowMillis) {
+        Map<String, Integer> playerScores = new HashMap<>();
+        for (SnakeSnapshot snake : snapshot.snakes) {
+            playerScores.put(snake.idJugador, snake.puntaje);
+        }
+
+        List<PlayerData> playerDataList = new ArrayList<>(clientMetrics.size());
+        for (ClientMetrics metrics : clientMetrics.values()) {
+            long duration = (nowMillis - metrics.getConnectionTimestamp()) / 1000;
+            int score = playerScores.getOrDefault(metrics.getPlayerId(), 0);
+            String status = metrics.getStatus();
+
+            if (snapshot.gamePhase == GamePhase.GAME_ENDED && "Alive".equals(status)) {
+                status = "Game Over";
+            }
+
+            playerDataList.add(new PlayerData(
+                    metrics.getPlayerId(),
+                    metrics.getHostAddress(),
+                    duration,
+                    metrics.getLastPingRttMs(),
+                    status,
+                    score
+            ));
+        }
+        return playerDataList;
+    }
+
+    // Estado completo para las consolas que no se suscribieron (AdminClient antiguo, serialización).
+    AdminDataSnapshot createAdminDataSnapshot(GameStateSnapshot snapshot, long nowMillis) {
+        return new AdminDataSnapshot(adminRows(snapshot, nowMillis), snapshot.gamePhase, snapshot);
+    }
+
+    // --- Ciclo de vida de los jugadores ---
+
+    // Se debe crear el jugador y asignarle un ID ANTES de que pueda recibir updates del juego.
+    // La serpiente entra en el próximo tick, antes de que se envíe el primer snapshot a la conexión.
+    ClientMetrics registerPlayer(String playerId, InetAddress address) {
+        int playerIndex = playerCounter.incrementAndGet();
+        connectedPlayers.incrementAndGet();
+
+        // Asignar una posición de la lista, rotando si hay más jugadores que posiciones.
+        Coordenada posInicial = STARTING_POSITIONS.get((playerIndex - 1) % STARTING_POSITIONS.size());
+        Color playerColor = PLAYER_COLORS.get((playerIndex - 1) % PLAYER_COLORS.size());
+
+        playerIds.intern(playerId);
+        int slot = entradas.reservar(Direccion.DERECHA); // Dirección inicial por defecto
+        Snake newSnake = new Snake(playerId, posInicial, playerColor.getRGB());
+        newSnake.setSlotEntrada(slot);
+        rosterChanges.add(() -> gameState.getSerpientes().add(newSnake));
+
+        ClientMetrics metrics = new ClientMetrics(playerId, address, slot);
+        clientMetrics.put(playerId, metrics);
+        Logger.info(LogCategory.NET, "Jugador " + playerId + " se ha unido a la sala " + id + " en " + posInicial + " con color " + playerColor);
+        return metrics;
+    }
+
+    // Ahora que el cliente está listo, añadirlo a la lista de broadcast.
+    // El próximo tick le envía la tabla de IDs completa antes de su primer snapshot.
+    void addPlayerConnection(PlayerConnection connection, ClientMetrics metrics) {
+        peers.put(connection, new Peer(metrics));
+        pendingConnections.add(connection);
+        metrics.setStatus("Alive");
+    }
+
+    void handlePlayerMessage(String playerId, byte type, WireReader reader, PlayerConnection connection) throws IOException {
+        Peer peer = peers.get(connection);
+        switch (type) {
+            case WireCodec.DIRECTION:
+                Direccion direccion = WireCodec.decodeDirection(reader);
+                if (peer != null) {
+                    entradas.encolar(peer.inputSlot, direccion);
+                }
+                break;
+            case WireCodec.ACK:
+                long acked = WireCodec.decodeAck(reader);
+                if (peer != null) {
+                    peer.ackedTick.set(acked);
+                }
+                break;
+            case WireCodec.PING:
+                long pingTimestamp = reader.readLong();
+                long rtt = System.currentTimeMillis() - pingTimestamp;
+                if (peer != null) {
+                    peer.metrics.setLastPingRttMs(rtt);
+                }
+                connection.send(new Packet(WireCodec.encodePong(pingTimestamp)));
+                break;
+            default:
+                Logger.warn(LogCategory.NET, "Mensaje desconocido (tipo " + type + ") del jugador " + playerId);
+        }
+    }
+
+    void removePlayer(String playerId, PlayerConnection connection) {
+        Peer peer = null;
+        if (connection != null) {
+            peer = peers.remove(connection);
+            rosterChanges.add(() -> playerConnections.remove(connection));
+        }
+        if (playerId != null) {
+            ClientMetrics metrics = clientMetrics.get(playerId);
+            if (metrics != null) {
+                metrics.setStatus("Dead");
+            }
+            int slot = peer != null ? peer.inputSlot : metrics != null ? metrics.getInputSlot() : -1;
+            rosterChanges.add(() -> {
+                removeSnake(playerId);
+                if (slot >= 0) {
+                    entradas.liberar(slot); // En el tick: el slot no se reasigna mientras su serpiente siga en juego
+                }
+            });
+            connectedPlayers.decrementAndGet();
+            Logger.info(LogCategory.NET, "Jugador " + playerId + " ha sido eliminado de la sala " + id + ".");
+            playerIds.release(playerId);
+        }
+    }
+
+    // Solo desde el tick, vía rosterChanges.
+    private void removeSnake(String playerId) {
+        gameState.getSerpientes().removeIf(s -> s.getIdJugador().equals(playerId));
+    }
+
+    /**
+     * Comandos de administración que actúan sobre esta sala. Se atienden en el hilo del admin:
+     * lo que modifica la partida se encola para el tick y las consultas leen el último estado
+     * publicado, nunca el GameState en curso.
+     */
+    String handleAdminCommand(String command) {
+        String upperCaseCommand = command.toUpperCase();
+
+        if (upperCaseCommand.startsWith("KICK_PLAYER")) {
+            String playerIdToKick = command.substring("KICK_PLAYER".length()).trim();
+            if (clientMetrics.containsKey(playerIdToKick)) {
+                // This is a bit brutal. A cleaner way would be to send a "you have been kicked"
+                // message to the client and have it shut down gracefully.
+                // For now, we just remove them from the game. The ClientHandler will eventually
+                // fail due to a broken pipe and clean up the socket.
+                rosterChanges.add(() -> removeSnake(playerIdToKick));
+                clientMetrics.remove(playerIdToKick);
+                Logger.info(LogCategory.NET, "Admin ha expulsado al jugador: " + playerIdToKick);
+                return "Jugador " + playerIdToKick + " ha sido expulsado.";
+            } else {
+                return "Error: No se encontró al jugador " + playerIdToKick;
+            }
+        }
+
+        switch (upperCaseCommand) {
+            case "START_GAME":
+                if (getGamePhase() == GamePhase.IN_PROGRESS) {
+                    Logger.warn(LogCategory.NET, "Intento de iniciar un juego que ya está en progreso.");
+                    return "Error: El juego ya está en progreso.";
+                }
+                rosterChanges.add(this::startGame);
+                return "Juego iniciado.";
+
+            case "RESET_GAME":
+                rosterChanges.add(this::resetGame);
+                return "Juego reseteado. Esperando jugadores.";
+
+            case "TICK_STATS":
+                return "Duración de las fases del tick en la sala " + id + ":\n" + tickStats.resumen();
+
+            case "TICK_STATS_RESET":
+                tickStats.reiniciar();
+                return "Histogramas del tick de la sala " + id + " reiniciados.";
+
+            case "LIST_PLAYERS":
+                GameStateSnapshot snapshot = latestSnapshot;
+                if (snapshot == null || snapshot.snakes.isEmpty()) {
+                    return "No hay jugadores conectados.";
+                }
+                StringBuilder playerList = new StringBuilder("Jugadores conectados:\n");
+                for (SnakeSnapshot snake : snapshot.snakes) {
+                    playerList.append(String.format("- %s (Puntaje: %d)\n", snake.idJugador, snake.puntaje));
+                }
+                return playerList.toString();
+
+            default:
+                return "Error: Comando desconocido '" + command + "'.";
+        }
+    }
+
+    // Solo desde el tick, vía rosterChanges. Dos START_GAME seguidos encolan dos inicios.
+    private void startGame() {
+        if (gameState.getGamePhase() == GamePhase.IN_PROGRESS) {
+            return;
+        }
+        Logger.info(LogCategory.NET, "El juego de la sala " + id + " ha sido iniciado por un administrador.");
+        gameState.setGamePhase(GamePhase.IN_PROGRESS);
+    }
+
+    // Solo desde el tick, vía rosterChanges: toca las frutas, el tablero y los cuerpos de las serpientes.
+    private void resetGame() {
+        Logger.info(LogCategory.NET, "El juego de la sala " + id + " ha sido reseteado por un administrador.");
+        gameState.setGamePhase(GamePhase.WAITING_FOR_PLAYERS);
+        gameState.getFrutas().clear();
+        gameLogic.generarFruta(gameState);
+
+        // Resetear estado de las serpientes existentes
+        int playerIndex = 0;
+        for (Snake snake : gameState.getSerpientes()) {
+            // Asignar una posición de la lista, rotando si hay más jugadores que posiciones.
+            Coordenada posInicial = STARTING_POSITIONS.get(playerIndex % STARTING_POSITIONS.size());
+            snake.reset(posInicial);
+            if (snake.getSlotEntrada() >= 0) {
+                entradas.reiniciar(snake.getSlotEntrada(), Direccion.DERECHA);
+            }
+            playerIndex++;
+        }
+        // Clear metrics for players that might have disconnected during a game over
+        clientMetrics.entrySet().removeIf(entry ->
+                gameState.getSerpientes().stream().noneMatch(s -> s.getIdJugador().equals(entry.getKey()))
+        );
+    }
+
+    // Estado de una conexión que leen sus mensajes y el tick: último tick confirmado y slot de entrada.
+    private static final class Peer {
+        final AtomicLong ackedTick = new AtomicLong(WireCodec.NO_TICK);
+        final ClientMetrics metrics;
+        final int inputSlot;
+
+        Peer(ClientMetrics metrics) {
+            this.metrics = metrics;
+            this.inputSlot = metrics.getInputSlot();
+        }
+    }
+}
@@ -1,98 +1,159 @@
 package com.tuempresa.proyecto.demo1.net;
 
 import com.tuempresa.proyecto.demo1.game.GameConfig;
-import com.tuempresa.proyecto.demo1.game.GameLogic;
-import com.tuempresa.proyecto.demo1.model.Coordenada;
-import com.tuempresa.proyecto.demo1.model.Direccion;
-import com.tuempresa.proyecto.demo1.model.GamePhase;
-import com.tuempresa.proyecto.demo1.model.GameState;
-import com.tuempresa.proyecto.demo1.model.Snake;
+import com.tuempresa.proyecto.demo1.net.codec.WireCodec;
+import com.tuempresa.proyecto.demo1.net.codec.WireReader;
+import com.tuempresa.proyecto.demo1.net.dto.AdminDataSnapshot;
 import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import com.tuempresa.proyecto.demo1.net.model.ClientMetrics;
 import com.tuempresa.proyecto.demo1.util.Logger;
+import com.tuempresa.proyecto.demo1.util.Logger.LogCategory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.awt.Color;
 import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class GameServer {
 
-    // Ahora se usan los valores de GameConfig
-    private GameState gameState;
-    private GameLogic gameLogic;
-    private ConcurrentHashMap<String, Direccion> accionesDeJugadores;
-    private Set<ObjectOutputStream> clientOutputStreams = Collections.synchronizedSet(new HashSet<>());
-    private ScheduledExecutorService gameLoop;
+    // Sala a la que van los jugadores que no piden ninguna y la que ven los admins al conectarse.
+    static final int DEFAULT_ROOM = 0;
+
+    // Salas activas por ID. Las altas y bajas de salas se hacen con roomsLock: lo toman los hilos
+    // de las conexiones, que pueden ser virtuales y no deben bloquearse en un monitor.
+    private final Map<Integer, GameRoom> rooms = new TreeMap<>();
+    private final ReentrantLock roomsLock = new ReentrantLock();
+    private int nextRoomId = DEFAULT_ROOM + 1;
+    private final boolean useNioTransport;
+    private NioTransport nioTransport;
+    private MetricsEndpoint metricsEndpoint;
+    private TickScheduler tickScheduler;
+    private ScheduledExecutorService maintenance; // Volcado periódico de métricas; nunca en los hilos del tick
     private ServerSocket playerServerSocket;
     private ServerSocket adminServerSocket;
     private Thread playerListenerThread;
     private Thread adminListenerThread;
     private final Set<AdminClientHandler> adminClientHandlers = Collections.synchronizedSet(new HashSet<>());
-    private java.util.concurrent.atomic.AtomicInteger playerCounter = new java.util.concurrent.atomic.AtomicInteger(0);
-
-
-    private ConcurrentHashMap<String, com.tuempresa.proyecto.demo1.net.model.ClientMetrics> clientMetrics = new ConcurrentHashMap<>();
-    // Lista de posiciones de inicio para los jugadores.
-    private static final List<Coordenada> STARTING_POSITIONS = Arrays.asList(
-            new Coordenada(10, 5),  // Jugador 1
-            new Coordenada(20, 5),  // Jugador 2
-            new Coordenada(10, 15), // Jugador 3
-            new Coordenada(20, 15)  // Jugador 4
-            // Se pueden añadir más posiciones si se espera soportar más jugadores.
-    );
-
-    private static final List<Color> PLAYER_COLORS = Arrays.asList(
-            Color.CYAN,
-            Color.PINK,
-            Color.YELLOW,
-            Color.LIGHT_GRAY
-    );
 
 
     public GameServer() {
-        gameState = new GameState(GameConfig.ANCHO_TABLERO, GameConfig.ALTO_TABLERO);
-        gameLogic = new GameLogic();
-        accionesDeJugadores = new ConcurrentHashMap<>();
-        gameLogic.generarFruta(gameState);
+        this(GameConfig.USE_NIO_TRANSPORT);
+    }
+
+    /**
+     * @param useNioTransport true para atender a los jugadores con un pool fijo de hilos
+     *                        de I/O sobre selectores NIO; false para el modelo clásico de
+     *                        un hilo bloqueante por conexión.
+     */
+    public GameServer(boolean useNioTransport) {
+        this.useNioTransport = useNioTransport;
+        rooms.put(DEFAULT_ROOM, new GameRoom(DEFAULT_ROOM));
     }
 
     public void start() {
-        Logger.info("Iniciando servidor...");
-        gameLoop = Executors.newSingleThreadScheduledExecutor();
-        gameLoop.scheduleAtFixedRate(this::tick, 0, GameConfig.MILIS_POR_TICK, TimeUnit.MILLISECONDS);
+        Logger.info(LogCategory.NET, "Iniciando servidor...");
+        // Hilos fijos de tick; cada sala lleva su propio plazo de paso fijo dentro de ellos.
+        tickScheduler = new TickScheduler(GameConfig.TICK_WORKER_THREADS, GameConfig.MILIS_POR_TICK,
+                GameConfig.TICKS_POR_BROADCAST, GameConfig.MAX_TICKS_RECUPERACION, GameConfig.TICK_OVERLOAD_HOLD_MS);
+        roomsLock.lock();
+        try {
+            for (GameRoom room : rooms.values()) {
+                tickScheduler.add(room);
+            }
+        } finally {
+            roomsLock.unlock();
+        }
+        tickScheduler.start();
+        maintenance = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "server-maintenance");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        maintenance.scheduleAtFixedRate(this::dumpTickStats,
+                GameConfig.TICK_STATS_DUMP_SECONDS, GameConfig.TICK_STATS_DUMP_SECONDS, TimeUnit.SECONDS);
+        if (GameConfig.METRICS_HTTP_PORT >= 0) {
+            metricsEndpoint = new MetricsEndpoint(this, GameConfig.METRICS_HTTP_PORT);
+            try {
+                metricsEndpoint.start();
+                Logger.info(LogCategory.NET, "Métricas en http://localhost:" + metricsEndpoint.getPort() + "/metrics");
+            } catch (IOException e) {
+                Logger.error(LogCategory.NET, "No se pudo iniciar el endpoint de métricas en el puerto " + GameConfig.METRICS_HTTP_PORT, e);
+                metricsEndpoint.stop();
+                metricsEndpoint = null;
+            }
+        }
 
         // Iniciar hilo para escuchar conexiones de administradores
         adminListenerThread = new Thread(this::listenForAdmins);
         adminListenerThread.start();
 
-        // El hilo principal se encarga de escuchar a los jugadores.
-        playerListenerThread = new Thread(this::listenForPlayers);
-        playerListenerThread.start();
+        if (useNioTransport) {
+            nioTransport = new NioTransport(this, GameConfig.DEFAULT_PORT, GameConfig.NIO_IO_THREADS);
+            try {
+                nioTransport.start();
+                Logger.info(LogCategory.NET, "Servidor escuchando jugadores (NIO, " + GameConfig.NIO_IO_THREADS + " hilos de I/O) en el puerto " + GameConfig.DEFAULT_PORT);
+            } catch (IOException e) {
+                Logger.error(LogCategory.NET, "No se pudo iniciar el listener de jugadores en el puerto " + GameConfig.DEFAULT_PORT, e);
+            }
+        } else {
+            // El hilo principal se encarga de escuchar a los jugadores.
+            playerListenerThread = new Thread(this::listenForPlayers);
+            playerListenerThread.start();
+        }
     }
 
     private void listenForPlayers() {
         try {
-            playerServerSocket = new ServerSocket(GameConfig.DEFAULT_PORT);
-            Logger.info("Servidor escuchando jugadores en el puerto " + GameConfig.DEFAULT_PORT);
+            // Socket respaldado por un canal: el writer de cada cliente usa escrituras agrupadas.
+            playerServerSocket = ServerSocketChannel.open().socket();
+            playerServerSocket.setReuseAddress(true);
+            playerServerSocket.bind(new InetSocketAddress(GameConfig.DEFAULT_PORT));
+            if (GameConfig.USE_VIRTUAL_THREADS && !ConnectionThreads.isVirtual()) {
+                Logger.warn(LogCategory.NET, "Este build no tiene hilos virtuales (compilar con -P virtual-threads en un JDK 21); se usan hilos de plataforma.");
+            }
+            Logger.info(LogCategory.NET, "Servidor escuchando jugadores en el puerto " + GameConfig.DEFAULT_PORT
+                    + (ConnectionThreads.isVirtual() ? " (hilos virtuales)" : ""));
             while (!Thread.currentThread().isInterrupted()) {
                 Socket clientSocket = playerServerSocket.accept();
-                Logger.info("Nuevo cliente conectado: " + clientSocket.getInetAddress());
-                new Thread(new ClientHandler(clientSocket)).start();
+                Logger.info(LogCategory.NET, "Nuevo cliente conectado: " + clientSocket.getInetAddress());
+                ConnectionThreads.start("player-" + clientSocket.getInetAddress(), new ClientHandler(clientSocket), false);
             }
         } catch (IOException e) {
             if (!Thread.currentThread().isInterrupted()) {
-                Logger.error("No se pudo iniciar el listener de jugadores en el puerto " + GameConfig.DEFAULT_PORT, e);
+                Logger.error(LogCategory.NET, "No se pudo iniciar el listener de jugadores en el puerto " + GameConfig.DEFAULT_PORT, e);
             }
         }
     }
@@ -101,131 +162,170 @@ public class GameServer {
         int adminPort = GameConfig.DEFAULT_PORT + 1;
         try {
             adminServerSocket = new ServerSocket(adminPort);
-            Logger.info("Servidor escuchando administradores en el puerto " + adminPort);
+            Logger.info(LogCategory.NET, "Servidor escuchando administradores en el puerto " + adminPort);
             while (!Thread.currentThread().isInterrupted()) {
                 Socket clientSocket = adminServerSocket.accept();
-                Logger.info("Nuevo administrador conectado: " + clientSocket.getInetAddress());
+                Logger.info(LogCategory.NET, "Nuevo administrador conectado: " + clientSocket.getInetAddress());
                 AdminClientHandler handler = new AdminClientHandler(clientSocket);
                 adminClientHandlers.add(handler);
-                new Thread(handler).start();
+                ConnectionThreads.start("admin-" + clientSocket.getInetAddress(), handler, false);
             }
         } catch (IOException e) {
             if (!Thread.currentThread().isInterrupted()) {
-                Logger.error("No se pudo iniciar el listener de administradores en el puerto " + adminPort, e);
+                Logger.error(LogCategory.NET, "No se pudo iniciar el listener de administradores en el puerto " + adminPort, e);
             }
         }
     }
 
-    private void tick() {
-        long startTime = 0;
-        if (GameConfig.ENABLE_PERFORMANCE_METRICS) {
-            startTime = System.nanoTime();
+    // --- Lobby: reparto de jugadores en salas, compartido por ambos transportes ---
+
+    /**
+     * Asigna una sala al jugador durante el handshake, lo da de alta en ella y añade la conexión
+     * a su broadcast. Si pidió una sala concreta entra en ella (se crea si no existe y queda
+     * sitio); si no, va a la primera sala con hueco, y si todas están llenas se abre una nueva.
+     */
+    GameRoom joinRoom(String playerId, int requestedRoom, InetAddress address, PlayerConnection connection) {
+        GameRoom room;
+        ClientMetrics metrics;
+        roomsLock.lock();
+        try {
+            room = requestedRoom >= 0 ? rooms.get(requestedRoom) : null;
+            if (room == null && requestedRoom >= 0 && rooms.size() < GameConfig.MAX_SALAS) {
+                room = openRoom(requestedRoom);
+            }
+            if (room == null) {
+                room = roomWithSpace();
+            }
+            // Se registra con el lock tomado para que la sala no se cierre entre la elección y el alta.
+            metrics = room.registerPlayer(playerId, address);
+        } finally {
+            roomsLock.unlock();
         }
+        room.addPlayerConnection(connection, metrics);
+        return room;
+    }
 
-        if (gameState.getGamePhase() == GamePhase.IN_PROGRESS) {
-            gameLogic.actualizar(gameState, accionesDeJugadores);
-            if (gameState.getSerpientes().isEmpty()) {
-                Logger.info("Juego terminado. Todas las serpientes eliminadas.");
-                gameState.setGamePhase(GamePhase.GAME_ENDED);
+    void leaveRoom(GameRoom room, String playerId, PlayerConnection connection) {
+        if (room == null) return; // El cliente se desconectó antes del handshake
+        room.removePlayer(playerId, connection);
+        roomsLock.lock();
+        try {
+            // La sala por defecto siempre existe; las demás se cierran al quedarse vacías.
+            if (room.getId() != DEFAULT_ROOM && room.getConnectedPlayers() == 0 && rooms.remove(room.getId()) != null) {
+                tickScheduler.remove(room);
+                Logger.info(LogCategory.NET, "Sala " + room.getId() + " cerrada por estar vacía.");
             }
+        } finally {
+            roomsLock.unlock();
         }
-        broadcastUpdates();
+    }
 
-        if (GameConfig.ENABLE_PERFORMANCE_METRICS) {
-            long endTime = System.nanoTime();
-            long durationMs = TimeUnit.NANOSECONDS.toMillis(endTime - startTime);
-            if (GameConfig.ENABLE_LOGIC_TIME_LOGGING) {
-                String logMessage = String.format("[METRIC] Server tick duration: %d ms", durationMs);
-                if (durationMs > GameConfig.SERVER_TICK_WARNING_THRESHOLD_MS) {
-                    Logger.warn(logMessage + " - EXCEEDED THRESHOLD");
-                } else {
-                    Logger.info(logMessage);
-                }
+    // Llamar con roomsLock tomado.
+    private GameRoom roomWithSpace() {
+        for (GameRoom room : rooms.values()) {
+            if (room.getConnectedPlayers() < GameConfig.MAX_JUGADORES_POR_SALA) {
+                return room;
             }
         }
+        if (rooms.size() >= GameConfig.MAX_SALAS) {
+            // Sin sitio para más salas: se sobrecarga la sala por defecto antes que rechazar al jugador.
+            Logger.warn(LogCategory.NET, "Todas las salas están llenas; el jugador entra en la sala " + DEFAULT_ROOM);
+            return rooms.get(DEFAULT_ROOM);
+        }
+        while (rooms.containsKey(nextRoomId)) {
+            nextRoomId++;
+        }
+        return openRoom(nextRoomId++);
     }
 
-    private void broadcastUpdates() {
-        // 1. Prepare player data (snapshot)
-        GameStateSnapshot playerSnapshot = gameState.toSnapshotDto();
-        Packet playerPacket = null;
-        try (java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
-             java.io.ObjectOutputStream oos = new java.io.ObjectOutputStream(baos)) {
-            oos.writeObject(playerSnapshot);
-            playerPacket = new Packet(baos.toByteArray());
-        } catch (IOException e) {
-            Logger.error("Error serializing game state for players", e);
-            // If we can't serialize this, we can't send to admins either.
-            return;
+    // Llamar con roomsLock tomado.
+    private GameRoom openRoom(int id) {
+        GameRoom room = new GameRoom(id);
+        rooms.put(id, room);
+        if (tickScheduler != null) {
+            tickScheduler.add(room);
         }
+        Logger.info(LogCategory.NET, "Sala " + id + " abierta.");
+        return room;
+    }
 
-        // 2. Prepare admin data (richer snapshot)
-        com.tuempresa.proyecto.demo1.net.dto.AdminDataSnapshot adminSnapshot = null;
-        if (!adminClientHandlers.isEmpty()) {
-            adminSnapshot = createAdminDataSnapshot(playerSnapshot);
+    GameRoom getRoom(int id) {
+        roomsLock.lock();
+        try {
+            return rooms.get(id);
+        } finally {
+            roomsLock.unlock();
         }
+    }
 
-        // 3. Broadcast to players
-        final Packet finalPlayerPacket = playerPacket;
-        synchronized (clientOutputStreams) {
-            clientOutputStreams.removeIf(out -> {
-                try {
-                    out.writeObject(finalPlayerPacket);
-                    out.reset();
-                    return false;
-                } catch (IOException e) {
-                    Logger.warn("Error sending state to player, removing stream.", e);
-                    return true;
-                }
-            });
+    // Copia de las salas abiertas; no retiene el lock del lobby mientras se recorren.
+    List<GameRoom> getRooms() {
+        roomsLock.lock();
+        try {
+            return new ArrayList<>(rooms.values());
+        } finally {
+            roomsLock.unlock();
         }
+    }
 
-        // 4. Broadcast to admins
-        if (adminSnapshot != null) {
-            final com.tuempresa.proyecto.demo1.net.dto.AdminDataSnapshot finalAdminSnapshot = adminSnapshot;
-            new HashSet<>(adminClientHandlers).forEach(handler -> handler.sendAdminData(finalAdminSnapshot));
+    public int getRoomCount() {
+        roomsLock.lock();
+        try {
+            return rooms.size();
+        } finally {
+            roomsLock.unlock();
         }
     }
 
-    private com.tuempresa.proyecto.demo1.net.dto.AdminDataSnapshot createAdminDataSnapshot(GameStateSnapshot playerSnapshot) {
-        java.util.List<com.tuempresa.proyecto.demo1.net.dto.PlayerData> playerDataList = new java.util.ArrayList<>();
-        long now = System.currentTimeMillis();
-
-        java.util.Map<String, Integer> playerScores = new java.util.HashMap<>();
-        for (Snake snake : gameState.getSerpientes()) {
-            playerScores.put(snake.getIdJugador(), snake.getPuntaje());
+    // Percentiles de las fases del tick de todas las salas, para consultarlos sin una consola de admin.
+    String tickStatsReport() {
+        StringBuilder report = new StringBuilder("Fases del tick (" + new Date() + ")\n");
+        for (GameRoom room : getRooms()) {
+            report.append("\nSala ").append(room.getId()).append(":\n").append(room.getTickStats().resumen());
+        }
+        if (tickScheduler != null) {
+            report.append("\nPlanificador: ").append(tickScheduler.summary()).append('\n');
         }
+        return report.toString();
+    }
 
-        for (com.tuempresa.proyecto.demo1.net.model.ClientMetrics metrics : clientMetrics.values()) {
-            long duration = (now - metrics.getConnectionTimestamp()) / 1000;
-            int score = playerScores.getOrDefault(metrics.getPlayerId(), 0);
-            String status = metrics.getStatus();
+    // Ticks atrasados: el trabajo prescindible (volcados, consolas de admin) cede ante la simulación.
+    boolean isOverloaded() {
+        return tickScheduler != null && tickScheduler.isOverloaded();
+    }
 
-            if (gameState.getGamePhase() == GamePhase.GAME_ENDED && "Alive".equals(status)) {
-                status = "Game Over";
-            }
+    TickScheduler getTickScheduler() {
+        return tickScheduler;
+    }
 
-            playerDataList.add(new com.tuempresa.proyecto.demo1.net.dto.PlayerData(
-                    metrics.getPlayerId(),
-                    metrics.getIpAddress().getHostAddress(),
-                    duration,
-                    metrics.getLastPingRttMs(),
-                    status,
-                    score
-            ));
+    // Sobrescribe el fichero en cada volcado: refleja los histogramas acumulados desde el arranque.
+    boolean dumpTickStats(Path file) {
+        try {
+            Files.write(file, tickStatsReport().getBytes(StandardCharsets.UTF_8));
+            return true;
+        } catch (IOException e) {
+            Logger.warn(LogCategory.METRICS, "No se pudo escribir " + file + ": " + e.getMessage());
+            return false;
         }
+    }
 
-        return new com.tuempresa.proyecto.demo1.net.dto.AdminDataSnapshot(
-                playerDataList,
-                gameState.getGamePhase(),
-                playerSnapshot // Reuse the snapshot created for players
-        );
+    private void dumpTickStats() {
+        if (isOverloaded()) {
+            return; // Se vuelca en el siguiente periodo; los histogramas siguen acumulando
+        }
+        dumpTickStats(Paths.get(GameConfig.TICK_STATS_FILE));
     }
 
-    private class ClientHandler implements Runnable {
+    /**
+     * Conexión de un jugador en el modelo de hilo por conexión. Un hilo lee el input y otro
+     * (el writer) vacía la cola de salida, de modo que el tick nunca escribe en el socket.
+     */
+    private class ClientHandler implements Runnable, PlayerConnection {
         private Socket clientSocket;
-        private ObjectOutputStream out;
+        private final OutboundQueue outbound = new OutboundQueue(GameConfig.MAX_QUEUED_CONTROL_FRAMES, GameConfig.CLIENT_LAG_BUDGET_MS);
+        private final java.util.concurrent.atomic.AtomicBoolean closed = new java.util.concurrent.atomic.AtomicBoolean();
         private String playerId;
+        private GameRoom room;
 
         public ClientHandler(Socket socket) {
             this.clientSocket = socket;
@@ -233,171 +333,191 @@ public class GameServer {
 
         @Override
         public void run() {
-            com.tuempresa.proyecto.demo1.net.model.ClientMetrics metrics = null;
             try {
                 clientSocket.setTcpNoDelay(true); // OPTIMIZATION: Disable Nagle's Algorithm
-                out = new ObjectOutputStream(clientSocket.getOutputStream());
-                ObjectInputStream in = new ObjectInputStream(clientSocket.getInputStream());
-
-                // Se debe crear el jugador y asignarle un ID ANTES de que pueda recibir updates del juego.
-                synchronized (gameState) {
-                    // Leer el ID que envía el cliente
-                    try {
-                        playerId = (String) in.readObject(); // El cliente ahora envía su propio ID
-                    } catch (ClassNotFoundException e) {
-                        throw new IOException("El cliente no envió un ID válido.", e);
-                    }
-
-                    int playerIndex = playerCounter.incrementAndGet();
-
-                    // Asignar una posición de la lista, rotando si hay más jugadores que posiciones.
-                    Coordenada posInicial = STARTING_POSITIONS.get((playerIndex - 1) % STARTING_POSITIONS.size());
-                    Color playerColor = PLAYER_COLORS.get((playerIndex - 1) % PLAYER_COLORS.size());
+                ConnectionThreads.start("player-writer-" + clientSocket.getInetAddress(), () -> writeLoop(clientSocket.getChannel()), true);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(clientSocket.getInputStream()));
 
-                    Snake newSnake = new Snake(playerId, posInicial, playerColor.getRGB());
-                    gameState.getSerpientes().add(newSnake);
-                    accionesDeJugadores.put(playerId, Direccion.DERECHA); // Dirección inicial por defecto
-
-                    metrics = new com.tuempresa.proyecto.demo1.net.model.ClientMetrics(playerId, clientSocket.getInetAddress());
-                    clientMetrics.put(playerId, metrics);
-                    Logger.info("Jugador " + playerId + " se ha unido al juego en " + posInicial + " con color " + playerColor);
+                // Leer el ID que envía el cliente
+                WireReader reader = new WireReader();
+                if (FrameCodec.readFrame(in, reader, GameConfig.MAX_CLIENT_FRAME_BYTES) != WireCodec.HELLO) {
+                    throw new IOException("El cliente no envió un ID válido.");
                 }
+                playerId = reader.readString(); // El cliente ahora envía su propio ID
+                int requestedRoom = WireCodec.decodeHelloRoom(reader);
 
                 // El cliente ya tiene su ID, no es necesario enviarlo de vuelta.
-
-                // Ahora que el cliente está listo, añadirlo a la lista de broadcast.
-                clientOutputStreams.add(out);
-                metrics.setStatus("Alive");
-
+                room = joinRoom(playerId, requestedRoom, clientSocket.getInetAddress(), this);
 
                 while (!Thread.currentThread().isInterrupted()) {
-                    try {
-                        Object receivedObject = in.readObject();
-                        if (receivedObject instanceof Direccion) {
-                            accionesDeJugadores.put(playerId, (Direccion) receivedObject);
-                        } else if (receivedObject instanceof String) {
-                            String command = (String) receivedObject;
-                            if (command.startsWith("PING;")) {
-                                long pingTimestamp = Long.parseLong(command.substring(5));
-                                long rtt = System.currentTimeMillis() - pingTimestamp;
-                                if (clientMetrics.containsKey(playerId)) {
-                                    clientMetrics.get(playerId).setLastPingRttMs(rtt);
-                                }
-                                String pongResponse = "PONG;" + command.substring(5);
-                                out.writeObject(pongResponse);
-                                out.flush();
-                            }
-                        }
-                    } catch (ClassNotFoundException e) {
-                        Logger.error("Error al leer objeto del cliente " + playerId, e);
-                        break;
-                    }
+                    byte type = FrameCodec.readFrame(in, reader, GameConfig.MAX_CLIENT_FRAME_BYTES);
+                    room.handlePlayerMessage(playerId, type, reader, this);
                 }
             } catch (IOException e) {
-                Logger.warn("Conexión perdida con el cliente: " + clientSocket.getInetAddress());
+                Logger.warn(LogCategory.NET, "Conexión perdida con el cliente: " + clientSocket.getInetAddress());
             } finally {
-                if (out != null) {
-                    clientOutputStreams.remove(out);
-                }
-                if (playerId != null) {
-                    if (clientMetrics.containsKey(playerId)) {
-                        clientMetrics.get(playerId).setStatus("Dead");
-                    }
-                    synchronized (gameState) {
-                        gameState.getSerpientes().removeIf(s -> s.getIdJugador().equals(playerId));
-                        accionesDeJugadores.remove(playerId);
-                        Logger.info("Jugador " + playerId + " ha sido eliminado del juego.");
+                leaveRoom(room, playerId, this);
+                close();
+            }
+        }
+
+        private void writeLoop(SocketChannel channel) {
+            FrameBatch batch = new FrameBatch();
+            try {
+                Packet packet;
+                while ((packet = outbound.take()) != null) {
+                    // Los frames que se encolaron mientras escribíamos salen en la misma escritura.
+                    batch.add(packet);
+                    batch.fill(outbound);
+                    while (!batch.writeTo(channel)) {
+                        // Canal bloqueante: write() puede devolver antes de escribirlo todo.
                     }
+                    outbound.markDrained();
                 }
-                try {
-                    clientSocket.close();
-                } catch (IOException e) {
-                    // Ignorar
+            } catch (IOException e) {
+                if (!closed.get()) {
+                    Logger.warn(LogCategory.NET, "Error sending state to player, removing stream.", e);
                 }
+                close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                batch.clear(); // Frames que no llegaron a escribirse vuelven al pool
+            }
+        }
+
+        @Override
+        public String getPlayerId() {
+            return playerId;
+        }
+
+        @Override
+        public int getQueuedFrames() {
+            return outbound.getQueuedFrames();
+        }
+
+        @Override
+        public boolean send(Packet packet) {
+            return outbound.offerControl(packet, System.nanoTime()) || evict();
+        }
+
+        @Override
+        public boolean sendState(Packet packet) {
+            return outbound.offerState(packet, System.nanoTime()) || evict();
+        }
+
+        // Cliente que no consume a tiempo: cerrar el socket hace que el hilo lector lo dé de baja.
+        private boolean evict() {
+            if (!closed.get()) {
+                Logger.warn(LogCategory.NET, "Cliente lento expulsado: " + playerId + " (" + outbound.getDroppedStates() + " estados descartados)");
+                close();
+            }
+            return false;
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            outbound.close();
+            try {
+                clientSocket.close();
+            } catch (IOException e) {
+                // Ignorar
             }
         }
     }
 
-    private synchronized String handleAdminCommand(String command) {
+    // Comandos del lobby; el resto se aplica a la sala que observa el administrador.
+    private String handleAdminCommand(AdminClientHandler admin, String command) {
         if (command == null) {
             return "Error: Comando nulo.";
         }
-        Logger.debug("Procesando comando de admin: " + command);
+        Logger.debug(LogCategory.NET, "Procesando comando de admin: " + command);
         String upperCaseCommand = command.toUpperCase();
 
-        if (upperCaseCommand.startsWith("KICK_PLAYER")) {
-            String playerIdToKick = command.substring("KICK_PLAYER".length()).trim();
-            if (clientMetrics.containsKey(playerIdToKick)) {
-                // This is a bit brutal. A cleaner way would be to send a "you have been kicked"
-                // message to the client and have it shut down gracefully.
-                // For now, we just remove them from the game. The ClientHandler will eventually
-                // fail due to a broken pipe and clean up the socket.
-                synchronized (gameState) {
-                    gameState.getSerpientes().removeIf(s -> s.getIdJugador().equals(playerIdToKick));
-                    accionesDeJugadores.remove(playerIdToKick);
-                    clientMetrics.remove(playerIdToKick);
+        if (upperCaseCommand.startsWith("SELECT_ROOM")) {
+            try {
+                int roomId = Integer.parseInt(command.substring("SELECT_ROOM".length()).trim());
+                GameRoom room = getRoom(roomId);
+                if (room == null) {
+                    return "Error: No existe la sala " + roomId;
                 }
-                Logger.info("Admin ha expulsado al jugador: " + playerIdToKick);
-                return "Jugador " + playerIdToKick + " ha sido expulsado.";
-            } else {
-                return "Error: No se encontró al jugador " + playerIdToKick;
+                admin.room = room;
+                return "Observando la sala " + roomId + ".";
+            } catch (NumberFormatException e) {
+                return "Error: ID de sala inválido.";
             }
         }
 
+        if (upperCaseCommand.startsWith("SUBSCRIBE")) {
+            return admin.subscribe(command.substring("SUBSCRIBE".length()));
+        }
+
+        if (upperCaseCommand.startsWith("SET_LOG_LEVEL")) {
+            return setLogLevel(upperCaseCommand.substring("SET_LOG_LEVEL".length()).trim());
+        }
+
         switch (upperCaseCommand) {
-            case "START_GAME":
-                if (gameState.getGamePhase() == GamePhase.IN_PROGRESS) {
-                    Logger.warn("Intento de iniciar un juego que ya está en progreso.");
-                    return "Error: El juego ya está en progreso.";
-                }
-                Logger.info("El juego ha sido iniciado por un administrador.");
-                gameState.setGamePhase(GamePhase.IN_PROGRESS);
-                return "Juego iniciado.";
-
-            case "RESET_GAME":
-                Logger.info("El juego ha sido reseteado por un administrador.");
-                gameState.setGamePhase(GamePhase.WAITING_FOR_PLAYERS);
-                gameState.getFrutas().clear();
-                gameLogic.generarFruta(gameState);
-
-                // Resetear estado de las serpientes existentes
-                int playerIndex = 0;
-                for (Snake snake : gameState.getSerpientes()) {
-                    // Asignar una posición de la lista, rotando si hay más jugadores que posiciones.
-                    Coordenada posInicial = STARTING_POSITIONS.get(playerIndex % STARTING_POSITIONS.size());
-                    snake.reset(posInicial);
-                    accionesDeJugadores.put(snake.getIdJugador(), Direccion.DERECHA);
-                    playerIndex++;
-                }
-                // Clear metrics for players that might have disconnected during a game over
-                clientMetrics.entrySet().removeIf(entry ->
-                        gameState.getSerpientes().stream().noneMatch(s -> s.getIdJugador().equals(entry.getKey()))
-                );
-                return "Juego reseteado. Esperando jugadores.";
-
-            case "LIST_PLAYERS":
-                if (gameState.getSerpientes().isEmpty()) {
-                    return "No hay jugadores conectados.";
-                }
-                StringBuilder playerList = new StringBuilder("Jugadores conectados:\n");
-                for (Snake snake : gameState.getSerpientes()) {
-                    playerList.append(String.format("- %s (Puntaje: %d)\n", snake.getIdJugador(), snake.getPuntaje()));
+            case "DUMP_TICK_STATS":
+                return dumpTickStats(Paths.get(GameConfig.TICK_STATS_FILE))
+                        ? "Fases del tick volcadas a " + GameConfig.TICK_STATS_FILE + "."
+                        : "Error: No se pudo escribir " + GameConfig.TICK_STATS_FILE + ".";
+
+            case "LIST_ROOMS":
+                StringBuilder roomList = new StringBuilder("Salas activas:\n");
+                for (GameRoom room : getRooms()) {
+                    roomList.append(String.format("- Sala %d: %d jugadores (%s)\n", room.getId(), room.getConnectedPlayers(), room.getGamePhase()));
                 }
-                return playerList.toString();
+                return roomList.toString();
 
             case "SHUTDOWN":
-                Logger.warn("Comando de apagado recibido. El servidor se cerrará.");
+                Logger.warn(LogCategory.NET, "Comando de apagado recibido. El servidor se cerrará.");
                 System.exit(0);
                 return "Servidor apagándose...";
 
             default:
-                return "Error: Comando desconocido '" + command + "'.";
+                return admin.room.handleAdminCommand(command);
         }
     }
 
+    // "SET_LOG_LEVEL DEBUG" cambia todas las categorías; "SET_LOG_LEVEL GAME DEBUG" solo una.
+    static String setLogLevel(String arguments) {
+        String[] parts = arguments.isEmpty() ? new String[0] : arguments.split("\\s+");
+        try {
+            if (parts.length == 1) {
+                Logger.setLevel(Logger.LogLevel.valueOf(parts[0]));
+            } else if (parts.length == 2) {
+                Logger.setLevel(LogCategory.valueOf(parts[0]), Logger.LogLevel.valueOf(parts[1]));
+            } else {
+                return "Uso: SET_LOG_LEVEL [CATEGORIA] NIVEL. Categorías: " + Arrays.toString(LogCategory.values())
+                        + ", niveles: " + Arrays.toString(Logger.LogLevel.values());
+            }
+        } catch (IllegalArgumentException e) {
+            return "Error: Categoría o nivel desconocido: " + arguments;
+        }
+        StringBuilder levels = new StringBuilder("Niveles de log:");
+        for (LogCategory category : LogCategory.values()) {
+            levels.append(' ').append(category).append('=').append(Logger.getLevel(category));
+        }
+        Logger.info(LogCategory.NET, levels.toString());
+        return levels.toString();
+    }
+
     private class AdminClientHandler implements Runnable {
         private final Socket clientSocket;
-        private ObjectOutputStream out;
+        volatile GameRoom room = getRoom(DEFAULT_ROOM); // Sala que observa y a la que van sus comandos
+        // Consolas antiguas (y herramientas que envían objetos Java) usan serialización;
+        // el AdminClient actual habla el protocolo binario.
+        private volatile ObjectOutputStream legacyOut;
+        private volatile DataOutputStream binaryOut;
+        // Suscripción pedida con SUBSCRIBE; null = estado completo a ADMIN_DEFAULT_REFRESH_HZ.
+        // El hilo escritor la lee con feedLock y es el único que la usa.
+        private AdminFeed feed;
+        private final ReentrantLock feedLock = new ReentrantLock();
+        private final Condition feedChanged = feedLock.newCondition();
+        // Respuestas a sus comandos, en orden. Solo el hilo escritor toca el socket, así que el
+        // lector las deja aquí y lo despierta con feedChanged.
+        private final Queue<String> replies = new ConcurrentLinkedQueue<>();
 
         public AdminClientHandler(Socket socket) {
             this.clientSocket = socket;
@@ -406,24 +526,20 @@ public class GameServer {
         @Override
         public void run() {
             try {
-                out = new ObjectOutputStream(clientSocket.getOutputStream());
-                out.flush();
-
-                ObjectInputStream in = new ObjectInputStream(clientSocket.getInputStream());
-
-                // The first broadcast from the main loop will send all necessary data.
-                // No need to send an initial state here.
-
-                while (!Thread.currentThread().isInterrupted() && !clientSocket.isClosed()) {
-                    Object commandObject = in.readObject();
-                    if (commandObject instanceof String) {
-                        handleAdminCommand((String) commandObject);
-                    } else {
-                        Logger.warn("Admin client sent an unexpected object type: " + commandObject.getClass().getName());
-                    }
+                BufferedInputStream rawIn = new BufferedInputStream(clientSocket.getInputStream());
+                rawIn.mark(2);
+                int first = rawIn.read();
+                int second = rawIn.read();
+                rawIn.reset();
+
+                // 0xACED es la cabecera de un stream de serialización de Java.
+                if (first == 0xAC && second == 0xED) {
+                    runLegacy(rawIn);
+                } else {
+                    runBinary(rawIn);
                 }
             } catch (IOException | ClassNotFoundException e) {
-                Logger.warn("Connection lost with admin client: " + clientSocket.getInetAddress());
+                Logger.warn(LogCategory.NET, "Connection lost with admin client: " + clientSocket.getInetAddress());
             } finally {
                 adminClientHandlers.remove(this);
                 try {
@@ -436,20 +552,158 @@ public class GameServer {
             }
         }
 
-        public void sendAdminData(com.tuempresa.proyecto.demo1.net.dto.AdminDataSnapshot snapshot) {
-            if (out == null) return;
+        private void runLegacy(BufferedInputStream rawIn) throws IOException, ClassNotFoundException {
+            ObjectOutputStream out = new ObjectOutputStream(clientSocket.getOutputStream());
+            out.flush();
+            legacyOut = out;
+            startWriter();
+
+            ObjectInputStream in = new ObjectInputStream(rawIn);
+
+            // The first broadcast from the main loop will send all necessary data.
+            // No need to send an initial state here.
+
+            while (!Thread.currentThread().isInterrupted() && !clientSocket.isClosed()) {
+                Object commandObject = in.readObject();
+                if (commandObject instanceof String) {
+                    reply(handleAdminCommand(this, (String) commandObject));
+                } else {
+                    Logger.warn(LogCategory.NET, "Admin client sent an unexpected object type: " + commandObject.getClass().getName());
+                }
+            }
+        }
+
+        private void runBinary(BufferedInputStream rawIn) throws IOException {
+            binaryOut = new DataOutputStream(new BufferedOutputStream(clientSocket.getOutputStream()));
+            startWriter();
+            DataInputStream in = new DataInputStream(rawIn);
+            WireReader reader = new WireReader();
+
+            while (!Thread.currentThread().isInterrupted() && !clientSocket.isClosed()) {
+                byte type = FrameCodec.readFrame(in, reader, GameConfig.MAX_CLIENT_FRAME_BYTES);
+                if (type == WireCodec.ADMIN_COMMAND) {
+                    reply(handleAdminCommand(this, WireCodec.decodeAdminCommand(reader)));
+                } else {
+                    Logger.warn(LogCategory.NET, "Admin client sent an unexpected message type: " + type);
+                }
+            }
+        }
+
+        private void reply(String text) {
+            replies.add(text);
+            feedLock.lock();
+            try {
+                feedChanged.signalAll();
+            } finally {
+                feedLock.unlock();
+            }
+        }
+
+        String subscribe(String arguments) {
+            if (legacyOut != null) {
+                return "Error: SUBSCRIBE solo está disponible con el protocolo binario.";
+            }
+            AdminFeed subscribed;
+            try {
+                subscribed = AdminFeed.parse(arguments);
+            } catch (IllegalArgumentException e) {
+                return "Error: " + e.getMessage() + ". Se mantiene la suscripción anterior. Uso: SUBSCRIBE HZ [IP UPTIME PING STATUS SCORE BOARD | ALL]";
+            }
+            feedLock.lock();
+            try {
+                feed = subscribed;
+                feedChanged.signalAll(); // El escritor empieza ya con la nueva suscripción, con un envío completo
+            } finally {
+                feedLock.unlock();
+            }
+            return "Suscrito a " + subscribed.getRefreshHz() + " Hz.";
+        }
+
+        private void startWriter() {
+            ConnectionThreads.start("admin-writer-" + clientSocket.getInetAddress(), this::writeLoop, true);
+        }
+
+        /**
+         * Toma el último estado de la sala observada a su propio ritmo: el tick solo publica una
+         * referencia y no sabe cuántas consolas hay. Sin suscripción se envía el estado completo
+         * cuando cambia de tick; con ella, solo las diferencias de lo suscrito.
+         */
+        private void writeLoop() {
+            AdminFeed sentFeed = null;
+            GameRoom sentRoom = null;
+            long sentTick = WireCodec.NO_TICK;
             try {
-                out.writeObject(snapshot);
-                out.reset();
+                while (!clientSocket.isClosed()) {
+                    AdminFeed current;
+                    feedLock.lock();
+                    try {
+                        long period = feed != null ? feed.getPeriodMillis() : 1000L / GameConfig.ADMIN_DEFAULT_REFRESH_HZ;
+                        if (isOverloaded()) {
+                            period *= GameConfig.ADMIN_OVERLOAD_SLOWDOWN;
+                        }
+                        if (feed == sentFeed && replies.isEmpty()) {
+                            feedChanged.await(period, TimeUnit.MILLISECONDS);
+                        }
+                        current = feed;
+                    } finally {
+                        feedLock.unlock();
+                    }
+                    GameRoom watched = room;
+                    if (current != sentFeed || watched != sentRoom) {
+                        if (current != null) current.reset(); // Suscripción o sala nueva: envío completo
+                        sentFeed = current;
+                        sentRoom = watched;
+                        sentTick = WireCodec.NO_TICK;
+                    }
+                    ObjectOutputStream objectOut = legacyOut;
+                    DataOutputStream dataOut = binaryOut;
+                    sendReplies(objectOut, dataOut);
+
+                    GameStateSnapshot snapshot = watched.getLatestSnapshot();
+                    if (snapshot == null) continue;
+                    long now = System.currentTimeMillis();
+
+                    if (current != null && dataOut != null) {
+                        List<byte[]> frames = current.update(snapshot.gamePhase, watched.adminRows(snapshot, now), snapshot);
+                        for (byte[] frame : frames) {
+                            dataOut.write(frame);
+                        }
+                        if (!frames.isEmpty()) dataOut.flush();
+                    } else if (snapshot.tick != sentTick) {
+                        AdminDataSnapshot data = watched.createAdminDataSnapshot(snapshot, now);
+                        if (objectOut != null) {
+                            objectOut.writeObject(data);
+                            objectOut.reset();
+                        } else if (dataOut != null) {
+                            FrameCodec.writeFrame(dataOut, WireCodec.encodeAdminData(data));
+                        }
+                    }
+                    sentTick = snapshot.tick;
+                }
             } catch (IOException e) {
-                Logger.warn("Failed to send admin data to admin, removing handler and closing socket.", e);
+                Logger.warn(LogCategory.NET, "Failed to send admin data to admin, removing handler and closing socket.", e);
                 closeConnection();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Las consolas antiguas reciben la respuesta como un String serializado; las binarias, como ADMIN_REPLY.
+        private void sendReplies(ObjectOutputStream objectOut, DataOutputStream dataOut) throws IOException {
+            String text;
+            while ((text = replies.poll()) != null) {
+                if (objectOut != null) {
+                    objectOut.writeObject(text);
+                    objectOut.flush();
+                } else if (dataOut != null) {
+                    FrameCodec.writeFrame(dataOut, WireCodec.encodeAdminReply(text));
+                }
             }
         }
 
         private void closeConnection() {
             if (adminClientHandlers.remove(this)) {
-                Logger.info("Removed admin handler for " + clientSocket.getInetAddress());
+                Logger.info(LogCategory.NET, "Removed admin handler for " + clientSocket.getInetAddress());
             }
             try {
                 if (!clientSocket.isClosed()) {
@@ -462,8 +716,20 @@ public class GameServer {
     }
 
     public void stop() {
-        Logger.info("Deteniendo el servidor...");
-        gameLoop.shutdownNow();
+        Logger.info(LogCategory.NET, "Deteniendo el servidor...");
+        if (tickScheduler != null) {
+            tickScheduler.stop();
+        }
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+
+        if (nioTransport != null) {
+            nioTransport.stop();
+        }
+        if (metricsEndpoint != null) {
+            metricsEndpoint.stop();
+        }
 
         try {
             if (playerServerSocket != null && !playerServerSocket.isClosed()) {
@@ -473,7 +739,7 @@ public class GameServer {
                 adminServerSocket.close();
             }
         } catch (IOException e) {
-            Logger.error("Error al cerrar los server sockets", e);
+            Logger.error(LogCategory.NET, "Error al cerrar los server sockets", e);
         }
 
         if (playerListenerThread != null) {
@@ -485,6 +751,9 @@ public class GameServer {
     }
 
     public static void main(String[] args) {
+        if (GameConfig.LOG_ASYNC) {
+            Logger.startAsync(GameConfig.LOG_BUFFER_CAPACITY, GameConfig.LOG_OVERFLOW_POLICY);
+        }
         new GameServer().start();
     }
 }
@@ -0,0 +1,293 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tuempresa.proyecto.demo1.game.TickPhaseStats;
+import com.tuempresa.proyecto.demo1.net.model.ClientMetrics;
+import com.tuempresa.proyecto.demo1.util.LatencyHistogram;
+import com.tuempresa.proyecto.demo1.util.Logger;
+import com.tuempresa.proyecto.demo1.util.Logger.LogCategory;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Endpoint HTTP local ({@code GET /metrics}) con las métricas del servidor en el formato de
+ * texto de Prometheus: percentiles de las fases del tick, frames y bytes enviados, jugadores,
+ * RTT y cola de salida de cada cliente, pausas de GC y memoria reservada.
+ *
+ * Atiende desde un hilo propio y solo lee contadores atómicos, colecciones concurrentes y
+ * campos volátiles: un scrape nunca toma un monitor que use el hilo del tick. Escucha solo en
+ * la interfaz de loopback.
+ */
+final class MetricsEndpoint {
+
+    private static final double[] CUANTILES = {0.5, 0.99, 0.999};
+
+    private final GameServer server;
+    private final int requestedPort;
+    private final LatencyHistogram gcPauses = new LatencyHistogram(); // Duración de cada pausa de GC, en ns
+    private final List<NotificationEmitter> gcEmitters = new ArrayList<>();
+    private final NotificationListener gcListener = this::onGcNotification;
+    private HttpServer http;
+    private ExecutorService executor;
+
+    // Estado de la última lectura, para calcular el ritmo de reserva de memoria entre scrapes.
+    private long lastScrapeNanos;
+    private long lastAllocatedBytes = -1;
+
+    MetricsEndpoint(GameServer server, int port) {
+        this.server = server;
+        this.requestedPort = port;
+    }
+
+    void start() throws IOException {
+        http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), requestedPort), 0);
+        http.createContext("/metrics", this::handle);
+        executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        http.setExecutor(executor);
+        http.start();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) gc;
+                emitter.addNotificationListener(gcListener, null, null);
+                gcEmitters.add(emitter);
+            }
+        }
+    }
+
+    // Puerto real; útil cuando se pidió el 0 (uno libre).
+    int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    void stop() {
+        for (NotificationEmitter emitter : gcEmitters) {
+            try {
+                emitter.removeNotificationListener(gcListener);
+            } catch (ListenerNotFoundException e) {
+                // Ya no estaba registrado
+            }
+        }
+        gcEmitters.clear();
+        if (http != null) {
+            http.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void onGcNotification(Notification notification, Object handback) {
+        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            gcPauses.registrar(info.getGcInfo().getDuration() * 1_000_000L);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (RuntimeException e) {
+            Logger.error(LogCategory.METRICS, "Error al generar las métricas", e);
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Solo desde el hilo del endpoint (o un test): guarda la última lectura de memoria reservada.
+    synchronized String render() {
+        StringBuilder out = new StringBuilder(4096);
+        List<GameRoom> rooms = server.getRooms();
+
+        header(out, "snake_rooms", "gauge", "Salas abiertas.");
+        out.append("snake_rooms ").append(rooms.size()).append('\n');
+
+        header(out, "snake_room_players", "gauge", "Jugadores conectados a la sala.");
+        for (GameRoom room : rooms) {
+            sample(out, "snake_room_players", room, null, room.getConnectedPlayers());
+        }
+
+        header(out, "snake_tick_phase_seconds", "summary", "Duración de cada fase del tick.");
+        for (GameRoom room : rooms) {
+            for (TickPhaseStats.Phase phase : TickPhaseStats.Phase.values()) {
+                LatencyHistogram histogram = room.getTickStats().get(phase);
+                String labels = "room=\"" + room.getId() + "\",phase=\"" + phase.name().toLowerCase(Locale.ROOT) + "\"";
+                for (double q : CUANTILES) {
+                    out.append("snake_tick_phase_seconds{").append(labels).append(",quantile=\"").append(q).append("\"} ")
+                            .append(seconds(histogram.percentil(q))).append('\n');
+                }
+                out.append("snake_tick_phase_seconds_count{").append(labels).append("} ").append(histogram.getTotal()).append('\n');
+            }
+        }
+
+        TickScheduler scheduler = server.getTickScheduler();
+        if (scheduler != null) {
+            header(out, "snake_ticks_total", "counter", "Ticks ejecutados por el planificador, todas las salas.");
+            out.append("snake_ticks_total ").append(scheduler.getTicks()).append('\n');
+            header(out, "snake_tick_missed_deadlines_total", "counter", "Ticks que empezaron un periodo o más tarde de su plazo.");
+            out.append("snake_tick_missed_deadlines_total ").append(scheduler.getMissedDeadlines()).append('\n');
+            header(out, "snake_tick_skipped_total", "counter", "Ticks descartados por superar el margen de recuperación.");
+            out.append("snake_tick_skipped_total ").append(scheduler.getSkippedTicks()).append('\n');
+            header(out, "snake_tick_overload_episodes_total", "counter", "Veces que el servidor entró en modo sobrecarga.");
+            out.append("snake_tick_overload_episodes_total ").append(scheduler.getOverloadEpisodes()).append('\n');
+            header(out, "snake_overloaded", "gauge", "1 mientras el trabajo prescindible está reducido por ticks atrasados.");
+            out.append("snake_overloaded ").append(scheduler.isOverloaded() ? 1 : 0).append('\n');
+        }
+
+        header(out, "snake_room_direct_buffer_allocations_total", "counter", "Buffers directos reservados para frames de difusión; deja de crecer con el pool caliente.");
+        for (GameRoom room : rooms) {
+            sample(out, "snake_room_direct_buffer_allocations_total", room, null, room.getPacketAllocations());
+        }
+        header(out, "snake_room_sent_packets_total", "counter", "Frames entregados a las colas de salida de los jugadores.");
+        for (GameRoom room : rooms) {
+            sample(out, "snake_room_sent_packets_total", room, null, room.getSentPackets());
+        }
+        header(out, "snake_room_sent_bytes_total", "counter", "Bytes entregados a las colas de salida de los jugadores.");
+        for (GameRoom room : rooms) {
+            sample(out, "snake_room_sent_bytes_total", room, null, room.getSentBytes());
+        }
+        header(out, "snake_room_tick_sent_packets", "gauge", "Frames enviados en el último tick.");
+        for (GameRoom room : rooms) {
+            sample(out, "snake_room_tick_sent_packets", room, null, room.getLastTickPackets());
+        }
+        header(out, "snake_room_tick_sent_bytes", "gauge", "Bytes enviados en el último tick.");
+        for (GameRoom room : rooms) {
+            sample(out, "snake_room_tick_sent_bytes", room, null, room.getLastTickBytes());
+        }
+
+        header(out, "snake_client_rtt_milliseconds", "gauge", "Último RTT medido por ping; -1 si aún no hubo ninguno.");
+        for (GameRoom room : rooms) {
+            for (ClientMetrics metrics : room.getClientMetrics()) {
+                sample(out, "snake_client_rtt_milliseconds", room, metrics.getPlayerId(), metrics.getLastPingRttMs());
+            }
+        }
+        header(out, "snake_client_queued_frames", "gauge", "Frames en la cola de salida del cliente.");
+        for (GameRoom room : rooms) {
+            for (PlayerConnection connection : room.getConnections()) {
+                String playerId = connection.getPlayerId();
+                if (playerId != null) {
+                    sample(out, "snake_client_queued_frames", room, playerId, connection.getQueuedFrames());
+                }
+            }
+        }
+
+        renderJvm(out);
+        return out.toString();
+    }
+
+    private void renderJvm(StringBuilder out) {
+        header(out, "jvm_gc_collections_total", "counter", "Recolecciones por colector.");
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        for (GarbageCollectorMXBean gc : collectors) {
+            out.append("jvm_gc_collections_total{gc=\"").append(escape(gc.getName())).append("\"} ")
+                    .append(Math.max(0, gc.getCollectionCount())).append('\n');
+        }
+        header(out, "jvm_gc_collection_seconds_total", "counter", "Tiempo acumulado en recolecciones por colector.");
+        for (GarbageCollectorMXBean gc : collectors) {
+            out.append("jvm_gc_collection_seconds_total{gc=\"").append(escape(gc.getName())).append("\"} ")
+                    .append(Math.max(0, gc.getCollectionTime()) / 1000.0).append('\n');
+        }
+        header(out, "jvm_gc_pause_seconds", "summary", "Duración de cada recolección desde el arranque del endpoint.");
+        for (double q : CUANTILES) {
+            out.append("jvm_gc_pause_seconds{quantile=\"").append(q).append("\"} ").append(seconds(gcPauses.percentil(q))).append('\n');
+        }
+        out.append("jvm_gc_pause_seconds_count ").append(gcPauses.getTotal()).append('\n');
+
+        long allocated = allocatedBytes();
+        if (allocated >= 0) {
+            long now = System.nanoTime();
+            header(out, "jvm_allocated_bytes", "gauge", "Bytes reservados por los hilos vivos desde que arrancaron.");
+            out.append("jvm_allocated_bytes ").append(allocated).append('\n');
+            if (lastAllocatedBytes >= 0 && now > lastScrapeNanos) {
+                // Los hilos que terminan se llevan su cuenta: un ritmo negativo se muestra como 0.
+                double rate = Math.max(0, allocated - lastAllocatedBytes) * 1e9 / (now - lastScrapeNanos);
+                header(out, "jvm_allocation_rate_bytes_per_second", "gauge", "Ritmo de reserva de memoria desde el scrape anterior.");
+                out.append("jvm_allocation_rate_bytes_per_second ").append((long) rate).append('\n');
+            }
+            lastAllocatedBytes = allocated;
+            lastScrapeNanos = now;
+        }
+    }
+
+    // Suma de lo reservado por cada hilo vivo; -1 si la JVM no lo mide.
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+        if (!hotspot.isThreadAllocatedMemorySupported() || !hotspot.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long bytes : hotspot.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, GameRoom room, String playerId, long value) {
+        out.append(name).append("{room=\"").append(room.getId()).append('"');
+        if (playerId != null) {
+            out.append(",player=\"").append(escape(playerId)).append('"');
+        }
+        out.append("} ").append(value).append('\n');
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    // Los IDs los elige el cliente: se escapan como exige el formato de etiquetas.
+    static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                escaped.append('\\').append(c);
+            } else if (c == '\n') {
+                escaped.append("\\n");
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,367 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.tuempresa.proyecto.demo1.game.GameConfig;
+import com.tuempresa.proyecto.demo1.net.codec.WireCodec;
+import com.tuempresa.proyecto.demo1.net.codec.WireReader;
+import com.tuempresa.proyecto.demo1.util.Logger;
+import com.tuempresa.proyecto.demo1.util.Logger.LogCategory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transporte no bloqueante para las conexiones de jugadores. Un pool fijo de hilos de I/O,
+ * cada uno con su propio {@link Selector}, atiende aceptación, lectura de input y envío del
+ * estado para miles de conexiones sin dedicar un hilo a cada una.
+ *
+ * El primer worker también acepta las conexiones nuevas y las reparte en round-robin.
+ * La lógica de juego (alta, mensajes, baja) se delega en {@link GameServer}.
+ */
+final class NioTransport {
+
+    private static final int INITIAL_READ_BUFFER_BYTES = 1024;
+
+    private final GameServer server;
+    private final int port;
+    private final IoWorker[] workers;
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private ServerSocketChannel serverChannel;
+    private volatile boolean running;
+
+    NioTransport(GameServer server, int port, int ioThreads) {
+        this.server = server;
+        this.port = port;
+        this.workers = new IoWorker[Math.max(1, ioThreads)];
+    }
+
+    void start() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.socket().setReuseAddress(true);
+            serverChannel.bind(new InetSocketAddress(port));
+            serverChannel.configureBlocking(false);
+            for (int i = 0; i < workers.length; i++) {
+                workers[i] = new IoWorker(i);
+            }
+            serverChannel.register(workers[0].selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            for (IoWorker worker : workers) {
+                if (worker != null) {
+                    worker.selector.close();
+                }
+            }
+            throw e;
+        }
+
+        running = true;
+        for (IoWorker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    void stop() {
+        running = false;
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            Logger.error(LogCategory.NET, "Error al cerrar el canal del servidor NIO", e);
+        }
+        for (IoWorker worker : workers) {
+            if (worker != null) {
+                worker.selector.wakeup();
+            }
+        }
+        for (IoWorker worker : workers) {
+            if (worker != null && Thread.currentThread() != worker.thread) {
+                try {
+                    worker.thread.join(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private final class IoWorker implements Runnable {
+        final Selector selector;
+        final Thread thread;
+        final Queue<NioConnection> pendingRegistrations = new ConcurrentLinkedQueue<>();
+        final Queue<NioConnection> pendingFlushes = new ConcurrentLinkedQueue<>();
+        // Evita una llamada a wakeup() por conexión y tick: basta con una por vuelta del selector.
+        final AtomicBoolean wakeupPending = new AtomicBoolean();
+
+        IoWorker(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "nio-io-" + index);
+        }
+
+        void wakeup() {
+            if (wakeupPending.compareAndSet(false, true)) {
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    wakeupPending.set(false);
+                    registerPending();
+                    flushPending();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid()) continue;
+
+                        if (key.isAcceptable()) {
+                            acceptPending();
+                            continue;
+                        }
+                        NioConnection connection = (NioConnection) key.attachment();
+                        if (key.isReadable()) {
+                            connection.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.flush();
+                        }
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                // Servidor detenido
+            } catch (IOException e) {
+                Logger.error(LogCategory.NET, "Error en el bucle de I/O " + thread.getName(), e);
+            } finally {
+                closeAll();
+            }
+        }
+
+        private void acceptPending() {
+            try {
+                SocketChannel channel;
+                while ((channel = serverChannel.accept()) != null) {
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(true); // OPTIMIZATION: Disable Nagle's Algorithm
+                    IoWorker target = workers[Math.floorMod(nextWorker.getAndIncrement(), workers.length)];
+                    NioConnection connection = new NioConnection(channel, target);
+                    Logger.info(LogCategory.NET, "Nuevo cliente conectado: " + connection.address);
+                    target.pendingRegistrations.add(connection);
+                    target.wakeup();
+                }
+            } catch (IOException e) {
+                if (running) {
+                    Logger.warn(LogCategory.NET, "Error aceptando una conexión de jugador", e);
+                }
+            }
+        }
+
+        private void registerPending() {
+            NioConnection connection;
+            while ((connection = pendingRegistrations.poll()) != null) {
+                try {
+                    connection.key = connection.channel.register(selector, SelectionKey.OP_READ, connection);
+                } catch (ClosedChannelException e) {
+                    connection.close();
+                }
+            }
+        }
+
+        private void flushPending() {
+            NioConnection connection;
+            while ((connection = pendingFlushes.poll()) != null) {
+                connection.flush();
+            }
+        }
+
+        private void closeAll() {
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    Object attachment = key.attachment();
+                    if (attachment instanceof NioConnection) {
+                        ((NioConnection) attachment).close();
+                    } else {
+                        key.channel().close();
+                    }
+                }
+                selector.close();
+            } catch (IOException | ClosedSelectorException e) {
+                // Ignorar, el servidor se está deteniendo
+            }
+            NioConnection connection;
+            while ((connection = pendingRegistrations.poll()) != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private final class NioConnection implements PlayerConnection {
+        final SocketChannel channel;
+        final IoWorker worker;
+        final InetAddress address;
+        final OutboundQueue outbound = new OutboundQueue(GameConfig.MAX_QUEUED_CONTROL_FRAMES, GameConfig.CLIENT_LAG_BUDGET_MS);
+        final AtomicBoolean flushScheduled = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        volatile boolean evicted;
+        SelectionKey key;
+        final FrameBatch inFlight = new FrameBatch(); // Frames ya sacados de la cola; no pueden sustituirse
+        ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_BYTES);
+        final WireReader reader = new WireReader();
+        String playerId;
+        GameRoom room;
+
+        NioConnection(SocketChannel channel, IoWorker worker) {
+            this.channel = channel;
+            this.worker = worker;
+            this.address = channel.socket().getInetAddress();
+        }
+
+        // Solo se invoca desde el hilo del worker.
+        void onReadable() {
+            try {
+                if (channel.read(readBuffer) < 0) {
+                    close();
+                    return;
+                }
+                readBuffer.flip();
+                int requiredCapacity = 0;
+                while (readBuffer.remaining() >= FrameCodec.HEADER_BYTES) {
+                    int length = readBuffer.getInt(readBuffer.position());
+                    if (length < 1 || length > GameConfig.MAX_CLIENT_FRAME_BYTES) {
+                        throw new IOException("Longitud de frame inválida: " + length);
+                    }
+                    if (readBuffer.remaining() < FrameCodec.HEADER_BYTES + length) {
+                        requiredCapacity = FrameCodec.HEADER_BYTES + length;
+                        break;
+                    }
+                    int payloadStart = readBuffer.position() + FrameCodec.HEADER_BYTES;
+                    reader.wrap(readBuffer.array(), readBuffer.arrayOffset() + payloadStart, length);
+                    onMessage(reader.readByte());
+                    readBuffer.position(payloadStart + length);
+                    if (closed.get()) return;
+                }
+                readBuffer.compact();
+                if (requiredCapacity > readBuffer.capacity()) {
+                    ByteBuffer larger = ByteBuffer.allocate(requiredCapacity);
+                    readBuffer.flip();
+                    larger.put(readBuffer);
+                    readBuffer = larger;
+                }
+            } catch (IOException e) {
+                Logger.warn(LogCategory.NET, "Conexión perdida con el cliente: " + address);
+                close();
+            }
+        }
+
+        private void onMessage(byte type) throws IOException {
+            if (playerId == null) {
+                // El primer frame es el ID que envía el cliente.
+                if (type != WireCodec.HELLO) {
+                    throw new IOException("El cliente no envió un ID válido.");
+                }
+                playerId = reader.readString();
+                room = server.joinRoom(playerId, WireCodec.decodeHelloRoom(reader), address, this);
+            } else {
+                room.handlePlayerMessage(playerId, type, reader, this);
+            }
+        }
+
+        @Override
+        public String getPlayerId() {
+            return playerId;
+        }
+
+        @Override
+        public int getQueuedFrames() {
+            return outbound.getQueuedFrames();
+        }
+
+        @Override
+        public boolean send(Packet packet) {
+            if (closed.get()) return false;
+            return afterOffer(outbound.offerControl(packet, System.nanoTime()));
+        }
+
+        @Override
+        public boolean sendState(Packet packet) {
+            if (closed.get()) return false;
+            return afterOffer(outbound.offerState(packet, System.nanoTime()));
+        }
+
+        private boolean afterOffer(boolean withinBudget) {
+            if (!withinBudget && !evicted) {
+                // El cierre se delega al worker: close() da de baja al jugador y el tick
+                // puede estar iterando la lista de broadcast.
+                Logger.warn(LogCategory.NET, "Cliente lento expulsado: " + playerId + " (" + outbound.getDroppedStates() + " estados descartados)");
+                evicted = true;
+            }
+            if (flushScheduled.compareAndSet(false, true)) {
+                worker.pendingFlushes.add(this);
+                worker.wakeup();
+            }
+            return withinBudget;
+        }
+
+        // Solo se invoca desde el hilo del worker.
+        void flush() {
+            if (evicted) {
+                close();
+                return;
+            }
+            if (closed.get() || key == null) return;
+            try {
+                while (!inFlight.isEmpty() || inFlight.fill(outbound)) {
+                    if (!inFlight.writeTo(channel)) {
+                        // Ventana TCP llena: esperar a que el socket vuelva a aceptar datos.
+                        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                }
+                outbound.markDrained();
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                flushScheduled.set(false);
+                // Un send() concurrente pudo encolar datos después del último poll().
+                if (!outbound.isEmpty() && flushScheduled.compareAndSet(false, true)) {
+                    worker.pendingFlushes.add(this);
+                    worker.wakeup();
+                }
+            } catch (IOException e) {
+                Logger.warn(LogCategory.NET, "Error sending state to player, removing stream.", e);
+                close();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Ignorar
+            }
+            outbound.close();
+            inFlight.clear(); // close() siempre llega desde el hilo del worker, dueño del lote
+            server.leaveRoom(room, playerId, this);
+        }
+    }
+}
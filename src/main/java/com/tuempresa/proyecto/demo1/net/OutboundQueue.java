@@ -0,0 +1,175 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cola de salida acotada de una conexión de jugador, compartida por ambos transportes.
+ *
+ * Los frames de control (tabla de IDs, PONG) se entregan todos y en orden. Los de estado
+ * (SNAPSHOT/DELTA) son latest-wins: un estado que aún no empezó a enviarse se sustituye por
+ * el más reciente, así un cliente lento recibe menos estados en lugar de estados viejos.
+ * Los de control siempre salen antes que el estado pendiente, que puede depender de ellos.
+ *
+ * Si la cola no llega a vaciarse durante más tiempo que el presupuesto de retraso, o se
+ * acumulan demasiados frames de control, las ofertas devuelven false y la conexión debe
+ * expulsarse: así el tick nunca depende del cliente más lento.
+ *
+ * La cola retiene cada frame que acepta ({@link Packet#retain()}) y lo suelta si lo descarta;
+ * {@link #poll()} pasa esa referencia al writer, que la suelta tras escribirlo.
+ *
+ * Usa un {@link ReentrantLock} en lugar del monitor: el writer bloqueado en {@link #take()}
+ * puede ser un hilo virtual, y esperar dentro de un {@code synchronized} fijaría su portador.
+ */
+final class OutboundQueue {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ArrayDeque<Packet> control = new ArrayDeque<>();
+    private final int maxControlFrames;
+    private final long lagBudgetNanos;
+    private Packet pendingState;
+    private long behindSinceNanos = -1; // -1 = la cola se vació tras el último envío
+    private long droppedStates;
+    private boolean closed;
+    private volatile int queued; // Copia de control.size() + pendingState, para leerla sin el lock
+
+    OutboundQueue(int maxControlFrames, long lagBudgetMillis) {
+        this.maxControlFrames = maxControlFrames;
+        this.lagBudgetNanos = lagBudgetMillis * 1_000_000L;
+    }
+
+    // Devuelve false si el cliente superó su presupuesto de retraso.
+    boolean offerState(Packet packet, long nowNanos) {
+        lock.lock();
+        try {
+            if (closed) return false;
+            if (pendingState != null) {
+                droppedStates++;
+                pendingState.release();
+            }
+            pendingState = packet.retain();
+            updateQueued();
+            available.signalAll();
+            return withinBudget(nowNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Devuelve false si el cliente superó su presupuesto de retraso o la cola de control está llena.
+    boolean offerControl(Packet packet, long nowNanos) {
+        lock.lock();
+        try {
+            if (closed || control.size() >= maxControlFrames) return false;
+            control.add(packet.retain());
+            updateQueued();
+            available.signalAll();
+            return withinBudget(nowNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean withinBudget(long nowNanos) {
+        if (behindSinceNanos < 0) {
+            behindSinceNanos = nowNanos;
+            return true;
+        }
+        return nowNanos - behindSinceNanos <= lagBudgetNanos;
+    }
+
+    // Siguiente frame a escribir, o null si no hay nada pendiente. Quien lo recibe debe soltarlo.
+    Packet poll() {
+        lock.lock();
+        try {
+            Packet packet = control.poll();
+            if (packet == null) {
+                packet = pendingState;
+                pendingState = null;
+            }
+            updateQueued();
+            return packet;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Versión bloqueante para los writers dedicados. Devuelve null cuando la cola se cierra.
+    Packet take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            Packet packet;
+            while ((packet = poll()) == null && !closed) {
+                available.await();
+            }
+            return closed ? null : packet;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * El writer la llama tras terminar de escribir. Si no queda nada pendiente el cliente está
+     * al día y se reinicia su medida de retraso. Devuelve true si la cola quedó vacía.
+     */
+    boolean markDrained() {
+        lock.lock();
+        try {
+            if (control.isEmpty() && pendingState == null) {
+                behindSinceNanos = -1;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isEmpty() {
+        lock.lock();
+        try {
+            return control.isEmpty() && pendingState == null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getDroppedStates() {
+        lock.lock();
+        try {
+            return droppedStates;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            Packet packet;
+            while ((packet = control.poll()) != null) {
+                packet.release();
+            }
+            if (pendingState != null) {
+                pendingState.release();
+                pendingState = null;
+            }
+            updateQueued();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateQueued() {
+        queued = control.size() + (pendingState != null ? 1 : 0);
+    }
+
+    // Sin el lock: las métricas la leen sin competir con el tick.
+    int getQueuedFrames() {
+        return queued;
+    }
+}
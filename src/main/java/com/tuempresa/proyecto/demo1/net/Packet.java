@@ -1,18 +1,76 @@
 package com.tuempresa.proyecto.demo1.net;
 
-import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A wrapper for sending pre-serialized data. This avoids the high CPU cost
- * of re-serializing complex objects for every client on every tick and reduces
- * network latency issues.
+ * Frame que se codifica una vez y se escribe tal cual a cualquier número de conexiones.
+ *
+ * Los bytes son un frame completo (ver {@link FrameCodec}) en un buffer de solo lectura. Cada
+ * conexión escribe su propia {@link #view()}, así enviar a N clientes cuesta N cabeceras de
+ * buffer, sin copias ni recodificación.
+ *
+ * Los frames de difusión salen de un {@link PacketPool} y llevan un contador de referencias: el
+ * tick tiene una mientras los reparte, cada cola que lo acepta toma otra y la suelta al
+ * escribirlo o descartarlo. Con la última el buffer directo vuelve al pool. Los creados a partir
+ * de un {@code byte[]} no son del pool y {@link #retain()}/{@link #release()} no hacen nada.
  */
-public class Packet implements Serializable {
-    private static final long serialVersionUID = 2L; // Changed version UID
+public final class Packet {
 
-    public final byte[] data;
+    private final ByteBuffer buffer;
+    private final ByteBuffer storage; // Buffer del pool, con escritura; null si no es del pool
+    private final PacketPool pool;
+    private final AtomicInteger refs;
 
     public Packet(byte[] data) {
-        this.data = data;
+        this.buffer = ByteBuffer.wrap(data).asReadOnlyBuffer();
+        this.storage = null;
+        this.pool = null;
+        this.refs = null;
+    }
+
+    // Frame del pool con una referencia, la de quien lo codificó.
+    Packet(ByteBuffer storage, PacketPool pool) {
+        this.buffer = storage.asReadOnlyBuffer();
+        this.storage = storage;
+        this.pool = pool;
+        this.refs = new AtomicInteger(1);
+    }
+
+    public int size() {
+        return buffer.remaining();
+    }
+
+    // Vista con posición propia sobre los mismos bytes.
+    public ByteBuffer view() {
+        return buffer.duplicate();
+    }
+
+    // Una referencia más; quien la toma debe soltarla con release().
+    public Packet retain() {
+        if (refs != null && refs.getAndIncrement() <= 0) {
+            throw new IllegalStateException("Frame ya devuelto al pool.");
+        }
+        return this;
+    }
+
+    /**
+     * Suelta una referencia; con la última el buffer vuelve al pool y el frame no debe volver a
+     * leerse. Un frame que nadie suelta (una conexión cerrada a mitad de escritura) no rompe
+     * nada: su buffer lo recoge el GC, solo que no se reutiliza.
+     */
+    public void release() {
+        if (refs == null) return;
+        int remaining = refs.decrementAndGet();
+        if (remaining == 0) {
+            pool.recycle(storage);
+        } else if (remaining < 0) {
+            throw new IllegalStateException("Frame liberado más veces de las retenidas.");
+        }
+    }
+
+    // Referencias vivas; -1 si no es del pool. Para los tests.
+    int refCount() {
+        return refs != null ? refs.get() : -1;
     }
 }
@@ -0,0 +1,74 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.tuempresa.proyecto.demo1.game.GameConfig;
+import com.tuempresa.proyecto.demo1.net.codec.WireWriter;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers directos reutilizables para los frames de difusión de una sala (snapshot, deltas,
+ * tabla de IDs). Reservar un buffer directo es caro y solo se libera cuando el GC pasa su
+ * Cleaner (con el límite de memoria directa alcanzado, el JDK llega a llamar a System.gc()),
+ * así que el tick no reserva uno por frame: los toma de aquí y vuelven cuando todas las colas
+ * los han escrito.
+ *
+ * Los buffers se agrupan por capacidad en potencias de dos, desde 1 KiB hasta
+ * {@link GameConfig#MAX_SERVER_FRAME_BYTES}, y cada tamaño guarda como mucho
+ * {@code maxPerSize} libres. El tick toma buffers y los writers los devuelven, cada uno desde
+ * su hilo: las colas por tamaño son {@link ArrayBlockingQueue}, que no reservan nodos.
+ */
+final class PacketPool {
+
+    private static final int MIN_BITS = 10;
+    private static final int MAX_BITS = 32 - Integer.numberOfLeadingZeros(GameConfig.MAX_SERVER_FRAME_BYTES - 1);
+
+    private final ArrayBlockingQueue<ByteBuffer>[] free;
+    private final AtomicLong allocations = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    PacketPool(int maxPerSize) {
+        free = new ArrayBlockingQueue[MAX_BITS - MIN_BITS + 1];
+        for (int i = 0; i < free.length; i++) {
+            free[i] = new ArrayBlockingQueue<>(Math.max(1, maxPerSize));
+        }
+    }
+
+    /**
+     * Copia el contenido del writer en un buffer del pool y lo devuelve como frame con una
+     * referencia. La copia es un único volcado del array ya codificado; codificar byte a byte
+     * en memoria directa sería más lento que hacerlo en el array del writer.
+     */
+    Packet encode(WireWriter writer) {
+        int size = writer.size();
+        int sizeClass = sizeClass(size);
+        ByteBuffer storage = free[sizeClass].poll();
+        if (storage == null) {
+            storage = ByteBuffer.allocateDirect(Math.max(size, 1 << (MIN_BITS + sizeClass)));
+            allocations.incrementAndGet();
+        }
+        storage.clear();
+        writer.writeTo(storage);
+        storage.flip();
+        return new Packet(storage, this);
+    }
+
+    // Desde Packet.release(), en el hilo que soltó la última referencia. Si el tamaño está lleno, lo recoge el GC.
+    void recycle(ByteBuffer storage) {
+        int sizeClass = sizeClass(storage.capacity());
+        if (storage.capacity() == 1 << (MIN_BITS + sizeClass)) {
+            free[sizeClass].offer(storage);
+        }
+    }
+
+    // Buffers directos reservados desde que se creó el pool; deja de crecer cuando el pool está caliente.
+    long getAllocations() {
+        return allocations.get();
+    }
+
+    private static int sizeClass(int size) {
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, size) - 1);
+        return Math.min(MAX_BITS, Math.max(MIN_BITS, bits)) - MIN_BITS;
+    }
+}
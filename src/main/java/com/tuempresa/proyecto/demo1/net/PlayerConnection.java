@@ -0,0 +1,28 @@
+package com.tuempresa.proyecto.demo1.net;
+
+/**
+ * Conexión de un jugador vista desde el bucle de juego, independiente del transporte
+ * (hilo por conexión o selector NIO).
+ */
+interface PlayerConnection {
+
+    /**
+     * Encola un frame de control ya codificado; se entrega siempre y en orden. Devuelve false
+     * si la conexión está muerta (o fue expulsada por lenta) y debe retirarse del broadcast.
+     */
+    boolean send(Packet packet);
+
+    /**
+     * Encola un frame de estado (SNAPSHOT/DELTA). Si el anterior aún no se envió, se descarta
+     * en favor de este. Mismo valor de retorno que {@link #send}.
+     */
+    boolean sendState(Packet packet);
+
+    // ID del jugador; ya está asignado cuando la conexión entra en una sala.
+    String getPlayerId();
+
+    // Frames encolados sin enviar. Se puede leer desde cualquier hilo sin bloquear la cola.
+    int getQueuedFrames();
+
+    void close();
+}
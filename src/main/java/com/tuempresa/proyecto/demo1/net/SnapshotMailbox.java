@@ -0,0 +1,66 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import java.util.ArrayDeque;
+
+/**
+ * Buzón del cliente entre el hilo que lee del socket y el que decodifica, el espejo de
+ * {@link OutboundQueue} en el servidor.
+ *
+ * Los frames de estado (SNAPSHOT/DELTA) son latest-wins: si el decodificador va atrasado, un
+ * estado que aún no empezó a decodificarse se sustituye por el más reciente. Saltarse un estado
+ * es seguro porque solo se confirman (ACK) los que se decodifican, y el servidor construye los
+ * deltas sobre el último confirmado. Los frames de control (tabla de IDs) se entregan todos, en
+ * orden y antes que el estado pendiente, que puede depender de ellos; el servidor ya limita
+ * cuántos envía.
+ */
+final class SnapshotMailbox {
+
+    private final ArrayDeque<byte[]> control = new ArrayDeque<>();
+    private byte[] pendingState;
+    private long droppedStates;
+    private boolean closed;
+
+    synchronized void offerState(byte[] frame) {
+        if (closed) return;
+        if (pendingState != null) {
+            droppedStates++;
+        }
+        pendingState = frame;
+        notifyAll();
+    }
+
+    synchronized void offerControl(byte[] frame) {
+        if (closed) return;
+        control.add(frame);
+        notifyAll();
+    }
+
+    /**
+     * Siguiente frame a decodificar; bloquea mientras el buzón esté vacío. Devuelve null
+     * cuando el buzón está cerrado y ya no queda nada pendiente.
+     */
+    synchronized byte[] take() throws InterruptedException {
+        while (control.isEmpty() && pendingState == null) {
+            if (closed) {
+                return null;
+            }
+            wait();
+        }
+        if (!control.isEmpty()) {
+            return control.poll();
+        }
+        byte[] frame = pendingState;
+        pendingState = null;
+        return frame;
+    }
+
+    // El lector ya no entregará más frames; el decodificador termina con lo pendiente.
+    synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    synchronized long getDroppedStates() {
+        return droppedStates;
+    }
+}
@@ -0,0 +1,196 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.tuempresa.proyecto.demo1.util.Logger;
+import com.tuempresa.proyecto.demo1.util.Logger.LogCategory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bucle de juego de paso fijo para todas las salas. Sustituye a {@code scheduleAtFixedRate}, que
+ * tras una pausa de GC o un broadcast lento encadena los ticks atrasados sin límite ni aviso.
+ *
+ * Cada hilo del bucle lleva un grupo de salas, cada una con su propio plazo; duerme con
+ * {@link LockSupport#parkNanos} hasta el plazo más próximo y ejecuta los ticks vencidos.
+ * <ul>
+ *   <li>Recuperación acotada: una sala atrasada ejecuta como mucho {@code maxCatchUp} ticks
+ *       seguidos; los que superan ese margen se descartan y el plazo salta hacia delante.</li>
+ *   <li>Broadcast desacoplado: se simula en cada tick y se envía el estado cada
+ *       {@code ticksPerBroadcast} ticks. Mientras se recupera no se envía nada: los clientes
+ *       reciben solo el estado al día, no una ráfaga de estados viejos.</li>
+ *   <li>Plazos perdidos: un tick que empieza un periodo o más tarde de su plazo cuenta como
+ *       plazo perdido; los ticks descartados se cuentan aparte.</li>
+ *   <li>Sobrecarga: un tick que empieza con más de medio periodo de retraso marca el servidor
+ *       como sobrecargado durante {@code overloadHoldNanos}. Mientras tanto el trabajo
+ *       prescindible (consolas de admin, volcado de métricas) se reduce; la simulación no.</li>
+ * </ul>
+ */
+final class TickScheduler {
+
+    private final long periodNanos;
+    private final int ticksPerBroadcast;
+    private final int maxCatchUp;
+    private final long overloadHoldNanos;
+    private final Loop[] loops;
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong missedDeadlines = new AtomicLong();
+    private final AtomicLong skippedTicks = new AtomicLong();
+    private final AtomicLong overloadEpisodes = new AtomicLong();
+    private volatile long overloadedUntilNanos;
+    private volatile boolean overloaded; // Copia de "ahora < overloadedUntilNanos" para el aviso de entrada
+    private volatile boolean running;
+
+    TickScheduler(int threads, long periodMillis, int ticksPerBroadcast, int maxCatchUp, long overloadHoldMillis) {
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        this.ticksPerBroadcast = Math.max(1, ticksPerBroadcast);
+        this.maxCatchUp = Math.max(0, maxCatchUp);
+        this.overloadHoldNanos = TimeUnit.MILLISECONDS.toNanos(overloadHoldMillis);
+        this.overloadedUntilNanos = System.nanoTime(); // nanoTime puede ser negativo: 0 no sirve de "nunca"
+        this.loops = new Loop[Math.max(1, threads)];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new Loop("room-tick-" + (i + 1));
+        }
+    }
+
+    void start() {
+        running = true;
+        for (Loop loop : loops) {
+            loop.thread.start();
+        }
+    }
+
+    void stop() {
+        running = false;
+        for (Loop loop : loops) {
+            LockSupport.unpark(loop.thread);
+        }
+    }
+
+    // La sala va al hilo con menos salas; su primer tick es inmediato.
+    void add(GameRoom room) {
+        Loop target = loops[0];
+        for (Loop loop : loops) {
+            if (loop.rooms.size() < target.rooms.size()) {
+                target = loop;
+            }
+        }
+        target.rooms.add(new RoomClock(room, System.nanoTime()));
+        LockSupport.unpark(target.thread);
+    }
+
+    // Un tick en curso de la sala termina; no se programan más.
+    void remove(GameRoom room) {
+        for (Loop loop : loops) {
+            loop.rooms.removeIf(clock -> clock.room == room);
+        }
+    }
+
+    boolean isOverloaded() {
+        return System.nanoTime() - overloadedUntilNanos < 0;
+    }
+
+    long getTicks() {
+        return ticks.get();
+    }
+
+    long getMissedDeadlines() {
+        return missedDeadlines.get();
+    }
+
+    long getSkippedTicks() {
+        return skippedTicks.get();
+    }
+
+    long getOverloadEpisodes() {
+        return overloadEpisodes.get();
+    }
+
+    String summary() {
+        return String.format("ticks=%d plazos perdidos=%d ticks descartados=%d sobrecargas=%d%s",
+                getTicks(), getMissedDeadlines(), getSkippedTicks(), getOverloadEpisodes(), isOverloaded() ? " (sobrecargado)" : "");
+    }
+
+    // Ejecuta un tick de la sala si venció su plazo. Devuelve el plazo siguiente.
+    long runIfDue(RoomClock clock, long now) {
+        long late = now - clock.deadline;
+        if (late < 0) {
+            return clock.deadline;
+        }
+        long behind = late / periodNanos; // Periodos enteros de retraso
+        if (behind > 0) {
+            missedDeadlines.incrementAndGet();
+            if (behind > maxCatchUp) {
+                long skipped = behind - maxCatchUp;
+                skippedTicks.addAndGet(skipped);
+                clock.deadline += skipped * periodNanos;
+            }
+        }
+        if (late > periodNanos / 2) {
+            markOverloaded(now);
+        }
+
+        clock.deadline += periodNanos;
+        boolean dueBroadcast = clock.ticks++ % ticksPerBroadcast == 0;
+        // Si al terminar este tick aún habrá otro vencido, el estado se enviará tras el último.
+        boolean catchingUp = now - clock.deadline >= 0;
+        boolean broadcast = (dueBroadcast || clock.broadcastPending) && !catchingUp;
+        clock.broadcastPending = (dueBroadcast || clock.broadcastPending) && catchingUp;
+        clock.room.tick(broadcast);
+        ticks.incrementAndGet();
+        return clock.deadline;
+    }
+
+    private void markOverloaded(long now) {
+        overloadedUntilNanos = now + overloadHoldNanos;
+        if (!overloaded) {
+            overloaded = true;
+            overloadEpisodes.incrementAndGet();
+            Logger.warn(LogCategory.METRICS, "Los ticks van con retraso: se reduce el trabajo prescindible (" + summary() + ")");
+        }
+    }
+
+    static final class RoomClock {
+        final GameRoom room;
+        long deadline; // System.nanoTime() en que vence el próximo tick
+        long ticks;
+        boolean broadcastPending; // Tocaba enviar durante una recuperación
+
+        RoomClock(GameRoom room, long deadline) {
+            this.room = room;
+            this.deadline = deadline;
+        }
+    }
+
+    private final class Loop implements Runnable {
+        final List<RoomClock> rooms = new CopyOnWriteArrayList<>();
+        final Thread thread;
+
+        Loop(String name) {
+            thread = new Thread(this, name);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                long next = System.nanoTime() + periodNanos; // Sin salas: revisar cada periodo
+                for (RoomClock clock : rooms) {
+                    long deadline = runIfDue(clock, System.nanoTime());
+                    if (deadline - next < 0) {
+                        next = deadline;
+                    }
+                }
+                if (overloaded && !isOverloaded()) {
+                    overloaded = false;
+                    Logger.info(LogCategory.METRICS, "Los ticks vuelven a ir al día (" + summary() + ")");
+                }
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(this, wait);
+                }
+            }
+        }
+    }
+}
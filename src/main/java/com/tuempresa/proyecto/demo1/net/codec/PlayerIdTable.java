@@ -0,0 +1,104 @@
+package com.tuempresa.proyecto.demo1.net.codec;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tabla de IDs de jugador internados. Los snapshots referencian a cada serpiente por un
+ * índice pequeño (varint de 1 byte en la práctica) en lugar de repetir el String en cada tick.
+ *
+ * En el servidor, {@link #intern} asigna índices y acumula las definiciones nuevas que deben
+ * anunciarse a los clientes. En el cliente, {@link #define} registra las definiciones recibidas.
+ *
+ * Los índices liberados no se reutilizan de inmediato: esperan en una cola FIFO para que un
+ * frame en vuelo nunca resuelva un índice reciclado a otro jugador.
+ */
+public final class PlayerIdTable {
+
+    private static final int REUSE_QUARANTINE = 256;
+
+    private final Map<String, int[]> entries = new HashMap<>(); // id -> {índice, referencias}
+    private final ArrayDeque<Integer> freeIndices = new ArrayDeque<>();
+    private final List<Integer> pendingDefinitions = new ArrayList<>();
+    private String[] byIndex = new String[16];
+    private int nextIndex;
+
+    public synchronized int intern(String playerId) {
+        int[] entry = entries.get(playerId);
+        if (entry != null) {
+            entry[1]++;
+            return entry[0];
+        }
+        int index = freeIndices.size() > REUSE_QUARANTINE ? freeIndices.poll() : nextIndex++;
+        entries.put(playerId, new int[]{index, 1});
+        store(index, playerId);
+        pendingDefinitions.add(index);
+        return index;
+    }
+
+    public synchronized void release(String playerId) {
+        int[] entry = entries.get(playerId);
+        if (entry == null) return;
+        if (--entry[1] == 0) {
+            entries.remove(playerId);
+            byIndex[entry[0]] = null;
+            freeIndices.add(entry[0]);
+        }
+    }
+
+    // Índice del jugador o -1 si no está internado.
+    public synchronized int indexOf(String playerId) {
+        int[] entry = entries.get(playerId);
+        return entry != null ? entry[0] : -1;
+    }
+
+    public synchronized String get(int index) {
+        return index >= 0 && index < byIndex.length ? byIndex[index] : null;
+    }
+
+    public synchronized void define(int index, String playerId) {
+        store(index, playerId);
+    }
+
+    // Escribe un frame PLAYER_IDS con las definiciones creadas desde la última llamada, si las hay.
+    public synchronized boolean drainPendingDefinitions(WireWriter writer) {
+        if (pendingDefinitions.isEmpty()) return false;
+        writer.beginFrame(WireCodec.PLAYER_IDS);
+        int live = 0;
+        for (Integer index : pendingDefinitions) {
+            if (byIndex[index] != null) live++;
+        }
+        writer.writeVarInt(live);
+        for (Integer index : pendingDefinitions) {
+            if (byIndex[index] != null) {
+                writer.writeVarInt(index);
+                writer.writeString(byIndex[index]);
+            }
+        }
+        writer.endFrame();
+        pendingDefinitions.clear();
+        return true;
+    }
+
+    // Escribe un frame PLAYER_IDS con la tabla completa, para clientes recién conectados.
+    public synchronized void writeAllDefinitions(WireWriter writer) {
+        writer.beginFrame(WireCodec.PLAYER_IDS);
+        writer.writeVarInt(entries.size());
+        for (Map.Entry<String, int[]> entry : entries.entrySet()) {
+            writer.writeVarInt(entry.getValue()[0]);
+            writer.writeString(entry.getKey());
+        }
+        writer.endFrame();
+    }
+
+    private void store(int index, String playerId) {
+        if (index >= byIndex.length) {
+            byIndex = Arrays.copyOf(byIndex, Math.max(index + 1, byIndex.length * 2));
+        }
+        byIndex[index] = playerId;
+    }
+}
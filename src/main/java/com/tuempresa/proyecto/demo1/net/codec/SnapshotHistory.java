@@ -0,0 +1,38 @@
+package com.tuempresa.proyecto.demo1.net.codec;
+
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+
+/**
+ * Historial circular de los últimos snapshots, indexado por número de tick.
+ *
+ * El servidor lo usa para encontrar la base que cada cliente confirmó y codificar
+ * el delta respecto a ella; el cliente, para reconstruir el estado a partir del delta.
+ * Ambos lados deben conservar la misma ventana de ticks. No es thread-safe.
+ */
+public final class SnapshotHistory {
+
+    private final GameStateSnapshot[] slots;
+
+    public SnapshotHistory(int capacity) {
+        this.slots = new GameStateSnapshot[Math.max(1, capacity)];
+    }
+
+    public void add(GameStateSnapshot snapshot) {
+        slots[slot(snapshot.tick)] = snapshot;
+    }
+
+    // Snapshot del tick indicado, o null si nunca se guardó o ya fue sobrescrito.
+    public GameStateSnapshot get(long tick) {
+        if (tick < 0) return null;
+        GameStateSnapshot snapshot = slots[slot(tick)];
+        return snapshot != null && snapshot.tick == tick ? snapshot : null;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(slots, null);
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.length);
+    }
+}
@@ -0,0 +1,716 @@
+package com.tuempresa.proyecto.demo1.net.codec;
+
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.CoordenadasEmpaquetadas;
+import com.tuempresa.proyecto.demo1.model.Direccion;
+import com.tuempresa.proyecto.demo1.model.GamePhase;
+import com.tuempresa.proyecto.demo1.net.dto.AdminDataSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.AdminRowsDelta;
+import com.tuempresa.proyecto.demo1.net.dto.FrutaSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.PlayerData;
+import com.tuempresa.proyecto.demo1.net.dto.SnakeSnapshot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codec binario del protocolo de red. Cada frame tiene una cabecera fija
+ * (longitud de 4 bytes + tipo de 1 byte) seguida del payload del mensaje.
+ *
+ * Snapshot: las coordenadas se escriben como varints y los cuerpos de las serpientes como
+ * la cabeza absoluta más un código de 2 bits por segmento (dirección respecto al anterior),
+ * de modo que una serpiente de 100 segmentos ocupa ~30 bytes. Los IDs de jugador se
+ * referencian por su índice en la {@link PlayerIdTable}.
+ *
+ * Delta: cada cliente confirma (ACK) el último tick que recibió y el servidor le envía solo
+ * lo que cambió desde ese tick: cabezas nuevas y segmentos de cola eliminados por serpiente,
+ * serpientes que entran o desaparecen y frutas comidas o generadas. Si el cliente no tiene
+ * base (recién conectado o la base salió del historial) recibe un SNAPSHOT completo.
+ */
+public final class WireCodec {
+
+    // Cliente -> servidor
+    public static final byte HELLO = 1;
+    public static final byte DIRECTION = 2;
+    public static final byte PING = 3;
+    // Servidor -> cliente
+    public static final byte PONG = 4;
+    public static final byte SNAPSHOT = 5;
+    public static final byte PLAYER_IDS = 6;
+    public static final byte DELTA = 9;
+    // Canal de administración
+    public static final byte ADMIN_COMMAND = 7;
+    public static final byte ADMIN_DATA = 8;
+    // Cliente -> servidor: confirmación del último tick recibido
+    public static final byte ACK = 10;
+    // Servidor -> consola suscrita: cambios del panel de jugadores
+    public static final byte ADMIN_ROWS = 11;
+    // Servidor -> consola: respuesta en texto a un ADMIN_COMMAND
+    public static final byte ADMIN_REPLY = 12;
+
+    // Campos que una consola puede suscribir (SUBSCRIBE); el ID del jugador va siempre.
+    public static final int ADMIN_FIELD_IP = 1;
+    public static final int ADMIN_FIELD_UPTIME = 1 << 1;
+    public static final int ADMIN_FIELD_PING = 1 << 2;
+    public static final int ADMIN_FIELD_STATUS = 1 << 3;
+    public static final int ADMIN_FIELD_SCORE = 1 << 4;
+    public static final int ADMIN_FIELD_BOARD = 1 << 5; // Tablero como SNAPSHOT/DELTA con IDs en texto
+    public static final int ADMIN_FIELDS_ALL = (1 << 6) - 1;
+
+    // Valor de ACK que pide un snapshot completo (el cliente no tiene una base válida).
+    public static final long NO_TICK = -1;
+    // Sala de un HELLO que no pide ninguna: el servidor asigna una con hueco.
+    public static final int ANY_ROOM = -1;
+
+    // Opcodes de los comandos de administración
+    private static final String[] ADMIN_COMMANDS = {"START_GAME", "RESET_GAME", "LIST_PLAYERS", "SHUTDOWN", "KICK_PLAYER", "SUBSCRIBE"};
+    private static final int ADMIN_COMMAND_TEXT = 0xFF; // Comando no reconocido, se envía como texto
+
+    private static final byte BODY_PACKED = 0;
+    private static final byte BODY_VARINT = 1;
+
+    // Flags de cada serpiente dentro de un DELTA
+    private static final int SNAKE_NEW = 1;        // No existía en la base: serpiente completa
+    private static final int SNAKE_SCORE = 1 << 1;
+    private static final int SNAKE_GROWTH = 1 << 2;
+    private static final int SNAKE_COLOR = 1 << 3;
+    private static final int SNAKE_SHIFT = 1 << 4; // Cabezas nuevas + cola recortada
+    private static final int SNAKE_BODY = 1 << 5;  // Cuerpo completo (reset, teletransporte...)
+
+    private static final Direccion[] DIRECCIONES = Direccion.values();
+    private static final GamePhase[] FASES = GamePhase.values();
+
+    private WireCodec() {
+    }
+
+    // --- Mensajes simples ---
+
+    public static byte[] encodeHello(String playerId) {
+        return encodeHello(playerId, ANY_ROOM);
+    }
+
+    // La sala es opcional: un HELLO sin ella (clientes antiguos) deja que el servidor elija.
+    public static byte[] encodeHello(String playerId, int room) {
+        WireWriter writer = new WireWriter(32);
+        writer.beginFrame(HELLO).writeString(playerId);
+        if (room != ANY_ROOM) {
+            writer.writeVarInt(room);
+        }
+        return writer.endFrame().toByteArray();
+    }
+
+    // Se lee después del ID del jugador.
+    public static int decodeHelloRoom(WireReader reader) throws IOException {
+        return reader.remaining() > 0 ? reader.readVarInt() : ANY_ROOM;
+    }
+
+    public static byte[] encodeDirection(Direccion direccion) {
+        WireWriter writer = new WireWriter(8);
+        writer.beginFrame(DIRECTION).writeByte(direccion.ordinal());
+        return writer.endFrame().toByteArray();
+    }
+
+    public static Direccion decodeDirection(WireReader reader) throws IOException {
+        int ordinal = reader.readUnsignedByte();
+        if (ordinal >= DIRECCIONES.length) {
+            throw new IOException("Dirección desconocida: " + ordinal);
+        }
+        return DIRECCIONES[ordinal];
+    }
+
+    public static byte[] encodePing(long timestamp) {
+        return encodeTimestamp(PING, timestamp);
+    }
+
+    public static byte[] encodePong(long timestamp) {
+        return encodeTimestamp(PONG, timestamp);
+    }
+
+    private static byte[] encodeTimestamp(byte type, long timestamp) {
+        WireWriter writer = new WireWriter(16);
+        writer.beginFrame(type).writeLong(timestamp);
+        return writer.endFrame().toByteArray();
+    }
+
+    public static byte[] encodeAdminCommand(String command) {
+        WireWriter writer = new WireWriter(32);
+        writer.beginFrame(ADMIN_COMMAND);
+        String upper = command.toUpperCase();
+        int opcode = ADMIN_COMMAND_TEXT;
+        for (int i = 0; i < ADMIN_COMMANDS.length; i++) {
+            if (upper.equals(ADMIN_COMMANDS[i]) || upper.startsWith(ADMIN_COMMANDS[i] + " ")) {
+                opcode = i;
+                break;
+            }
+        }
+        writer.writeByte(opcode);
+        if (opcode == ADMIN_COMMAND_TEXT) {
+            writer.writeString(command);
+        } else {
+            writer.writeString(command.substring(ADMIN_COMMANDS[opcode].length()).trim());
+        }
+        return writer.endFrame().toByteArray();
+    }
+
+    // Devuelve el comando en su forma textual ("KICK_PLAYER id") para el intérprete del servidor.
+    public static String decodeAdminCommand(WireReader reader) throws IOException {
+        int opcode = reader.readUnsignedByte();
+        String argument = reader.readString();
+        if (opcode == ADMIN_COMMAND_TEXT) {
+            return argument;
+        }
+        if (opcode >= ADMIN_COMMANDS.length) {
+            throw new IOException("Comando de administración desconocido: " + opcode);
+        }
+        return argument.isEmpty() ? ADMIN_COMMANDS[opcode] : ADMIN_COMMANDS[opcode] + " " + argument;
+    }
+
+    public static byte[] encodeAdminReply(String reply) {
+        WireWriter writer = new WireWriter(64 + reply.length());
+        writer.beginFrame(ADMIN_REPLY).writeString(reply);
+        return writer.endFrame().toByteArray();
+    }
+
+    public static String decodeAdminReply(WireReader reader) throws IOException {
+        return reader.readString();
+    }
+
+    public static byte[] encodeAck(long tick) {
+        WireWriter writer = new WireWriter(16);
+        writer.beginFrame(ACK).writeVarLong(tick + 1);
+        return writer.endFrame().toByteArray();
+    }
+
+    // Devuelve el tick confirmado, o NO_TICK si el cliente pide un snapshot completo.
+    public static long decodeAck(WireReader reader) throws IOException {
+        return reader.readVarLong() - 1;
+    }
+
+    public static void decodePlayerIds(WireReader reader, PlayerIdTable ids) throws IOException {
+        int count = reader.readVarInt();
+        for (int i = 0; i < count; i++) {
+            int index = reader.readVarInt();
+            ids.define(index, reader.readString());
+        }
+    }
+
+    // --- Snapshots ---
+
+    // Escribe un frame SNAPSHOT completo. Con ids == null los IDs viajan como texto.
+    public static void encodeSnapshot(WireWriter writer, GameStateSnapshot snapshot, PlayerIdTable ids) {
+        writer.beginFrame(SNAPSHOT);
+        writeSnapshotBody(writer, snapshot, ids);
+        writer.endFrame();
+    }
+
+    public static GameStateSnapshot decodeSnapshot(WireReader reader, PlayerIdTable ids) throws IOException {
+        long tick = reader.readVarLong();
+        int width = reader.readVarInt();
+        int height = reader.readVarInt();
+        GamePhase phase = readPhase(reader);
+
+        int snakeCount = reader.readVarInt();
+        List<SnakeSnapshot> snakes = new ArrayList<>(snakeCount);
+        for (int i = 0; i < snakeCount; i++) {
+            snakes.add(readSnake(reader, ids));
+        }
+
+        int fruitCount = reader.readVarInt();
+        List<FrutaSnapshot> frutas = new ArrayList<>(fruitCount);
+        for (int i = 0; i < fruitCount; i++) {
+            frutas.add(readFruta(reader));
+        }
+        return new GameStateSnapshot(tick, width, height, snakes, frutas, phase);
+    }
+
+    private static void writeSnapshotBody(WireWriter writer, GameStateSnapshot snapshot, PlayerIdTable ids) {
+        writer.writeVarLong(snapshot.tick);
+        writer.writeVarInt(snapshot.width);
+        writer.writeVarInt(snapshot.height);
+        writer.writeByte(snapshot.gamePhase.ordinal());
+
+        writer.writeVarInt(snapshot.snakes.size());
+        for (SnakeSnapshot snake : snapshot.snakes) {
+            writeSnake(writer, snake, ids);
+        }
+
+        writer.writeVarInt(snapshot.frutas.size());
+        for (FrutaSnapshot fruta : snapshot.frutas) {
+            writeFruta(writer, fruta);
+        }
+    }
+
+    private static void writeFruta(WireWriter writer, FrutaSnapshot fruta) {
+        writer.writeVarInt(fruta.coordenada.x);
+        writer.writeVarInt(fruta.coordenada.y);
+        writer.writeVarInt(fruta.valor);
+        writer.writeInt(fruta.colorRgb);
+    }
+
+    private static FrutaSnapshot readFruta(WireReader reader) throws IOException {
+        Coordenada pos = new Coordenada(reader.readVarInt(), reader.readVarInt());
+        int valor = reader.readVarInt();
+        return new FrutaSnapshot(pos, valor, reader.readInt());
+    }
+
+    private static void writeSnake(WireWriter writer, SnakeSnapshot snake, PlayerIdTable ids) {
+        writePlayerId(writer, snake.idJugador, ids);
+        writeSnakeFields(writer, snake);
+    }
+
+    private static void writeSnakeFields(WireWriter writer, SnakeSnapshot snake) {
+        writer.writeVarInt(snake.puntaje);
+        writer.writeVarInt(snake.segmentosPorCrecer);
+        writer.writeInt(snake.colorRgb);
+        writeBody(writer, snake.cuerpo);
+    }
+
+    private static SnakeSnapshot readSnake(WireReader reader, PlayerIdTable ids) throws IOException {
+        return readSnakeFields(reader, readPlayerId(reader, ids));
+    }
+
+    private static SnakeSnapshot readSnakeFields(WireReader reader, String id) throws IOException {
+        int puntaje = reader.readVarInt();
+        int segmentosPorCrecer = reader.readVarInt();
+        int colorRgb = reader.readInt();
+        List<Coordenada> cuerpo = readBody(reader);
+        return new SnakeSnapshot(id, puntaje, cuerpo, segmentosPorCrecer, colorRgb);
+    }
+
+    // Índice + 1 en la tabla, o 0 seguido del ID en texto si no está internado.
+    private static void writePlayerId(WireWriter writer, String playerId, PlayerIdTable ids) {
+        int index = ids != null ? ids.indexOf(playerId) : -1;
+        writer.writeVarInt(index + 1);
+        if (index < 0) {
+            writer.writeString(playerId);
+        }
+    }
+
+    private static String readPlayerId(WireReader reader, PlayerIdTable ids) throws IOException {
+        int reference = reader.readVarInt();
+        if (reference == 0) {
+            return reader.readString();
+        }
+        String id = ids != null ? ids.get(reference - 1) : null;
+        if (id == null) {
+            throw new IOException("Índice de jugador sin definir: " + (reference - 1));
+        }
+        return id;
+    }
+
+    private static void writeBody(WireWriter writer, List<Coordenada> cuerpo) {
+        int size = cuerpo.size();
+        writer.writeVarInt(size);
+        if (size == 0) return;
+
+        int head = CoordenadasEmpaquetadas.packedAt(cuerpo, 0);
+        writer.writeVarInt(Coordenada.packedX(head));
+        writer.writeVarInt(Coordenada.packedY(head));
+        if (size == 1) return;
+
+        boolean contiguous = true;
+        int previous = head;
+        for (int i = 1; i < size && contiguous; i++) {
+            int current = CoordenadasEmpaquetadas.packedAt(cuerpo, i);
+            contiguous = directionCode(previous, current) >= 0;
+            previous = current;
+        }
+
+        if (contiguous) {
+            // 4 segmentos por byte: dirección de cada segmento respecto al anterior.
+            writer.writeByte(BODY_PACKED);
+            int packed = 0;
+            int bits = 0;
+            previous = head;
+            for (int i = 1; i < size; i++) {
+                int current = CoordenadasEmpaquetadas.packedAt(cuerpo, i);
+                packed |= directionCode(previous, current) << bits;
+                bits += 2;
+                if (bits == 8) {
+                    writer.writeByte(packed);
+                    packed = 0;
+                    bits = 0;
+                }
+                previous = current;
+            }
+            if (bits > 0) {
+                writer.writeByte(packed);
+            }
+        } else {
+            writer.writeByte(BODY_VARINT);
+            previous = head;
+            for (int i = 1; i < size; i++) {
+                int current = CoordenadasEmpaquetadas.packedAt(cuerpo, i);
+                writer.writeSignedVarInt(Coordenada.packedX(current) - Coordenada.packedX(previous));
+                writer.writeSignedVarInt(Coordenada.packedY(current) - Coordenada.packedY(previous));
+                previous = current;
+            }
+        }
+    }
+
+    private static List<Coordenada> readBody(WireReader reader) throws IOException {
+        int size = reader.readVarInt();
+        int[] cuerpo = new int[size];
+        if (size == 0) return new CoordenadasEmpaquetadas(cuerpo);
+
+        int x = reader.readVarInt();
+        int y = reader.readVarInt();
+        cuerpo[0] = Coordenada.pack(x, y);
+        if (size == 1) return new CoordenadasEmpaquetadas(cuerpo);
+
+        byte mode = reader.readByte();
+        if (mode == BODY_PACKED) {
+            int packed = 0;
+            for (int i = 1; i < size; i++) {
+                int slot = (i - 1) & 3;
+                if (slot == 0) {
+                    packed = reader.readUnsignedByte();
+                }
+                int code = (packed >>> (slot * 2)) & 3;
+                x += DX[code];
+                y += DY[code];
+                cuerpo[i] = Coordenada.pack(x, y);
+            }
+        } else if (mode == BODY_VARINT) {
+            for (int i = 1; i < size; i++) {
+                x += reader.readSignedVarInt();
+                y += reader.readSignedVarInt();
+                cuerpo[i] = Coordenada.pack(x, y);
+            }
+        } else {
+            throw new IOException("Codificación de cuerpo desconocida: " + mode);
+        }
+        return new CoordenadasEmpaquetadas(cuerpo);
+    }
+
+    // --- Deltas ---
+
+    /**
+     * Escribe un frame DELTA que transforma {@code base} en {@code current}. El cliente debe
+     * conservar {@code base} en su {@link SnapshotHistory} para poder aplicarlo.
+     */
+    public static void encodeDelta(WireWriter writer, GameStateSnapshot base, GameStateSnapshot current, PlayerIdTable ids) {
+        writer.beginFrame(DELTA);
+        writer.writeVarLong(current.tick);
+        writer.writeVarLong(current.tick - base.tick);
+        writer.writeByte(current.gamePhase.ordinal());
+
+        Map<String, SnakeSnapshot> baseSnakes = new HashMap<>(base.snakes.size() * 2);
+        for (SnakeSnapshot snake : base.snakes) {
+            baseSnakes.put(snake.idJugador, snake);
+        }
+        // Las serpientes ausentes en current se eliminan implícitamente.
+        writer.writeVarInt(current.snakes.size());
+        for (SnakeSnapshot snake : current.snakes) {
+            writePlayerId(writer, snake.idJugador, ids);
+            writeSnakeDelta(writer, baseSnakes.get(snake.idJugador), snake);
+        }
+
+        // Frutas: índices (en la base) de las que ya no están, seguidas de las nuevas.
+        Map<Coordenada, FrutaSnapshot> baseFrutas = indexFrutas(base.frutas);
+        Map<Coordenada, FrutaSnapshot> currentFrutas = indexFrutas(current.frutas);
+        int removed = 0;
+        for (FrutaSnapshot fruta : base.frutas) {
+            if (!sameFruta(fruta, currentFrutas.get(fruta.coordenada))) removed++;
+        }
+        writer.writeVarInt(removed);
+        for (int i = 0; i < base.frutas.size(); i++) {
+            FrutaSnapshot fruta = base.frutas.get(i);
+            if (!sameFruta(fruta, currentFrutas.get(fruta.coordenada))) {
+                writer.writeVarInt(i);
+            }
+        }
+        int added = 0;
+        for (FrutaSnapshot fruta : current.frutas) {
+            if (!sameFruta(fruta, baseFrutas.get(fruta.coordenada))) added++;
+        }
+        writer.writeVarInt(added);
+        for (FrutaSnapshot fruta : current.frutas) {
+            if (!sameFruta(fruta, baseFrutas.get(fruta.coordenada))) {
+                writeFruta(writer, fruta);
+            }
+        }
+        writer.endFrame();
+    }
+
+    /**
+     * Reconstruye el estado a partir de un DELTA. Devuelve null si la base que referencia
+     * ya no está en el historial; el cliente debe entonces pedir un snapshot completo.
+     */
+    public static GameStateSnapshot decodeDelta(WireReader reader, SnapshotHistory history, PlayerIdTable ids) throws IOException {
+        long tick = reader.readVarLong();
+        GameStateSnapshot base = history.get(tick - reader.readVarLong());
+        if (base == null) {
+            return null;
+        }
+        GamePhase phase = readPhase(reader);
+
+        Map<String, SnakeSnapshot> baseSnakes = new HashMap<>(base.snakes.size() * 2);
+        for (SnakeSnapshot snake : base.snakes) {
+            baseSnakes.put(snake.idJugador, snake);
+        }
+        int snakeCount = reader.readVarInt();
+        List<SnakeSnapshot> snakes = new ArrayList<>(snakeCount);
+        for (int i = 0; i < snakeCount; i++) {
+            String id = readPlayerId(reader, ids);
+            snakes.add(readSnakeDelta(reader, id, baseSnakes.get(id)));
+        }
+
+        int removed = reader.readVarInt();
+        boolean[] eaten = new boolean[base.frutas.size()];
+        for (int i = 0; i < removed; i++) {
+            int index = reader.readVarInt();
+            if (index >= eaten.length) {
+                throw new IOException("Índice de fruta fuera de rango: " + index);
+            }
+            eaten[index] = true;
+        }
+        int added = reader.readVarInt();
+        List<FrutaSnapshot> frutas = new ArrayList<>(base.frutas.size() - removed + added);
+        for (int i = 0; i < eaten.length; i++) {
+            if (!eaten[i]) frutas.add(base.frutas.get(i));
+        }
+        for (int i = 0; i < added; i++) {
+            frutas.add(readFruta(reader));
+        }
+        return new GameStateSnapshot(tick, base.width, base.height, snakes, frutas, phase);
+    }
+
+    private static void writeSnakeDelta(WireWriter writer, SnakeSnapshot base, SnakeSnapshot snake) {
+        if (base == null) {
+            writer.writeByte(SNAKE_NEW);
+            writeSnakeFields(writer, snake);
+            return;
+        }
+        int flags = 0;
+        if (snake.puntaje != base.puntaje) flags |= SNAKE_SCORE;
+        if (snake.segmentosPorCrecer != base.segmentosPorCrecer) flags |= SNAKE_GROWTH;
+        if (snake.colorRgb != base.colorRgb) flags |= SNAKE_COLOR;
+        int newHeads = shiftedHeads(base.cuerpo, snake.cuerpo);
+        int trimmedTail = newHeads >= 0 ? base.cuerpo.size() - (snake.cuerpo.size() - newHeads) : 0;
+        if (newHeads < 0) {
+            flags |= SNAKE_BODY;
+        } else if (newHeads > 0 || trimmedTail > 0) {
+            flags |= SNAKE_SHIFT;
+        }
+
+        writer.writeByte(flags);
+        if ((flags & SNAKE_SCORE) != 0) writer.writeVarInt(snake.puntaje);
+        if ((flags & SNAKE_GROWTH) != 0) writer.writeVarInt(snake.segmentosPorCrecer);
+        if ((flags & SNAKE_COLOR) != 0) writer.writeInt(snake.colorRgb);
+        if ((flags & SNAKE_BODY) != 0) {
+            writeBody(writer, snake.cuerpo);
+        } else if ((flags & SNAKE_SHIFT) != 0) {
+            writer.writeVarInt(newHeads);
+            writer.writeVarInt(trimmedTail);
+            // Cabezas nuevas de la más antigua a la más reciente, 2 bits por paso.
+            int packed = 0;
+            int bits = 0;
+            for (int i = newHeads - 1; i >= 0; i--) {
+                packed |= directionCode(CoordenadasEmpaquetadas.packedAt(snake.cuerpo, i + 1), CoordenadasEmpaquetadas.packedAt(snake.cuerpo, i)) << bits;
+                bits += 2;
+                if (bits == 8) {
+                    writer.writeByte(packed);
+                    packed = 0;
+                    bits = 0;
+                }
+            }
+            if (bits > 0) {
+                writer.writeByte(packed);
+            }
+        }
+    }
+
+    private static SnakeSnapshot readSnakeDelta(WireReader reader, String id, SnakeSnapshot base) throws IOException {
+        int flags = reader.readUnsignedByte();
+        if ((flags & SNAKE_NEW) != 0) {
+            return readSnakeFields(reader, id);
+        }
+        if (base == null) {
+            throw new IOException("Delta de una serpiente que no está en la base: " + id);
+        }
+        int puntaje = (flags & SNAKE_SCORE) != 0 ? reader.readVarInt() : base.puntaje;
+        int segmentosPorCrecer = (flags & SNAKE_GROWTH) != 0 ? reader.readVarInt() : base.segmentosPorCrecer;
+        int colorRgb = (flags & SNAKE_COLOR) != 0 ? reader.readInt() : base.colorRgb;
+
+        List<Coordenada> cuerpo;
+        if ((flags & SNAKE_BODY) != 0) {
+            cuerpo = readBody(reader);
+        } else if ((flags & SNAKE_SHIFT) != 0) {
+            int newHeads = reader.readVarInt();
+            int trimmedTail = reader.readVarInt();
+            int kept = base.cuerpo.size() - trimmedTail;
+            if (base.cuerpo.isEmpty() || kept < 0) {
+                throw new IOException("Delta de cuerpo inválido para " + id);
+            }
+            int[] celdas = new int[newHeads + kept];
+            int previous = CoordenadasEmpaquetadas.packedAt(base.cuerpo, 0);
+            int packed = 0;
+            for (int i = 0; i < newHeads; i++) {
+                int slot = i & 3;
+                if (slot == 0) {
+                    packed = reader.readUnsignedByte();
+                }
+                int code = (packed >>> (slot * 2)) & 3;
+                previous = Coordenada.pack(Coordenada.packedX(previous) + DX[code], Coordenada.packedY(previous) + DY[code]);
+                celdas[newHeads - 1 - i] = previous;
+            }
+            for (int i = 0; i < kept; i++) {
+                celdas[newHeads + i] = CoordenadasEmpaquetadas.packedAt(base.cuerpo, i);
+            }
+            cuerpo = new CoordenadasEmpaquetadas(celdas);
+        } else if (flags == 0) {
+            return base; // Sin cambios: se reutiliza el snapshot de la base
+        } else {
+            cuerpo = base.cuerpo;
+        }
+        return new SnakeSnapshot(id, puntaje, cuerpo, segmentosPorCrecer, colorRgb);
+    }
+
+    /**
+     * Número de cabezas nuevas si {@code current} es {@code base} desplazado (k cabezas delante
+     * y la cola recortada), o -1 si el cuerpo cambió de otra forma y debe enviarse completo.
+     */
+    private static int shiftedHeads(List<Coordenada> base, List<Coordenada> current) {
+        if (base.isEmpty() || current.isEmpty()) {
+            return base.isEmpty() && current.isEmpty() ? 0 : -1;
+        }
+        int baseHead = CoordenadasEmpaquetadas.packedAt(base, 0);
+        for (int k = 0; k < current.size(); k++) {
+            if (CoordenadasEmpaquetadas.packedAt(current, k) != baseHead) continue;
+            // Los cuerpos no se solapan: la cabeza anterior aparece como mucho una vez.
+            int kept = current.size() - k;
+            if (kept > base.size()) return -1;
+            for (int i = 1; i < kept; i++) {
+                if (CoordenadasEmpaquetadas.packedAt(current, k + i) != CoordenadasEmpaquetadas.packedAt(base, i)) return -1;
+            }
+            for (int i = 0; i < k; i++) {
+                if (directionCode(CoordenadasEmpaquetadas.packedAt(current, i + 1), CoordenadasEmpaquetadas.packedAt(current, i)) < 0) return -1;
+            }
+            return k;
+        }
+        return -1;
+    }
+
+    private static Map<Coordenada, FrutaSnapshot> indexFrutas(List<FrutaSnapshot> frutas) {
+        Map<Coordenada, FrutaSnapshot> byPosition = new HashMap<>(frutas.size() * 2);
+        for (FrutaSnapshot fruta : frutas) {
+            byPosition.put(fruta.coordenada, fruta);
+        }
+        return byPosition;
+    }
+
+    private static boolean sameFruta(FrutaSnapshot fruta, FrutaSnapshot other) {
+        return other != null && fruta.valor == other.valor && fruta.colorRgb == other.colorRgb;
+    }
+
+    // Códigos de 2 bits: 0 = arriba, 1 = abajo, 2 = izquierda, 3 = derecha.
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+
+    private static int directionCode(int from, int to) {
+        int dx = Coordenada.packedX(to) - Coordenada.packedX(from);
+        int dy = Coordenada.packedY(to) - Coordenada.packedY(from);
+        if (dx == 0 && dy == -1) return 0;
+        if (dx == 0 && dy == 1) return 1;
+        if (dx == -1 && dy == 0) return 2;
+        if (dx == 1 && dy == 0) return 3;
+        return -1;
+    }
+
+    private static GamePhase readPhase(WireReader reader) throws IOException {
+        int ordinal = reader.readUnsignedByte();
+        if (ordinal >= FASES.length) {
+            throw new IOException("Fase de juego desconocida: " + ordinal);
+        }
+        return FASES[ordinal];
+    }
+
+    // --- Datos de administración ---
+
+    public static byte[] encodeAdminData(AdminDataSnapshot data) {
+        WireWriter writer = new WireWriter(1024);
+        writer.beginFrame(ADMIN_DATA);
+        writer.writeVarInt(data.getPlayers().size());
+        for (PlayerData player : data.getPlayers()) {
+            writer.writeString(player.getPlayerId());
+            writer.writeString(player.getIpAddress());
+            writer.writeVarLong(player.getConnectionDurationSeconds());
+            writer.writeSignedVarLong(player.getPingMs());
+            writer.writeString(player.getStatus());
+            writer.writeVarInt(player.getScore());
+        }
+        writer.writeByte(data.getGamePhase().ordinal());
+        // La consola de administración no recibe la tabla de IDs: se envían en texto.
+        writeSnapshotBody(writer, data.getGameStateSnapshot(), null);
+        return writer.endFrame().toByteArray();
+    }
+
+    public static AdminDataSnapshot decodeAdminData(WireReader reader) throws IOException {
+        int playerCount = reader.readVarInt();
+        List<PlayerData> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            String playerId = reader.readString();
+            String ip = reader.readString();
+            long duration = reader.readVarLong();
+            long ping = reader.readSignedVarLong();
+            String status = reader.readString();
+            int score = reader.readVarInt();
+            players.add(new PlayerData(playerId, ip, duration, ping, status, score));
+        }
+        GamePhase phase = readPhase(reader);
+        GameStateSnapshot snapshot = decodeSnapshot(reader, null);
+        return new AdminDataSnapshot(players, phase, snapshot);
+    }
+
+    /**
+     * Frame ADMIN_ROWS: fase de juego, máscara de campos y las filas que cambiaron (solo con los
+     * campos de la máscara), seguidas de los IDs que ya no están.
+     */
+    public static void encodeAdminRows(WireWriter writer, AdminRowsDelta delta) {
+        int fields = delta.getFields();
+        writer.beginFrame(ADMIN_ROWS);
+        writer.writeByte(delta.getGamePhase().ordinal());
+        writer.writeVarInt(fields);
+        writer.writeVarInt(delta.getChanged().size());
+        for (PlayerData player : delta.getChanged()) {
+            writer.writeString(player.getPlayerId());
+            if ((fields & ADMIN_FIELD_IP) != 0) writer.writeString(player.getIpAddress());
+            if ((fields & ADMIN_FIELD_UPTIME) != 0) writer.writeVarLong(player.getConnectionDurationSeconds());
+            if ((fields & ADMIN_FIELD_PING) != 0) writer.writeSignedVarLong(player.getPingMs());
+            if ((fields & ADMIN_FIELD_STATUS) != 0) writer.writeString(player.getStatus());
+            if ((fields & ADMIN_FIELD_SCORE) != 0) writer.writeVarInt(player.getScore());
+        }
+        writer.writeVarInt(delta.getRemoved().size());
+        for (String playerId : delta.getRemoved()) {
+            writer.writeString(playerId);
+        }
+        writer.endFrame();
+    }
+
+    public static AdminRowsDelta decodeAdminRows(WireReader reader) throws IOException {
+        GamePhase phase = readPhase(reader);
+        int fields = reader.readVarInt();
+        int changedCount = reader.readVarInt();
+        List<PlayerData> changed = new ArrayList<>(changedCount);
+        for (int i = 0; i < changedCount; i++) {
+            String playerId = reader.readString();
+            String ip = (fields & ADMIN_FIELD_IP) != 0 ? reader.readString() : "";
+            long duration = (fields & ADMIN_FIELD_UPTIME) != 0 ? reader.readVarLong() : 0;
+            long ping = (fields & ADMIN_FIELD_PING) != 0 ? reader.readSignedVarLong() : -1;
+            String status = (fields & ADMIN_FIELD_STATUS) != 0 ? reader.readString() : "";
+            int score = (fields & ADMIN_FIELD_SCORE) != 0 ? reader.readVarInt() : 0;
+            changed.add(new PlayerData(playerId, ip, duration, ping, status, score));
+        }
+        int removedCount = reader.readVarInt();
+        List<String> removed = new ArrayList<>(removedCount);
+        for (int i = 0; i < removedCount; i++) {
+            removed.add(reader.readString());
+        }
+        return new AdminRowsDelta(phase, fields, changed, removed);
+    }
+}
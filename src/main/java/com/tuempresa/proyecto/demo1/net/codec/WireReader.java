@@ -0,0 +1,113 @@
+package com.tuempresa.proyecto.demo1.net.codec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cursor de lectura sobre un frame del protocolo binario. Puede reutilizarse entre
+ * frames: {@link #wrap} apunta el cursor a un nuevo rango de bytes sin copiarlo.
+ */
+public final class WireReader {
+
+    private byte[] buffer;
+    private int position;
+    private int limit;
+
+    public WireReader() {
+        this(new byte[256], 0, 0);
+    }
+
+    public WireReader(byte[] buffer, int offset, int length) {
+        wrap(buffer, offset, length);
+    }
+
+    public WireReader wrap(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+        return this;
+    }
+
+    // Buffer interno con al menos la capacidad indicada, para lecturas bloqueantes con readFully.
+    public byte[] buffer(int capacity) {
+        if (buffer.length < capacity) {
+            buffer = new byte[Math.max(capacity, buffer.length * 2)];
+        }
+        return buffer;
+    }
+
+    public int remaining() {
+        return limit - position;
+    }
+
+    public byte readByte() throws IOException {
+        require(1);
+        return buffer[position++];
+    }
+
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xFF;
+    }
+
+    public int readInt() throws IOException {
+        require(4);
+        int value = ((buffer[position] & 0xFF) << 24)
+                | ((buffer[position + 1] & 0xFF) << 16)
+                | ((buffer[position + 2] & 0xFF) << 8)
+                | (buffer[position + 3] & 0xFF);
+        position += 4;
+        return value;
+    }
+
+    public long readLong() throws IOException {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    public int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint mal formado.");
+    }
+
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varlong mal formado.");
+    }
+
+    public int readSignedVarInt() throws IOException {
+        int raw = readVarInt();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public long readSignedVarLong() throws IOException {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public String readString() throws IOException {
+        int length = readVarInt();
+        require(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private void require(int bytes) throws IOException {
+        if (bytes < 0 || position + bytes > limit) {
+            throw new IOException("Frame truncado.");
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.tuempresa.proyecto.demo1.net.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Buffer de escritura reutilizable para el protocolo binario. Escribe enteros de
+ * tamaño fijo en big-endian y enteros de tamaño variable (varint, 7 bits por byte).
+ * No es thread-safe: cada hilo que codifica debe usar su propia instancia.
+ */
+public final class WireWriter {
+
+    private byte[] buffer;
+    private int position;
+    private int frameStart = -1;
+
+    public WireWriter() {
+        this(256);
+    }
+
+    public WireWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public void reset() {
+        position = 0;
+        frameStart = -1;
+    }
+
+    public int size() {
+        return position;
+    }
+
+    // Reserva la cabecera de longitud y escribe el tipo de mensaje.
+    public WireWriter beginFrame(byte type) {
+        frameStart = position;
+        writeInt(0);
+        writeByte(type);
+        return this;
+    }
+
+    // Rellena la longitud del frame abierto con beginFrame.
+    public WireWriter endFrame() {
+        if (frameStart < 0) {
+            throw new IllegalStateException("No hay ningún frame abierto.");
+        }
+        int length = position - frameStart - 4;
+        buffer[frameStart] = (byte) (length >>> 24);
+        buffer[frameStart + 1] = (byte) (length >>> 16);
+        buffer[frameStart + 2] = (byte) (length >>> 8);
+        buffer[frameStart + 3] = (byte) length;
+        frameStart = -1;
+        return this;
+    }
+
+    // Copia exacta del contenido; el resultado puede compartirse entre hilos.
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    // Copia el contenido en el buffer de destino, que debe tener sitio para size() bytes.
+    public void writeTo(ByteBuffer target) {
+        target.put(buffer, 0, position);
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    public void writeInt(int value) {
+        ensureCapacity(4);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    // Varint sin signo: valores pequeños (coordenadas, puntajes, tamaños) ocupan 1 byte.
+    public void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    // ZigZag para valores con signo cercanos a cero (-1 ocupa 1 byte).
+    public void writeSignedVarInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    public void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
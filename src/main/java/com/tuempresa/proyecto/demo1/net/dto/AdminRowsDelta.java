@@ -0,0 +1,42 @@
+package com.tuempresa.proyecto.demo1.net.dto;
+
+import com.tuempresa.proyecto.demo1.model.GamePhase;
+
+import java.util.List;
+
+/**
+ * Cambios del panel de jugadores de una consola suscrita desde el último envío: filas nuevas o
+ * modificadas y IDs que desaparecieron. Las filas solo traen los campos suscritos; el resto
+ * llega vacío (texto "", números 0 o -1 para el ping).
+ */
+public class AdminRowsDelta {
+
+    private final GamePhase gamePhase;
+    private final int fields;
+    private final List<PlayerData> changed;
+    private final List<String> removed;
+
+    public AdminRowsDelta(GamePhase gamePhase, int fields, List<PlayerData> changed, List<String> removed) {
+        this.gamePhase = gamePhase;
+        this.fields = fields;
+        this.changed = changed;
+        this.removed = removed;
+    }
+
+    public GamePhase getGamePhase() {
+        return gamePhase;
+    }
+
+    // Máscara de WireCodec.ADMIN_FIELD_* con los campos presentes en las filas.
+    public int getFields() {
+        return fields;
+    }
+
+    public List<PlayerData> getChanged() {
+        return changed;
+    }
+
+    public List<String> getRemoved() {
+        return removed;
+    }
+}
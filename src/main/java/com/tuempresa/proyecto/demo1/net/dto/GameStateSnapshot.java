@@ -8,7 +8,13 @@ public class GameStateSnapshot implements java.io.Serializable {
     public final java.util.List<SnakeSnapshot> snakes;
     public final java.util.List<FrutaSnapshot> frutas;
     public final GamePhase gamePhase;
+    // Número de tick del servidor; los deltas de red se expresan respecto a un tick anterior.
+    public final long tick;
     public GameStateSnapshot(int width, int height, java.util.List<SnakeSnapshot> snakes, java.util.List<FrutaSnapshot> frutas, GamePhase gamePhase) {
+        this(0, width, height, snakes, frutas, gamePhase);
+    }
+    public GameStateSnapshot(long tick, int width, int height, java.util.List<SnakeSnapshot> snakes, java.util.List<FrutaSnapshot> frutas, GamePhase gamePhase) {
+        this.tick = tick;
         this.width = width;
         this.height = height;
         this.snakes = java.util.Collections.unmodifiableList(new java.util.ArrayList<>(snakes));
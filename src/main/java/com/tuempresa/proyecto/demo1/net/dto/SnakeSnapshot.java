@@ -1,6 +1,7 @@
 package com.tuempresa.proyecto.demo1.net.dto;
 
 import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.CoordenadasEmpaquetadas;
 
 import java.io.Serializable;
 import java.util.Collections;
@@ -17,7 +18,8 @@ public class SnakeSnapshot implements Serializable {
     public SnakeSnapshot(String idJugador, int puntaje, List<Coordenada> cuerpo, int segmentosPorCrecer, int colorRgb) {
         this.idJugador = idJugador;
         this.puntaje = puntaje;
-        this.cuerpo = Collections.unmodifiableList(cuerpo);
+        // CoordenadasEmpaquetadas ya es inmutable; se conserva tal cual para que el codec pueda leer los ints directamente.
+        this.cuerpo = cuerpo instanceof CoordenadasEmpaquetadas ? cuerpo : Collections.unmodifiableList(cuerpo);
         this.segmentosPorCrecer = segmentosPorCrecer;
         this.colorRgb = colorRgb;
     }
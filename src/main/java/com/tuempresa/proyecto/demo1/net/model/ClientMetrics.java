@@ -9,13 +9,21 @@ import java.net.InetAddress;
 public class ClientMetrics {
     private final String playerId;
     private final InetAddress ipAddress;
+    private final String hostAddress; // Texto de la IP, calculado una vez para el panel de admin
     private final long connectionTimestamp;
+    private final int inputSlot; // Slot del jugador en el InputBuffer de su sala; -1 sin slot
     private volatile long lastPingRttMs = -1; // -1 indicates no ping yet
     private volatile String status = "Connecting"; // e.g., Connecting, Alive, Dead
 
     public ClientMetrics(String playerId, InetAddress ipAddress) {
+        this(playerId, ipAddress, -1);
+    }
+
+    public ClientMetrics(String playerId, InetAddress ipAddress, int inputSlot) {
         this.playerId = playerId;
+        this.inputSlot = inputSlot;
         this.ipAddress = ipAddress;
+        this.hostAddress = ipAddress.getHostAddress();
         this.connectionTimestamp = System.currentTimeMillis();
     }
 
@@ -28,10 +36,18 @@ public class ClientMetrics {
         return ipAddress;
     }
 
+    public String getHostAddress() {
+        return hostAddress;
+    }
+
     public long getConnectionTimestamp() {
         return connectionTimestamp;
     }
 
+    public int getInputSlot() {
+        return inputSlot;
+    }
+
     public long getLastPingRttMs() {
         return lastPingRttMs;
     }
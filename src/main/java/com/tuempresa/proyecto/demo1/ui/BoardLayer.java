@@ -0,0 +1,119 @@
+package com.tuempresa.proyecto.demo1.ui;
+
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.net.dto.FrutaSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.SnakeSnapshot;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Capa persistente con el tablero ya pintado: fondo, frutas y, si se pide, serpientes.
+ *
+ * Guarda qué hay dibujado en cada celda (un código de {@link SpriteCache}); al llegar un estado
+ * solo se vuelven a pintar las celdas cuyo contenido cambió, y se devuelve el rectángulo que
+ * las abarca para repintar solo esa zona del panel. Pintar el panel es copiar la capa.
+ *
+ * Solo se usa desde el EDT.
+ */
+final class BoardLayer {
+
+    private final int tile;
+    private final Color fondo;
+    private final SpriteCache sprites;
+    private BufferedImage imagen;
+    private int ancho;
+    private int alto;
+    private int[] pintadas = new int[0]; // Código de lo que hay dibujado en cada celda
+    private int[] nuevas = new int[0]; // Código de lo que debe haber según el último estado
+
+    BoardLayer(int tile, Color fondo, SpriteCache sprites) {
+        this.tile = tile;
+        this.fondo = fondo;
+        this.sprites = sprites;
+    }
+
+    BufferedImage getImagen() {
+        return imagen;
+    }
+
+    /**
+     * Lleva la capa al estado dado. Devuelve el rectángulo en píxeles que cambió, o null si no
+     * cambió nada. Con {@code conSerpientes} a false solo se pintan fondo y frutas (las
+     * serpientes se dibujan aparte, por ejemplo al interpolar).
+     */
+    Rectangle actualizar(GameStateSnapshot snapshot, boolean conSerpientes) {
+        Rectangle cambiado = null;
+        if (imagen == null || snapshot.width != ancho || snapshot.height != alto) {
+            ancho = snapshot.width;
+            alto = snapshot.height;
+            imagen = SpriteCache.imagenCompatible(Math.max(1, ancho * tile), Math.max(1, alto * tile), Transparency.OPAQUE);
+            Graphics2D g = imagen.createGraphics();
+            g.setColor(fondo);
+            g.fillRect(0, 0, imagen.getWidth(), imagen.getHeight());
+            g.dispose();
+            pintadas = new int[ancho * alto];
+            nuevas = new int[ancho * alto];
+            cambiado = new Rectangle(0, 0, imagen.getWidth(), imagen.getHeight());
+        }
+
+        Arrays.fill(nuevas, SpriteCache.VACIO);
+        // Mismo orden que el pintado directo: frutas, luego cada serpiente (cuerpo y después cabeza).
+        List<FrutaSnapshot> frutas = snapshot.frutas;
+        for (int i = 0; i < frutas.size(); i++) {
+            FrutaSnapshot fruta = frutas.get(i);
+            marcar(fruta.coordenada, SpriteCache.codigo(SpriteCache.FRUTA, fruta.colorRgb));
+        }
+        if (conSerpientes) {
+            for (SnakeSnapshot serpiente : snapshot.snakes) {
+                List<Coordenada> cuerpo = serpiente.cuerpo;
+                for (int i = 1; i < cuerpo.size(); i++) {
+                    marcar(cuerpo.get(i), SpriteCache.codigo(SpriteCache.CUERPO, serpiente.colorRgb));
+                }
+                if (!cuerpo.isEmpty()) {
+                    marcar(cuerpo.get(0), SpriteCache.codigo(SpriteCache.CABEZA, serpiente.colorRgb));
+                }
+            }
+        }
+
+        Graphics2D g = null;
+        try {
+            for (int celda = 0; celda < nuevas.length; celda++) {
+                int codigo = nuevas[celda];
+                if (codigo == pintadas[celda]) continue;
+                if (g == null) {
+                    g = imagen.createGraphics();
+                    g.setColor(fondo);
+                }
+                int x = (celda % ancho) * tile;
+                int y = (celda / ancho) * tile;
+                g.fillRect(x, y, tile, tile);
+                if (codigo != SpriteCache.VACIO) {
+                    g.drawImage(sprites.sprite(codigo), x, y, null);
+                }
+                pintadas[celda] = codigo;
+                if (cambiado == null) {
+                    cambiado = new Rectangle(x, y, tile, tile);
+                } else {
+                    cambiado.add(x, y);
+                    cambiado.add(x + tile, y + tile);
+                }
+            }
+        } finally {
+            if (g != null) g.dispose();
+        }
+        return cambiado;
+    }
+
+    private void marcar(Coordenada c, int codigo) {
+        if (c.x >= 0 && c.x < ancho && c.y >= 0 && c.y < alto) {
+            nuevas[c.y * ancho + c.x] = codigo;
+        }
+    }
+}
@@ -2,21 +2,35 @@
 package com.tuempresa.proyecto.demo1.ui;
 
 import com.tuempresa.proyecto.demo1.game.GameConfig;
-import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.Direccion;
+import com.tuempresa.proyecto.demo1.model.GamePhase;
 import com.tuempresa.proyecto.demo1.model.GameState;
 import com.tuempresa.proyecto.demo1.model.Snake;
-import com.tuempresa.proyecto.demo1.net.dto.FrutaSnapshot;
 import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
 import com.tuempresa.proyecto.demo1.net.dto.SnakeSnapshot;
 import com.tuempresa.proyecto.demo1.util.Logger;
+import com.tuempresa.proyecto.demo1.util.Logger.LogCategory;
 
 import javax.swing.JPanel;
-import java.awt.Color;
+import javax.swing.Timer;
 import java.awt.Dimension;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Paint;
-
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Vista del tablero. Fondo, frutas y (sin interpolación) serpientes viven en una capa
+ * persistente ({@link BoardLayer}) en la que cada estado solo repinta las celdas que cambiaron;
+ * pintar el panel es copiar esa capa y dibujar encima los textos. Cada elemento se copia desde
+ * un sprite ya rasterizado ({@link SpriteCache}).
+ *
+ * Sin interpolación, cada estado repinta solo la zona del panel que cambió. Swing une las zonas
+ * pendientes de un componente en un único rectángulo, así que lo que se ahorra de verdad es
+ * volver a dibujar el tablero entero: copiar la capa es barato.
+ */
 public class GamePanel extends JPanel {
 
 
@@ -24,8 +38,38 @@ public class GamePanel extends JPanel {
     private GameState estado; // kept for compatibility but not used for rendering
     private GameStateSnapshot snapshot;
 
+    private final SpriteCache sprites = new SpriteCache(GameConfig.DEFAULT_TILE_SIZE);
+    private final BoardLayer capa = new BoardLayer(GameConfig.DEFAULT_TILE_SIZE, GameConfig.COLOR_FONDO, sprites);
+
+    // Con CLIENT_INTERPOLATION se pinta cada CLIENT_FRAME_MILLIS, no solo al llegar un estado.
+    private final SnapshotInterpolator interpolador;
+    private final String jugadorLocal; // Serpiente cuya cabeza se predice, o null
+    private final AtomicReference<Direccion> direccionLocal;
+    private final double[] posicion = new double[2];
+
     public GamePanel(GameStateSnapshot inicial) {
+        this(inicial, null, null);
+    }
+
+    public GamePanel(GameStateSnapshot inicial, String jugadorLocal, AtomicReference<Direccion> direccionLocal) {
         this.snapshot = inicial;
+        this.jugadorLocal = jugadorLocal;
+        this.direccionLocal = direccionLocal;
+        this.interpolador = GameConfig.CLIENT_INTERPOLATION ? new SnapshotInterpolator() : null;
+        if (inicial != null) {
+            capa.actualizar(inicial, interpolador == null);
+        }
+        if (interpolador != null) {
+            if (inicial != null) {
+                interpolador.recibir(inicial, System.nanoTime());
+            }
+            // Fuera de partida nada se mueve: basta con repintar al llegar cada estado.
+            new Timer(GameConfig.CLIENT_FRAME_MILLIS, e -> {
+                if (snapshot != null && snapshot.gamePhase == GamePhase.IN_PROGRESS) {
+                    repaint();
+                }
+            }).start();
+        }
         int panelWidth = (inicial != null ? inicial.width : GameConfig.ANCHO_TABLERO) * GameConfig.DEFAULT_TILE_SIZE;
         int panelHeight = (inicial != null ? inicial.height : GameConfig.ALTO_TABLERO) * GameConfig.DEFAULT_TILE_SIZE;
         this.setPreferredSize(new Dimension(panelWidth, panelHeight));
@@ -35,9 +79,42 @@ public class GamePanel extends JPanel {
     // For backward compatibility (not used by new loop)
     public void setEstado(GameState estado) { this.estado = estado; }
 
-    // Update snapshot DTO for rendering (EDT only)
+    // Update snapshot DTO for rendering (EDT only). Programa el repintado de lo que cambió.
     public void setEstado(GameStateSnapshot snapshot) {
+        GameStateSnapshot anterior = this.snapshot;
         this.snapshot = snapshot;
+        if (snapshot == null) {
+            repaint();
+            return;
+        }
+        if (interpolador != null) {
+            interpolador.recibir(snapshot, System.nanoTime());
+        }
+        Rectangle cambiado = capa.actualizar(snapshot, interpolador == null);
+        if (interpolador != null || anterior == null || anterior.gamePhase != snapshot.gamePhase) {
+            repaint(); // Serpientes en movimiento, o cambia el mensaje central
+            return;
+        }
+        if (cambiado != null) {
+            repaint(cambiado);
+        }
+        repaint(zonaPuntajes(anterior));
+        repaint(zonaPuntajes(snapshot));
+    }
+
+    // Veces que la cabeza local predicha no coincidió con la del siguiente estado del servidor.
+    public long getPrediccionesFallidas() {
+        return interpolador != null ? interpolador.getPrediccionesFallidas() : 0;
+    }
+
+    // Zona que ocupan los puntajes de un estado (esquina superior izquierda).
+    private Rectangle zonaPuntajes(GameStateSnapshot estado) {
+        FontMetrics fm = getFontMetrics(GameConfig.FUENTE_TEXTO);
+        int ancho = 0;
+        for (SnakeSnapshot serpiente : estado.snakes) {
+            ancho = Math.max(ancho, fm.stringWidth(serpiente.idJugador + ": " + serpiente.puntaje));
+        }
+        return new Rectangle(0, 0, 10 + ancho + 1, 20 * estado.snakes.size() + fm.getDescent() + 1);
     }
 
     @Override
@@ -47,40 +124,31 @@ public class GamePanel extends JPanel {
             startTime = System.nanoTime();
         }
 
-        super.paintComponent(g);
+        super.paintComponent(g); // Fondo fuera del tablero
         Graphics2D g2d = (Graphics2D) g;
-        // limpiar una vez
-        g2d.setColor(getBackground());
-        g2d.fillRect(0, 0, getWidth(), getHeight());
 
         // Render from DTO snapshot (if available)
         if (snapshot != null) {
-            // Draw fruits
-            for (FrutaSnapshot fruta : snapshot.frutas) {
-                // Usa el color individual de cada fruta del snapshot
-                g2d.setColor(new java.awt.Color(fruta.colorRgb));
-                Coordenada pos = fruta.coordenada;
-                g2d.fillOval(pos.x * GameConfig.DEFAULT_TILE_SIZE, pos.y * GameConfig.DEFAULT_TILE_SIZE, GameConfig.DEFAULT_TILE_SIZE, GameConfig.DEFAULT_TILE_SIZE);
-            }
-
-            // Draw snakes
-            for (SnakeSnapshot serpiente : snapshot.snakes) {
-                Color snakeColor = new Color(serpiente.colorRgb);
-
-                // body
-                Paint bodyPaint = new java.awt.GradientPaint(
-                        0, 0, snakeColor,
-                        GameConfig.DEFAULT_TILE_SIZE, GameConfig.DEFAULT_TILE_SIZE, snakeColor.darker()
-                );
-                g2d.setPaint(bodyPaint);
-                for (int i = 1; i < serpiente.cuerpo.size(); i++) {
-                    Coordenada parteCuerpo = serpiente.cuerpo.get(i);
-                    g2d.fillRoundRect(parteCuerpo.x * GameConfig.DEFAULT_TILE_SIZE, parteCuerpo.y * GameConfig.DEFAULT_TILE_SIZE, GameConfig.DEFAULT_TILE_SIZE, GameConfig.DEFAULT_TILE_SIZE, 10, 10);
+            // Fondo y frutas (y serpientes si no se interpola), ya pintados; Java2D recorta a la zona pendiente
+            g2d.drawImage(capa.getImagen(), 0, 0, null);
+
+            if (interpolador != null) {
+                // Draw snakes
+                double alpha = interpolador.alpha(System.nanoTime());
+                boolean enJuego = snapshot.gamePhase == GamePhase.IN_PROGRESS;
+                for (SnakeSnapshot serpiente : snapshot.snakes) {
+                    if (serpiente.cuerpo.isEmpty()) continue;
+                    Direccion prediccion = enJuego && direccionLocal != null && serpiente.idJugador.equals(jugadorLocal)
+                            ? direccionLocal.get() : null;
+
+                    // body
+                    BufferedImage cuerpo = sprites.sprite(SpriteCache.codigo(SpriteCache.CUERPO, serpiente.colorRgb));
+                    for (int i = 1; i < serpiente.cuerpo.size(); i++) {
+                        drawSegment(g2d, cuerpo, serpiente, i, alpha, prediccion);
+                    }
+                    // head
+                    drawSegment(g2d, sprites.sprite(SpriteCache.codigo(SpriteCache.CABEZA, serpiente.colorRgb)), serpiente, 0, alpha, prediccion);
                 }
-                // head
-                g2d.setColor(snakeColor.brighter());
-                Coordenada cabeza = serpiente.cuerpo.get(0);
-                g2d.fillRoundRect(cabeza.x * GameConfig.DEFAULT_TILE_SIZE, cabeza.y * GameConfig.DEFAULT_TILE_SIZE, GameConfig.DEFAULT_TILE_SIZE, GameConfig.DEFAULT_TILE_SIZE, 20, 20);
             }
         }
 
@@ -117,7 +185,15 @@ public class GamePanel extends JPanel {
         if (GameConfig.ENABLE_PERFORMANCE_METRICS) {
             long endTime = System.nanoTime();
             long durationMs = java.util.concurrent.TimeUnit.NANOSECONDS.toMillis(endTime - startTime);
-            Logger.info(String.format("[METRIC] Client frame render time: %d ms", durationMs));
+            Logger.info(LogCategory.METRICS, String.format("[METRIC] Client frame render time: %d ms", durationMs));
         }
     }
-}
\ No newline at end of file
+
+    // Copia el sprite de un segmento en su posición intermedia.
+    private void drawSegment(Graphics2D g2d, BufferedImage sprite, SnakeSnapshot serpiente, int i, double alpha, Direccion prediccion) {
+        interpolador.posicion(serpiente, i, alpha, prediccion, posicion);
+        int x = (int) Math.round(posicion[0] * GameConfig.DEFAULT_TILE_SIZE);
+        int y = (int) Math.round(posicion[1] * GameConfig.DEFAULT_TILE_SIZE);
+        g2d.drawImage(sprite, x, y, null);
+    }
+}
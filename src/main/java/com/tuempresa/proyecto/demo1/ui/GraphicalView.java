@@ -15,6 +15,7 @@ public class GraphicalView {
     private JFrame frame;
     private GamePanel gamePanel;
     private AtomicReference<Direccion> direccionActual;
+    private final GameClient client; // null en la partida local
 
     public GraphicalView(GameStateSnapshot inicial, AtomicReference<Direccion> direccionActual) {
         this(inicial, direccionActual, null);
@@ -22,7 +23,9 @@ public class GraphicalView {
 
     public GraphicalView(GameStateSnapshot inicial, AtomicReference<Direccion> direccionActual, GameClient client) {
         this.direccionActual = direccionActual;
-        this.gamePanel = new GamePanel(inicial);
+        this.client = client;
+        // En red se predice la serpiente propia; en un jugador no hay latencia que ocultar.
+        this.gamePanel = new GamePanel(inicial, client != null ? client.getPlayerId() : null, direccionActual);
 
         frame = new JFrame("Snake Multijugador");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -39,7 +42,7 @@ public class GraphicalView {
         gamePanel.repaint();
     }
 
-    // Called from EDT with a DTO snapshot to safely update what the panel renders
+    // Called from EDT with a DTO snapshot to safely update what the panel renders; the panel schedules its own repaint
     public void actualizarEstado(GameStateSnapshot snapshot) {
         this.gamePanel.setEstado(snapshot);
     }
@@ -70,7 +73,11 @@ public class GraphicalView {
                         if (ultimaDireccion != Direccion.IZQUIERDA) nuevaDireccion = Direccion.DERECHA;
                         break;
                 }
-                direccionActual.set(nuevaDireccion);
+                if (client != null && nuevaDireccion != ultimaDireccion) {
+                    client.queueTurn(nuevaDireccion);
+                } else {
+                    direccionActual.set(nuevaDireccion);
+                }
             }
 
             @Override
@@ -0,0 +1,136 @@
+package com.tuempresa.proyecto.demo1.ui;
+
+import com.tuempresa.proyecto.demo1.game.GameConfig;
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.Direccion;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.SnakeSnapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Posiciones intermedias entre estados del servidor, para pintar a la frecuencia de la pantalla
+ * y no solo a la del tick.
+ *
+ * Las serpientes ajenas se interpolan entre los dos últimos estados recibidos: se ven un tick
+ * por detrás, pero se mueven de forma continua. La serpiente local se extrapola desde el último
+ * estado con la dirección que el jugador acaba de pulsar (predicción), así un giro se ve en el
+ * mismo frame en lugar de tras un viaje de ida y vuelta al servidor. Cuando llega el siguiente
+ * estado autoritativo la predicción se descarta y se parte de él (reconciliación); si no
+ * coincidía, se cuenta como fallida.
+ *
+ * Solo se usa desde el EDT.
+ */
+final class SnapshotInterpolator {
+
+    private static final double SUAVIZADO = 0.2; // Peso de cada nueva medida en la media del intervalo entre ticks
+
+    private GameStateSnapshot actual;
+    private final Map<String, SnakeSnapshot> anteriores = new HashMap<>();
+    private long llegadaNanos;
+    private double intervaloNanos = GameConfig.MILIS_POR_TICK * 1_000_000.0;
+    private String jugadorPredicho; // Serpiente cuya cabeza se predijo en el último frame, o null
+    private int cabezaPredicha = -1; // Coordenada empaquetada a la que iba la cabeza predicha
+    private long prediccionesFallidas;
+
+    void recibir(GameStateSnapshot snapshot, long ahoraNanos) {
+        if (actual != null && snapshot.tick > actual.tick) {
+            // El servidor puede ir a otro ritmo que MILIS_POR_TICK: se mide el intervalo real
+            double medido = (double) (ahoraNanos - llegadaNanos) / (snapshot.tick - actual.tick);
+            intervaloNanos += (medido - intervaloNanos) * SUAVIZADO;
+            reconciliar(snapshot, snapshot.tick == actual.tick + 1);
+        }
+        anteriores.clear();
+        if (actual != null) {
+            for (SnakeSnapshot s : actual.snakes) {
+                anteriores.put(s.idJugador, s);
+            }
+        }
+        actual = snapshot;
+        llegadaNanos = ahoraNanos;
+        jugadorPredicho = null;
+        cabezaPredicha = -1;
+    }
+
+    private void reconciliar(GameStateSnapshot snapshot, boolean consecutivo) {
+        if (jugadorPredicho == null || !consecutivo) {
+            return;
+        }
+        for (SnakeSnapshot s : snapshot.snakes) {
+            if (s.idJugador.equals(jugadorPredicho)) {
+                if (!s.cuerpo.isEmpty() && s.cuerpo.get(0).pack() != cabezaPredicha) {
+                    prediccionesFallidas++;
+                }
+                return;
+            }
+        }
+    }
+
+    GameStateSnapshot getActual() {
+        return actual;
+    }
+
+    long getPrediccionesFallidas() {
+        return prediccionesFallidas;
+    }
+
+    // Fracción del tick transcurrida desde el último estado, entre 0 y 1.
+    double alpha(long ahoraNanos) {
+        if (actual == null) {
+            return 1;
+        }
+        return Math.max(0, Math.min(1, (ahoraNanos - llegadaNanos) / intervaloNanos));
+    }
+
+    /**
+     * Posición en celdas, con decimales, del segmento {@code i} de la serpiente en la fracción
+     * de tick {@code alpha}. Con {@code prediccion} distinto de null la serpiente se extrapola
+     * hacia esa dirección; si no, se interpola desde el estado anterior. Escribe x e y en
+     * {@code destino}.
+     */
+    void posicion(SnakeSnapshot serpiente, int i, double alpha, Direccion prediccion, double[] destino) {
+        Coordenada desde;
+        Coordenada hacia;
+        if (prediccion != null) {
+            desde = serpiente.cuerpo.get(i);
+            if (i == 0) {
+                hacia = siguiente(desde, prediccion);
+                jugadorPredicho = serpiente.idJugador;
+                cabezaPredicha = hacia.pack();
+            } else if (i == serpiente.cuerpo.size() - 1 && serpiente.segmentosPorCrecer > 0) {
+                hacia = desde; // Creciendo: la cola no avanza
+            } else {
+                hacia = serpiente.cuerpo.get(i - 1);
+            }
+        } else {
+            hacia = serpiente.cuerpo.get(i);
+            SnakeSnapshot previa = anteriores.get(serpiente.idJugador);
+            desde = previa == null || previa.cuerpo.isEmpty()
+                    ? hacia
+                    : previa.cuerpo.get(Math.min(i, previa.cuerpo.size() - 1));
+        }
+        if (Math.abs(hacia.x - desde.x) + Math.abs(hacia.y - desde.y) > 1) {
+            desde = hacia; // Reapareció o se saltó estados: no se interpola a través del tablero
+        }
+        destino[0] = desde.x + (hacia.x - desde.x) * alpha;
+        destino[1] = desde.y + (hacia.y - desde.y) * alpha;
+    }
+
+    // Celda a la que se movería la cabeza; la misma si la dirección la sacaría del tablero.
+    private Coordenada siguiente(Coordenada cabeza, Direccion direccion) {
+        int x = cabeza.x;
+        int y = cabeza.y;
+        switch (direccion) {
+            case ARRIBA: y--; break;
+            case ABAJO: y++; break;
+            case IZQUIERDA: x--; break;
+            case DERECHA: x++; break;
+            default: return cabeza;
+        }
+        if (x < 0 || y < 0 || x >= actual.width || y >= actual.height) {
+            return cabeza;
+        }
+        return new Coordenada(x, y);
+    }
+}
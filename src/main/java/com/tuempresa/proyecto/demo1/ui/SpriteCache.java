@@ -0,0 +1,89 @@
+package com.tuempresa.proyecto.demo1.ui;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sprites de una celda (fruta, cuerpo y cabeza de serpiente) rasterizados una sola vez por
+ * color. Pintar un frame pasa a ser copiar imágenes en lugar de crear un {@code Color} y un
+ * {@code GradientPaint} por elemento y rellenar formas redondeadas.
+ *
+ * Las imágenes son compatibles con la pantalla, así Java2D puede mantenerlas en la memoria de
+ * vídeo. Solo se usa desde el EDT.
+ */
+final class SpriteCache {
+
+    static final int VACIO = 0;
+    static final int FRUTA = 1;
+    static final int CUERPO = 2;
+    static final int CABEZA = 3;
+
+    private final int tile;
+    private final Map<Integer, BufferedImage> sprites = new HashMap<>();
+
+    SpriteCache(int tile) {
+        this.tile = tile;
+    }
+
+    // Identifica el contenido de una celda: tipo en los 2 bits bajos y color RGB encima. 0 = vacía.
+    static int codigo(int tipo, int rgb) {
+        return (rgb & 0xFFFFFF) << 2 | tipo;
+    }
+
+    static int tipo(int codigo) {
+        return codigo & 3;
+    }
+
+    BufferedImage sprite(int codigo) {
+        BufferedImage sprite = sprites.get(codigo);
+        if (sprite == null) {
+            sprite = rasterizar(codigo);
+            sprites.put(codigo, sprite);
+        }
+        return sprite;
+    }
+
+    private BufferedImage rasterizar(int codigo) {
+        BufferedImage sprite = imagenCompatible(tile, tile, Transparency.TRANSLUCENT);
+        Graphics2D g = sprite.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            Color color = new Color(codigo >>> 2);
+            switch (tipo(codigo)) {
+                case FRUTA:
+                    g.setColor(color);
+                    g.fillOval(0, 0, tile, tile);
+                    break;
+                case CUERPO:
+                    g.setPaint(new GradientPaint(0, 0, color, tile, tile, color.darker()));
+                    g.fillRoundRect(0, 0, tile, tile, 10, 10);
+                    break;
+                case CABEZA:
+                    g.setColor(color.brighter());
+                    g.fillRoundRect(0, 0, tile, tile, 20, 20);
+                    break;
+                default:
+                    break;
+            }
+        } finally {
+            g.dispose();
+        }
+        return sprite;
+    }
+
+    // Imagen en el formato de la pantalla; sin pantalla (headless), una ARGB normal.
+    static BufferedImage imagenCompatible(int ancho, int alto, int transparencia) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(ancho, alto, transparencia == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(ancho, alto, transparencia);
+    }
+}
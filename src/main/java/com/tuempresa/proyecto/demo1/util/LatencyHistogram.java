@@ -0,0 +1,93 @@
+package com.tuempresa.proyecto.demo1.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias en nanosegundos con cubetas fijas log-lineales, al estilo de
+ * HdrHistogram: cada potencia de dos se divide en {@value #SUBCUBETAS} cubetas iguales, así que
+ * el error relativo de un percentil es como mucho 1/{@value #SUBCUBETAS} (~6%) en todo el rango.
+ * Los valores por debajo de {@code 2 * SUBCUBETAS} ns tienen cubeta propia y los que superan
+ * {@link #MAXIMO_NANOS} se cuentan en la última.
+ *
+ * Registrar una muestra es calcular el índice con {@code numberOfLeadingZeros} e incrementar un
+ * contador: no reserva memoria. Se puede registrar desde varios hilos y consultar mientras tanto;
+ * una consulta concurrente puede ver la muestra en curso a medias (el contador total y el de la
+ * cubeta no se actualizan juntos), lo que no mueve los percentiles de forma apreciable.
+ */
+public final class LatencyHistogram {
+
+    private static final int BITS_SUBCUBETA = 4;
+    static final int SUBCUBETAS = 1 << BITS_SUBCUBETA; // Cubetas por potencia de dos
+    public static final long MAXIMO_NANOS = (1L << 36) - 1; // ~68 s; más que de sobra para una fase del tick
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(indice(MAXIMO_NANOS) + 1);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong maximo = new AtomicLong();
+
+    public void registrar(long nanos) {
+        long valor = Math.max(0, Math.min(nanos, MAXIMO_NANOS));
+        cubetas.getAndIncrement(indice(valor));
+        total.getAndIncrement();
+        if (valor > maximo.get()) {
+            maximo.accumulateAndGet(valor, Math::max);
+        }
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Valor por debajo del cual queda la fracción {@code p} (entre 0 y 1) de las muestras. Se
+     * devuelve el extremo superior de la cubeta, acotado al máximo registrado; 0 si está vacío.
+     */
+    public long percentil(double p) {
+        long muestras = total.get();
+        if (muestras == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(p * muestras));
+        long acumuladas = 0;
+        int ultima = cubetas.length() - 1;
+        for (int i = 0; i <= ultima; i++) {
+            acumuladas += cubetas.get(i);
+            if (acumuladas >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    // Vacía el histograma; las muestras que se registren a la vez pueden perderse o quedar a medias.
+    public void reiniciar() {
+        for (int i = 0; i < cubetas.length(); i++) {
+            cubetas.set(i, 0);
+        }
+        total.set(0);
+        maximo.set(0);
+    }
+
+    // Valores menores que 2 * SUBCUBETAS van directos; el resto conserva sus 5 bits más altos.
+    static int indice(long valor) {
+        if (valor < 2 * SUBCUBETAS) {
+            return (int) valor;
+        }
+        int desplazamiento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUBCUBETA;
+        return (desplazamiento << BITS_SUBCUBETA) + (int) (valor >>> desplazamiento);
+    }
+
+    // Mayor valor que cae en la cubeta {@code indice}.
+    static long limiteSuperior(int indice) {
+        if (indice < 2 * SUBCUBETAS) {
+            return indice;
+        }
+        int desplazamiento = (indice >>> BITS_SUBCUBETA) - 1;
+        long mantisa = (indice & (SUBCUBETAS - 1)) + SUBCUBETAS;
+        return ((mantisa + 1) << desplazamiento) - 1;
+    }
+}
@@ -0,0 +1,92 @@
+package com.tuempresa.proyecto.demo1.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cola acotada de mensajes de log: varios productores sin locks y un único consumidor (el hilo
+ * escritor del Logger). Las entradas se reservan al crear el anillo y se reutilizan, así que
+ * encolar un mensaje no reserva memoria.
+ *
+ * Cada entrada lleva un número de secuencia: vale {@code posicion} cuando está libre para el
+ * productor de esa vuelta y {@code posicion + 1} cuando ya está publicada para el consumidor.
+ * Un productor reserva su posición con un CAS sobre {@code cola}, rellena la entrada y la
+ * publica escribiendo la secuencia (volátil).
+ */
+final class LogRingBuffer {
+
+    static final class Entry {
+        volatile long sequence;
+        long timestampMillis;
+        Logger.LogLevel level;
+        String message;
+        Throwable throwable;
+    }
+
+    private final Entry[] entries;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // Siguiente posición a reservar por un productor
+    private volatile long head; // Siguiente posición a leer; solo la escribe el consumidor
+
+    LogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        entries = new Entry[size];
+        mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            entries[i] = new Entry();
+            entries[i].sequence = i;
+        }
+    }
+
+    int capacity() {
+        return entries.length;
+    }
+
+    // Devuelve false si el anillo está lleno.
+    boolean offer(long timestampMillis, Logger.LogLevel level, String message, Throwable throwable) {
+        while (true) {
+            long position = tail.get();
+            Entry entry = entries[(int) position & mask];
+            long diff = entry.sequence - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    entry.timestampMillis = timestampMillis;
+                    entry.level = level;
+                    entry.message = message;
+                    entry.throwable = throwable;
+                    entry.sequence = position + 1;
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false; // El consumidor aún no liberó esta entrada de la vuelta anterior
+            }
+            // diff > 0: otro productor se adelantó; reintentar con la cola actualizada
+        }
+    }
+
+    /**
+     * Solo desde el hilo consumidor. Devuelve la siguiente entrada publicada, o null si no hay
+     * ninguna. La entrada sigue siendo del consumidor hasta llamar a {@link #release}.
+     */
+    Entry peek() {
+        long position = head;
+        Entry entry = entries[(int) position & mask];
+        return entry.sequence == position + 1 ? entry : null;
+    }
+
+    void release(Entry entry) {
+        long position = head;
+        entry.message = null;
+        entry.throwable = null;
+        entry.sequence = position + entries.length;
+        head = position + 1;
+    }
+
+    // Posiciones reservadas hasta ahora; cuando head la alcanza, todo lo anterior se ha consumido.
+    long reserved() {
+        return tail.get();
+    }
+
+    long consumed() {
+        return head;
+    }
+}
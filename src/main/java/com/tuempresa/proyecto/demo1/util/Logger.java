@@ -6,17 +6,69 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
+/**
+ * Logger estático de la aplicación, a consola y a archivo.
+ *
+ * Por defecto es síncrono: cada llamada formatea y escribe con el lock del Logger tomado. Es un
+ * {@link ReentrantLock} y no un monitor: las conexiones pueden correr en hilos virtuales, y uno
+ * que espera o escribe dentro de un {@code synchronized} retiene a su hilo portador.
+ * Con {@link #startAsync} las llamadas solo encolan el mensaje en un anillo acotado sin locks
+ * ({@link LogRingBuffer}) y un hilo escritor formatea y escribe por lotes, vaciando el archivo
+ * una vez por lote. Si el anillo se llena, la {@link OverflowPolicy} decide si el mensaje se
+ * descarta (y se avisa del número de descartes) o si quien loguea espera a que haya hueco.
+ * {@link #close}, y por tanto el shutdown hook, escribe todo lo encolado antes de cerrar.
+ *
+ * Cada mensaje pertenece a una {@link LogCategory} con su propio nivel mínimo, que se puede
+ * cambiar en caliente ({@link #setLevel}, comando de admin SET_LOG_LEVEL). Un mensaje por
+ * debajo del nivel se descarta antes de encolarlo o formatearlo; las variantes con
+ * {@code Supplier<String>} ni siquiera construyen el texto.
+ */
 public class Logger {
 
+    // En orden de gravedad: un nivel mínimo deja pasar ese nivel y los siguientes.
     public enum LogLevel {
-        INFO, DEBUG, WARN, ERROR
+        DEBUG, INFO, WARN, ERROR
     }
 
+    public enum LogCategory {
+        GENERAL, // Mensajes sin categoría (arranque, UI)
+        GAME,    // Lógica de la partida
+        NET,     // Servidor, salas y transporte
+        BOT,
+        METRICS  // Líneas [METRIC] de rendimiento
+    }
+
+    public enum OverflowPolicy {
+        DROP,  // Descarta el mensaje; el tick nunca espera al disco
+        BLOCK  // Espera a que el escritor libere hueco; no se pierde nada
+    }
+
+    private static final int ASYNC_BATCH = 256;
+    private static final long WRITER_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long FLUSH_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
     private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
     private static PrintWriter fileWriter;
     private static String logFileName;
+    private static volatile AsyncWriter asyncWriter;
+    // Nivel mínimo por categoría (índice = ordinal). Copy-on-write: leerlo no toma ningún lock.
+    private static volatile LogLevel[] thresholds = defaultThresholds();
+    // Protege el archivo, el formateo compartido y el cambio de modo.
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    // Formateo compartido por ambos modos; siempre se usa con el lock del Logger tomado.
+    private static final StringBuilder line = new StringBuilder(256);
+    private static long cachedSecond = Long.MIN_VALUE;
+    private static String cachedSecondPrefix; // "yyyy-MM-dd HH:mm:ss." del segundo en caché
 
     // Static block to initialize the logger
     static {
@@ -24,68 +76,176 @@ public class Logger {
         setLogFile("application.log");
     }
 
-    public static synchronized void setLogFile(String fileName) {
-        if (fileName.equals(logFileName)) {
-            return; // Avoid re-opening the same file
+    public static void setLogFile(String fileName) {
+        flush(); // Lo encolado hasta ahora va al archivo anterior
+        lock.lock();
+        try {
+            if (fileName.equals(logFileName)) {
+                return; // Avoid re-opening the same file
+            }
+
+            if (fileWriter != null) {
+                fileWriter.close();
+            }
+
+            try {
+                fileWriter = new PrintWriter(new FileWriter(fileName, true), false);
+                logFileName = fileName;
+                info("Logging to file: " + fileName);
+            } catch (IOException e) {
+                System.err.println("Failed to set log file: " + fileName);
+                e.printStackTrace();
+            }
+        } finally {
+            lock.unlock();
         }
+    }
 
-        if (fileWriter != null) {
-            fileWriter.close();
+    /**
+     * Pasa a modo asíncrono con un anillo de al menos {@code capacity} mensajes. Si ya estaba en
+     * modo asíncrono, primero vacía y para el escritor anterior.
+     */
+    public static void startAsync(int capacity, OverflowPolicy policy) {
+        stopAsync();
+        lock.lock();
+        try {
+            AsyncWriter writer = new AsyncWriter(new LogRingBuffer(capacity), policy);
+            asyncWriter = writer;
+            writer.start();
+        } finally {
+            lock.unlock();
         }
+    }
 
+    // Escribe todo lo encolado, para el hilo escritor y vuelve al modo síncrono.
+    public static void stopAsync() {
+        AsyncWriter writer;
+        lock.lock();
         try {
-            fileWriter = new PrintWriter(new FileWriter(fileName, true), true);
-            logFileName = fileName;
-            info("Logging to file: " + fileName);
-        } catch (IOException e) {
-            System.err.println("Failed to set log file: " + fileName);
-            e.printStackTrace();
+            writer = asyncWriter;
+            asyncWriter = null;
+        } finally {
+            lock.unlock();
+        }
+        if (writer != null) {
+            writer.shutdown();
         }
     }
 
-    private static synchronized void log(LogLevel level, String message) {
-        String timestamp = dateFormat.format(new Date());
-        String logMessage = String.format("[%s] [%s] %s", timestamp, level, message);
+    public static boolean isAsync() {
+        return asyncWriter != null;
+    }
 
-        if (GameConfig.LOG_TO_CONSOLE) {
-            System.out.println(logMessage);
+    /**
+     * Espera a que el escritor haya escrito y vaciado al archivo todo lo encolado antes de la
+     * llamada. En modo síncrono no hace nada: cada mensaje ya está escrito al volver.
+     */
+    public static void flush() {
+        AsyncWriter writer = asyncWriter;
+        if (writer != null && !lock.isHeldByCurrentThread()) {
+            writer.awaitFlushed(writer.ring.reserved());
         }
+    }
+
+    // Mensajes descartados por la política DROP desde que se activó el modo asíncrono actual.
+    public static long getDroppedMessages() {
+        AsyncWriter writer = asyncWriter;
+        return writer == null ? 0 : writer.dropped.get();
+    }
 
-        if (fileWriter != null) {
-            fileWriter.println(logMessage);
+    private static LogLevel[] defaultThresholds() {
+        LogLevel[] levels = new LogLevel[LogCategory.values().length];
+        Arrays.fill(levels, GameConfig.LOG_LEVEL);
+        return levels;
+    }
+
+    public static boolean isEnabled(LogCategory category, LogLevel level) {
+        return level.compareTo(thresholds[category.ordinal()]) >= 0;
+    }
+
+    public static LogLevel getLevel(LogCategory category) {
+        return thresholds[category.ordinal()];
+    }
+
+    public static void setLevel(LogCategory category, LogLevel level) {
+        lock.lock();
+        try {
+            LogLevel[] levels = thresholds.clone();
+            levels[category.ordinal()] = level;
+            thresholds = levels;
+        } finally {
+            lock.unlock();
         }
     }
 
-    public static void info(String message) {
-        log(LogLevel.INFO, message);
+    // Mismo nivel mínimo para todas las categorías.
+    public static void setLevel(LogLevel level) {
+        lock.lock();
+        try {
+            LogLevel[] levels = new LogLevel[thresholds.length];
+            Arrays.fill(levels, level);
+            thresholds = levels;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public static void debug(String message) {
-        log(LogLevel.DEBUG, message);
+    private static void log(LogCategory category, LogLevel level, Supplier<String> message, Throwable throwable) {
+        if (isEnabled(category, level)) {
+            dispatch(level, message.get(), throwable);
+        }
     }
 
-    public static void warn(String message) {
-        log(LogLevel.WARN, message);
+    private static void log(LogCategory category, LogLevel level, String message, Throwable throwable) {
+        if (isEnabled(category, level)) {
+            dispatch(level, message, throwable);
+        }
     }
 
-    public static synchronized void warn(String message, Throwable throwable) {
-        log(LogLevel.WARN, message);
-        if (throwable != null) {
+    private static void dispatch(LogLevel level, String message, Throwable throwable) {
+        AsyncWriter writer = asyncWriter;
+        if (writer != null && writer.offer(level, message, throwable)) {
+            return;
+        }
+        logSync(level, message, throwable);
+    }
+
+    private static void logSync(LogLevel level, String message, Throwable throwable) {
+        lock.lock();
+        try {
+            format(System.currentTimeMillis(), level, message);
             if (GameConfig.LOG_TO_CONSOLE) {
-                throwable.printStackTrace(System.err);
+                System.out.println(line);
             }
             if (fileWriter != null) {
-                throwable.printStackTrace(fileWriter);
+                fileWriter.println(line);
             }
+            writeThrowable(throwable);
+            if (fileWriter != null) {
+                fileWriter.flush();
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
-    public static void error(String message) {
-        log(LogLevel.ERROR, message);
+    // Deja en 'line' "[timestamp] [LEVEL] message". Llamar con el lock del Logger tomado.
+    private static void format(long timestampMillis, LogLevel level, String message) {
+        long second = timestampMillis / 1000;
+        if (second != cachedSecond) {
+            String full = dateFormat.format(new Date(timestampMillis));
+            cachedSecondPrefix = full.substring(0, full.length() - 3);
+            cachedSecond = second;
+        }
+        int millis = (int) (timestampMillis % 1000);
+        line.setLength(0);
+        line.append('[').append(cachedSecondPrefix);
+        if (millis < 100) line.append('0');
+        if (millis < 10) line.append('0');
+        line.append(millis).append("] [").append(level).append("] ").append(message);
     }
 
-    public static synchronized void error(String message, Throwable throwable) {
-        log(LogLevel.ERROR, message);
+    private static void writeThrowable(Throwable throwable) {
         if (throwable != null) {
             if (GameConfig.LOG_TO_CONSOLE) {
                 throwable.printStackTrace(System.err);
@@ -96,6 +256,62 @@ public class Logger {
         }
     }
 
+    public static void info(String message) {
+        log(LogCategory.GENERAL, LogLevel.INFO, message, null);
+    }
+
+    public static void debug(String message) {
+        log(LogCategory.GENERAL, LogLevel.DEBUG, message, null);
+    }
+
+    public static void warn(String message) {
+        log(LogCategory.GENERAL, LogLevel.WARN, message, null);
+    }
+
+    public static void warn(String message, Throwable throwable) {
+        log(LogCategory.GENERAL, LogLevel.WARN, message, throwable);
+    }
+
+    public static void error(String message) {
+        log(LogCategory.GENERAL, LogLevel.ERROR, message, null);
+    }
+
+    public static void error(String message, Throwable throwable) {
+        log(LogCategory.GENERAL, LogLevel.ERROR, message, throwable);
+    }
+
+    public static void debug(LogCategory category, String message) {
+        log(category, LogLevel.DEBUG, message, null);
+    }
+
+    public static void debug(LogCategory category, Supplier<String> message) {
+        log(category, LogLevel.DEBUG, message, null);
+    }
+
+    public static void info(LogCategory category, String message) {
+        log(category, LogLevel.INFO, message, null);
+    }
+
+    public static void info(LogCategory category, Supplier<String> message) {
+        log(category, LogLevel.INFO, message, null);
+    }
+
+    public static void warn(LogCategory category, String message) {
+        log(category, LogLevel.WARN, message, null);
+    }
+
+    public static void warn(LogCategory category, String message, Throwable throwable) {
+        log(category, LogLevel.WARN, message, throwable);
+    }
+
+    public static void error(LogCategory category, String message) {
+        log(category, LogLevel.ERROR, message, null);
+    }
+
+    public static void error(LogCategory category, String message, Throwable throwable) {
+        log(category, LogLevel.ERROR, message, throwable);
+    }
+
     // Close the file writer when the application exits
     static {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -103,15 +319,162 @@ public class Logger {
         }));
     }
 
-    public static synchronized void close() {
-        if (fileWriter != null) {
-            fileWriter.close();
-            fileWriter = null;
+    public static void close() {
+        stopAsync();
+        lock.lock();
+        try {
+            if (fileWriter != null) {
+                fileWriter.close();
+                fileWriter = null;
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
-    public static synchronized void reset() {
+    public static void reset() {
         close();
-        logFileName = null;
+        lock.lock();
+        try {
+            logFileName = null;
+            thresholds = defaultThresholds();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hilo escritor del modo asíncrono. Saca lotes del anillo y los escribe con el lock del
+     * Logger tomado (así convive con setLogFile/close); los productores no tocan ese lock.
+     */
+    private static final class AsyncWriter extends Thread {
+
+        final LogRingBuffer ring;
+        final OverflowPolicy policy;
+        final AtomicLong dropped = new AtomicLong();
+        private final StringBuilder consoleBatch = new StringBuilder(4096);
+        private long reportedDropped;
+        private volatile boolean running = true;
+        private volatile boolean parked;
+        private volatile long flushedUpTo; // Posición del anillo hasta la que todo está en el archivo
+
+        AsyncWriter(LogRingBuffer ring, OverflowPolicy policy) {
+            super("logger-writer");
+            setDaemon(true); // El shutdown hook se encarga de vaciarlo
+            this.ring = ring;
+            this.policy = policy;
+        }
+
+        /**
+         * Devuelve true si el mensaje quedó encolado o descartado por la política DROP, false si
+         * debe escribirse de forma síncrona (escritor parado).
+         */
+        boolean offer(LogLevel level, String message, Throwable throwable) {
+            long now = System.currentTimeMillis();
+            while (running) {
+                if (ring.offer(now, level, message, throwable)) {
+                    if (parked) {
+                        LockSupport.unpark(this);
+                    }
+                    return true;
+                }
+                // Quien tiene el lock del Logger no puede esperar: el escritor lo necesita para avanzar.
+                if (policy == OverflowPolicy.DROP || lock.isHeldByCurrentThread()) {
+                    dropped.incrementAndGet();
+                    return true;
+                }
+                LockSupport.unpark(this);
+                LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+            }
+            return false;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                boolean stopping = !running;
+                if (drainBatch() > 0) {
+                    continue;
+                }
+                if (stopping && ring.consumed() == ring.reserved()) {
+                    return; // Todo lo reservado antes de parar ya está escrito
+                }
+                if (stopping) {
+                    Thread.yield(); // Un productor está terminando de publicar su entrada
+                    continue;
+                }
+                parked = true;
+                if (ring.peek() == null && running) {
+                    LockSupport.parkNanos(this, WRITER_IDLE_PARK_NANOS);
+                }
+                parked = false;
+            }
+        }
+
+        private int drainBatch() {
+            lock.lock();
+            try {
+                int count = 0;
+                LogRingBuffer.Entry entry;
+                while (count < ASYNC_BATCH && (entry = ring.peek()) != null) {
+                    write(entry.timestampMillis, entry.level, entry.message, entry.throwable);
+                    ring.release(entry);
+                    count++;
+                }
+                long droppedNow = dropped.get();
+                if (droppedNow != reportedDropped) {
+                    write(System.currentTimeMillis(), LogLevel.WARN,
+                            "Logger: " + (droppedNow - reportedDropped) + " mensajes descartados por cola llena", null);
+                    reportedDropped = droppedNow;
+                }
+                if (consoleBatch.length() > 0) {
+                    System.out.print(consoleBatch);
+                    System.out.flush();
+                    consoleBatch.setLength(0);
+                }
+                if (count > 0 && fileWriter != null) {
+                    fileWriter.flush();
+                }
+                flushedUpTo = ring.consumed();
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void write(long timestampMillis, LogLevel level, String message, Throwable throwable) {
+            format(timestampMillis, level, message);
+            if (GameConfig.LOG_TO_CONSOLE) {
+                consoleBatch.append(line).append(System.lineSeparator());
+            }
+            if (fileWriter != null) {
+                fileWriter.println(line);
+            }
+            if (throwable != null) {
+                if (consoleBatch.length() > 0) {
+                    System.out.print(consoleBatch); // Mantener el orden respecto a la traza
+                    consoleBatch.setLength(0);
+                }
+                writeThrowable(throwable);
+            }
+        }
+
+        void awaitFlushed(long position) {
+            long deadline = System.nanoTime() + FLUSH_TIMEOUT_NANOS;
+            while (flushedUpTo < position && isAlive() && System.nanoTime() < deadline) {
+                LockSupport.unpark(this);
+                LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+            }
+        }
+
+        void shutdown() {
+            running = false;
+            LockSupport.unpark(this);
+            try {
+                join(TimeUnit.NANOSECONDS.toMillis(FLUSH_TIMEOUT_NANOS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 }
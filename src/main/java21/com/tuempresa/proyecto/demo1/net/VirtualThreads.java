@@ -0,0 +1,21 @@
+package com.tuempresa.proyecto.demo1.net;
+
+/**
+ * Variante de Java 21, que compila el perfil {@code virtual-threads} en lugar de la de
+ * {@code src/main/java8}: crea los hilos de las conexiones con {@code Thread.ofVirtual()}.
+ */
+final class VirtualThreads {
+
+    static final boolean AVAILABLE = true;
+
+    private VirtualThreads() {
+    }
+
+    static Thread unstarted(String name, Runnable task) {
+        return Thread.ofVirtual().name(name).unstarted(task);
+    }
+
+    static boolean isVirtual(Thread thread) {
+        return thread.isVirtual();
+    }
+}
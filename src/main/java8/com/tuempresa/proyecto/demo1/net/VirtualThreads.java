@@ -0,0 +1,23 @@
+package com.tuempresa.proyecto.demo1.net;
+
+/**
+ * Variante de Java 8 (la del build por defecto): no hay hilos virtuales y {@link #unstarted}
+ * devuelve un hilo de plataforma, así que quien la llame no tiene que comprobar antes
+ * {@link #AVAILABLE}. El perfil {@code virtual-threads} compila en su lugar la de
+ * {@code src/main/java21}, que los crea con {@code Thread.ofVirtual()}.
+ */
+final class VirtualThreads {
+
+    static final boolean AVAILABLE = false;
+
+    private VirtualThreads() {
+    }
+
+    static Thread unstarted(String name, Runnable task) {
+        return new Thread(task, name);
+    }
+
+    static boolean isVirtual(Thread thread) {
+        return false;
+    }
+}
@@ -0,0 +1,155 @@
+package com.tuempresa.proyecto.demo1.game;
+
+import com.tuempresa.proyecto.demo1.model.BotDifficulty;
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.Direccion;
+import com.tuempresa.proyecto.demo1.model.Fruta;
+import com.tuempresa.proyecto.demo1.model.GameState;
+import com.tuempresa.proyecto.demo1.model.Snake;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotPathfinderTest {
+
+    private static Snake serpiente(String id, int... xy) {
+        Snake snake = new Snake(id, new Coordenada(xy[0], xy[1]));
+        List<Coordenada> cuerpo = new ArrayList<>();
+        for (int i = 0; i < xy.length; i += 2) {
+            cuerpo.add(new Coordenada(xy[i], xy[i + 1]));
+        }
+        snake.setCuerpo(cuerpo);
+        return snake;
+    }
+
+    // Un muro vertical en x = 4, de y = 0 a y = 8 (la cabeza abajo), con el hueco en y = 9.
+    private static Snake muro() {
+        int[] xy = new int[18];
+        for (int i = 0; i < 9; i++) {
+            xy[2 * i] = 4;
+            xy[2 * i + 1] = 8 - i;
+        }
+        Snake muro = serpiente("Muro", xy);
+        muro.setSegmentosPorCrecer(1); // Su cola no avanza: todo el muro es obstáculo
+        return muro;
+    }
+
+    @Test
+    @DisplayName("La ruta rodea un muro en lugar de ir en línea recta hacia la fruta")
+    void testHaciaFruta_RodeaElMuro() {
+        GameState estado = new GameState(10, 10);
+        estado.getSerpientes().add(serpiente("Bot", 3, 2, 3, 1)); // Pegado al muro, bajando
+        estado.getSerpientes().add(muro());
+        estado.getFrutas().add(new Fruta(new Coordenada(6, 2), 1, 0));
+        BotView vista = new BotView();
+        vista.cargar(estado.toSnapshotDto());
+        int yo = vista.indice("Bot");
+
+        BotPathfinder buscador = new BotPathfinder();
+        assertEquals(Direccion.ABAJO, buscador.haciaFruta(vista, yo), "El camino más corto pasa por el hueco de abajo.");
+        assertEquals(Direccion.ABAJO, buscador.haciaFruta(vista, yo), "Los buffers reutilizados dan el mismo resultado.");
+
+        Direccion elegida = new BotBrain("Bot", BotDifficulty.INTERMEDIO, new Random(1)).decidir(vista, buscador);
+        assertEquals(Direccion.ABAJO, elegida);
+    }
+
+    @Test
+    @DisplayName("Sin fruta alcanzable o con el presupuesto agotado no hay ruta")
+    void testHaciaFruta_SinRuta() {
+        GameState estado = new GameState(10, 10);
+        estado.getSerpientes().add(serpiente("Bot", 0, 0));
+        estado.getFrutas().add(new Fruta(new Coordenada(9, 9), 1, 0));
+        BotView vista = new BotView();
+        vista.cargar(estado.toSnapshotDto());
+        int yo = vista.indice("Bot");
+
+        assertNotNull(new BotPathfinder().haciaFruta(vista, yo));
+        assertNull(new BotPathfinder(8).haciaFruta(vista, yo), "La fruta está a 18 pasos: no cabe en 8 celdas.");
+
+        estado.getSerpientes().add(muro());
+        estado.getFrutas().clear();
+        estado.getFrutas().add(new Fruta(new Coordenada(2, 2), 1, 0));
+        estado.getSerpientes().get(0).setCuerpo(Collections.singletonList(new Coordenada(8, 0)));
+        estado.getSerpientes().add(serpiente("Tapon", 4, 9, 3, 9));
+        estado.getSerpientes().get(2).setSegmentosPorCrecer(1);
+        vista.cargar(estado.toSnapshotDto());
+        assertNull(new BotPathfinder().haciaFruta(vista, vista.indice("Bot")), "El muro y el tapón cierran el paso.");
+    }
+
+    @Test
+    @DisplayName("El enemigo más cercano es el de camino más corto, no el de menor distancia en línea recta")
+    void testEnemigoMasCercano() {
+        GameState estado = new GameState(10, 10);
+        estado.getSerpientes().add(serpiente("Bot", 2, 2));
+        estado.getSerpientes().add(muro());
+        estado.getSerpientes().add(serpiente("Cerca", 6, 2, 7, 2)); // Al otro lado del muro
+        estado.getSerpientes().add(serpiente("Lejos", 0, 5, 0, 6)); // Más lejos en línea recta, mismo lado
+        BotView vista = new BotView();
+        vista.cargar(estado.toSnapshotDto());
+
+        int enemigo = new BotPathfinder().enemigoMasCercano(vista, vista.indice("Bot"));
+        assertEquals(vista.indice("Lejos"), enemigo);
+    }
+
+    @Test
+    @DisplayName("El relleno cuenta el espacio de la bolsa y se detiene en el límite")
+    void testEspacioLibre() {
+        GameState estado = new GameState(10, 10);
+        estado.getSerpientes().add(serpiente("Bot", 8, 0));
+        estado.getSerpientes().add(muro());
+        BotView vista = new BotView();
+        vista.cargar(estado.toSnapshotDto());
+        int yo = vista.indice("Bot");
+        BotPathfinder buscador = new BotPathfinder();
+
+        assertEquals(10, buscador.espacioLibre(vista, yo, Coordenada.pack(0, 0), 10));
+        assertEquals(100 - 9 - 1, buscador.espacioLibre(vista, yo, Coordenada.pack(0, 0), 1000), "Todo el tablero menos el muro y la cabeza.");
+        assertEquals(90, buscador.espacioLibre(vista, yo, Coordenada.pack(0, 0), 1000), "El bitset queda limpio entre rellenos.");
+    }
+
+    @Test
+    @DisplayName("Un bot no entra en un callejón sin salida aunque el primer paso sea seguro")
+    void testBrain_EvitaElCallejon() {
+        GameState estado = new GameState(10, 10);
+        estado.getSerpientes().add(serpiente("Bot", 2, 5, 1, 5, 0, 5)); // Va hacia la derecha
+        Snake u = serpiente("U", 3, 4, 4, 4, 5, 4, 5, 5, 5, 6, 4, 6, 3, 6); // Bolsa de dos celdas abierta hacia el bot
+        u.setSegmentosPorCrecer(1);
+        estado.getSerpientes().add(u);
+        BotView vista = new BotView();
+        vista.cargar(estado.toSnapshotDto());
+
+        for (BotDifficulty dificultad : BotDifficulty.values()) {
+            for (int semilla = 0; semilla < 10; semilla++) {
+                Direccion elegida = new BotBrain("Bot", dificultad, new Random(semilla)).decidir(vista, new BotPathfinder());
+                assertNotEquals(Direccion.DERECHA, elegida, "Dificultad " + dificultad + ", semilla " + semilla);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Con el plazo vencido las búsquedas se rinden y cuentan la decisión fuera de presupuesto")
+    void testPlazoVencido() {
+        GameState estado = new GameState(100, 100);
+        estado.getSerpientes().add(serpiente("Bot", 0, 0));
+        BotView vista = new BotView();
+        vista.cargar(estado.toSnapshotDto());
+        int yo = vista.indice("Bot");
+        BotPathfinder buscador = new BotPathfinder();
+
+        buscador.empezarDecision(System.nanoTime() - 1);
+        assertEquals(-1, buscador.espacioLibre(vista, yo, Coordenada.pack(1, 0), 1000));
+        assertTrue(buscador.sinTiempo());
+        assertNull(buscador.haciaFruta(vista, yo));
+        assertEquals(1, buscador.getDecisionesSinTiempo());
+
+        buscador.empezarDecision(System.nanoTime() + 1_000_000_000L);
+        assertFalse(buscador.sinTiempo());
+        assertEquals(1000, buscador.espacioLibre(vista, yo, Coordenada.pack(1, 0), 1000), "El bitset quedó limpio tras rendirse.");
+    }
+}
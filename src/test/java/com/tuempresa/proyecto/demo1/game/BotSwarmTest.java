@@ -0,0 +1,100 @@
+package com.tuempresa.proyecto.demo1.game;
+
+import com.tuempresa.proyecto.demo1.model.BotDifficulty;
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.Direccion;
+import com.tuempresa.proyecto.demo1.model.GamePhase;
+import com.tuempresa.proyecto.demo1.model.GameState;
+import com.tuempresa.proyecto.demo1.model.Snake;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotSwarmTest {
+
+    private static Snake serpiente(String id, int... xy) {
+        Snake snake = new Snake(id, new Coordenada(xy[0], xy[1]));
+        Coordenada[] cuerpo = new Coordenada[xy.length / 2];
+        for (int i = 0; i < cuerpo.length; i++) {
+            cuerpo[i] = new Coordenada(xy[2 * i], xy[2 * i + 1]);
+        }
+        snake.setCuerpo(Arrays.asList(cuerpo));
+        return snake;
+    }
+
+    @Test
+    @DisplayName("La vista aplica la regla del servidor: la cola ajena que avanza es pisable, la propia no")
+    void testVista_ReglaDeColas() {
+        GameState estado = new GameState(10, 10);
+        estado.getSerpientes().add(serpiente("A", 2, 2, 1, 2, 0, 2));
+        estado.getSerpientes().add(serpiente("B", 5, 5, 5, 6, 5, 7));
+        BotView vista = new BotView();
+        vista.cargar(estado.toSnapshotDto());
+        int a = vista.indice("A");
+
+        assertTrue(vista.esColision(0, 2, a), "La cola propia cuenta como colisión.");
+        assertFalse(vista.esColision(5, 7, a), "La cola de otra serpiente que no crece se libera este tick.");
+        assertTrue(vista.esColision(5, 6, a));
+        assertTrue(vista.esColision(-1, 0, a));
+        assertFalse(vista.esColision(3, 2, a));
+        assertEquals(-1, vista.indice("C"));
+    }
+
+    @Test
+    @DisplayName("Un bot que va hacia la pared gira antes de chocar")
+    void testBrain_EvitaLaPared() {
+        GameState estado = new GameState(10, 10);
+        estado.getSerpientes().add(serpiente("Bot", 9, 5, 8, 5));
+        BotView vista = new BotView();
+        vista.cargar(estado.toSnapshotDto());
+
+        for (BotDifficulty dificultad : BotDifficulty.values()) {
+            Direccion elegida = new BotBrain("Bot", dificultad, new Random(1)).decidir(vista, new BotPathfinder());
+            assertNotEquals(Direccion.DERECHA, elegida, "Dificultad " + dificultad);
+            assertNotEquals(Direccion.IZQUIERDA, elegida, "Girar 180 grados es morderse a sí mismo.");
+        }
+    }
+
+    @Test
+    @DisplayName("El enjambre en proceso entrega solo las direcciones que cambian y mueve la partida")
+    void testEnjambre_EnProceso() throws Exception {
+        GameState estado = new GameState(40, 40);
+        estado.setGamePhase(GamePhase.IN_PROGRESS);
+        ConcurrentHashMap<String, Direccion> acciones = new ConcurrentHashMap<>();
+        GameLogic logica = new GameLogic(new Random(7));
+        try (BotSwarm swarm = new BotSwarm(4, new Random(7))) {
+            for (int i = 0; i < 64; i++) {
+                String id = "Swarm-" + i;
+                estado.getSerpientes().add(new Snake(id, new Coordenada((i % 8) * 5 + 2, (i / 8) * 5 + 2)));
+                swarm.addBot(id, BotDifficulty.values()[i % BotDifficulty.values().length]);
+            }
+            assertEquals(64, swarm.size());
+
+            AtomicInteger entregas = new AtomicInteger();
+            BotSwarm.InputPort puerto = (id, direccion) -> {
+                entregas.incrementAndGet();
+                acciones.put(id, direccion);
+            };
+            assertEquals(64, swarm.tick(estado.toSnapshotDto(), puerto), "La primera decisión de cada bot siempre se entrega.");
+            assertEquals(64, entregas.get());
+            assertEquals(64, acciones.size());
+
+            long tickInicial = estado.getTick();
+            for (int tick = 0; tick < 20 && !estado.getSerpientes().isEmpty(); tick++) {
+                logica.actualizar(estado, acciones);
+                estado.advanceTick();
+                entregas.set(0);
+                int cambios = swarm.tick(estado.toSnapshotDto(), puerto);
+                assertEquals(cambios, entregas.get());
+                assertTrue(cambios <= 64);
+            }
+            assertTrue(estado.getTick() > tickInicial);
+        }
+    }
+}
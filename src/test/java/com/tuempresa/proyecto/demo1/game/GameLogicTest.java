@@ -25,6 +25,7 @@ class GameLogicTest {
     @BeforeEach
     void setUp() {
         gameLogic = new GameLogic();
+        gameLogic.setVerificarTablero(true);
         gameState = new GameState(GameConfig.ANCHO_TABLERO, GameConfig.ALTO_TABLERO);
         acciones = new ConcurrentHashMap<>();
     }
@@ -43,6 +44,25 @@ class GameLogicTest {
         assertEquals(cabezaOriginal.y, snake.getHead().y, "La cabeza de la serpiente no debe cambiar su coordenada Y.");
     }
 
+    @Test
+    @DisplayName("Con entrada por slots, dos giros rápidos entre ticks no acaban en un giro de 180 grados")
+    void testActualizar_GirosEncolados() {
+        InputBuffer entradas = new InputBuffer();
+        Snake snake = new Snake("Player1", new Coordenada(10, 10));
+        snake.setSlotEntrada(entradas.reservar(Direccion.DERECHA));
+        gameState.getSerpientes().add(snake);
+        gameLogic.actualizar(gameState, entradas);
+
+        // Hacia la derecha pulsa arriba e izquierda antes del siguiente tick.
+        entradas.encolar(snake.getSlotEntrada(), Direccion.ARRIBA);
+        entradas.encolar(snake.getSlotEntrada(), Direccion.IZQUIERDA);
+        gameLogic.actualizar(gameState, entradas);
+        gameLogic.actualizar(gameState, entradas);
+
+        assertEquals(1, gameState.getSerpientes().size(), "La serpiente no debe morderse a sí misma.");
+        assertEquals(new Coordenada(10, 9), snake.getHead());
+    }
+
     @ParameterizedTest
     @CsvSource({
             "0, 10, IZQUIERDA",  // Colisión con borde izquierdo
@@ -124,4 +144,158 @@ class GameLogicTest {
         assertEquals(5, cabezaEnSnapshot.x, "La coordenada X del snapshot no debe cambiar.");
         assertEquals(5, cabezaEnSnapshot.y, "La coordenada Y del snapshot no debe cambiar.");
     }
+
+    // Serpiente horizontal con la cabeza en (headX, y) y el cuerpo hacia la izquierda.
+    private Snake serpienteHorizontal(String id, int headX, int y, int longitud) {
+        Snake snake = new Snake(id, new Coordenada(headX - longitud + 1, y));
+        for (int x = headX - longitud + 2; x <= headX; x++) {
+            snake.getCuerpo().addFirst(new Coordenada(x, y));
+        }
+        return snake;
+    }
+
+    @Test
+    @DisplayName("La serpiente muere al chocar con el cuerpo de otra")
+    void testActualizar_ColisionConCuerpoDeOtra() {
+        Snake victima = new Snake("Player1", new Coordenada(10, 9));
+        Snake muro = serpienteHorizontal("Player2", 12, 10, 5); // Ocupa (8..12, 10)
+        gameState.getSerpientes().add(victima);
+        gameState.getSerpientes().add(muro);
+        acciones.put("Player1", Direccion.ABAJO); // Entra en (10, 10), cuerpo de Player2
+        acciones.put("Player2", Direccion.DERECHA);
+
+        gameLogic.actualizar(gameState, acciones);
+
+        assertFalse(gameState.getSerpientes().contains(victima), "Player1 debería haber muerto contra el cuerpo de Player2.");
+        assertTrue(gameState.getSerpientes().contains(muro));
+    }
+
+    @Test
+    @DisplayName("La serpiente muere al morderse a sí misma")
+    void testActualizar_ColisionConCuerpoPropio() {
+        // Forma de U: cabeza en (10,10), cuerpo (11,10), (11,11), (10,11), (9,11)
+        Snake snake = new Snake("Player1", new Coordenada(9, 11));
+        snake.getCuerpo().addFirst(new Coordenada(10, 11));
+        snake.getCuerpo().addFirst(new Coordenada(11, 11));
+        snake.getCuerpo().addFirst(new Coordenada(11, 10));
+        snake.getCuerpo().addFirst(new Coordenada(10, 10));
+        gameState.getSerpientes().add(snake);
+        acciones.put("Player1", Direccion.ABAJO); // (10, 11) es cuerpo, no cola
+
+        gameLogic.actualizar(gameState, acciones);
+
+        assertTrue(gameState.getSerpientes().isEmpty(), "La serpiente debería haberse mordido.");
+    }
+
+    @Test
+    @DisplayName("Entrar en la celda de una cola que se mueve no es una colisión")
+    void testActualizar_PerseguirCola() {
+        // Cuadrado: cabeza (10,10) -> (11,10) -> (11,11) -> cola (10,11)
+        Snake snake = new Snake("Player1", new Coordenada(10, 11));
+        snake.getCuerpo().addFirst(new Coordenada(11, 11));
+        snake.getCuerpo().addFirst(new Coordenada(11, 10));
+        snake.getCuerpo().addFirst(new Coordenada(10, 10));
+        gameState.getSerpientes().add(snake);
+        acciones.put("Player1", Direccion.ABAJO);
+
+        for (int i = 0; i < 8; i++) {
+            Direccion siguiente = new Direccion[]{Direccion.ABAJO, Direccion.DERECHA, Direccion.ARRIBA, Direccion.IZQUIERDA}[i % 4];
+            acciones.put("Player1", siguiente);
+            gameLogic.actualizar(gameState, acciones);
+            assertEquals(1, gameState.getSerpientes().size(), "La serpiente no debería morir persiguiendo su cola (tick " + i + ").");
+        }
+    }
+
+    @Test
+    @DisplayName("El índice de ocupación se reconstruye tras cambios hechos fuera del tick")
+    void testActualizar_ResetFueraDelTick() {
+        Snake snake = serpienteHorizontal("Player1", 12, 10, 5);
+        gameState.getSerpientes().add(snake);
+        acciones.put("Player1", Direccion.DERECHA);
+        gameLogic.actualizar(gameState, acciones);
+
+        // Como hace el admin con RESET_GAME: el cuerpo se reemplaza sin pasar por GameLogic.
+        snake.reset(new Coordenada(3, 3));
+        Snake otra = new Snake("Player2", new Coordenada(5, 10));
+        gameState.getSerpientes().add(otra);
+        acciones.put("Player2", Direccion.DERECHA); // (6, 10) estaba ocupada antes del reset
+        gameLogic.actualizar(gameState, acciones);
+
+        assertTrue(gameState.getSerpientes().contains(otra), "Las celdas del cuerpo anterior al reset deben quedar libres.");
+        assertEquals(new Coordenada(6, 10), otra.getHead());
+    }
+
+    @Test
+    @DisplayName("Las frutas nuevas nunca aparecen sobre una serpiente u otra fruta")
+    void testGenerarFruta_SoloEnCeldasLibres() {
+        GameState pequeno = new GameState(3, 3);
+        Snake snake = new Snake("Player1", new Coordenada(0, 0));
+        snake.getCuerpo().addFirst(new Coordenada(1, 0));
+        snake.getCuerpo().addFirst(new Coordenada(2, 0));
+        pequeno.getSerpientes().add(snake);
+        GameLogic logica = new GameLogic(new java.util.Random(7));
+
+        for (int i = 0; i < 6; i++) {
+            logica.generarFruta(pequeno);
+        }
+        assertEquals(6, pequeno.getFrutas().size());
+        java.util.Set<Coordenada> posiciones = new java.util.HashSet<>();
+        for (Fruta f : pequeno.getFrutas()) {
+            assertTrue(f.getCoordenada().y > 0, "La fruta no debe caer sobre la serpiente.");
+            assertTrue(posiciones.add(f.getCoordenada()), "Dos frutas en la misma celda.");
+        }
+
+        logica.generarFruta(pequeno);
+        assertEquals(6, pequeno.getFrutas().size(), "Con el tablero lleno no debe generarse ninguna fruta.");
+    }
+
+    @Test
+    @DisplayName("El tablero incremental coincide con una reconstrucción completa durante una partida")
+    void testTableroIncremental_PartidaAleatoria() {
+        java.util.Random random = new java.util.Random(1234);
+        GameLogic logica = new GameLogic(new java.util.Random(99));
+        logica.setVerificarTablero(true); // Lanza IllegalStateException si algún tick deja el tablero inconsistente
+        Direccion[] direcciones = {Direccion.ARRIBA, Direccion.ABAJO, Direccion.IZQUIERDA, Direccion.DERECHA};
+
+        for (int tick = 0; tick < 2000; tick++) {
+            if (gameState.getSerpientes().size() < 4) {
+                String id = "P" + tick;
+                gameState.getSerpientes().add(new Snake(id, new Coordenada(random.nextInt(GameConfig.ANCHO_TABLERO), random.nextInt(GameConfig.ALTO_TABLERO))));
+            }
+            for (Snake s : gameState.getSerpientes()) {
+                acciones.put(s.getIdJugador(), direcciones[random.nextInt(direcciones.length)]);
+            }
+            logica.actualizar(gameState, acciones);
+        }
+
+        Snake superviviente = gameState.getSerpientes().get(0);
+        Coordenada cabeza = superviviente.getHead();
+        assertEquals(GameConfig.SNAKE_HEAD, gameState.getTablero()[cabeza.y][cabeza.x]);
+    }
+
+    @Test
+    @DisplayName("Si muere una de dos serpientes apiladas, la superviviente sigue en el tablero y en el índice")
+    void testActualizar_MuereSerpienteApilada() {
+        // Las altas rotan entre pocas posiciones iniciales: dos serpientes pueden aparecer en la misma celda.
+        Snake superviviente = new Snake("Player1", new Coordenada(0, 10));
+        Snake victima = new Snake("Player2", new Coordenada(0, 10));
+        gameState.getSerpientes().add(superviviente);
+        gameState.getSerpientes().add(victima);
+        acciones.put("Player2", Direccion.IZQUIERDA); // Contra la pared
+
+        gameLogic.actualizar(gameState, acciones); // verificarTablero lanza si el tablero no coincide
+
+        assertEquals(1, gameState.getSerpientes().size());
+        assertEquals(GameConfig.SNAKE_HEAD, gameState.getTablero()[10][0], "La superviviente no debe desaparecer del tablero.");
+        assertSame(superviviente, gameState.getOcupacion().serpiente(gameState.getOcupacion().get(0, 10)));
+
+        // Otra serpiente que entra en esa celda choca con la superviviente.
+        Snake otra = new Snake("Player3", new Coordenada(1, 10));
+        gameState.getSerpientes().add(otra);
+        acciones.clear();
+        acciones.put("Player3", Direccion.IZQUIERDA);
+        gameLogic.actualizar(gameState, acciones);
+        assertFalse(gameState.getSerpientes().contains(otra));
+        assertTrue(gameState.getSerpientes().contains(superviviente));
+    }
 }
@@ -0,0 +1,111 @@
+package com.tuempresa.proyecto.demo1.game;
+
+import com.tuempresa.proyecto.demo1.model.Direccion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputBufferTest {
+
+    private static Direccion tick(InputBuffer entradas, int slot) {
+        return InputBuffer.direccion(entradas.siguienteFrame(), slot);
+    }
+
+    @Test
+    @DisplayName("Dos giros entre ticks se aplican en orden, uno por tick, y las repeticiones no cuentan")
+    void testGirosEncoladosEnOrden() {
+        InputBuffer entradas = new InputBuffer();
+        int slot = entradas.reservar(Direccion.DERECHA);
+
+        entradas.encolar(slot, Direccion.ARRIBA);
+        entradas.encolar(slot, Direccion.ARRIBA);
+        entradas.encolar(slot, Direccion.IZQUIERDA);
+
+        assertEquals(Direccion.ARRIBA, tick(entradas, slot));
+        assertEquals(Direccion.IZQUIERDA, tick(entradas, slot));
+        assertEquals(Direccion.IZQUIERDA, tick(entradas, slot), "Sin giros pendientes sigue la dirección vigente.");
+
+        entradas.encolar(slot, Direccion.IZQUIERDA);
+        assertEquals(Direccion.IZQUIERDA, tick(entradas, slot));
+    }
+
+    @Test
+    @DisplayName("Con la cola llena el giro nuevo sustituye al último")
+    void testColaLlena() {
+        InputBuffer entradas = new InputBuffer();
+        int slot = entradas.reservar(Direccion.DERECHA);
+        Direccion[] giros = {Direccion.ARRIBA, Direccion.IZQUIERDA, Direccion.ABAJO, Direccion.DERECHA, Direccion.ARRIBA};
+        for (Direccion giro : giros) {
+            entradas.encolar(slot, giro);
+        }
+
+        List<Direccion> aplicadas = new ArrayList<>();
+        for (int i = 0; i < InputBuffer.MAX_PENDIENTES + 1; i++) {
+            aplicadas.add(tick(entradas, slot));
+        }
+        assertEquals(java.util.Arrays.asList(Direccion.ARRIBA, Direccion.IZQUIERDA, Direccion.ABAJO, Direccion.ARRIBA, Direccion.ARRIBA), aplicadas);
+    }
+
+    @Test
+    @DisplayName("Los slots crecen por bloques, se reutilizan al liberarse y no se mezclan")
+    void testSlotsIndependientesYReutilizados() {
+        InputBuffer entradas = new InputBuffer();
+        List<Integer> slots = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            slots.add(entradas.reservar(Direccion.DERECHA));
+        }
+        entradas.encolar(slots.get(150), Direccion.ABAJO);
+        byte[] frame = entradas.siguienteFrame();
+        assertEquals(Direccion.ABAJO, InputBuffer.direccion(frame, slots.get(150)));
+        assertEquals(Direccion.DERECHA, InputBuffer.direccion(frame, slots.get(149)));
+
+        entradas.liberar(slots.get(7));
+        int reutilizado = entradas.reservar(Direccion.IZQUIERDA);
+        assertEquals((int) slots.get(7), reutilizado);
+        assertEquals(Direccion.IZQUIERDA, tick(entradas, reutilizado));
+        assertEquals(Direccion.NINGUNA, InputBuffer.direccion(frame, -1));
+    }
+
+    @Test
+    @DisplayName("Los giros encolados desde varios hilos a la vez no se pierden ni corrompen otros slots")
+    void testEncolarConcurrente() throws InterruptedException {
+        InputBuffer entradas = new InputBuffer();
+        int hilos = 4;
+        int[] slots = new int[hilos];
+        for (int i = 0; i < hilos; i++) {
+            slots[i] = entradas.reservar(Direccion.DERECHA);
+        }
+        Thread[] productores = new Thread[hilos];
+        for (int i = 0; i < hilos; i++) {
+            int slot = slots[i];
+            productores[i] = new Thread(() -> {
+                for (int n = 0; n < 10_000; n++) {
+                    entradas.encolar(slot, n % 2 == 0 ? Direccion.ARRIBA : Direccion.IZQUIERDA);
+                }
+                entradas.encolar(slot, Direccion.ABAJO);
+            });
+            productores[i].start();
+        }
+        while (anyAlive(productores)) {
+            entradas.siguienteFrame(); // El tick consume mientras tanto
+        }
+        for (int i = 0; i < InputBuffer.MAX_PENDIENTES; i++) {
+            entradas.siguienteFrame();
+        }
+        byte[] frame = entradas.siguienteFrame();
+        for (int slot : slots) {
+            assertEquals(Direccion.ABAJO, InputBuffer.direccion(frame, slot), "El último giro de cada slot debe ser el vigente.");
+        }
+    }
+
+    private static boolean anyAlive(Thread[] threads) {
+        for (Thread thread : threads) {
+            if (thread.isAlive()) return true;
+        }
+        return false;
+    }
+}
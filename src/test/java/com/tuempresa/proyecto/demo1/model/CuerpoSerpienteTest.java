@@ -0,0 +1,76 @@
+package com.tuempresa.proyecto.demo1.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CuerpoSerpienteTest {
+
+    @Test
+    @DisplayName("Empaquetar y desempaquetar conserva coordenadas negativas")
+    void testPackRoundTrip() {
+        int[][] casos = {{0, 0}, {5, 7}, {-1, 0}, {0, -1}, {-300, 1200}, {32767, -32768}};
+        for (int[] c : casos) {
+            int packed = Coordenada.pack(c[0], c[1]);
+            assertEquals(c[0], Coordenada.packedX(packed));
+            assertEquals(c[1], Coordenada.packedY(packed));
+        }
+    }
+
+    @Test
+    @DisplayName("Moverse muchas veces da la vuelta al buffer sin perder el orden")
+    void testWrapAroundMatchesLinkedList() {
+        CuerpoSerpiente cuerpo = new CuerpoSerpiente(4);
+        LinkedList<Coordenada> esperado = new LinkedList<>();
+        for (int i = 0; i < 3; i++) {
+            cuerpo.addFirst(new Coordenada(i, 0));
+            esperado.addFirst(new Coordenada(i, 0));
+        }
+        for (int paso = 3; paso < 50; paso++) {
+            cuerpo.addFirstPacked(Coordenada.pack(paso, paso % 7));
+            esperado.addFirst(new Coordenada(paso, paso % 7));
+            assertEquals(esperado.removeLast(), cuerpo.removeLast());
+            assertEquals(esperado, cuerpo);
+        }
+        assertEquals(esperado.getFirst(), cuerpo.getFirst());
+        assertEquals(esperado.getLast(), cuerpo.getLast());
+    }
+
+    @Test
+    @DisplayName("El buffer crece manteniendo el orden aunque la cabeza esté a mitad del array")
+    void testGrowthPreservesOrder() {
+        CuerpoSerpiente cuerpo = new CuerpoSerpiente(4);
+        cuerpo.addFirst(new Coordenada(0, 0));
+        cuerpo.addFirst(new Coordenada(1, 0));
+        cuerpo.removeLastPacked(); // Desplaza la cabeza dentro del array
+        for (int x = 2; x < 20; x++) {
+            cuerpo.addFirst(new Coordenada(x, 0));
+        }
+        assertEquals(19, cuerpo.size());
+        for (int i = 0; i < cuerpo.size(); i++) {
+            assertEquals(new Coordenada(19 - i, 0), cuerpo.get(i));
+        }
+        assertEquals(cuerpo, cuerpo.copiaInmutable());
+    }
+
+    @Test
+    @DisplayName("La copia inmutable no cambia cuando la serpiente se sigue moviendo")
+    void testCopiaInmutableIsIndependent() {
+        CuerpoSerpiente cuerpo = new CuerpoSerpiente();
+        cuerpo.addFirst(new Coordenada(1, 1));
+        cuerpo.addFirst(new Coordenada(2, 1));
+        List<Coordenada> copia = cuerpo.copiaInmutable();
+
+        cuerpo.addFirst(new Coordenada(3, 1));
+        cuerpo.removeLastPacked();
+
+        assertEquals(Arrays.asList(new Coordenada(2, 1), new Coordenada(1, 1)), copia);
+        assertTrue(copia.contains(new Coordenada(1, 1)));
+        assertThrows(UnsupportedOperationException.class, () -> copia.add(new Coordenada(0, 0)));
+    }
+}
@@ -0,0 +1,219 @@
+package com.tuempresa.proyecto.demo1.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaOcupacionTest {
+
+    private MapaOcupacion mapa;
+    private List<Snake> serpientes;
+    private List<Fruta> frutas;
+
+    @BeforeEach
+    void setUp() {
+        mapa = new MapaOcupacion(10, 10);
+        serpientes = new ArrayList<>();
+        frutas = new ArrayList<>();
+    }
+
+    private Snake serpiente(String id, Coordenada... cuerpo) {
+        Snake s = new Snake(id, cuerpo[cuerpo.length - 1]);
+        for (int i = cuerpo.length - 2; i >= 0; i--) {
+            s.getCuerpo().addFirst(cuerpo[i]);
+        }
+        serpientes.add(s);
+        return s;
+    }
+
+    @Test
+    @DisplayName("Cada celda indica su serpiente y el papel del segmento")
+    void testRoles() {
+        Snake s = serpiente("A", new Coordenada(3, 1), new Coordenada(2, 1), new Coordenada(1, 1));
+        mapa.sincronizar(serpientes, frutas);
+
+        assertSame(s, mapa.serpiente(mapa.get(3, 1)));
+        assertEquals(MapaOcupacion.ROL_CABEZA, MapaOcupacion.rol(mapa.get(3, 1)));
+        assertEquals(MapaOcupacion.ROL_CUERPO, MapaOcupacion.rol(mapa.get(2, 1)));
+        assertEquals(MapaOcupacion.ROL_COLA, MapaOcupacion.rol(mapa.get(1, 1)));
+        assertEquals(MapaOcupacion.VACIA, mapa.get(0, 1));
+    }
+
+    @Test
+    @DisplayName("Avanzar la cabeza y liberar la cola mantiene el índice al día")
+    void testMovimientoIncremental() {
+        Snake s = serpiente("A", new Coordenada(2, 1), new Coordenada(1, 1));
+        mapa.sincronizar(serpientes, frutas);
+
+        s.getCuerpo().addFirst(new Coordenada(3, 1));
+        mapa.avanzarCabeza(s);
+        s.getCuerpo().removeLastPacked();
+        mapa.liberarCola(s);
+
+        assertEquals(MapaOcupacion.ROL_CABEZA, MapaOcupacion.rol(mapa.get(3, 1)));
+        assertEquals(MapaOcupacion.ROL_COLA, MapaOcupacion.rol(mapa.get(2, 1)));
+        assertEquals(MapaOcupacion.VACIA, mapa.get(1, 1));
+    }
+
+    @Test
+    @DisplayName("Una serpiente eliminada libera sus celdas y su slot se reutiliza")
+    void testEliminar() {
+        Snake a = serpiente("A", new Coordenada(1, 1), new Coordenada(0, 1));
+        Snake b = serpiente("B", new Coordenada(5, 5));
+        mapa.sincronizar(serpientes, frutas);
+
+        serpientes.remove(a);
+        mapa.eliminar(a);
+        assertEquals(MapaOcupacion.VACIA, mapa.get(1, 1));
+        assertEquals(MapaOcupacion.VACIA, mapa.get(0, 1));
+
+        Snake c = new Snake("C", new Coordenada(8, 8));
+        serpientes.add(c);
+        mapa.sincronizar(serpientes, frutas);
+        assertSame(c, mapa.serpiente(mapa.get(8, 8)));
+        assertSame(b, mapa.serpiente(mapa.get(5, 5)));
+    }
+
+    @Test
+    @DisplayName("Las celdas libres excluyen serpientes y frutas y se actualizan al moverse")
+    void testCeldasLibres() {
+        Snake s = serpiente("A", new Coordenada(2, 1), new Coordenada(1, 1));
+        frutas.add(new Fruta(new Coordenada(5, 5), 1, 0));
+        mapa.sincronizar(serpientes, frutas);
+        assertEquals(100 - 3, mapa.getNumCeldasLibres());
+        assertFalse(mapa.esLibre(5, 5));
+        assertFalse(mapa.esLibre(1, 1));
+
+        s.getCuerpo().addFirst(new Coordenada(3, 1));
+        mapa.avanzarCabeza(s);
+        s.getCuerpo().removeLastPacked();
+        mapa.liberarCola(s);
+        assertTrue(mapa.esLibre(1, 1));
+        assertFalse(mapa.esLibre(3, 1));
+
+        mapa.quitarFruta(new Coordenada(5, 5));
+        assertTrue(mapa.esLibre(5, 5));
+        assertEquals(100 - 2, mapa.getNumCeldasLibres());
+    }
+
+    @Test
+    @DisplayName("La celda aleatoria siempre es libre y es null con el tablero lleno")
+    void testCeldaLibreAleatoria() {
+        MapaOcupacion pequeno = new MapaOcupacion(2, 2);
+        serpientes.add(new Snake("A", new Coordenada(0, 0)));
+        frutas.add(new Fruta(new Coordenada(1, 0), 1, 0));
+        frutas.add(new Fruta(new Coordenada(0, 1), 1, 0));
+        pequeno.sincronizar(serpientes, frutas);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(new Coordenada(1, 1), pequeno.celdaLibreAleatoria(random));
+        }
+        pequeno.ponerFruta(new Coordenada(1, 1));
+        assertNull(pequeno.celdaLibreAleatoria(random));
+    }
+
+    @Test
+    @DisplayName("Dos serpientes en la misma celda no obligan a reconstruir el índice en cada tick")
+    void testSerpientesSolapadas() {
+        serpientes.add(serpiente("A", new Coordenada(4, 4)));
+        serpientes.add(serpiente("B", new Coordenada(4, 4)));
+
+        assertTrue(mapa.sincronizar(serpientes, frutas));
+        assertFalse(mapa.sincronizar(serpientes, frutas), "El índice ya refleja las listas aunque una serpiente tape a la otra.");
+    }
+
+    @Test
+    @DisplayName("Al eliminar una serpiente, las celdas que comparte con otra siguen ocupadas por la otra")
+    void testEliminarSerpienteSolapada() {
+        Snake a = serpiente("A", new Coordenada(5, 4), new Coordenada(4, 4));
+        Snake b = serpiente("B", new Coordenada(4, 4));
+        mapa.sincronizar(serpientes, frutas);
+        assertSame(b, mapa.serpiente(mapa.get(4, 4)), "La última en marcarse representa la celda");
+
+        serpientes.remove(b);
+        mapa.eliminar(b);
+        assertSame(a, mapa.serpiente(mapa.get(4, 4)), "A sigue en la celda que compartía con B");
+        assertEquals(MapaOcupacion.ROL_COLA, MapaOcupacion.rol(mapa.get(4, 4)));
+        assertFalse(mapa.esLibre(4, 4));
+
+        // La cola de A sale de la celda: ahora sí queda libre.
+        a.getCuerpo().addFirst(new Coordenada(6, 4));
+        mapa.avanzarCabeza(a);
+        a.getCuerpo().removeLastPacked();
+        mapa.liberarCola(a);
+        assertEquals(MapaOcupacion.VACIA, mapa.get(4, 4));
+        assertTrue(mapa.esLibre(4, 4));
+        assertFalse(mapa.sincronizar(serpientes, frutas));
+    }
+
+    @Test
+    @DisplayName("Una cola que sale de una celda compartida no la deja vacía")
+    void testColaSaleDeCeldaCompartida() {
+        Snake a = serpiente("A", new Coordenada(5, 4), new Coordenada(4, 4));
+        Snake b = serpiente("B", new Coordenada(4, 4));
+        mapa.sincronizar(serpientes, frutas);
+
+        // Gana B por ser la última; se fuerza que A represente la celda moviendo primero a B.
+        b.getCuerpo().addFirst(new Coordenada(4, 5));
+        mapa.avanzarCabeza(b);
+        b.getCuerpo().removeLastPacked();
+        mapa.liberarCola(b);
+        assertSame(a, mapa.serpiente(mapa.get(4, 4)));
+
+        a.getCuerpo().addFirst(new Coordenada(6, 4));
+        mapa.avanzarCabeza(a);
+        a.getCuerpo().removeLastPacked();
+        mapa.liberarCola(a);
+        assertEquals(MapaOcupacion.VACIA, mapa.get(4, 4));
+        assertSame(b, mapa.serpiente(mapa.get(4, 5)));
+    }
+
+    @Test
+    @DisplayName("Muchas serpientes apiladas en la posición inicial la dejan libre solo al salir la última")
+    void testMuchasSerpientesApiladas() {
+        MapaOcupacion grande = new MapaOcupacion(60, 60);
+        Coordenada inicio = new Coordenada(30, 30);
+        List<Snake> apiladas = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Snake s = new Snake("S" + i, inicio);
+            apiladas.add(s);
+            serpientes.add(s);
+        }
+        grande.sincronizar(serpientes, frutas);
+
+        // La mitad sale de la celda, una por una; la otra mitad muere en ella.
+        for (int i = 0; i < 100; i++) {
+            Snake s = apiladas.get(i);
+            s.getCuerpo().addFirst(new Coordenada(i % 60, 40 + i / 60));
+            grande.avanzarCabeza(s);
+            s.getCuerpo().removeLastPacked();
+            grande.liberarCola(s);
+            Snake representante = grande.serpiente(grande.get(30, 30));
+            assertTrue(apiladas.indexOf(representante) > i, "La celda la representa una serpiente que sigue en ella");
+            assertEquals(MapaOcupacion.ROL_CABEZA, MapaOcupacion.rol(grande.get(30, 30)));
+        }
+        for (int i = 100; i < 199; i++) {
+            serpientes.remove(apiladas.get(i));
+            grande.eliminar(apiladas.get(i));
+            assertFalse(grande.esLibre(30, 30));
+        }
+        Snake ultima = apiladas.get(199);
+        assertSame(ultima, grande.serpiente(grande.get(30, 30)));
+        assertFalse(grande.sincronizar(serpientes, frutas), "El índice incremental sigue reflejando las listas");
+
+        ultima.getCuerpo().addFirst(new Coordenada(31, 30));
+        grande.avanzarCabeza(ultima);
+        ultima.getCuerpo().removeLastPacked();
+        grande.liberarCola(ultima);
+        assertEquals(MapaOcupacion.VACIA, grande.get(30, 30));
+        assertTrue(grande.esLibre(30, 30));
+        assertEquals(60 * 60 - 101, grande.getNumCeldasLibres()); // Las 100 que salieron y la última
+    }
+}
@@ -0,0 +1,170 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.tuempresa.proyecto.demo1.game.GameConfig;
+import com.tuempresa.proyecto.demo1.net.codec.WireCodec;
+import com.tuempresa.proyecto.demo1.net.codec.WireReader;
+import com.tuempresa.proyecto.demo1.util.Logger;
+import com.tuempresa.proyecto.demo1.util.Logger.LogCategory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comandos de administración enviados por el puerto de admin, como lo haría una consola: la
+ * respuesta tiene que volver por el mismo socket, no solo calcularse en el servidor.
+ */
+class AdminCommandIntegrationTest {
+
+    private static final int ADMIN_PORT = GameConfig.DEFAULT_PORT + 1;
+
+    private GameServer server;
+    private Thread serverThread;
+
+    @BeforeEach
+    void setUp() throws IOException, InterruptedException {
+        server = new GameServer();
+        serverThread = new Thread(() -> server.start());
+        serverThread.start();
+        // Con los dos puertos escuchando, stop() los cierra y el siguiente test puede volver a abrirlos.
+        connect(GameConfig.DEFAULT_PORT).close();
+        connect(ADMIN_PORT).close();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        server.stop();
+        serverThread.join(1000);
+    }
+
+    // Cada listener arranca en su propio hilo: se reintenta hasta que acepte.
+    private static Socket connect(int port) throws IOException, InterruptedException {
+        while (true) {
+            try {
+                return new Socket("localhost", port);
+            } catch (ConnectException e) {
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    // Consola con el protocolo binario; los streams duran lo que el socket para poder enviar varios comandos.
+    private static final class BinaryConsole implements AutoCloseable {
+        private final Socket socket;
+        private final DataOutputStream out;
+        private final DataInputStream in;
+        private final WireReader reader = new WireReader();
+
+        BinaryConsole() throws IOException, InterruptedException {
+            socket = connect(ADMIN_PORT);
+            out = new DataOutputStream(socket.getOutputStream());
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        }
+
+        // Envía el comando y devuelve el primer ADMIN_REPLY, saltando los envíos de estado.
+        String send(String command) throws IOException {
+            FrameCodec.writeFrame(out, WireCodec.encodeAdminCommand(command));
+            while (true) {
+                if (FrameCodec.readFrame(in, reader, GameConfig.MAX_SERVER_FRAME_BYTES) == WireCodec.ADMIN_REPLY) {
+                    return WireCodec.decodeAdminReply(reader);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Test
+    @DisplayName("TICK_STATS devuelve los percentiles del tick a la consola binaria")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testTickStatsBinario() throws Exception {
+        try (BinaryConsole console = new BinaryConsole()) {
+            String reply = console.send("TICK_STATS");
+            assertTrue(reply.startsWith("Duración de las fases del tick en la sala " + GameServer.DEFAULT_ROOM), reply);
+            assertTrue(reply.contains("p50 us") && reply.contains("p99 us") && reply.contains("p999 us"), reply);
+        }
+    }
+
+    @Test
+    @DisplayName("LIST_ROOMS devuelve a la consola las salas abiertas con sus jugadores")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testListRooms() throws Exception {
+        try (Socket player = connect(GameConfig.DEFAULT_PORT); BinaryConsole admin = new BinaryConsole()) {
+            FrameCodec.writeFrame(new DataOutputStream(player.getOutputStream()), WireCodec.encodeHello("Jugador-Sala3", 3));
+            // El primer frame que recibe el jugador ya es de la sala en la que entró
+            FrameCodec.readFrame(new DataInputStream(player.getInputStream()), GameConfig.MAX_SERVER_FRAME_BYTES);
+
+            String reply = admin.send("LIST_ROOMS");
+            assertTrue(reply.startsWith("Salas activas:"), reply);
+            assertTrue(reply.contains("- Sala " + GameServer.DEFAULT_ROOM + ": 0 jugadores"), reply);
+            assertTrue(reply.contains("- Sala 3: 1 jugadores"), reply);
+        }
+    }
+
+    @Test
+    @DisplayName("SET_LOG_LEVEL responde con la tabla de niveles resultante o con el error")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testSetLogLevel() throws Exception {
+        Logger.LogLevel anterior = Logger.getLevel(LogCategory.GAME);
+        try (BinaryConsole console = new BinaryConsole()) {
+            String reply = console.send("SET_LOG_LEVEL GAME ERROR");
+            assertTrue(reply.startsWith("Niveles de log:"), reply);
+            assertTrue(reply.contains(" GAME=ERROR"), reply);
+            assertEquals(Logger.LogLevel.ERROR, Logger.getLevel(LogCategory.GAME));
+
+            String error = console.send("SET_LOG_LEVEL NO_EXISTE DEBUG");
+            assertTrue(error.startsWith("Error: Categoría o nivel desconocido"), error);
+            assertEquals(Logger.LogLevel.ERROR, Logger.getLevel(LogCategory.GAME));
+        } finally {
+            Logger.setLevel(LogCategory.GAME, anterior);
+        }
+    }
+
+    @Test
+    @DisplayName("Un SUBSCRIBE mal formado devuelve el error a la consola")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testSubscribeInvalido() throws Exception {
+        try (BinaryConsole console = new BinaryConsole()) {
+            assertEquals("Suscrito a 5 Hz.", console.send("SUBSCRIBE 5 PING"));
+
+            String frecuencia = console.send("SUBSCRIBE rapido PING");
+            assertTrue(frecuencia.startsWith("Error: Frecuencia inválida: rapido"), frecuencia);
+            String campo = console.send("SUBSCRIBE 5 PING COLOR");
+            assertTrue(campo.startsWith("Error: Campo desconocido: COLOR"), campo);
+            assertTrue(campo.contains("Se mantiene la suscripción anterior"), campo);
+        }
+    }
+
+    @Test
+    @DisplayName("Una consola antigua recibe la respuesta de TICK_STATS como String serializado")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testTickStatsLegacy() throws Exception {
+        try (Socket socket = connect(ADMIN_PORT)) {
+            ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
+            out.writeObject("TICK_STATS");
+            out.flush();
+            ObjectInputStream in = new ObjectInputStream(socket.getInputStream());
+            Object received;
+            do {
+                received = in.readObject(); // Entre medias llegan los AdminDataSnapshot de la sala
+            } while (!(received instanceof String));
+            assertTrue(((String) received).contains("p999 us"), (String) received);
+        }
+    }
+}
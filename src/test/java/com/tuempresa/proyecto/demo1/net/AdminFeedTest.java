@@ -0,0 +1,103 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.tuempresa.proyecto.demo1.game.GameConfig;
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.GamePhase;
+import com.tuempresa.proyecto.demo1.net.codec.SnapshotHistory;
+import com.tuempresa.proyecto.demo1.net.codec.WireCodec;
+import com.tuempresa.proyecto.demo1.net.codec.WireReader;
+import com.tuempresa.proyecto.demo1.net.dto.AdminRowsDelta;
+import com.tuempresa.proyecto.demo1.net.dto.FrutaSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.PlayerData;
+import com.tuempresa.proyecto.demo1.net.dto.SnakeSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdminFeedTest {
+
+    private static PlayerData fila(String id, long uptime, int score) {
+        return new PlayerData(id, "127.0.0.1", uptime, 20, "Alive", score);
+    }
+
+    private static GameStateSnapshot tablero(long tick, int headX) {
+        SnakeSnapshot snake = new SnakeSnapshot("Alice", 0,
+                Arrays.asList(new Coordenada(headX, 5), new Coordenada(headX - 1, 5), new Coordenada(headX - 2, 5)), 0, 0xFF00FF00);
+        return new GameStateSnapshot(tick, 30, 20, Collections.singletonList(snake),
+                Collections.singletonList(new FrutaSnapshot(new Coordenada(1, 1), 1, 0xFFFF0000)), GamePhase.IN_PROGRESS);
+    }
+
+    private static WireReader open(byte[] frame, byte expectedType) throws IOException {
+        WireReader reader = new WireReader(frame, 4, frame.length - 4);
+        assertEquals(expectedType, reader.readByte());
+        return reader;
+    }
+
+    @Test
+    @DisplayName("SUBSCRIBE interpreta la frecuencia y los campos, y rechaza los desconocidos")
+    void testParse() {
+        AdminFeed todo = AdminFeed.parse(" 5");
+        assertEquals(5, todo.getRefreshHz());
+        assertEquals(WireCodec.ADMIN_FIELDS_ALL, todo.getFields());
+        assertEquals(200, todo.getPeriodMillis());
+
+        AdminFeed algunos = AdminFeed.parse("1000 ping,score board");
+        assertEquals(GameConfig.ADMIN_MAX_REFRESH_HZ, algunos.getRefreshHz());
+        assertEquals(WireCodec.ADMIN_FIELD_PING | WireCodec.ADMIN_FIELD_SCORE | WireCodec.ADMIN_FIELD_BOARD, algunos.getFields());
+
+        assertThrows(IllegalArgumentException.class, () -> AdminFeed.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> AdminFeed.parse("x"));
+        assertThrows(IllegalArgumentException.class, () -> AdminFeed.parse("5 COLOR"));
+    }
+
+    @Test
+    @DisplayName("Tras el primer envío completo solo viajan las filas que cambiaron y las que se fueron")
+    void testRowDiffs() throws IOException {
+        AdminFeed feed = new AdminFeed(10, WireCodec.ADMIN_FIELD_SCORE);
+        List<byte[]> primero = feed.update(GamePhase.IN_PROGRESS, Arrays.asList(fila("Alice", 1, 0), fila("Bob", 1, 0)), null);
+        assertEquals(1, primero.size());
+        assertEquals(2, WireCodec.decodeAdminRows(open(primero.get(0), WireCodec.ADMIN_ROWS)).getChanged().size());
+
+        // El uptime no está suscrito: que avance no genera envíos.
+        assertTrue(feed.update(GamePhase.IN_PROGRESS, Arrays.asList(fila("Alice", 2, 0), fila("Bob", 2, 0)), null).isEmpty());
+
+        List<byte[]> cambio = feed.update(GamePhase.IN_PROGRESS, Collections.singletonList(fila("Alice", 3, 4)), null);
+        AdminRowsDelta delta = WireCodec.decodeAdminRows(open(cambio.get(0), WireCodec.ADMIN_ROWS));
+        assertEquals(1, delta.getChanged().size());
+        assertEquals(4, delta.getChanged().get(0).getScore());
+        assertEquals(Collections.singletonList("Bob"), delta.getRemoved());
+
+        feed.reset();
+        assertEquals(1, feed.update(GamePhase.IN_PROGRESS, Collections.singletonList(fila("Alice", 3, 4)), null).size(),
+                "Tras reset se reenvía todo.");
+    }
+
+    @Test
+    @DisplayName("El tablero se envía completo una vez y después como delta sobre el último enviado")
+    void testBoardDeltas() throws IOException {
+        AdminFeed feed = new AdminFeed(10, WireCodec.ADMIN_FIELD_BOARD);
+        SnapshotHistory consola = new SnapshotHistory(1);
+        List<PlayerData> sinJugadores = Collections.emptyList();
+
+        List<byte[]> primero = feed.update(GamePhase.IN_PROGRESS, sinJugadores, tablero(10, 5));
+        assertEquals(2, primero.size(), "Filas (la fase) y tablero completo.");
+        consola.add(WireCodec.decodeSnapshot(open(primero.get(1), WireCodec.SNAPSHOT), null));
+
+        assertTrue(feed.update(GamePhase.IN_PROGRESS, sinJugadores, tablero(10, 5)).isEmpty(), "Mismo tick: nada que enviar.");
+
+        // La consola refresca más despacio que el tick: el delta abarca tres ticks.
+        List<byte[]> siguiente = feed.update(GamePhase.IN_PROGRESS, sinJugadores, tablero(13, 8));
+        assertEquals(1, siguiente.size());
+        GameStateSnapshot aplicado = WireCodec.decodeDelta(open(siguiente.get(0), WireCodec.DELTA), consola, null);
+        assertNotNull(aplicado);
+        assertEquals(13, aplicado.tick);
+        assertEquals(tablero(13, 8).snakes.get(0).cuerpo, aplicado.snakes.get(0).cuerpo);
+    }
+}
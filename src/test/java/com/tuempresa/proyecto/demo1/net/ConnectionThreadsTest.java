@@ -0,0 +1,48 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.tuempresa.proyecto.demo1.game.GameConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionThreadsTest {
+
+    @Test
+    @DisplayName("Arranca la tarea con el nombre pedido, con o sin hilos virtuales")
+    void testStartRunsTask() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> name = new AtomicReference<>();
+
+        Thread thread = ConnectionThreads.start("conexion-test", () -> {
+            name.set(Thread.currentThread().getName());
+            done.countDown();
+        }, true);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        thread.join(5000);
+        assertEquals("conexion-test", name.get());
+        assertTrue(thread.isDaemon());
+        assertEquals(GameConfig.USE_VIRTUAL_THREADS && ConnectionThreads.virtualThreadsAvailable(), ConnectionThreads.isVirtual(),
+                "Sin hilos virtuales disponibles se usan hilos de plataforma.");
+        assertEquals(ConnectionThreads.isVirtual(), VirtualThreads.isVirtual(thread),
+                "Con el perfil virtual-threads el hilo debe ser realmente virtual.");
+    }
+
+    @Test
+    @DisplayName("VirtualThreads.unstarted devuelve un hilo utilizable en cualquier build")
+    void testUnstartedEnCualquierBuild() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Thread thread = VirtualThreads.unstarted("sin-comprobar", done::countDown);
+
+        assertEquals("sin-comprobar", thread.getName());
+        assertEquals(Thread.State.NEW, thread.getState());
+        assertEquals(VirtualThreads.AVAILABLE, VirtualThreads.isVirtual(thread));
+        thread.start();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,164 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.tuempresa.proyecto.demo1.net.codec.WireWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameBatchTest {
+
+    /** Canal en memoria que acepta como mucho {@code maxPerWrite} bytes por llamada, como un socket con la ventana llena. */
+    private static final class ThrottledChannel implements GatheringByteChannel {
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        final int maxPerWrite;
+        int writeCalls;
+
+        ThrottledChannel(int maxPerWrite) {
+            this.maxPerWrite = maxPerWrite;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            writeCalls++;
+            int budget = maxPerWrite;
+            long total = 0;
+            for (int i = offset; i < offset + length && budget > 0; i++) {
+                while (srcs[i].hasRemaining() && budget > 0) {
+                    written.write(srcs[i].get());
+                    budget--;
+                    total++;
+                }
+            }
+            return total;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            return (int) write(new ByteBuffer[]{src}, 0, 1);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private final PacketPool pool = new PacketPool(4);
+
+    private Packet sharedPacket(int... bytes) {
+        WireWriter writer = new WireWriter();
+        for (int b : bytes) {
+            writer.writeByte(b);
+        }
+        return pool.encode(writer);
+    }
+
+    @Test
+    @DisplayName("Varios frames salen en una sola escritura agrupada")
+    void testGatheringWrite() throws Exception {
+        OutboundQueue queue = new OutboundQueue(16, 1000);
+        queue.offerControl(new Packet(new byte[]{1, 2}), 0);
+        queue.offerControl(new Packet(new byte[]{3}), 0);
+        queue.offerState(sharedPacket(4, 5, 6), 0);
+
+        FrameBatch batch = new FrameBatch();
+        ThrottledChannel channel = new ThrottledChannel(Integer.MAX_VALUE);
+        assertTrue(batch.fill(queue));
+        assertTrue(batch.writeTo(channel));
+
+        assertEquals(1, channel.writeCalls);
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6}, channel.written.toByteArray());
+        assertFalse(batch.fill(queue));
+    }
+
+    @Test
+    @DisplayName("Una escritura parcial continúa donde se quedó")
+    void testPartialWrites() throws Exception {
+        FrameBatch batch = new FrameBatch();
+        batch.add(sharedPacket(1, 2, 3));
+        batch.add(sharedPacket(4, 5));
+        ThrottledChannel channel = new ThrottledChannel(2);
+
+        assertFalse(batch.writeTo(channel));
+        assertFalse(batch.writeTo(channel));
+        assertTrue(batch.writeTo(channel));
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, channel.written.toByteArray());
+    }
+
+    @Test
+    @DisplayName("El mismo frame compartido se escribe completo a cada conexión")
+    void testSharedPacketIsReusable() throws Exception {
+        Packet packet = sharedPacket(7, 8, 9);
+        for (int i = 0; i < 3; i++) {
+            FrameBatch batch = new FrameBatch();
+            batch.add(packet.retain()); // Cada conexión tiene su propia referencia
+            ThrottledChannel channel = new ThrottledChannel(1);
+            while (!batch.writeTo(channel)) {
+                // Reintentar hasta completar
+            }
+            assertArrayEquals(new byte[]{7, 8, 9}, channel.written.toByteArray());
+        }
+        assertEquals(3, packet.size());
+        assertTrue(packet.view().isReadOnly());
+        assertEquals(1, packet.refCount(), "Cada lote suelta su referencia al terminar de escribir");
+    }
+
+    @Test
+    @DisplayName("El buffer de un frame vuelve al pool cuando lo han escrito todas las colas")
+    void testBufferReturnsToPoolAfterLastWrite() throws Exception {
+        Packet packet = sharedPacket(1, 2, 3);
+        OutboundQueue rapida = new OutboundQueue(16, 1000);
+        OutboundQueue lenta = new OutboundQueue(16, 1000);
+        rapida.offerState(packet, 0);
+        lenta.offerState(packet, 0);
+        packet.release(); // El tick suelta la suya tras repartirlo
+        assertEquals(2, packet.refCount());
+
+        FrameBatch batch = new FrameBatch();
+        batch.fill(rapida);
+        assertTrue(batch.writeTo(new ThrottledChannel(Integer.MAX_VALUE)));
+        assertEquals(1, packet.refCount(), "La cola lenta aún no lo ha escrito");
+
+        lenta.offerState(sharedPacket(4), 0); // Latest-wins: el estado viejo se descarta
+        assertEquals(0, packet.refCount());
+        assertEquals(2, pool.getAllocations());
+        sharedPacket(5).release();
+        assertEquals(2, pool.getAllocations(), "El frame nuevo reutiliza el buffer devuelto");
+        lenta.close();
+    }
+
+    @Test
+    @DisplayName("Cerrar la cola o vaciar un lote sin escribir suelta sus frames")
+    void testCloseReleasesPendingFrames() {
+        Packet estado = sharedPacket(1);
+        Packet control = sharedPacket(2);
+        OutboundQueue queue = new OutboundQueue(16, 1000);
+        queue.offerState(estado, 0);
+        queue.offerControl(control, 0);
+        FrameBatch batch = new FrameBatch();
+        batch.fill(queue);
+        queue.offerState(estado, 0);
+
+        queue.close();
+        batch.clear();
+        assertEquals(1, estado.refCount());
+        assertEquals(1, control.refCount());
+        estado.release();
+        control.release();
+        assertThrows(IllegalStateException.class, estado::release, "Liberar de más es un error, no un buffer reutilizado en silencio");
+    }
+}
@@ -0,0 +1,147 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.tuempresa.proyecto.demo1.game.TickPhaseStats;
+import com.tuempresa.proyecto.demo1.model.GamePhase;
+import com.tuempresa.proyecto.demo1.net.codec.WireCodec;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.SnakeSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameRoomTest {
+
+    private GameServer server;
+    private final List<GameClient> clients = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        server = new GameServer(true);
+        server.start();
+        Thread.sleep(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clients.forEach(GameClient::disconnect);
+        server.stop();
+    }
+
+    private GameClient connect(String playerId, int room) throws Exception {
+        GameClient client = new GameClient(true);
+        Thread clientThread = new Thread(() -> {
+            try {
+                client.start("localhost", 12345, playerId, room);
+            } catch (IOException e) {
+                // Esperado al desconectar
+            }
+        });
+        clientThread.setDaemon(true);
+        clientThread.start();
+        clients.add(client);
+        client.getPlayerIdFuture().get(5, TimeUnit.SECONDS);
+        return client;
+    }
+
+    private static List<String> jugadoresVistos(GameClient client) throws InterruptedException {
+        GameStateSnapshot snapshot;
+        while ((snapshot = client.getLastSnapshot()) == null) {
+            Thread.sleep(20);
+        }
+        List<String> ids = new ArrayList<>();
+        for (SnakeSnapshot snake : snapshot.snakes) {
+            ids.add(snake.idJugador);
+        }
+        return ids;
+    }
+
+    @Test
+    @DisplayName("Cada sala es una partida independiente con su propio broadcast")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testRoomsAreIsolated() throws Exception {
+        GameClient enSalaPorDefecto = connect("Lobby-A", WireCodec.ANY_ROOM);
+        GameClient enSala7 = connect("Sala7-A", 7);
+        GameClient enSala7Tambien = connect("Sala7-B", 7);
+
+        while (jugadoresVistos(enSala7).size() < 2) {
+            Thread.sleep(20);
+        }
+        assertEquals(2, server.getRoomCount());
+        assertEquals(java.util.Collections.singletonList("Lobby-A"), jugadoresVistos(enSalaPorDefecto));
+        assertFalse(jugadoresVistos(enSala7Tambien).contains("Lobby-A"));
+    }
+
+    @Test
+    @DisplayName("Una sala distinta de la por defecto se cierra al quedarse vacía")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testEmptyRoomIsClosed() throws Exception {
+        GameClient client = connect("Solitario", 3);
+        jugadoresVistos(client);
+        assertEquals(2, server.getRoomCount());
+
+        client.disconnect();
+        while (server.getRoomCount() > 1) {
+            Thread.sleep(20);
+        }
+        assertNotNull(server.getRoom(GameServer.DEFAULT_ROOM), "La sala por defecto nunca se cierra.");
+    }
+
+    @Test
+    @DisplayName("El tick registra la duración de sus fases y el informe se puede volcar a un fichero")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testTickPhasesAreRecorded() throws Exception {
+        GameClient client = connect("Medido", WireCodec.ANY_ROOM);
+        jugadoresVistos(client);
+        TickPhaseStats stats = server.getRoom(GameServer.DEFAULT_ROOM).getTickStats();
+        while (stats.get(TickPhaseStats.Phase.CLIENT_SEND).getTotal() == 0) {
+            Thread.sleep(20);
+        }
+        assertTrue(stats.get(TickPhaseStats.Phase.TOTAL).getTotal() > 0);
+        assertTrue(stats.get(TickPhaseStats.Phase.SNAPSHOT_BUILD).getTotal() > 0);
+        assertTrue(stats.get(TickPhaseStats.Phase.SERIALIZATION).percentil(0.5) > 0);
+
+        Path file = Files.createTempFile("tick-stats", ".txt");
+        try {
+            assertTrue(server.dumpTickStats(file));
+            String report = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            assertTrue(report.contains("Sala 0"), report);
+            assertTrue(report.contains("envio/cliente"), report);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Los comandos de admin que cambian la partida se aplican en el tick, no en el hilo del admin")
+    void testAdminCommandsAppliedByTick() {
+        GameRoom room = new GameRoom(7); // Sin programar: los ticks se ejecutan a mano
+        room.registerPlayer("Admin-Test", InetAddress.getLoopbackAddress());
+
+        assertEquals("Juego iniciado.", room.handleAdminCommand("START_GAME"));
+        assertEquals(GamePhase.WAITING_FOR_PLAYERS, room.getGamePhase(), "Nada cambia hasta el tick");
+        assertEquals("No hay jugadores conectados.", room.handleAdminCommand("LIST_PLAYERS"));
+
+        room.tick();
+        assertEquals(GamePhase.IN_PROGRESS, room.getGamePhase());
+        assertTrue(room.handleAdminCommand("LIST_PLAYERS").contains("Admin-Test"));
+        assertTrue(room.handleAdminCommand("START_GAME").startsWith("Error"));
+
+        room.handleAdminCommand("RESET_GAME");
+        assertEquals(GamePhase.IN_PROGRESS, room.getGamePhase());
+        room.tick();
+        assertEquals(GamePhase.WAITING_FOR_PLAYERS, room.getGamePhase());
+    }
+}
@@ -0,0 +1,75 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsEndpointTest {
+
+    private MetricsEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Servidor sin arrancar: solo la sala por defecto, sin tick ni sockets de juego.
+        endpoint = new MetricsEndpoint(new GameServer(true), 0);
+        endpoint.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.stop();
+    }
+
+    private HttpURLConnection open(String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + endpoint.getPort() + "/metrics").openConnection();
+        connection.setRequestMethod(method);
+        return connection;
+    }
+
+    @Test
+    @DisplayName("GET /metrics devuelve las métricas de las salas y de la JVM en formato de texto")
+    void testScrape() throws IOException {
+        HttpURLConnection connection = open("GET");
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(connection.getContentType().startsWith("text/plain"));
+        String body;
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, read);
+            }
+            body = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        assertTrue(body.contains("snake_rooms 1\n"), body);
+        assertTrue(body.contains("snake_room_players{room=\"0\"} 0\n"), body);
+        assertTrue(body.contains("snake_tick_phase_seconds{room=\"0\",phase=\"client_send\",quantile=\"0.99\"} "), body);
+        assertTrue(body.contains("snake_room_sent_bytes_total{room=\"0\"} 0\n"), body);
+        assertTrue(body.contains("# TYPE jvm_gc_collections_total counter\n"), body);
+        assertTrue(body.contains("jvm_gc_pause_seconds_count "), body);
+    }
+
+    @Test
+    @DisplayName("Solo se aceptan lecturas")
+    void testRejectsOtherMethods() throws IOException {
+        assertEquals(405, open("POST").getResponseCode());
+    }
+
+    @Test
+    @DisplayName("Los IDs de jugador se escapan en las etiquetas")
+    void testEscapesLabels() {
+        assertEquals("a\\\"b\\\\c\\nd", MetricsEndpoint.escape("a\"b\\c\nd"));
+    }
+}
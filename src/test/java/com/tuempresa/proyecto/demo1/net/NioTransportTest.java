@@ -0,0 +1,70 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioTransportTest {
+
+    private GameServer server;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        server = new GameServer(true); // Transporte NIO
+        server.start();
+        Thread.sleep(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    @DisplayName("Con transporte NIO los clientes se conectan y reciben el estado del juego")
+    @Timeout(value = 15, unit = TimeUnit.SECONDS)
+    void testClientsReceiveSnapshotsOverNio() throws Exception {
+        int numberOfClients = 50;
+        List<GameClient> clients = new ArrayList<>();
+        for (int i = 0; i < numberOfClients; i++) {
+            GameClient client = new GameClient(true);
+            String playerId = "NioPlayer" + i;
+            Thread clientThread = new Thread(() -> {
+                try {
+                    client.start("localhost", 12345, playerId);
+                } catch (IOException e) {
+                    // Esperado al desconectar
+                }
+            });
+            clientThread.setDaemon(true);
+            clientThread.start();
+            clients.add(client);
+        }
+
+        for (GameClient client : clients) {
+            client.getPlayerIdFuture().get(5, TimeUnit.SECONDS);
+        }
+
+        for (GameClient client : clients) {
+            while (client.getLastSnapshot() == null) {
+                Thread.sleep(20);
+            }
+            // Cada cliente debe ver a todos los jugadores conectados en algún broadcast.
+            while (client.getLastSnapshot().snakes.size() < numberOfClients) {
+                Thread.sleep(20);
+            }
+            assertEquals(numberOfClients, client.getLastSnapshot().snakes.size());
+        }
+
+        clients.forEach(GameClient::disconnect);
+    }
+}
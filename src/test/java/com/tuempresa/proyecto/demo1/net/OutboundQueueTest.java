@@ -0,0 +1,105 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundQueueTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static Packet packet(int id) {
+        return new Packet(new byte[]{(byte) id});
+    }
+
+    @Test
+    @DisplayName("Un estado sin enviar se sustituye por el más reciente")
+    void testStateIsLatestWins() {
+        OutboundQueue queue = new OutboundQueue(16, 1000);
+        Packet viejo = packet(1);
+        Packet nuevo = packet(2);
+
+        assertTrue(queue.offerState(viejo, 0));
+        assertTrue(queue.offerState(nuevo, MS));
+
+        assertSame(nuevo, queue.poll());
+        assertNull(queue.poll());
+        assertEquals(1, queue.getDroppedStates());
+    }
+
+    @Test
+    @DisplayName("Los frames de control nunca se descartan y salen antes que el estado pendiente")
+    void testControlFramesAreDeliveredInOrderBeforeState() {
+        OutboundQueue queue = new OutboundQueue(16, 1000);
+        Packet estado = packet(0);
+        Packet ids1 = packet(1);
+        Packet ids2 = packet(2);
+
+        queue.offerState(estado, 0);
+        queue.offerControl(ids1, 0);
+        queue.offerControl(ids2, 0);
+
+        assertSame(ids1, queue.poll());
+        assertSame(ids2, queue.poll());
+        assertSame(estado, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Un cliente que no vacía su cola dentro del presupuesto de retraso debe expulsarse")
+    void testLagBudgetEviction() {
+        OutboundQueue queue = new OutboundQueue(16, 100);
+
+        assertTrue(queue.offerState(packet(1), 0));
+        assertTrue(queue.offerState(packet(2), 50 * MS));
+        assertFalse(queue.offerState(packet(3), 150 * MS), "Lleva 150 ms sin vaciarse con un presupuesto de 100 ms.");
+    }
+
+    @Test
+    @DisplayName("Vaciar la cola reinicia la medida de retraso")
+    void testDrainResetsLag() {
+        OutboundQueue queue = new OutboundQueue(16, 100);
+
+        assertTrue(queue.offerState(packet(1), 0));
+        assertNotNull(queue.poll());
+        assertTrue(queue.markDrained());
+
+        assertTrue(queue.offerState(packet(2), 500 * MS), "Un cliente al día no debe acumular retraso.");
+        assertTrue(queue.offerState(packet(3), 550 * MS));
+    }
+
+    @Test
+    @DisplayName("Una cola de control llena rechaza más frames")
+    void testControlQueueIsBounded() {
+        OutboundQueue queue = new OutboundQueue(2, 1000);
+
+        assertTrue(queue.offerControl(packet(1), 0));
+        assertTrue(queue.offerControl(packet(2), 0));
+        assertFalse(queue.offerControl(packet(3), 0));
+    }
+
+    @Test
+    @DisplayName("Cerrar la cola despierta al writer bloqueado")
+    void testCloseWakesBlockedWriter() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(16, 1000);
+        Packet[] taken = {packet(9)};
+        Thread writer = new Thread(() -> {
+            try {
+                taken[0] = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writer.start();
+        Thread.sleep(100);
+        queue.close();
+        writer.join(1000);
+
+        assertFalse(writer.isAlive());
+        assertNull(taken[0]);
+        assertFalse(queue.offerState(packet(1), 0), "Una cola cerrada no acepta más frames.");
+    }
+}
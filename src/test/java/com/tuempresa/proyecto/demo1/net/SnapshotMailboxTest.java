@@ -0,0 +1,79 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotMailboxTest {
+
+    private static byte[] frame(int id) {
+        return new byte[]{(byte) id};
+    }
+
+    @Test
+    @DisplayName("Un estado sin decodificar se sustituye por el más reciente")
+    void testStateIsLatestWins() throws Exception {
+        SnapshotMailbox mailbox = new SnapshotMailbox();
+        byte[] viejo = frame(1);
+        byte[] medio = frame(2);
+        byte[] nuevo = frame(3);
+
+        mailbox.offerState(viejo);
+        mailbox.offerState(medio);
+        mailbox.offerState(nuevo);
+
+        assertSame(nuevo, mailbox.take());
+        assertEquals(2, mailbox.getDroppedStates());
+    }
+
+    @Test
+    @DisplayName("Los frames de control se entregan todos, en orden y antes que el estado pendiente")
+    void testControlBeforeState() throws Exception {
+        SnapshotMailbox mailbox = new SnapshotMailbox();
+        byte[] estado = frame(0);
+        byte[] ids1 = frame(1);
+        byte[] ids2 = frame(2);
+
+        mailbox.offerState(estado);
+        mailbox.offerControl(ids1);
+        mailbox.offerControl(ids2);
+        mailbox.close();
+
+        assertSame(ids1, mailbox.take());
+        assertSame(ids2, mailbox.take());
+        assertSame(estado, mailbox.take(), "Cerrar no descarta lo pendiente.");
+        assertNull(mailbox.take());
+        assertEquals(0, mailbox.getDroppedStates());
+    }
+
+    @Test
+    @DisplayName("take espera al siguiente frame y se desbloquea al cerrar")
+    void testTakeBlocksUntilOfferOrClose() throws Exception {
+        SnapshotMailbox mailbox = new SnapshotMailbox();
+        byte[] estado = frame(7);
+
+        CompletableFuture<byte[]> primero = CompletableFuture.supplyAsync(() -> take(mailbox));
+        Thread.sleep(50);
+        assertFalse(primero.isDone());
+        mailbox.offerState(estado);
+        assertSame(estado, primero.get(2, TimeUnit.SECONDS));
+
+        CompletableFuture<byte[]> segundo = CompletableFuture.supplyAsync(() -> take(mailbox));
+        Thread.sleep(50);
+        assertFalse(segundo.isDone());
+        mailbox.close();
+        assertNull(segundo.get(2, TimeUnit.SECONDS));
+    }
+
+    private static byte[] take(SnapshotMailbox mailbox) {
+        try {
+            return mailbox.take();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
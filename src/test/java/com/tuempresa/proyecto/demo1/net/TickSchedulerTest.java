@@ -0,0 +1,99 @@
+package com.tuempresa.proyecto.demo1.net;
+
+import com.tuempresa.proyecto.demo1.game.TickPhaseStats;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickSchedulerTest {
+
+    private static final long PERIODO_MS = 10;
+    private static final long PERIODO = TimeUnit.MILLISECONDS.toNanos(PERIODO_MS);
+
+    // Cada tick registra su duración total, se envíe o no el estado.
+    private static long simulados(GameRoom room) {
+        return room.getTickStats().get(TickPhaseStats.Phase.TOTAL).getTotal();
+    }
+
+    @Test
+    @DisplayName("Las salas avanzan al ritmo configurado y dejan de hacerlo al quitarlas")
+    void testRitmoFijo() throws InterruptedException {
+        TickScheduler scheduler = new TickScheduler(1, PERIODO_MS, 1, 3, 1000);
+        GameRoom room = new GameRoom(1);
+        scheduler.add(room);
+        scheduler.start();
+        try {
+            Thread.sleep(300);
+            long ticks = simulados(room);
+            assertTrue(ticks >= 10 && ticks <= 40, "Unos 30 ticks en 300 ms, fueron " + ticks);
+
+            scheduler.remove(room);
+            Thread.sleep(50); // Un tick en curso termina
+            long alQuitar = simulados(room);
+            Thread.sleep(100);
+            assertEquals(alQuitar, simulados(room));
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Con TICKS_POR_BROADCAST=3 se simula cada tick pero se envía uno de cada tres")
+    void testBroadcastDesacoplado() {
+        TickScheduler scheduler = new TickScheduler(1, PERIODO_MS, 3, 3, 1000);
+        GameRoom room = new GameRoom(1);
+        TickScheduler.RoomClock clock = new TickScheduler.RoomClock(room, System.nanoTime());
+
+        int envios = 0;
+        GameStateSnapshot anterior = null;
+        for (int i = 0; i < 6; i++) {
+            scheduler.runIfDue(clock, clock.deadline); // Siempre puntual
+            if (room.getLatestSnapshot() != anterior) {
+                envios++;
+                anterior = room.getLatestSnapshot();
+                assertEquals(simulados(room), anterior.tick);
+            }
+        }
+
+        assertEquals(6, simulados(room));
+        assertEquals(2, envios);
+        assertEquals(0, scheduler.getMissedDeadlines());
+        assertFalse(scheduler.isOverloaded());
+    }
+
+    @Test
+    @DisplayName("Tras una parada la recuperación está acotada, se cuentan los plazos perdidos y se entra en sobrecarga")
+    void testRecuperacionAcotada() {
+        TickScheduler scheduler = new TickScheduler(1, PERIODO_MS, 1, 3, 1000);
+        GameRoom room = new GameRoom(1);
+        long inicio = System.nanoTime();
+        TickScheduler.RoomClock clock = new TickScheduler.RoomClock(room, inicio);
+        scheduler.runIfDue(clock, inicio);
+        GameStateSnapshot antes = room.getLatestSnapshot();
+        assertNotNull(antes);
+
+        // Parada de unos diez periodos (una pausa de GC, por ejemplo)
+        long ahora = inicio + 10 * PERIODO + PERIODO / 10;
+        int recuperados = 0;
+        while (clock.deadline - ahora <= 0) {
+            scheduler.runIfDue(clock, ahora);
+            recuperados++;
+            if (clock.deadline - ahora <= 0) {
+                assertSame(antes, room.getLatestSnapshot(), "No se envían estados intermedios al recuperar");
+            }
+        }
+
+        assertEquals(4, recuperados, "Como mucho MAX_TICKS_RECUPERACION ticks atrasados más el actual");
+        assertEquals(6, scheduler.getSkippedTicks());
+        assertEquals(3, scheduler.getMissedDeadlines());
+        assertEquals(5, scheduler.getTicks());
+        assertNotSame(antes, room.getLatestSnapshot(), "Al ponerse al día se envía el estado actual");
+        assertEquals(simulados(room), room.getLatestSnapshot().tick);
+        assertTrue(scheduler.isOverloaded());
+        assertEquals(1, scheduler.getOverloadEpisodes());
+    }
+}
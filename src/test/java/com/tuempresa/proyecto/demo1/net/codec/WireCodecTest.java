@@ -0,0 +1,315 @@
+package com.tuempresa.proyecto.demo1.net.codec;
+
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.Direccion;
+import com.tuempresa.proyecto.demo1.model.GamePhase;
+import com.tuempresa.proyecto.demo1.net.dto.AdminRowsDelta;
+import com.tuempresa.proyecto.demo1.net.dto.FrutaSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.PlayerData;
+import com.tuempresa.proyecto.demo1.net.dto.SnakeSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireCodecTest {
+
+    // Lee la cabecera de un frame y devuelve un reader posicionado tras el tipo.
+    private static WireReader openFrame(byte[] frame, byte expectedType) throws IOException {
+        WireReader reader = new WireReader(frame, 0, frame.length);
+        assertEquals(frame.length - 4, reader.readInt(), "La cabecera debe indicar la longitud del frame.");
+        assertEquals(expectedType, reader.readByte());
+        return reader;
+    }
+
+    private static List<Coordenada> cuerpoHorizontal(int headX, int y, int length) {
+        List<Coordenada> cuerpo = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            cuerpo.add(new Coordenada(headX - i, y));
+        }
+        return cuerpo;
+    }
+
+    @Test
+    @DisplayName("Un snapshot codificado y decodificado debe ser equivalente al original")
+    void testSnapshotRoundTrip() throws IOException {
+        PlayerIdTable serverIds = new PlayerIdTable();
+        serverIds.intern("Alice");
+
+        List<Coordenada> cuerpoConGiro = new ArrayList<>(cuerpoHorizontal(10, 5, 6));
+        cuerpoConGiro.add(new Coordenada(5, 6));
+        cuerpoConGiro.add(new Coordenada(5, 7));
+        List<SnakeSnapshot> snakes = Arrays.asList(
+                new SnakeSnapshot("Alice", 12, cuerpoConGiro, 2, 0xFF00FF00),
+                // Sin internar y con un cuerpo no contiguo: debe viajar en texto y con coordenadas varint.
+                new SnakeSnapshot("Bob", 0, Arrays.asList(new Coordenada(1, 1), new Coordenada(3, 4)), 0, -1));
+        List<FrutaSnapshot> frutas = Collections.singletonList(new FrutaSnapshot(new Coordenada(29, 19), 3, 0xFFFFD700));
+        GameStateSnapshot original = new GameStateSnapshot(30, 20, snakes, frutas, GamePhase.IN_PROGRESS);
+
+        WireWriter writer = new WireWriter();
+        serverIds.drainPendingDefinitions(writer);
+        byte[] idsFrame = writer.toByteArray();
+        writer.reset();
+        WireCodec.encodeSnapshot(writer, original, serverIds);
+        byte[] snapshotFrame = writer.toByteArray();
+
+        PlayerIdTable clientIds = new PlayerIdTable();
+        WireCodec.decodePlayerIds(openFrame(idsFrame, WireCodec.PLAYER_IDS), clientIds);
+        GameStateSnapshot decoded = WireCodec.decodeSnapshot(openFrame(snapshotFrame, WireCodec.SNAPSHOT), clientIds);
+
+        assertEquals(30, decoded.width);
+        assertEquals(20, decoded.height);
+        assertEquals(GamePhase.IN_PROGRESS, decoded.gamePhase);
+        assertEquals(2, decoded.snakes.size());
+        for (int i = 0; i < snakes.size(); i++) {
+            SnakeSnapshot expected = snakes.get(i);
+            SnakeSnapshot actual = decoded.snakes.get(i);
+            assertEquals(expected.idJugador, actual.idJugador);
+            assertEquals(expected.puntaje, actual.puntaje);
+            assertEquals(expected.segmentosPorCrecer, actual.segmentosPorCrecer);
+            assertEquals(expected.colorRgb, actual.colorRgb);
+            assertEquals(expected.cuerpo, actual.cuerpo);
+        }
+        assertEquals(1, decoded.frutas.size());
+        assertEquals(new Coordenada(29, 19), decoded.frutas.get(0).coordenada);
+        assertEquals(3, decoded.frutas.get(0).valor);
+        assertEquals(0xFFFFD700, decoded.frutas.get(0).colorRgb);
+    }
+
+    @Test
+    @DisplayName("El snapshot binario debe ser al menos 10 veces más pequeño que la serialización Java")
+    void testSnapshotIsMuchSmallerThanJavaSerialization() throws IOException {
+        PlayerIdTable ids = new PlayerIdTable();
+        List<SnakeSnapshot> snakes = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String id = "Player-" + i;
+            ids.intern(id);
+            snakes.add(new SnakeSnapshot(id, 40, cuerpoHorizontal(60, i * 2, 50), 0, 0xFF00FFFF));
+        }
+        GameStateSnapshot snapshot = new GameStateSnapshot(100, 100, snakes, Collections.emptyList(), GamePhase.IN_PROGRESS);
+
+        WireWriter writer = new WireWriter();
+        WireCodec.encodeSnapshot(writer, snapshot, ids);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(snapshot);
+        }
+
+        assertTrue(writer.size() * 10 <= baos.size(),
+                "Binario: " + writer.size() + " bytes, serialización Java: " + baos.size() + " bytes");
+    }
+
+    @Test
+    @DisplayName("Los comandos de administración conocidos y desconocidos deben sobrevivir a la codificación")
+    void testAdminCommandRoundTrip() throws IOException {
+        for (String command : Arrays.asList("START_GAME", "RESET_GAME", "KICK_PLAYER Player-42", "SUBSCRIBE 5 PING BOARD", "CUSTOM something")) {
+            byte[] frame = WireCodec.encodeAdminCommand(command);
+            assertEquals(command, WireCodec.decodeAdminCommand(openFrame(frame, WireCodec.ADMIN_COMMAND)));
+        }
+    }
+
+    @Test
+    @DisplayName("La respuesta a un comando de administración conserva el texto, saltos de línea incluidos")
+    void testAdminReplyRoundTrip() throws IOException {
+        String reply = "Salas activas:\n- Sala 0: 3 jugadores (IN_PROGRESS)\n";
+        assertEquals(reply, WireCodec.decodeAdminReply(openFrame(WireCodec.encodeAdminReply(reply), WireCodec.ADMIN_REPLY)));
+    }
+
+    @Test
+    @DisplayName("El HELLO lleva la sala pedida y sin ella deja elegir al servidor")
+    void testHelloRoom() throws IOException {
+        WireReader withRoom = openFrame(WireCodec.encodeHello("Player-1", 37), WireCodec.HELLO);
+        assertEquals("Player-1", withRoom.readString());
+        assertEquals(37, WireCodec.decodeHelloRoom(withRoom));
+
+        WireReader legacy = openFrame(WireCodec.encodeHello("Player-2"), WireCodec.HELLO);
+        assertEquals("Player-2", legacy.readString());
+        assertEquals(WireCodec.ANY_ROOM, WireCodec.decodeHelloRoom(legacy));
+    }
+
+    @Test
+    @DisplayName("Dirección y ping deben codificarse en frames de tamaño fijo")
+    void testSmallMessages() throws IOException {
+        byte[] direction = WireCodec.encodeDirection(Direccion.IZQUIERDA);
+        assertEquals(6, direction.length);
+        assertEquals(Direccion.IZQUIERDA, WireCodec.decodeDirection(openFrame(direction, WireCodec.DIRECTION)));
+
+        byte[] pong = WireCodec.encodePong(123456789L);
+        assertEquals(13, pong.length);
+        assertEquals(123456789L, openFrame(pong, WireCodec.PONG).readLong());
+    }
+
+    @Test
+    @DisplayName("Los índices liberados no se reutilizan inmediatamente")
+    void testPlayerIdTableDoesNotRecycleImmediately() {
+        PlayerIdTable ids = new PlayerIdTable();
+        int first = ids.intern("A");
+        ids.release("A");
+        int second = ids.intern("B");
+        assertNotEquals(first, second);
+        assertNull(ids.get(first));
+        assertEquals("B", ids.get(second));
+    }
+
+    private static void assertSameState(GameStateSnapshot expected, GameStateSnapshot actual) {
+        assertEquals(expected.tick, actual.tick);
+        assertEquals(expected.width, actual.width);
+        assertEquals(expected.height, actual.height);
+        assertEquals(expected.gamePhase, actual.gamePhase);
+        assertEquals(expected.snakes.size(), actual.snakes.size());
+        for (int i = 0; i < expected.snakes.size(); i++) {
+            SnakeSnapshot e = expected.snakes.get(i);
+            SnakeSnapshot a = actual.snakes.get(i);
+            assertEquals(e.idJugador, a.idJugador);
+            assertEquals(e.puntaje, a.puntaje);
+            assertEquals(e.segmentosPorCrecer, a.segmentosPorCrecer);
+            assertEquals(e.colorRgb, a.colorRgb);
+            assertEquals(e.cuerpo, a.cuerpo, "Cuerpo de " + e.idJugador);
+        }
+        assertEquals(expected.frutas.size(), actual.frutas.size());
+        for (FrutaSnapshot fruta : expected.frutas) {
+            assertTrue(actual.frutas.stream().anyMatch(f -> f.coordenada.equals(fruta.coordenada)
+                    && f.valor == fruta.valor && f.colorRgb == fruta.colorRgb), "Falta la fruta en " + fruta.coordenada);
+        }
+    }
+
+    @Test
+    @DisplayName("Un delta aplicado sobre su base reconstruye el estado actual")
+    void testDeltaRoundTrip() throws IOException {
+        PlayerIdTable ids = new PlayerIdTable();
+        ids.intern("Alice");
+        ids.intern("Bob");
+        ids.intern("Carol");
+        ids.intern("Dave");
+
+        FrutaSnapshot comida = new FrutaSnapshot(new Coordenada(12, 5), 1, 0xFFFF0000);
+        FrutaSnapshot intacta = new FrutaSnapshot(new Coordenada(0, 0), 2, 0xFF00FF00);
+        GameStateSnapshot base = new GameStateSnapshot(40, 30, 20, Arrays.asList(
+                new SnakeSnapshot("Alice", 3, cuerpoHorizontal(10, 5, 8), 0, 1),
+                new SnakeSnapshot("Bob", 0, cuerpoHorizontal(10, 10, 3), 0, 2),
+                new SnakeSnapshot("Carol", 7, cuerpoHorizontal(20, 15, 4), 0, 3)),
+                Arrays.asList(comida, intacta), GamePhase.IN_PROGRESS);
+
+        // Tres ticks después: Alice avanzó 3 casillas girando hacia abajo y creció 1 al comer,
+        // Bob murió, Carol no se movió, Dave se unió y apareció una fruta nueva.
+        List<Coordenada> alice = new ArrayList<>();
+        alice.add(new Coordenada(12, 6));
+        alice.add(new Coordenada(12, 5));
+        alice.add(new Coordenada(11, 5));
+        alice.addAll(cuerpoHorizontal(10, 5, 6));
+        GameStateSnapshot current = new GameStateSnapshot(43, 30, 20, Arrays.asList(
+                new SnakeSnapshot("Alice", 4, alice, 0, 1),
+                new SnakeSnapshot("Carol", 7, cuerpoHorizontal(20, 15, 4), 0, 3),
+                new SnakeSnapshot("Dave", 0, cuerpoHorizontal(5, 2, 1), 2, 4)),
+                Arrays.asList(intacta, new FrutaSnapshot(new Coordenada(3, 3), 3, 0xFFFFD700)), GamePhase.IN_PROGRESS);
+
+        WireWriter writer = new WireWriter();
+        WireCodec.encodeDelta(writer, base, current, ids);
+        byte[] frame = writer.toByteArray();
+
+        SnapshotHistory history = new SnapshotHistory(8);
+        history.add(base);
+        GameStateSnapshot decoded = WireCodec.decodeDelta(openFrame(frame, WireCodec.DELTA), history, ids);
+
+        assertNotNull(decoded);
+        assertSameState(current, decoded);
+        assertSame(base.snakes.get(2), decoded.snakes.get(1), "Una serpiente sin cambios debe reutilizar la de la base.");
+    }
+
+    @Test
+    @DisplayName("Un cuerpo que no es un desplazamiento de la base se envía completo")
+    void testDeltaWithResetBody() throws IOException {
+        PlayerIdTable ids = new PlayerIdTable();
+        ids.intern("Alice");
+        GameStateSnapshot base = new GameStateSnapshot(5, 30, 20, Collections.singletonList(
+                new SnakeSnapshot("Alice", 9, cuerpoHorizontal(25, 5, 12), 0, 1)), Collections.emptyList(), GamePhase.IN_PROGRESS);
+        GameStateSnapshot current = new GameStateSnapshot(6, 30, 20, Collections.singletonList(
+                new SnakeSnapshot("Alice", 0, Collections.singletonList(new Coordenada(10, 5)), 0, 1)), Collections.emptyList(), GamePhase.WAITING_FOR_PLAYERS);
+
+        WireWriter writer = new WireWriter();
+        WireCodec.encodeDelta(writer, base, current, ids);
+        SnapshotHistory history = new SnapshotHistory(8);
+        history.add(base);
+
+        assertSameState(current, WireCodec.decodeDelta(openFrame(writer.toByteArray(), WireCodec.DELTA), history, ids));
+    }
+
+    @Test
+    @DisplayName("Un delta cuya base ya no está en el historial no se puede aplicar")
+    void testDeltaWithMissingBase() throws IOException {
+        GameStateSnapshot base = new GameStateSnapshot(1, 30, 20, Collections.emptyList(), Collections.emptyList(), GamePhase.IN_PROGRESS);
+        GameStateSnapshot current = new GameStateSnapshot(10, 30, 20, Collections.emptyList(), Collections.emptyList(), GamePhase.IN_PROGRESS);
+        WireWriter writer = new WireWriter();
+        WireCodec.encodeDelta(writer, base, current, new PlayerIdTable());
+
+        SnapshotHistory history = new SnapshotHistory(4);
+        history.add(base);
+        history.add(new GameStateSnapshot(5, 30, 20, Collections.emptyList(), Collections.emptyList(), GamePhase.IN_PROGRESS));
+
+        assertNull(WireCodec.decodeDelta(openFrame(writer.toByteArray(), WireCodec.DELTA), history, new PlayerIdTable()));
+    }
+
+    @Test
+    @DisplayName("El delta de un tick con serpientes largas es mucho más pequeño que el snapshot completo")
+    void testDeltaIsMuchSmallerThanKeyframe() {
+        PlayerIdTable ids = new PlayerIdTable();
+        List<SnakeSnapshot> before = new ArrayList<>();
+        List<SnakeSnapshot> after = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String id = "Player-" + i;
+            ids.intern(id);
+            before.add(new SnakeSnapshot(id, 50, cuerpoHorizontal(200, i * 2, 200), 0, 0xFF00FFFF));
+            after.add(new SnakeSnapshot(id, 50, cuerpoHorizontal(201, i * 2, 200), 0, 0xFF00FFFF));
+        }
+        GameStateSnapshot base = new GameStateSnapshot(1, 300, 300, before, Collections.emptyList(), GamePhase.IN_PROGRESS);
+        GameStateSnapshot current = new GameStateSnapshot(2, 300, 300, after, Collections.emptyList(), GamePhase.IN_PROGRESS);
+
+        WireWriter keyframe = new WireWriter();
+        WireCodec.encodeSnapshot(keyframe, current, ids);
+        WireWriter delta = new WireWriter();
+        WireCodec.encodeDelta(delta, base, current, ids);
+
+        assertTrue(delta.size() * 10 <= keyframe.size(),
+                "Delta: " + delta.size() + " bytes, snapshot completo: " + keyframe.size() + " bytes");
+    }
+
+    @Test
+    @DisplayName("El ACK transporta el tick confirmado o la petición de snapshot completo")
+    void testAckRoundTrip() throws IOException {
+        assertEquals(42L, WireCodec.decodeAck(openFrame(WireCodec.encodeAck(42L), WireCodec.ACK)));
+        assertEquals(WireCodec.NO_TICK, WireCodec.decodeAck(openFrame(WireCodec.encodeAck(WireCodec.NO_TICK), WireCodec.ACK)));
+    }
+
+    @Test
+    @DisplayName("Las filas de administración solo llevan los campos suscritos")
+    void testAdminRowsRoundTrip() throws IOException {
+        int fields = WireCodec.ADMIN_FIELD_PING | WireCodec.ADMIN_FIELD_SCORE;
+        AdminRowsDelta original = new AdminRowsDelta(GamePhase.IN_PROGRESS, fields,
+                Collections.singletonList(new PlayerData("Alice", "10.0.0.1", 42, 17, "Alive", 9)),
+                Collections.singletonList("Bob"));
+
+        WireWriter writer = new WireWriter();
+        WireCodec.encodeAdminRows(writer, original);
+        AdminRowsDelta decoded = WireCodec.decodeAdminRows(openFrame(writer.toByteArray(), WireCodec.ADMIN_ROWS));
+
+        assertEquals(GamePhase.IN_PROGRESS, decoded.getGamePhase());
+        assertEquals(fields, decoded.getFields());
+        assertEquals(Collections.singletonList("Bob"), decoded.getRemoved());
+        PlayerData row = decoded.getChanged().get(0);
+        assertEquals("Alice", row.getPlayerId());
+        assertEquals(17, row.getPingMs());
+        assertEquals(9, row.getScore());
+        assertEquals("", row.getIpAddress(), "La IP no estaba suscrita.");
+        assertEquals(0, row.getConnectionDurationSeconds());
+    }
+}
@@ -0,0 +1,84 @@
+package com.tuempresa.proyecto.demo1.ui;
+
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.GamePhase;
+import com.tuempresa.proyecto.demo1.net.dto.FrutaSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.SnakeSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardLayerTest {
+
+    private static final int TILE = 10;
+    private static final Color FONDO = new Color(40, 40, 40);
+    private static final int ROJO = 0xFF0000;
+
+    private static SnakeSnapshot serpiente(int... xy) {
+        List<Coordenada> cuerpo = new ArrayList<>();
+        for (int i = 0; i < xy.length; i += 2) {
+            cuerpo.add(new Coordenada(xy[i], xy[i + 1]));
+        }
+        return new SnakeSnapshot("A", 0, cuerpo, 0, 0x00FF00);
+    }
+
+    private static GameStateSnapshot estado(SnakeSnapshot serpiente, FrutaSnapshot... frutas) {
+        List<FrutaSnapshot> listaFrutas = new ArrayList<>();
+        Collections.addAll(listaFrutas, frutas);
+        return new GameStateSnapshot(8, 6, Collections.singletonList(serpiente), listaFrutas, GamePhase.IN_PROGRESS);
+    }
+
+    private static int rgbCentro(BoardLayer capa, int x, int y) {
+        return capa.getImagen().getRGB(x * TILE + TILE / 2, y * TILE + TILE / 2) & 0xFFFFFF;
+    }
+
+    @Test
+    @DisplayName("Solo se repintan las celdas que cambian entre estados")
+    void testSoloCeldasCambiadas() {
+        BoardLayer capa = new BoardLayer(TILE, FONDO, new SpriteCache(TILE));
+        FrutaSnapshot fruta = new FrutaSnapshot(new Coordenada(6, 4), 1, ROJO);
+
+        assertEquals(new Rectangle(0, 0, 80, 60), capa.actualizar(estado(serpiente(3, 2, 2, 2, 1, 2), fruta), true),
+                "El primer estado pinta la capa entera.");
+        assertNull(capa.actualizar(estado(serpiente(3, 2, 2, 2, 1, 2), fruta), true), "Sin cambios no hay nada que repintar.");
+
+        // Avanza a la derecha: cambian la cola liberada, la cabeza vieja (ahora cuerpo) y la cabeza nueva
+        Rectangle cambiado = capa.actualizar(estado(serpiente(4, 2, 3, 2, 2, 2), fruta), true);
+        assertEquals(new Rectangle(10, 20, 40, 10), cambiado);
+        assertEquals(FONDO.getRGB() & 0xFFFFFF, rgbCentro(capa, 1, 2));
+        assertEquals(ROJO, rgbCentro(capa, 6, 4));
+    }
+
+    @Test
+    @DisplayName("Sin serpientes en la capa solo cuentan fondo y frutas")
+    void testCapaSinSerpientes() {
+        BoardLayer capa = new BoardLayer(TILE, FONDO, new SpriteCache(TILE));
+        FrutaSnapshot fruta = new FrutaSnapshot(new Coordenada(6, 4), 1, ROJO);
+        capa.actualizar(estado(serpiente(3, 2, 2, 2), fruta), false);
+
+        assertNull(capa.actualizar(estado(serpiente(4, 2, 3, 2), fruta), false));
+        assertEquals(FONDO.getRGB() & 0xFFFFFF, rgbCentro(capa, 3, 2));
+        assertEquals(new Rectangle(60, 40, 10, 10), capa.actualizar(estado(serpiente(4, 2, 3, 2)), false), "La fruta comida.");
+    }
+
+    @Test
+    @DisplayName("Cada sprite se rasteriza una sola vez por tipo y color")
+    void testSpritesEnCache() {
+        SpriteCache sprites = new SpriteCache(TILE);
+        int fruta = SpriteCache.codigo(SpriteCache.FRUTA, ROJO);
+        int cabeza = SpriteCache.codigo(SpriteCache.CABEZA, ROJO);
+
+        assertSame(sprites.sprite(fruta), sprites.sprite(fruta));
+        assertNotSame(sprites.sprite(fruta), sprites.sprite(cabeza));
+        assertEquals(SpriteCache.FRUTA, SpriteCache.tipo(fruta));
+        assertNotEquals(SpriteCache.VACIO, SpriteCache.codigo(SpriteCache.CUERPO, 0), "Una serpiente negra no es una celda vacía.");
+    }
+}
@@ -0,0 +1,104 @@
+package com.tuempresa.proyecto.demo1.ui;
+
+import com.tuempresa.proyecto.demo1.model.Coordenada;
+import com.tuempresa.proyecto.demo1.model.Direccion;
+import com.tuempresa.proyecto.demo1.model.GamePhase;
+import com.tuempresa.proyecto.demo1.net.dto.GameStateSnapshot;
+import com.tuempresa.proyecto.demo1.net.dto.SnakeSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotInterpolatorTest {
+
+    private static final long MS = 1_000_000L;
+
+    private static SnakeSnapshot serpiente(String id, int... xy) {
+        List<Coordenada> cuerpo = new ArrayList<>();
+        for (int i = 0; i < xy.length; i += 2) {
+            cuerpo.add(new Coordenada(xy[i], xy[i + 1]));
+        }
+        return new SnakeSnapshot(id, 0, cuerpo, 0, 0);
+    }
+
+    private static GameStateSnapshot estado(long tick, SnakeSnapshot... serpientes) {
+        List<SnakeSnapshot> lista = new ArrayList<>();
+        Collections.addAll(lista, serpientes);
+        return new GameStateSnapshot(tick, 20, 20, lista, Collections.emptyList(), GamePhase.IN_PROGRESS);
+    }
+
+    @Test
+    @DisplayName("Las serpientes ajenas se interpolan entre los dos últimos estados")
+    void testInterpolacion() {
+        SnapshotInterpolator interpolador = new SnapshotInterpolator();
+        interpolador.recibir(estado(1, serpiente("B", 2, 2, 1, 2)), 0);
+        GameStateSnapshot actual = estado(2, serpiente("B", 3, 2, 2, 2));
+        interpolador.recibir(actual, 150 * MS);
+        double[] p = new double[2];
+        SnakeSnapshot b = actual.snakes.get(0);
+
+        interpolador.posicion(b, 0, 0.5, null, p);
+        assertArrayEquals(new double[]{2.5, 2}, p, 1e-9);
+        interpolador.posicion(b, 1, 0.25, null, p);
+        assertArrayEquals(new double[]{1.25, 2}, p, 1e-9, "Cada segmento avanza hacia donde estaba el anterior.");
+        interpolador.posicion(b, 0, 1, null, p);
+        assertArrayEquals(new double[]{3, 2}, p, 1e-9);
+    }
+
+    @Test
+    @DisplayName("Una serpiente que reaparece lejos no se interpola a través del tablero")
+    void testReaparicionSinInterpolar() {
+        SnapshotInterpolator interpolador = new SnapshotInterpolator();
+        interpolador.recibir(estado(1, serpiente("B", 2, 2)), 0);
+        GameStateSnapshot actual = estado(2, serpiente("B", 15, 9));
+        interpolador.recibir(actual, 150 * MS);
+        double[] p = new double[2];
+
+        interpolador.posicion(actual.snakes.get(0), 0, 0.5, null, p);
+        assertArrayEquals(new double[]{15, 9}, p, 1e-9);
+    }
+
+    @Test
+    @DisplayName("La cabeza local se predice con la dirección pulsada y se reconcilia con el servidor")
+    void testPrediccionYReconciliacion() {
+        SnapshotInterpolator interpolador = new SnapshotInterpolator();
+        GameStateSnapshot actual = estado(1, serpiente("Yo", 3, 2, 2, 2));
+        interpolador.recibir(actual, 0);
+        double[] p = new double[2];
+        SnakeSnapshot yo = actual.snakes.get(0);
+
+        interpolador.posicion(yo, 0, 0.5, Direccion.ABAJO, p);
+        assertArrayEquals(new double[]{3, 2.5}, p, 1e-9, "El giro se ve antes de que responda el servidor.");
+        interpolador.posicion(yo, 1, 0.5, Direccion.ABAJO, p);
+        assertArrayEquals(new double[]{2.5, 2}, p, 1e-9);
+
+        interpolador.recibir(estado(2, serpiente("Yo", 3, 3, 3, 2)), 150 * MS);
+        assertEquals(0, interpolador.getPrediccionesFallidas());
+
+        interpolador.posicion(interpolador.getActual().snakes.get(0), 0, 0.5, Direccion.IZQUIERDA, p);
+        interpolador.recibir(estado(3, serpiente("Yo", 3, 4, 3, 3)), 300 * MS); // El giro no llegó a tiempo
+        assertEquals(1, interpolador.getPrediccionesFallidas());
+
+        interpolador.posicion(interpolador.getActual().snakes.get(0), 0, 0, Direccion.IZQUIERDA, p);
+        assertArrayEquals(new double[]{3, 4}, p, 1e-9, "Tras reconciliar se parte del estado del servidor.");
+    }
+
+    @Test
+    @DisplayName("alpha sigue el ritmo real al que llegan los estados")
+    void testAlphaMideElIntervalo() {
+        SnapshotInterpolator interpolador = new SnapshotInterpolator();
+        long llegada = 0;
+        for (int tick = 1; tick <= 60; tick++) {
+            llegada = tick * 50 * MS;
+            interpolador.recibir(estado(tick), llegada);
+        }
+        assertEquals(0.5, interpolador.alpha(llegada + 25 * MS), 0.01);
+        assertEquals(1, interpolador.alpha(llegada + 500 * MS), 1e-9, "Sin estado nuevo se queda en el último.");
+        assertEquals(0, interpolador.alpha(llegada), 1e-9);
+    }
+}
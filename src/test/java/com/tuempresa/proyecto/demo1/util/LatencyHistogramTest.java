@@ -0,0 +1,62 @@
+package com.tuempresa.proyecto.demo1.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Las cubetas son contiguas y cada una cubre como mucho 1/16 de su valor")
+    void testBucketsAreContiguous() {
+        long anterior = -1;
+        for (int i = 0; i <= LatencyHistogram.indice(LatencyHistogram.MAXIMO_NANOS); i++) {
+            long limite = LatencyHistogram.limiteSuperior(i);
+            long desde = anterior + 1;
+            assertEquals(i, LatencyHistogram.indice(desde), "Primer valor de la cubeta " + i);
+            assertEquals(i, LatencyHistogram.indice(limite), "Último valor de la cubeta " + i);
+            assertTrue(limite - desde <= Math.max(0, desde / LatencyHistogram.SUBCUBETAS), "Ancho de la cubeta " + i);
+            anterior = limite;
+        }
+        assertEquals(LatencyHistogram.MAXIMO_NANOS, anterior);
+    }
+
+    @Test
+    @DisplayName("Los percentiles caen en la cubeta del valor correspondiente")
+    void testPercentiles() {
+        LatencyHistogram histograma = new LatencyHistogram();
+        assertEquals(0, histograma.percentil(0.99), "Vacío");
+
+        for (int i = 1; i <= 1000; i++) {
+            histograma.registrar(i * 1000L); // 1 us .. 1 ms
+        }
+        assertEquals(1000, histograma.getTotal());
+        assertEquals(1_000_000, histograma.getMaximo());
+        assertAproximado(500_000, histograma.percentil(0.50));
+        assertAproximado(990_000, histograma.percentil(0.99));
+        assertEquals(1_000_000, histograma.percentil(0.999), "Acotado al máximo registrado");
+        assertEquals(1_000_000, histograma.percentil(1.0));
+
+        histograma.reiniciar();
+        assertEquals(0, histograma.getTotal());
+        assertEquals(0, histograma.percentil(0.5));
+    }
+
+    @Test
+    @DisplayName("Los valores fuera de rango se cuentan en las cubetas extremas")
+    void testOutOfRangeValues() {
+        LatencyHistogram histograma = new LatencyHistogram();
+        histograma.registrar(-5);
+        histograma.registrar(Long.MAX_VALUE);
+
+        assertEquals(2, histograma.getTotal());
+        assertEquals(0, histograma.percentil(0.5));
+        assertEquals(LatencyHistogram.MAXIMO_NANOS, histograma.percentil(1.0));
+    }
+
+    private static void assertAproximado(long esperado, long real) {
+        assertTrue(real >= esperado && real <= esperado + esperado / LatencyHistogram.SUBCUBETAS,
+                "Esperado ~" + esperado + ", obtenido " + real);
+    }
+}
@@ -9,6 +9,7 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -97,4 +98,103 @@ class LoggerTest {
         assertTrue(messageFound, "El mensaje de error no fue encontrado en el log.");
         assertTrue(exceptionFound, "La traza de la excepción no fue encontrada en el log.");
     }
+
+    @Test
+    @DisplayName("El modo síncrono no escribe dentro del monitor de la clase, que fijaría el portador de un hilo virtual")
+    void testSyncNoUsaMonitor() throws Exception {
+        Thread logger = new Thread(() -> Logger.info("Escrito sin el monitor"));
+        synchronized (Logger.class) {
+            logger.start();
+            logger.join(5000);
+            assertFalse(logger.isAlive(), "El log síncrono no debe esperar al monitor de Logger.class");
+        }
+        assertEquals(1, countLines("Escrito sin el monitor"));
+    }
+
+    private static long countLines(String text) throws IOException {
+        return Files.readAllLines(Paths.get(TEST_LOG_FILE)).stream().filter(line -> line.contains(text)).count();
+    }
+
+    @Test
+    @DisplayName("En modo asíncrono llegan al archivo todos los mensajes de varios hilos")
+    void testAsync_AllMessagesWritten() throws Exception {
+        Logger.startAsync(64, Logger.OverflowPolicy.BLOCK);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int id = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    Logger.info("async-" + id + "-" + i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Logger.flush();
+
+        assertEquals(2000, countLines("async-"), "Con BLOCK no debe perderse ningún mensaje.");
+        assertEquals(0, Logger.getDroppedMessages());
+        assertEquals(1, countLines("async-3-499"));
+    }
+
+    @Test
+    @DisplayName("Con DROP y la cola llena se descartan mensajes y se avisa de cuántos")
+    void testAsync_DropPolicyReportsDrops() throws Exception {
+        Logger.startAsync(8, Logger.OverflowPolicy.DROP);
+        // Con el lock del Logger tomado el escritor no puede avanzar, así que la cola se llena.
+        synchronized (Logger.class) {
+            for (int i = 0; i < 100; i++) {
+                Logger.info("drop-" + i);
+            }
+        }
+        Logger.flush();
+
+        assertEquals(92, Logger.getDroppedMessages());
+        assertEquals(8, countLines("drop-"));
+        assertEquals(1, countLines("92 mensajes descartados"));
+    }
+
+    @Test
+    @DisplayName("Cerrar el logger asíncrono escribe antes todo lo encolado")
+    void testAsync_CloseFlushesPendingMessages() throws Exception {
+        Logger.startAsync(4096, Logger.OverflowPolicy.DROP);
+        for (int i = 0; i < 1000; i++) {
+            Logger.warn("pendiente-" + i);
+        }
+        Logger.close();
+
+        assertFalse(Logger.isAsync());
+        assertEquals(1000, countLines("pendiente-"));
+    }
+
+    @Test
+    @DisplayName("Un mensaje por debajo del nivel de su categoría no se escribe ni se construye")
+    void testLevelFiltering_PerCategory() throws Exception {
+        Logger.setLevel(Logger.LogCategory.GAME, Logger.LogLevel.WARN);
+        int[] built = {0};
+
+        Logger.info(Logger.LogCategory.GAME, "game-info");
+        Logger.debug(Logger.LogCategory.GAME, () -> {
+            built[0]++;
+            return "game-debug";
+        });
+        Logger.warn(Logger.LogCategory.GAME, "game-warn");
+        Logger.info(Logger.LogCategory.NET, "net-info");
+
+        assertEquals(0, built[0], "El Supplier de un nivel desactivado no debe evaluarse.");
+        assertEquals(0, countLines("game-info"));
+        assertEquals(1, countLines("game-warn"));
+        assertEquals(1, countLines("net-info"), "Las demás categorías conservan su nivel.");
+
+        Logger.setLevel(Logger.LogLevel.DEBUG);
+        Logger.debug(Logger.LogCategory.GAME, () -> {
+            built[0]++;
+            return "game-debug";
+        });
+        assertEquals(1, built[0]);
+        assertEquals(1, countLines("game-debug"));
+    }
 }